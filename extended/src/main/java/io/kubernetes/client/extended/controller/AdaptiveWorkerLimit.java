@@ -0,0 +1,108 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.controller;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AdaptiveWorkerLimit computes how many workers a controller should run, between a min and a max,
+ * from the length of the work-queue and the latency of the reconciliations.
+ *
+ * <p>The limit follows additive-increase/multiplicative-decrease: on every update, the limit backs
+ * off by a tenth when the reconcile latency exceeds twice its baseline, e.g. as the apiserver slows
+ * down under the load, grows by the square root of the limit when the requests wait in the
+ * work-queue longer than they take to reconcile, and shrinks by one when the work-queue is empty.
+ * The baseline follows a lower reconcile latency at once, and a higher one slowly. The time the
+ * requests wait in the work-queue is estimated from its length and the throughput, by Little's law.
+ */
+class AdaptiveWorkerLimit {
+
+  private static final double LATENCY_TOLERANCE = 2.0;
+  private static final double BACKOFF_RATIO = 0.9;
+  private static final double BASELINE_SMOOTHING = 0.05;
+
+  private final int minLimit;
+  private final int maxLimit;
+
+  private final LongAdder reconciled = new LongAdder();
+  private final LongAdder reconcileNanos = new LongAdder();
+
+  private volatile int limit;
+  // the fields below are guarded by this
+  private double baselineLatencyNanos;
+
+  /**
+   * Constructor, the limit starts at the min.
+   *
+   * @param minLimit the min limit
+   * @param maxLimit the max limit
+   */
+  AdaptiveWorkerLimit(int minLimit, int maxLimit) {
+    if (minLimit <= 0 || maxLimit < minLimit) {
+      throw new IllegalArgumentException("limits must satisfy 0 < min <= max");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.limit = minLimit;
+  }
+
+  /**
+   * Records a reconciliation.
+   *
+   * @param latencyNanos how long the reconciliation took
+   */
+  void onReconciled(long latencyNanos) {
+    reconciled.increment();
+    reconcileNanos.add(latencyNanos);
+  }
+
+  /**
+   * Updates the limit from the reconciliations recorded since the last update.
+   *
+   * @param queueLength the current length of the work-queue
+   * @param intervalNanos the time since the last update
+   * @return the new limit
+   */
+  synchronized int update(int queueLength, long intervalNanos) {
+    long count = reconciled.sumThenReset();
+    long nanos = reconcileNanos.sumThenReset();
+    if (count == 0) {
+      // either idle, or every worker is busy with a long reconciliation
+      if (queueLength == 0) {
+        limit = Math.max(minLimit, limit - 1);
+      }
+      return limit;
+    }
+
+    double latencyNanos = (double) nanos / count;
+    if (baselineLatencyNanos == 0 || latencyNanos < baselineLatencyNanos) {
+      baselineLatencyNanos = latencyNanos;
+    } else {
+      baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) * BASELINE_SMOOTHING;
+    }
+    double waitNanos = (double) queueLength * intervalNanos / count;
+
+    if (latencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE) {
+      limit = Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+    } else if (waitNanos > latencyNanos) {
+      limit = Math.min(maxLimit, limit + Math.max(1, (int) Math.sqrt(limit)));
+    } else if (queueLength == 0) {
+      limit = Math.max(minLimit, limit - 1);
+    }
+    return limit;
+  }
+
+  int getLimit() {
+    return limit;
+  }
+}
@@ -12,19 +12,27 @@ limitations under the License.
 */
 package io.kubernetes.client.extended.controller;
 
+import io.kubernetes.client.extended.controller.reconciler.BatchReconciler;
 import io.kubernetes.client.extended.controller.reconciler.Reconciler;
 import io.kubernetes.client.extended.controller.reconciler.Request;
 import io.kubernetes.client.extended.controller.reconciler.Result;
 import io.kubernetes.client.extended.wait.Wait;
 import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
+import io.kubernetes.client.extended.workqueue.WorkQueue;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +43,16 @@ import org.slf4j.LoggerFactory;
  * <p>- a reconciler implemented by developers specifying what to do in reaction of notifications.
  * see more documentation on the Reconciler interface - a work-queue continuously filled with task
  * items managed by Informer framework - a set of worker threads acutally running reconciler.
+ *
+ * <p>If the reconciler is a {@link BatchReconciler}, every worker takes the requests which are
+ * ready in the work-queue, up to the batch size, waiting up to the batch linger for more requests
+ * to arrive, and reconciles them at once. This needs a work-queue which overrides {@link
+ * WorkQueue#poll}, otherwise every batch only holds a single request.
+ *
+ * <p>If the max worker count is set, the controller runs between the worker count and the max
+ * worker count of workers, adjusted periodically from the length of the work-queue and the latency
+ * of the reconciliations. Workers retire by polling the work-queue, so a work-queue which doesn't
+ * override {@link WorkQueue#poll} runs the fixed worker count instead.
  */
 public class DefaultController implements Controller {
   private static final Logger log = LoggerFactory.getLogger(DefaultController.class);
@@ -47,6 +65,15 @@ public class DefaultController implements Controller {
       Counter.build("controller_reconcile_count_total", "Total count of controller reconciliation")
           .labelNames("name", "requeue")
           .register();
+  private static Gauge gaugeWorkerCount =
+      Gauge.build("controller_worker_count", "Current count of the controller's workers")
+          .labelNames("name")
+          .register();
+  private static Gauge gaugeWorkerLimit =
+      Gauge.build(
+              "controller_worker_limit", "Current limit of the controller's adaptive worker count")
+          .labelNames("name")
+          .register();
 
   private final Reconciler reconciler;
   private final String name;
@@ -54,11 +81,23 @@ public class DefaultController implements Controller {
   private final Supplier<Boolean>[] readyFuncs;
 
   private int workerCount;
+  private int maxWorkerCount;
+  private Duration workerAdjustInterval;
   private ScheduledExecutorService workerThreadPool;
 
+  private AdaptiveWorkerLimit workerLimit;
+  private final AtomicInteger activeWorkerCount = new AtomicInteger();
+  private long lastAdjustNanos;
+
   private Duration readyTimeout;
   private Duration readyCheckInternal;
 
+  private int batchSize;
+  private Duration batchLinger;
+
+  // whether the work-queue overrides poll
+  private boolean pollable;
+
   /**
    * Instantiates a new Default controller.
    *
@@ -96,6 +135,9 @@ public class DefaultController implements Controller {
     this.readyFuncs = readyFuncs;
     this.readyTimeout = Duration.ofSeconds(30);
     this.readyCheckInternal = Duration.ofSeconds(1);
+    this.batchSize = 100;
+    this.batchLinger = Duration.ZERO;
+    this.workerAdjustInterval = Duration.ofSeconds(1);
   }
 
   // preFlightCheck checks if the controller is ready for working.
@@ -104,6 +146,16 @@ public class DefaultController implements Controller {
       log.error("Fail to start controller {}: worker count must be positive.", this.name);
       return false;
     }
+    if (maxWorkerCount > 0 && maxWorkerCount < workerCount) {
+      log.error(
+          "Fail to start controller {}: max worker count must not be less than worker count.",
+          this.name);
+      return false;
+    }
+    if (batchSize <= 0) {
+      log.error("Fail to start controller {}: batch size must be positive.", this.name);
+      return false;
+    }
     if (workerThreadPool == null) {
       log.error("Fail to start controller {}: missing worker thread-pool.", this.name);
       return false;
@@ -142,8 +194,24 @@ public class DefaultController implements Controller {
       log.error("Controller {} failed pre-run check, exiting..", this.name);
       return;
     }
+    pollable = supportsPoll(workQueue);
+    if (!pollable && reconciler instanceof BatchReconciler) {
+      log.warn(
+          "Controller {} reconciles requests one by one: the work-queue doesn't support poll.",
+          this.name);
+    }
+    if (maxWorkerCount > 0 && pollable) {
+      runAdaptive();
+      return;
+    }
+    if (maxWorkerCount > 0) {
+      log.warn(
+          "Controller {} runs a fixed count of workers: the work-queue doesn't support poll.",
+          this.name);
+    }
 
     // spawns worker threads for the controller.
+    gaugeWorkerCount.labels(name).set(workerCount);
     CountDownLatch latch = new CountDownLatch(workerCount);
     for (int i = 0; i < this.workerCount; i++) {
       final int workerIndex = i;
@@ -173,6 +241,59 @@ public class DefaultController implements Controller {
     }
   }
 
+  // runAdaptive starts the min count of workers, and adjusts the count periodically.
+  private void runAdaptive() {
+    workerLimit = new AdaptiveWorkerLimit(workerCount, maxWorkerCount);
+    lastAdjustNanos = System.nanoTime();
+    adjustWorkers();
+    workerThreadPool.scheduleWithFixedDelay(
+        () -> {
+          try {
+            this.adjustWorkers();
+          } catch (Throwable t) {
+            log.error("Unexpected controller worker adjustment abortion", t);
+          }
+        },
+        workerAdjustInterval.toNanos(),
+        workerAdjustInterval.toNanos(),
+        TimeUnit.NANOSECONDS);
+    try {
+      log.debug("Controller {} bootstrapping..", this.name);
+      while (!(workQueue.isShuttingDown() && activeWorkerCount.get() == 0)) {
+        Thread.sleep(workerAdjustInterval.toMillis());
+      }
+    } catch (InterruptedException e) {
+      log.error("Aborting controller.", e);
+    } finally {
+      log.info("Controller {} exited", this.name);
+    }
+  }
+
+  // adjustWorkers updates the worker limit, and spawns workers up to the limit. the workers above
+  // the limit retire by themselves.
+  private void adjustWorkers() {
+    long now = System.nanoTime();
+    int limit = workerLimit.update(workQueue.length(), now - lastAdjustNanos);
+    lastAdjustNanos = now;
+    gaugeWorkerLimit.labels(name).set(limit);
+    while (!workQueue.isShuttingDown()) {
+      int count = activeWorkerCount.get();
+      if (count >= limit) {
+        break;
+      }
+      if (activeWorkerCount.compareAndSet(count, count + 1)) {
+        try {
+          workerThreadPool.execute(this::adaptiveWorker);
+        } catch (RejectedExecutionException e) {
+          // the thread-pool is shutting down
+          activeWorkerCount.decrementAndGet();
+          break;
+        }
+      }
+    }
+    gaugeWorkerCount.labels(name).set(activeWorkerCount.get());
+  }
+
   @Override
   public void shutdown() {
     // shutdown work-queue before the thread-pool
@@ -190,51 +311,182 @@ public class DefaultController implements Controller {
       } catch (InterruptedException e) {
         // we're reaching here mostly because of forcibly shutting down the controller.
         log.error("Controller worker interrupted.. keeps working until work-queue shutdown", e);
-        if (request != null) {
-          workQueue.addRateLimited(request);
-        }
       }
       // request is expected to be null, when the work-queue is shutting-down.
       if (request == null) {
         log.info("Controller {} worker exiting because work-queue has shutdown..", this.name);
         return;
       }
-      log.debug("Controller {} start reconciling {}..", this.name, request);
+      process(request);
+    }
+  }
 
-      // do reconciliation, invoke user customized logic.
-      Result result = null;
-      try {
-        result = this.reconciler.reconcile(request);
-      } catch (Throwable t) {
-        log.error("Reconciler aborted unexpectedly", t);
-        result = new Result(true);
-      } finally {
-        counterControllerReconcile.labels(this.name, Boolean.toString(result.isRequeue())).inc();
+  // adaptiveWorker is a worker which polls the work-queue, so that it retires when above the
+  // worker limit even if the work-queue is empty.
+  private void adaptiveWorker() {
+    log.debug("Starting controller {} worker..", this.name);
+    try {
+      while (!workQueue.isShuttingDown()) {
+        gaugeWorkQueueLength.labels(name).set(workQueue.length());
+        Request request = null;
+        try {
+          request = workQueue.poll(workerAdjustInterval);
+        } catch (InterruptedException e) {
+          // we're reaching here mostly because of forcibly shutting down the controller.
+          log.error("Controller worker interrupted.. keeps working until work-queue shutdown", e);
+        }
+        if (request != null) {
+          process(request);
+        }
+        if (retire()) {
+          log.debug("Controller {} worker retiring..", this.name);
+          return;
+        }
       }
+      log.info("Controller {} worker exiting because work-queue has shutdown..", this.name);
+    } catch (Throwable t) {
+      log.error("Unexpected controller loop abortion", t);
+    }
+    // a worker aborting unexpectedly is replaced on the next adjustment
+    gaugeWorkerCount.labels(name).set(activeWorkerCount.decrementAndGet());
+  }
 
-      try {
-        // checks whether do a re-queue (on failure)
-        if (result.isRequeue()) {
-          if (result.getRequeueAfter() == null) {
-            log.debug("Controller {} reconciling {} failed, requeuing {}..", this.name, request);
-            workQueue.addRateLimited(request);
-          } else {
-            log.debug(
-                "Controller {} reconciling {} failed, requeuing after {}..",
-                this.name,
-                request,
-                result.getRequeueAfter());
-            workQueue.addAfter(request, result.getRequeueAfter());
-          }
-        } else {
-          workQueue.forget(request);
+  // retire takes the worker off the count of active workers, if above the worker limit.
+  private boolean retire() {
+    while (true) {
+      int count = activeWorkerCount.get();
+      if (count <= workerLimit.getLimit()) {
+        return false;
+      }
+      if (activeWorkerCount.compareAndSet(count, count - 1)) {
+        gaugeWorkerCount.labels(name).set(count - 1);
+        return true;
+      }
+    }
+  }
+
+  // process reconciles the request, or the batch of ready requests it starts.
+  private void process(Request request) {
+    if (this.reconciler instanceof BatchReconciler) {
+      reconcileBatch((BatchReconciler) this.reconciler, takeBatch(request));
+    } else {
+      reconcile(request);
+    }
+  }
+
+  private void reconcile(Request request) {
+    log.debug("Controller {} start reconciling {}..", this.name, request);
+
+    // do reconciliation, invoke user customized logic.
+    Result result = null;
+    long startNanos = System.nanoTime();
+    try {
+      result = this.reconciler.reconcile(request);
+    } catch (Throwable t) {
+      log.error("Reconciler aborted unexpectedly", t);
+      result = new Result(true);
+    } finally {
+      counterControllerReconcile.labels(this.name, Boolean.toString(result.isRequeue())).inc();
+    }
+    onReconciled(startNanos);
+
+    try {
+      handleResult(request, result);
+    } finally {
+      workQueue.done(request);
+      gaugeWorkQueueLength.labels(name).set(workQueue.length());
+      log.debug("Controller {} finished reconciling {}..", this.name, request);
+    }
+  }
+
+  // takeBatch takes the ready requests without waiting, lingering for more until the deadline.
+  private List<Request> takeBatch(Request first) {
+    List<Request> requests = new ArrayList<>();
+    requests.add(first);
+    if (!pollable) {
+      return requests;
+    }
+    long deadline = System.nanoTime() + batchLinger.toNanos();
+    try {
+      while (requests.size() < batchSize) {
+        Request request =
+            workQueue.poll(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+        if (request == null) {
+          break;
         }
+        requests.add(request);
+      }
+    } catch (InterruptedException e) {
+      // we're reaching here mostly because of forcibly shutting down the controller.
+      log.error("Controller worker interrupted.. keeps working until work-queue shutdown", e);
+    }
+    return requests;
+  }
+
+  private void reconcileBatch(BatchReconciler batchReconciler, List<Request> requests) {
+    log.debug("Controller {} start reconciling {} requests..", this.name, requests.size());
+
+    // do reconciliation, invoke user customized logic.
+    Map<Request, Result> results;
+    long startNanos = System.nanoTime();
+    try {
+      results = batchReconciler.reconcile(Collections.unmodifiableList(requests));
+    } catch (Throwable t) {
+      log.error("Reconciler aborted unexpectedly", t);
+      results = Collections.emptyMap();
+    }
+    onReconciled(startNanos);
+
+    for (Request request : requests) {
+      Result result = results.get(request);
+      if (result == null) {
+        // missing or aborted, requeues the request as failed
+        result = new Result(true);
+      }
+      counterControllerReconcile.labels(this.name, Boolean.toString(result.isRequeue())).inc();
+      try {
+        handleResult(request, result);
       } finally {
         workQueue.done(request);
-        gaugeWorkQueueLength.labels(name).set(workQueue.length());
-        log.debug("Controller {} finished reconciling {}..", this.name, request);
       }
     }
+    gaugeWorkQueueLength.labels(name).set(workQueue.length());
+    log.debug("Controller {} finished reconciling {} requests..", this.name, requests.size());
+  }
+
+  // supportsPoll checks whether the work-queue overrides the default poll, which throws.
+  private static boolean supportsPoll(WorkQueue<?> workQueue) {
+    try {
+      return workQueue.getClass().getMethod("poll", Duration.class).getDeclaringClass()
+          != WorkQueue.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private void onReconciled(long startNanos) {
+    if (workerLimit != null) {
+      workerLimit.onReconciled(System.nanoTime() - startNanos);
+    }
+  }
+
+  private void handleResult(Request request, Result result) {
+    // checks whether do a re-queue (on failure)
+    if (result.isRequeue()) {
+      if (result.getRequeueAfter() == null) {
+        log.debug("Controller {} reconciling {} failed, requeuing {}..", this.name, request);
+        workQueue.addRateLimited(request);
+      } else {
+        log.debug(
+            "Controller {} reconciling {} failed, requeuing after {}..",
+            this.name,
+            request,
+            result.getRequeueAfter());
+        workQueue.addAfter(request, result.getRequeueAfter());
+      }
+    } else {
+      workQueue.forget(request);
+    }
   }
 
   public RateLimitingQueue<Request> getWorkQueue() {
@@ -253,6 +505,37 @@ public class DefaultController implements Controller {
     this.workerCount = workerCount;
   }
 
+  public int getMaxWorkerCount() {
+    return maxWorkerCount;
+  }
+
+  /**
+   * Makes the worker count adaptive, between the worker count and the max worker count. The
+   * work-queue must override {@link WorkQueue#poll}, otherwise the worker count stays fixed.
+   *
+   * @param maxWorkerCount the max worker count, zero for a fixed worker count
+   */
+  public void setMaxWorkerCount(int maxWorkerCount) {
+    this.maxWorkerCount = maxWorkerCount;
+  }
+
+  public Duration getWorkerAdjustInterval() {
+    return workerAdjustInterval;
+  }
+
+  public void setWorkerAdjustInterval(Duration workerAdjustInterval) {
+    this.workerAdjustInterval = workerAdjustInterval;
+  }
+
+  /**
+   * Gets the count of the running adaptive workers.
+   *
+   * @return the active worker count
+   */
+  public int getActiveWorkerCount() {
+    return activeWorkerCount.get();
+  }
+
   public ExecutorService getWorkerThreadPool() {
     return workerThreadPool;
   }
@@ -280,4 +563,20 @@ public class DefaultController implements Controller {
   public void setReadyCheckInternal(Duration readyCheckInternal) {
     this.readyCheckInternal = readyCheckInternal;
   }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public Duration getBatchLinger() {
+    return batchLinger;
+  }
+
+  public void setBatchLinger(Duration batchLinger) {
+    this.batchLinger = batchLinger;
+  }
 }
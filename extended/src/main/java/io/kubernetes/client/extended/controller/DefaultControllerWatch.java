@@ -14,9 +14,11 @@ package io.kubernetes.client.extended.controller;
 
 import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.workqueue.PriorityWorkQueue;
 import io.kubernetes.client.extended.workqueue.WorkQueue;
 import io.kubernetes.client.informer.ResourceEventHandler;
 import java.time.Duration;
+import java.util.Objects;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -37,6 +39,8 @@ public class DefaultControllerWatch<ApiType extends KubernetesObject>
   private BiPredicate<ApiType, ApiType> onUpdateFilterPredicate;
   private BiPredicate<ApiType, Boolean> onDeleteFilterPredicate;
   private Duration resyncPeriod;
+  private int eventPriority = PriorityWorkQueue.HIGHEST_PRIORITY;
+  private int resyncPriority = PriorityWorkQueue.HIGHEST_PRIORITY + 1;
 
   /**
    * Instantiates a new Work queue resource event handler.
@@ -79,6 +83,34 @@ public class DefaultControllerWatch<ApiType extends KubernetesObject>
     this.onDeleteFilterPredicate = onDeleteFilterPredicate;
   }
 
+  public int getEventPriority() {
+    return eventPriority;
+  }
+
+  /**
+   * Sets the priority of the requests for added, updated and deleted objects, if the work-queue is
+   * a {@link PriorityWorkQueue}.
+   *
+   * @param eventPriority the priority
+   */
+  public void setEventPriority(int eventPriority) {
+    this.eventPriority = eventPriority;
+  }
+
+  public int getResyncPriority() {
+    return resyncPriority;
+  }
+
+  /**
+   * Sets the priority of the requests for resynced objects, i.e. updates which don't change the
+   * resource version, if the work-queue is a {@link PriorityWorkQueue}.
+   *
+   * @param resyncPriority the priority
+   */
+  public void setResyncPriority(int resyncPriority) {
+    this.resyncPriority = resyncPriority;
+  }
+
   public Class<ApiType> getApiTypeClass() {
     return apiTypeClass;
   }
@@ -96,7 +128,7 @@ public class DefaultControllerWatch<ApiType extends KubernetesObject>
         if (onAddFilterPredicate == null || onAddFilterPredicate.test(obj)) {
           Request req = workKeyGenerator.apply(obj);
           if (null != req) {
-            workQueue.add(req);
+            add(req, eventPriority);
           }
         }
       }
@@ -106,7 +138,7 @@ public class DefaultControllerWatch<ApiType extends KubernetesObject>
         if (onUpdateFilterPredicate == null || onUpdateFilterPredicate.test(oldObj, newObj)) {
           Request req = workKeyGenerator.apply(newObj);
           if (null != req) {
-            workQueue.add(req);
+            add(req, isResync(oldObj, newObj) ? resyncPriority : eventPriority);
           }
         }
       }
@@ -117,7 +149,7 @@ public class DefaultControllerWatch<ApiType extends KubernetesObject>
             || onDeleteFilterPredicate.test(obj, deletedFinalStateUnknown)) {
           Request req = workKeyGenerator.apply(obj);
           if (null != req) {
-            workQueue.add(req);
+            add(req, eventPriority);
           }
         }
       }
@@ -128,4 +160,22 @@ public class DefaultControllerWatch<ApiType extends KubernetesObject>
   public Duration getResyncPeriod() {
     return this.resyncPeriod;
   }
+
+  private void add(Request request, int priority) {
+    if (workQueue instanceof PriorityWorkQueue) {
+      ((PriorityWorkQueue<Request>) workQueue).add(request, priority);
+    } else {
+      workQueue.add(request);
+    }
+  }
+
+  // resyncs notify updates of the cached objects to themselves
+  private static boolean isResync(KubernetesObject oldObj, KubernetesObject newObj) {
+    if (oldObj == null || oldObj.getMetadata() == null || newObj.getMetadata() == null) {
+      return false;
+    }
+    String resourceVersion = newObj.getMetadata().getResourceVersion();
+    return resourceVersion != null
+        && Objects.equals(resourceVersion, oldObj.getMetadata().getResourceVersion());
+  }
 }
@@ -28,6 +28,8 @@ public class ControllerWatchBuilder<ApiType extends KubernetesObject> {
   private WorkQueue<Request> workQueue;
   private Class<ApiType> apiTypeClass;
   private Duration resyncPeriod = Duration.ZERO;
+  private Integer eventPriority;
+  private Integer resyncPriority;
 
   private Predicate<ApiType> onAddFilterPredicate;
   private BiPredicate<ApiType, ApiType> onUpdateFilterPredicate;
@@ -89,6 +91,30 @@ public class ControllerWatchBuilder<ApiType extends KubernetesObject> {
     return this;
   }
 
+  /**
+   * Sets the priority of the requests for added, updated and deleted objects, if the work-queue is
+   * a {@link io.kubernetes.client.extended.workqueue.PriorityWorkQueue}.
+   *
+   * @param eventPriority the priority
+   * @return the controller builder . controller watch builder
+   */
+  public ControllerWatchBuilder<ApiType> withEventPriority(int eventPriority) {
+    this.eventPriority = eventPriority;
+    return this;
+  }
+
+  /**
+   * Sets the priority of the requests for resynced objects, if the work-queue is a {@link
+   * io.kubernetes.client.extended.workqueue.PriorityWorkQueue}.
+   *
+   * @param resyncPriority the priority
+   * @return the controller builder . controller watch builder
+   */
+  public ControllerWatchBuilder<ApiType> withResyncPriority(int resyncPriority) {
+    this.resyncPriority = resyncPriority;
+    return this;
+  }
+
   /**
    * End building controller-watch.
    *
@@ -101,6 +127,12 @@ public class ControllerWatchBuilder<ApiType extends KubernetesObject> {
     workQueueHandler.setOnAddFilterPredicate(onAddFilterPredicate);
     workQueueHandler.setOnUpdateFilterPredicate(onUpdateFilterPredicate);
     workQueueHandler.setOnDeleteFilterPredicate(onDeleteFilterPredicate);
+    if (eventPriority != null) {
+      workQueueHandler.setEventPriority(eventPriority);
+    }
+    if (resyncPriority != null) {
+      workQueueHandler.setResyncPriority(resyncPriority);
+    }
     return workQueueHandler;
   }
 }
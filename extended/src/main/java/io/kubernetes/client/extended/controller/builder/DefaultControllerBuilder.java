@@ -24,10 +24,14 @@ import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
 import io.kubernetes.client.extended.workqueue.WorkQueue;
 import io.kubernetes.client.informer.SharedIndexInformer;
 import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.util.Threads;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -35,6 +39,7 @@ import java.util.function.Supplier;
 public class DefaultControllerBuilder {
 
   private int workerCount;
+  private int maxWorkerCount;
   private String controllerName;
   private RateLimitingQueue<Request> workQueue;
   private Duration readyTimeout;
@@ -42,6 +47,9 @@ public class DefaultControllerBuilder {
   private SharedInformerFactory informerFactory;
   private List<Supplier<Boolean>> readyFuncs;
   private Reconciler reconciler;
+  private boolean virtualThreads;
+  private Integer batchSize;
+  private Duration batchLinger;
 
   DefaultControllerBuilder() {
     this.workerCount = Constants.DEFAULT_WORKER_COUNT;
@@ -125,13 +133,67 @@ public class DefaultControllerBuilder {
   }
 
   /**
-   * Overrides worker thread counts of the controller.
+   * Overrides worker thread counts of the controller, with a fixed worker count.
    *
    * @param workerCount the worker count
    * @return the controller builder
    */
   public DefaultControllerBuilder withWorkerCount(int workerCount) {
     this.workerCount = workerCount;
+    this.maxWorkerCount = 0;
+    return this;
+  }
+
+  /**
+   * Makes the worker count of the controller adaptive, scaling between the min and the max worker
+   * count as the work-queue grows and shrinks, and backing off as the reconciliations slow down.
+   * The idle worker threads are released after a minute.
+   *
+   * @param minWorkerCount the min worker count
+   * @param maxWorkerCount the max worker count
+   * @return the controller builder
+   */
+  public DefaultControllerBuilder withAdaptiveWorkerCount(int minWorkerCount, int maxWorkerCount) {
+    if (minWorkerCount <= 0 || maxWorkerCount < minWorkerCount) {
+      throw new IllegalArgumentException("worker counts must satisfy 0 < min <= max");
+    }
+    this.workerCount = minWorkerCount;
+    this.maxWorkerCount = maxWorkerCount;
+    return this;
+  }
+
+  /**
+   * Makes the workers of the controller virtual threads, so that many workers blocking on the api
+   * server don't each hold a platform thread. Falls back to platform threads before JDK 21.
+   *
+   * @param virtualThreads whether the workers are virtual threads
+   * @return the controller builder
+   */
+  public DefaultControllerBuilder withVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  /**
+   * Overrides the maximum number of requests a {@link
+   * io.kubernetes.client.extended.controller.reconciler.BatchReconciler} gets at once.
+   *
+   * @param batchSize the batch size
+   * @return the controller builder
+   */
+  public DefaultControllerBuilder withBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Overrides how long a worker waits for more requests to fill a batch, no waiting by default.
+   *
+   * @param batchLinger the batch linger
+   * @return the controller builder
+   */
+  public DefaultControllerBuilder withBatchLinger(Duration batchLinger) {
+    this.batchLinger = batchLinger;
     return this;
   }
 
@@ -167,10 +229,29 @@ public class DefaultControllerBuilder {
     if (this.readyTimeout != null) {
       controller.setReadyTimeout(this.readyTimeout);
     }
+    if (this.batchSize != null) {
+      controller.setBatchSize(this.batchSize);
+    }
+    if (this.batchLinger != null) {
+      controller.setBatchLinger(this.batchLinger);
+    }
     controller.setWorkerCount(this.workerCount);
-    controller.setWorkerThreadPool(
-        Executors.newScheduledThreadPool(
-            this.workerCount, Controllers.namedControllerThreadFactory(this.controllerName)));
+    ThreadFactory threadFactory =
+        this.virtualThreads
+            ? Threads.virtualThreadFactory(this.controllerName + "-%d")
+            : Controllers.namedControllerThreadFactory(this.controllerName);
+    if (this.maxWorkerCount > 0) {
+      controller.setMaxWorkerCount(this.maxWorkerCount);
+      // a thread more for adjusting the workers, the idle threads time out
+      ScheduledThreadPoolExecutor workerThreadPool =
+          new ScheduledThreadPoolExecutor(this.maxWorkerCount + 1, threadFactory);
+      workerThreadPool.setKeepAliveTime(1, TimeUnit.MINUTES);
+      workerThreadPool.allowCoreThreadTimeOut(true);
+      controller.setWorkerThreadPool(workerThreadPool);
+    } else {
+      controller.setWorkerThreadPool(
+          Executors.newScheduledThreadPool(this.workerCount, threadFactory));
+    }
 
     return controller;
   }
@@ -0,0 +1,41 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.controller.reconciler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BatchReconciler reconciles several requests at once, e.g. to list or update the objects behind
+ * them in a single call to the apiserver instead of one call per object. A controller with a batch
+ * reconciler hands it the requests which are ready in the work-queue, up to the batch size of the
+ * controller. The requests of a batch are distinct, and each of them is requeued, forgotten or
+ * delayed by its own result, just like the requests of a {@link Reconciler}.
+ */
+public interface BatchReconciler extends Reconciler {
+
+  /**
+   * Reconcile the batch of requests.
+   *
+   * @param requests the reconcile requests, triggered by watch events
+   * @return the result of each request, the requests without a result are requeued
+   */
+  Map<Request, Result> reconcile(List<Request> requests);
+
+  @Override
+  default Result reconcile(Request request) {
+    Result result = reconcile(Collections.singletonList(request)).get(request);
+    return result != null ? result : new Result(true);
+  }
+}
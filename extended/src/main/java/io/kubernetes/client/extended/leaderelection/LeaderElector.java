@@ -51,13 +51,9 @@ public class LeaderElector implements AutoCloseable {
   private String reportedLeader;
   private Consumer<String> onNewLeaderHook;
 
-  private final ScheduledExecutorService scheduledWorkers =
-      Executors.newSingleThreadScheduledExecutor(
-          Threads.threadFactory("leader-elector-scheduled-worker-%d"));
-  private final ExecutorService leaseWorkers =
-      Executors.newSingleThreadExecutor(Threads.threadFactory("leader-elector-lease-worker-%d"));
-  private final ExecutorService hookWorkers =
-      Executors.newSingleThreadExecutor(Threads.threadFactory("leader-elector-hook-worker-%d"));
+  private final ScheduledExecutorService scheduledWorkers;
+  private final ExecutorService leaseWorkers;
+  private final ExecutorService hookWorkers;
 
   public LeaderElector(LeaderElectionConfig config) {
     this(
@@ -68,6 +64,19 @@ public class LeaderElector implements AutoCloseable {
   }
 
   public LeaderElector(LeaderElectionConfig config, Consumer<Throwable> exceptionHandler) {
+    this(config, exceptionHandler, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param config the leader election config
+   * @param exceptionHandler the handler of errors acquiring or renewing the lease
+   * @param virtualThreads whether the workers are virtual threads, falling back to platform threads
+   *     before JDK 21
+   */
+  public LeaderElector(
+      LeaderElectionConfig config, Consumer<Throwable> exceptionHandler, boolean virtualThreads) {
     if (config == null) {
       throw new IllegalArgumentException("Config must be provided.");
     }
@@ -104,6 +113,15 @@ public class LeaderElector implements AutoCloseable {
     }
     this.config = config;
     this.exceptionHandler = exceptionHandler;
+    this.scheduledWorkers =
+        Executors.newSingleThreadScheduledExecutor(
+            Threads.threadFactory("leader-elector-scheduled-worker-%d", virtualThreads));
+    this.leaseWorkers =
+        Executors.newSingleThreadExecutor(
+            Threads.threadFactory("leader-elector-lease-worker-%d", virtualThreads));
+    this.hookWorkers =
+        Executors.newSingleThreadExecutor(
+            Threads.threadFactory("leader-elector-hook-worker-%d", virtualThreads));
   }
 
   /**
@@ -0,0 +1,66 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import io.kubernetes.client.extended.workqueue.ratelimiter.DefaultControllerRateLimiter;
+import io.kubernetes.client.extended.workqueue.ratelimiter.RateLimiter;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A {@link RateLimitingQueue} on top of {@link ConcurrentWorkQueue}, for controllers with many
+ * workers. Delayed items wait in the timing wheel of {@link TimingWheelDelayingQueue}.
+ */
+public class ConcurrentRateLimitingQueue<T> extends TimingWheelDelayingQueue<T>
+    implements RateLimitingQueue<T> {
+
+  private final RateLimiter<T> rateLimiter;
+
+  public ConcurrentRateLimitingQueue() {
+    this(new DefaultControllerRateLimiter<>());
+  }
+
+  public ConcurrentRateLimitingQueue(RateLimiter<T> rateLimiter) {
+    super(Executors.newSingleThreadExecutor(), DEFAULT_TICK, System::nanoTime, true);
+    this.rateLimiter = rateLimiter;
+  }
+
+  /**
+   * Constructor. The executor is left running on shutdown, it's up to the caller to shut it down.
+   *
+   * @param waitingWorker the executor running the loop which turns the wheels
+   * @param tick the resolution of the delays
+   * @param rateLimiter the rate limiter
+   */
+  public ConcurrentRateLimitingQueue(
+      ExecutorService waitingWorker, Duration tick, RateLimiter<T> rateLimiter) {
+    super(waitingWorker, tick);
+    this.rateLimiter = rateLimiter;
+  }
+
+  @Override
+  public void addRateLimited(T item) {
+    addAfter(item, rateLimiter.when(item));
+  }
+
+  @Override
+  public void forget(T item) {
+    rateLimiter.forget(item);
+  }
+
+  @Override
+  public int numRequeues(T item) {
+    return rateLimiter.numRequeues(item);
+  }
+}
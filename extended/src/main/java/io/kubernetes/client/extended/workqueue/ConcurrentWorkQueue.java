@@ -0,0 +1,133 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link WorkQueue} with the same semantics as {@link DefaultWorkQueue}, built on concurrent
+ * structures instead of a single monitor, so that many producers and workers can add, get and
+ * finish items without contending on one lock.
+ *
+ * <p>The dirty and processing sets of {@link DefaultWorkQueue} are folded into the state of each
+ * item, kept in a {@link ConcurrentHashMap} and updated atomically per item, which stripes the
+ * locking across the bins of the map. The items ready to be processed are kept in a lock-free
+ * queue, and the workers wait for them on a semaphore counting the ready items.
+ */
+public class ConcurrentWorkQueue<T> implements WorkQueue<T> {
+
+  private enum State {
+    // in the queue, waiting to be processed, i.e. dirty
+    QUEUED,
+    // being processed
+    PROCESSING,
+    // being processed, and added again meanwhile, i.e. both processing and dirty
+    PROCESSING_DIRTY
+  }
+
+  // the state of the items which are queued or being processed, absent items are idle
+  private final ConcurrentMap<T, State> states = new ConcurrentHashMap<>();
+
+  // queue defines the order in which we will work on items. Every element of queue is QUEUED.
+  private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+
+  // counts the items in the queue, released once more for each waiting worker on shutdown
+  private final Semaphore ready = new Semaphore(0);
+
+  private volatile boolean shuttingDown = false;
+
+  @Override
+  public void add(T item) {
+    if (shuttingDown) {
+      return;
+    }
+    while (true) {
+      State previous = states.putIfAbsent(item, State.QUEUED);
+      if (previous == null) {
+        enqueue(item);
+        return;
+      }
+      // already dirty, or marked dirty to be queued again when done, otherwise it's just been
+      // done and we try again
+      if (previous != State.PROCESSING
+          || states.replace(item, State.PROCESSING, State.PROCESSING_DIRTY)) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public int length() {
+    return shuttingDown ? queue.size() : ready.availablePermits();
+  }
+
+  @Override
+  public T get() throws InterruptedException {
+    ready.acquire();
+    return take();
+  }
+
+  @Override
+  public T poll(Duration timeout) throws InterruptedException {
+    if (!ready.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+      return null;
+    }
+    return take();
+  }
+
+  // takes the item the acquired permit stands for
+  private T take() {
+    T item = queue.poll();
+    if (item == null) {
+      // only happens once shutting down, passes the wake-up on to the next waiting worker
+      ready.release();
+      return null;
+    }
+    states.replace(item, State.QUEUED, State.PROCESSING);
+    return item;
+  }
+
+  @Override
+  public void done(T item) {
+    if (states.remove(item, State.PROCESSING)) {
+      return;
+    }
+    // added again while processing
+    if (states.replace(item, State.PROCESSING_DIRTY, State.QUEUED)) {
+      enqueue(item);
+    }
+  }
+
+  @Override
+  public void shutDown() {
+    this.shuttingDown = true;
+    // wakes up the waiting workers one after another once the queue is drained
+    ready.release();
+  }
+
+  @Override
+  public boolean isShuttingDown() {
+    return shuttingDown;
+  }
+
+  private void enqueue(T item) {
+    queue.offer(item);
+    ready.release();
+  }
+}
@@ -12,9 +12,11 @@ limitations under the License.
 */
 package io.kubernetes.client.extended.workqueue;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The default {@link WorkQueue} implementation that uses a doubly-linked list to store work items.
@@ -79,6 +81,27 @@ public class DefaultWorkQueue<T> implements WorkQueue<T> {
       // We must be shutting down
       return null;
     }
+    return take();
+  }
+
+  @Override
+  public synchronized T poll(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (queue.size() == 0 && !shuttingDown) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    if (queue.size() == 0) {
+      // We must be shutting down
+      return null;
+    }
+    return take();
+  }
+
+  private T take() {
     T obj = this.queue.poll();
     this.processing.add(obj);
     this.dirty.remove(obj);
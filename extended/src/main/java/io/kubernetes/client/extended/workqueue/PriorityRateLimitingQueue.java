@@ -0,0 +1,430 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import io.kubernetes.client.extended.workqueue.ratelimiter.DefaultControllerRateLimiter;
+import io.kubernetes.client.extended.workqueue.ratelimiter.RateLimiter;
+import io.prometheus.client.Histogram;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link RateLimitingQueue} with priority lanes and fair queuing across flows, e.g. namespaces,
+ * so that a burst of low priority items, like a resync of many objects, doesn't hold back the few
+ * items which need to be processed promptly, and a namespace with many objects doesn't hold back
+ * the others.
+ *
+ * <p>The lanes are served by strict priority. Within a lane, the flows are served by weighted
+ * round-robin: every flow with waiting items gets to hand out as many items in a row as its weight
+ * before the next flow takes its turn. The items are deduplicated the same way as in {@link
+ * DefaultWorkQueue}, an item added again while waiting moves to the lane of higher priority, if
+ * any.
+ *
+ * <p>Items added after a delay, or rate limited, go to the lane they were processed from. The time
+ * the items wait in their lane is reported by the {@code controller_work_queue_wait_seconds}
+ * histogram.
+ *
+ * <pre>{@code
+ * PriorityRateLimitingQueue<Request> workQueue =
+ *     new PriorityRateLimitingQueue<>("my-controller", 2, Request::getNamespace);
+ * }</pre>
+ */
+public class PriorityRateLimitingQueue<T> implements RateLimitingQueue<T>, PriorityWorkQueue<T> {
+
+  private static final Histogram histogramWaitSeconds =
+      Histogram.build(
+              "controller_work_queue_wait_seconds",
+              "How long the items wait in a lane of the controller's work-queue")
+          .labelNames("name", "lane")
+          .register();
+
+  private final String name;
+  private final Function<T, String> flowKeyFunc;
+  private final ToIntFunction<String> flowWeightFunc;
+  private final RateLimiter<T> rateLimiter;
+  private final List<Lane> lanes;
+  private final TimingWheel<T>[] timingWheels;
+  private final ExecutorService[] waitingWorkers;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+
+  // the fields below are guarded by the lock
+  // the state of the items which are queued or being processed, absent items are idle
+  private final Map<T, State> states = new HashMap<>();
+  private int length;
+  private long lastToken;
+  private boolean shuttingDown = false;
+
+  /**
+   * Constructs a queue with flows of equal weights and the default rate limiter.
+   *
+   * @param name the name reported in the metrics
+   * @param laneCount the number of priority lanes
+   * @param flowKeyFunc the flow of an item, e.g. its namespace
+   */
+  public PriorityRateLimitingQueue(String name, int laneCount, Function<T, String> flowKeyFunc) {
+    this(name, laneCount, flowKeyFunc, flow -> 1, new DefaultControllerRateLimiter<>());
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param name the name reported in the metrics
+   * @param laneCount the number of priority lanes
+   * @param flowKeyFunc the flow of an item, e.g. its namespace
+   * @param flowWeightFunc the weight of a flow, i.e. the number of items it hands out in a row
+   * @param rateLimiter the rate limiter
+   */
+  @SuppressWarnings("unchecked")
+  public PriorityRateLimitingQueue(
+      String name,
+      int laneCount,
+      Function<T, String> flowKeyFunc,
+      ToIntFunction<String> flowWeightFunc,
+      RateLimiter<T> rateLimiter) {
+    if (laneCount <= 0) {
+      throw new IllegalArgumentException("laneCount must be positive");
+    }
+    this.name = name;
+    this.flowKeyFunc = flowKeyFunc;
+    this.flowWeightFunc = flowWeightFunc;
+    this.rateLimiter = rateLimiter;
+    this.lanes = new ArrayList<>(laneCount);
+    this.timingWheels = new TimingWheel[laneCount];
+    this.waitingWorkers = new ExecutorService[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      final int priority = i;
+      lanes.add(new Lane(histogramWaitSeconds.labels(name, String.valueOf(i))));
+      waitingWorkers[i] = Executors.newSingleThreadExecutor();
+      timingWheels[i] =
+          new TimingWheel<>(
+              waitingWorkers[i],
+              TimingWheelDelayingQueue.DEFAULT_TICK,
+              System::nanoTime,
+              item -> add(item, priority));
+    }
+  }
+
+  @Override
+  public void add(T item) {
+    add(item, HIGHEST_PRIORITY);
+  }
+
+  @Override
+  public void add(T item, int priority) {
+    int lane = clamp(priority);
+    lock.lock();
+    try {
+      if (shuttingDown) {
+        return;
+      }
+      State state = states.get(item);
+      if (state == null) {
+        state = new State();
+        states.put(item, state);
+        enqueue(item, state, lane);
+      } else if (state.processing) {
+        // queued again once done
+        state.lane = state.dirty ? Math.min(state.lane, lane) : lane;
+        state.dirty = true;
+      } else if (lane < state.lane) {
+        // moves up, the slot in the former lane turns stale
+        lanes.get(state.lane).length--;
+        length--;
+        enqueue(item, state, lane);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int length() {
+    lock.lock();
+    try {
+      return length;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int length(int priority) {
+    lock.lock();
+    try {
+      return lanes.get(clamp(priority)).length;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public T get() throws InterruptedException {
+    lock.lock();
+    try {
+      while (length == 0 && !shuttingDown) {
+        notEmpty.await();
+      }
+      if (length == 0) {
+        // We must be shutting down
+        return null;
+      }
+      return take();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public T poll(Duration timeout) throws InterruptedException {
+    lock.lock();
+    try {
+      long remaining = timeout.toNanos();
+      while (length == 0 && !shuttingDown) {
+        if (remaining <= 0) {
+          return null;
+        }
+        remaining = notEmpty.awaitNanos(remaining);
+      }
+      if (length == 0) {
+        // We must be shutting down
+        return null;
+      }
+      return take();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // takes the next item, from the highest lane with queued items
+  private T take() {
+    for (Lane lane : lanes) {
+      Slot<T> slot = lane.poll();
+      if (slot == null) {
+        continue;
+      }
+      State state = states.get(slot.item);
+      state.processing = true;
+      length--;
+      lane.waitSeconds.observe((System.nanoTime() - state.queuedAtNanos) / 1e9);
+      return slot.item;
+    }
+    throw new IllegalStateException("no queued item in " + length + " queued items");
+  }
+
+  @Override
+  public void done(T item) {
+    lock.lock();
+    try {
+      State state = states.get(item);
+      if (state == null || !state.processing) {
+        return;
+      }
+      state.processing = false;
+      if (state.dirty) {
+        state.dirty = false;
+        enqueue(item, state, state.lane);
+      } else {
+        states.remove(item);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void addAfter(T item, Duration duration) {
+    // immediately add things w/o delay
+    if (duration.isZero() || duration.isNegative()) {
+      add(item, priorityOf(item));
+      return;
+    }
+    lock.lock();
+    try {
+      // don't add if we're already shutting down
+      if (shuttingDown) {
+        return;
+      }
+    } finally {
+      lock.unlock();
+    }
+    timingWheels[priorityOf(item)].schedule(item, duration);
+  }
+
+  @Override
+  public void addRateLimited(T item) {
+    addAfter(item, rateLimiter.when(item));
+  }
+
+  @Override
+  public void forget(T item) {
+    rateLimiter.forget(item);
+  }
+
+  @Override
+  public int numRequeues(T item) {
+    return rateLimiter.numRequeues(item);
+  }
+
+  @Override
+  public void shutDown() {
+    lock.lock();
+    try {
+      shuttingDown = true;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    for (int i = 0; i < timingWheels.length; i++) {
+      timingWheels[i].stop();
+      waitingWorkers[i].shutdown();
+    }
+  }
+
+  @Override
+  public boolean isShuttingDown() {
+    lock.lock();
+    try {
+      return shuttingDown;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  private int clamp(int priority) {
+    return Math.max(HIGHEST_PRIORITY, Math.min(priority, lanes.size() - 1));
+  }
+
+  // the lane the item is queued in or processed from, the highest one for unknown items
+  private int priorityOf(T item) {
+    lock.lock();
+    try {
+      State state = states.get(item);
+      return state == null ? HIGHEST_PRIORITY : state.lane;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void enqueue(T item, State state, int lane) {
+    state.lane = lane;
+    state.token = ++lastToken;
+    state.queuedAtNanos = System.nanoTime();
+    lanes.get(lane).offer(new Slot<>(item, state.token));
+    lanes.get(lane).length++;
+    length++;
+    notEmpty.signal();
+  }
+
+  // a slot is stale once the item moved to another lane, or has been processed meanwhile
+  private boolean isQueued(Slot<T> slot) {
+    State state = states.get(slot.item);
+    return state != null && !state.processing && state.token == slot.token;
+  }
+
+  private static class State {
+    // the lane the item is queued in, or will be queued in again once done
+    private int lane;
+    // identifies the slot the item is queued in
+    private long token;
+    private long queuedAtNanos;
+    private boolean processing;
+    // added again while processing
+    private boolean dirty;
+  }
+
+  private static class Slot<T> {
+    private final T item;
+    private final long token;
+
+    private Slot(T item, long token) {
+      this.item = item;
+      this.token = token;
+    }
+  }
+
+  private static class Flow<T> {
+    private final String key;
+    private final int weight;
+    private final ArrayDeque<Slot<T>> slots = new ArrayDeque<>();
+    private int credits;
+
+    private Flow(String key, int weight) {
+      this.key = key;
+      this.weight = Math.max(1, weight);
+      this.credits = this.weight;
+    }
+  }
+
+  // the flows of a lane with queued items, in round-robin order
+  private class Lane {
+    private final Histogram.Child waitSeconds;
+    private final Map<String, Flow<T>> flows = new HashMap<>();
+    private final ArrayDeque<Flow<T>> ring = new ArrayDeque<>();
+    private int length;
+
+    private Lane(Histogram.Child waitSeconds) {
+      this.waitSeconds = waitSeconds;
+    }
+
+    private void offer(Slot<T> slot) {
+      String key = flowKeyFunc.apply(slot.item);
+      if (key == null) {
+        key = "";
+      }
+      Flow<T> flow = flows.get(key);
+      if (flow == null) {
+        flow = new Flow<>(key, flowWeightFunc.applyAsInt(key));
+        flows.put(key, flow);
+        ring.addLast(flow);
+      }
+      flow.slots.addLast(slot);
+    }
+
+    private Slot<T> poll() {
+      while (!ring.isEmpty()) {
+        Flow<T> flow = ring.peekFirst();
+        Slot<T> slot = flow.slots.pollFirst();
+        boolean queued = isQueued(slot);
+        if (flow.slots.isEmpty()) {
+          ring.pollFirst();
+          flows.remove(flow.key);
+        } else if (queued && --flow.credits == 0) {
+          // the flow used up its turn
+          flow.credits = flow.weight;
+          ring.addLast(ring.pollFirst());
+        }
+        if (queued) {
+          length--;
+          return slot;
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+/**
+ * PriorityWorkQueue defines a queue with priority lanes, items in a lane of higher priority are
+ * processed before the items in the lanes of lower priority.
+ */
+public interface PriorityWorkQueue<T> extends WorkQueue<T> {
+
+  /** The highest priority, which {@link #add(Object)} adds items with. */
+  int HIGHEST_PRIORITY = 0;
+
+  /**
+   * add marks item as needing processing with the priority, the lower the value the higher the
+   * priority. Adding an item already waiting with a lower priority moves it to the higher one.
+   *
+   * @param item item to add
+   * @param priority the priority, clamped to the lanes of the queue
+   */
+  void add(T item, int priority);
+
+  /**
+   * length returns the current length of the lane of the priority, for informational purposes only.
+   *
+   * @param priority the priority
+   * @return current lane length
+   */
+  int length(int priority);
+}
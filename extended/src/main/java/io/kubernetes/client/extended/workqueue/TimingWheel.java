@@ -0,0 +1,267 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A hierarchical timing wheel, handing items over to a consumer once their delay has passed.
+ * Adding, rescheduling and firing an item take constant time regardless of how many items are
+ * waiting.
+ *
+ * <p>Time is divided into ticks. The first wheel has a slot per tick for the next 64 ticks, every
+ * next wheel has slots 64 times as wide, added as longer delays require. Waiting items are linked
+ * into the slot of their ready-at tick, and moved down to a finer wheel when the slot of a coarser
+ * wheel comes up. Items become ready at most a tick after their delay has passed. An item scheduled
+ * again while waiting keeps the earlier ready-at time.
+ */
+class TimingWheel<T> {
+
+  private static final int WHEEL_BITS = 6;
+  private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  // deeper wheels would span more ticks than a long holds
+  private static final int MAX_LEVELS = 63 / WHEEL_BITS;
+
+  private final long tickNanos;
+  private final LongSupplier timeSource;
+  private final long startNanos;
+  private final Consumer<T> onReady;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  // signalled when the wheels turn non-empty, or on stop
+  private final Condition scheduled = lock.newCondition();
+  private volatile boolean stopped = false;
+
+  // the fields below are guarded by the lock
+  private final Map<T, Entry<T>> waitingEntryByData = new HashMap<>();
+  // heads of the linked entries in each slot of each wheel, finest first
+  private final List<Entry<T>[]> wheels = new ArrayList<>();
+  private long currentTick;
+
+  /**
+   * Constructor.
+   *
+   * @param waitingWorker the executor running the loop which turns the wheels
+   * @param tick the resolution of the delays
+   * @param timeSource the source of the current time in nanoseconds
+   * @param onReady receives the items once ready
+   */
+  TimingWheel(
+      ExecutorService waitingWorker, Duration tick, LongSupplier timeSource, Consumer<T> onReady) {
+    if (tick.isZero() || tick.isNegative()) {
+      throw new IllegalArgumentException("tick must be positive");
+    }
+    this.tickNanos = tick.toNanos();
+    this.timeSource = timeSource;
+    this.startNanos = timeSource.getAsLong();
+    this.onReady = onReady;
+    waitingWorker.submit(this::waitingLoop);
+  }
+
+  /**
+   * Schedules the item to be ready after the delay.
+   *
+   * @param item the item
+   * @param duration the delay
+   */
+  void schedule(T item, Duration duration) {
+    boolean ready;
+    lock.lock();
+    try {
+      long now = timeSource.getAsLong() - startNanos;
+      if (waitingEntryByData.isEmpty()) {
+        // the wheels only turn while there are waiting items, catch up on the idle time
+        currentTick = Math.max(currentTick, now / tickNanos);
+        scheduled.signal();
+      }
+      // rounds up, so that the item isn't ready before the delay has passed
+      long readyAtTick = (now + duration.toNanos() + tickNanos - 1) / tickNanos;
+
+      Entry<T> entry = waitingEntryByData.get(item);
+      if (entry != null) {
+        // keep the earlier ready-at time
+        if (entry.readyAtTick <= readyAtTick) {
+          return;
+        }
+        unlink(entry);
+        entry.readyAtTick = readyAtTick;
+      } else {
+        entry = new Entry<>(item, readyAtTick);
+        waitingEntryByData.put(item, entry);
+      }
+      ready = !link(entry);
+      if (ready) {
+        waitingEntryByData.remove(item);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (ready) {
+      onReady.accept(item);
+    }
+  }
+
+  /** Stops turning the wheels, the waiting items are discarded. */
+  void stop() {
+    stopped = true;
+    lock.lock();
+    try {
+      scheduled.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void waitingLoop() {
+    List<T> readyItems = new ArrayList<>();
+    try {
+      while (!stopped) {
+        lock.lock();
+        try {
+          if (waitingEntryByData.isEmpty()) {
+            if (!stopped) {
+              scheduled.await();
+            }
+            continue;
+          }
+          long nowTick = (timeSource.getAsLong() - startNanos) / tickNanos;
+          if (nowTick <= currentTick) {
+            scheduled.awaitNanos(
+                startNanos + (currentTick + 1) * tickNanos - timeSource.getAsLong());
+            continue;
+          }
+          while (currentTick < nowTick) {
+            turn(readyItems);
+          }
+        } finally {
+          lock.unlock();
+        }
+        for (T item : readyItems) {
+          onReady.accept(item);
+        }
+        readyItems.clear();
+      }
+    } catch (InterruptedException e) {
+      // empty block
+    }
+  }
+
+  // advances the wheels by a tick, collecting the items which became ready
+  private void turn(List<T> readyItems) {
+    currentTick++;
+    // moves the entries of the coarser wheels whose slot came up down to the finer ones
+    for (int level = wheels.size() - 1; level > 0; level--) {
+      if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+        continue;
+      }
+      Entry<T> entry = takeSlot(level, slotOf(currentTick, level));
+      while (entry != null) {
+        Entry<T> next = entry.next;
+        entry.next = null;
+        if (!link(entry)) {
+          waitingEntryByData.remove(entry.data);
+          readyItems.add(entry.data);
+        }
+        entry = next;
+      }
+    }
+    if (wheels.isEmpty()) {
+      return;
+    }
+    Entry<T> entry = takeSlot(0, slotOf(currentTick, 0));
+    while (entry != null) {
+      Entry<T> next = entry.next;
+      entry.next = null;
+      waitingEntryByData.remove(entry.data);
+      readyItems.add(entry.data);
+      entry = next;
+    }
+  }
+
+  // links the entry into the slot of its ready-at tick, returns false if it's ready already
+  @SuppressWarnings("unchecked")
+  private boolean link(Entry<T> entry) {
+    long delta = entry.readyAtTick - currentTick;
+    if (delta <= 0) {
+      return false;
+    }
+    int level = 0;
+    while (level < MAX_LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+      level++;
+    }
+    while (wheels.size() <= level) {
+      wheels.add(new Entry[WHEEL_SIZE]);
+    }
+    Entry<T>[] wheel = wheels.get(level);
+    int slot = slotOf(entry.readyAtTick, level);
+    entry.level = level;
+    entry.slot = slot;
+    entry.prev = null;
+    entry.next = wheel[slot];
+    if (entry.next != null) {
+      entry.next.prev = entry;
+    }
+    wheel[slot] = entry;
+    return true;
+  }
+
+  private void unlink(Entry<T> entry) {
+    if (entry.prev != null) {
+      entry.prev.next = entry.next;
+    } else {
+      wheels.get(entry.level)[entry.slot] = entry.next;
+    }
+    if (entry.next != null) {
+      entry.next.prev = entry.prev;
+    }
+    entry.prev = null;
+    entry.next = null;
+  }
+
+  private Entry<T> takeSlot(int level, int slot) {
+    Entry<T>[] wheel = wheels.get(level);
+    Entry<T> head = wheel[slot];
+    wheel[slot] = null;
+    return head;
+  }
+
+  private static int slotOf(long tick, int level) {
+    return (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+  }
+
+  // Entry holds the data to add and the tick it should be added at, linked into a slot.
+  private static class Entry<T> {
+
+    private final T data;
+    private long readyAtTick;
+    private int level;
+    private int slot;
+    private Entry<T> prev;
+    private Entry<T> next;
+
+    private Entry(T data, long readyAtTick) {
+      this.data = data;
+      this.readyAtTick = readyAtTick;
+    }
+  }
+}
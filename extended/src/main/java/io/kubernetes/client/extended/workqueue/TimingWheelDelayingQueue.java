@@ -0,0 +1,91 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link DelayingQueue} keeping the waiting items in a hierarchical timing wheel, so that adding,
+ * rescheduling and firing an item take constant time regardless of how many items are waiting,
+ * unlike {@link DefaultDelayingQueue} whose delay queue takes linear time to reschedule an item and
+ * whose bounded hand-off queue drops items when full. Items become ready at most a tick after their
+ * delay has passed.
+ */
+public class TimingWheelDelayingQueue<T> extends ConcurrentWorkQueue<T>
+    implements DelayingQueue<T> {
+
+  public static final Duration DEFAULT_TICK = Duration.ofMillis(10);
+
+  private final TimingWheel<T> timingWheel;
+
+  private final ExecutorService waitingWorker;
+
+  // whether the waiting worker was created by the queue, and is shut down along with it
+  private final boolean ownsWaitingWorker;
+
+  public TimingWheelDelayingQueue() {
+    this(Executors.newSingleThreadExecutor(), DEFAULT_TICK, System::nanoTime, true);
+  }
+
+  /**
+   * Constructor. The executor is left running on shutdown, it's up to the caller to shut it down.
+   *
+   * @param waitingWorker the executor running the loop which turns the wheels
+   * @param tick the resolution of the delays
+   */
+  public TimingWheelDelayingQueue(ExecutorService waitingWorker, Duration tick) {
+    this(waitingWorker, tick, System::nanoTime, false);
+  }
+
+  // Visible for testing
+  TimingWheelDelayingQueue(
+      ExecutorService waitingWorker,
+      Duration tick,
+      LongSupplier timeSource,
+      boolean ownsWaitingWorker) {
+    this.timingWheel = new TimingWheel<>(waitingWorker, tick, timeSource, this::add);
+    this.waitingWorker = waitingWorker;
+    this.ownsWaitingWorker = ownsWaitingWorker;
+  }
+
+  @Override
+  public void addAfter(T item, Duration duration) {
+    // don't add if we're already shutting down
+    if (isShuttingDown()) {
+      return;
+    }
+    // immediately add things w/o delay
+    if (duration.isZero() || duration.isNegative()) {
+      add(item);
+      return;
+    }
+    timingWheel.schedule(item, duration);
+  }
+
+  @Override
+  public void shutDown() {
+    super.shutDown();
+    timingWheel.stop();
+    if (ownsWaitingWorker) {
+      waitingWorker.shutdown();
+    }
+  }
+
+  // Visible for testing
+  ExecutorService getWaitingWorker() {
+    return waitingWorker;
+  }
+}
@@ -12,6 +12,8 @@ limitations under the License.
 */
 package io.kubernetes.client.extended.workqueue;
 
+import java.time.Duration;
+
 /** The workqueue interface defines the queue behavior. */
 public interface WorkQueue<T> {
 
@@ -37,6 +39,18 @@ public interface WorkQueue<T> {
    */
   T get() throws InterruptedException;
 
+  /**
+   * Poll waits up to the timeout for an item to be processed, like {@link #get()}. Work-queues
+   * which don't override it can't be polled, the default implementation throws.
+   *
+   * @param timeout how long to wait
+   * @return the object, or null if none got ready in time or the queue is shutting down
+   * @throws UnsupportedOperationException if the work-queue doesn't support polling
+   */
+  default T poll(Duration timeout) throws InterruptedException {
+    throw new UnsupportedOperationException("poll");
+  }
+
   /**
    * Done marks item as done processing, and if it has been marked as dirty again,
    *
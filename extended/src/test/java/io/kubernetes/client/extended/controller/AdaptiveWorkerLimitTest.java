@@ -0,0 +1,104 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.controller;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AdaptiveWorkerLimitTest {
+
+  private static final long INTERVAL = TimeUnit.SECONDS.toNanos(1);
+  private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static void reconcile(AdaptiveWorkerLimit limit, int count, long latencyNanos) {
+    for (int i = 0; i < count; i++) {
+      limit.onReconciled(latencyNanos);
+    }
+  }
+
+  @Test
+  public void testGrowsWithBacklogUpToMax() {
+    AdaptiveWorkerLimit limit = new AdaptiveWorkerLimit(1, 8);
+    assertEquals(1, limit.getLimit());
+
+    // 100 reconciled/s, 50 waiting for 0.5s, longer than the 10ms they take
+    reconcile(limit, 100, LATENCY);
+    assertEquals(2, limit.update(50, INTERVAL));
+    reconcile(limit, 200, LATENCY);
+    assertEquals(3, limit.update(50, INTERVAL));
+    reconcile(limit, 300, LATENCY);
+    assertEquals(4, limit.update(50, INTERVAL));
+    reconcile(limit, 400, LATENCY);
+    assertEquals(6, limit.update(50, INTERVAL));
+    reconcile(limit, 600, LATENCY);
+    assertEquals(8, limit.update(50, INTERVAL));
+    reconcile(limit, 800, LATENCY);
+    assertEquals(8, limit.update(50, INTERVAL));
+  }
+
+  @Test
+  public void testKeepsWhileBacklogIsShort() {
+    AdaptiveWorkerLimit limit = new AdaptiveWorkerLimit(2, 8);
+    // 1000 reconciled/s, 5 waiting for 5ms, shorter than the 10ms they take
+    reconcile(limit, 1000, LATENCY);
+    assertEquals(2, limit.update(5, INTERVAL));
+  }
+
+  @Test
+  public void testShrinksWhenIdleDownToMin() {
+    AdaptiveWorkerLimit limit = new AdaptiveWorkerLimit(2, 8);
+    for (int i = 0; i < 3; i++) {
+      reconcile(limit, 100, LATENCY);
+      limit.update(100, INTERVAL);
+    }
+    assertEquals(6, limit.getLimit());
+
+    reconcile(limit, 100, LATENCY);
+    assertEquals(5, limit.update(0, INTERVAL));
+    assertEquals(4, limit.update(0, INTERVAL));
+    assertEquals(3, limit.update(0, INTERVAL));
+    assertEquals(2, limit.update(0, INTERVAL));
+    assertEquals(2, limit.update(0, INTERVAL));
+  }
+
+  @Test
+  public void testBacksOffWhenLatencyDegrades() {
+    AdaptiveWorkerLimit limit = new AdaptiveWorkerLimit(1, 64);
+    for (int i = 0; i < 10; i++) {
+      reconcile(limit, 100, LATENCY);
+      limit.update(1000, INTERVAL);
+    }
+    assertEquals(24, limit.getLimit());
+
+    // the reconciliations slow down beyond twice the baseline, despite the backlog
+    reconcile(limit, 100, 3 * LATENCY);
+    assertEquals(21, limit.update(1000, INTERVAL));
+    reconcile(limit, 100, 3 * LATENCY);
+    assertEquals(18, limit.update(1000, INTERVAL));
+
+    // and recover
+    reconcile(limit, 100, LATENCY);
+    assertEquals(22, limit.update(1000, INTERVAL));
+  }
+
+  @Test
+  public void testKeepsWhileWorkersAreBusy() {
+    AdaptiveWorkerLimit limit = new AdaptiveWorkerLimit(1, 8);
+    reconcile(limit, 100, LATENCY);
+    assertEquals(2, limit.update(100, INTERVAL));
+    // nothing reconciled in the interval, but the work-queue isn't empty
+    assertEquals(2, limit.update(100, INTERVAL));
+  }
+}
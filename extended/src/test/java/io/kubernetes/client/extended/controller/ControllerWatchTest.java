@@ -16,6 +16,7 @@ import static org.junit.Assert.*;
 
 import io.kubernetes.client.extended.controller.reconciler.Request;
 import io.kubernetes.client.extended.workqueue.DefaultWorkQueue;
+import io.kubernetes.client.extended.workqueue.PriorityRateLimitingQueue;
 import io.kubernetes.client.extended.workqueue.WorkQueue;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1Pod;
@@ -68,4 +69,28 @@ public class ControllerWatchTest {
     controllerWatch.getResourceEventHandler().onDelete(testPod, false);
     assertEquals(1, workQueue.length());
   }
+
+  @Test
+  public void testResyncPriority() {
+    PriorityRateLimitingQueue<Request> workQueue =
+        new PriorityRateLimitingQueue<>("test", 2, Request::getNamespace);
+    DefaultControllerWatch<V1Pod> controllerWatch =
+        new DefaultControllerWatch(
+            V1Pod.class, workQueue, Controllers.defaultReflectiveKeyFunc(), Duration.ZERO);
+    V1Pod oldPod =
+        new V1Pod().metadata(new V1ObjectMeta().namespace("ns1").name("pod1").resourceVersion("1"));
+    V1Pod newPod =
+        new V1Pod().metadata(new V1ObjectMeta().namespace("ns1").name("pod1").resourceVersion("2"));
+
+    // resync
+    controllerWatch.getResourceEventHandler().onUpdate(oldPod, oldPod);
+    assertEquals(0, workQueue.length(0));
+    assertEquals(1, workQueue.length(1));
+
+    // a change moves it up
+    controllerWatch.getResourceEventHandler().onUpdate(oldPod, newPod);
+    assertEquals(1, workQueue.length(0));
+    assertEquals(0, workQueue.length(1));
+    workQueue.shutDown();
+  }
 }
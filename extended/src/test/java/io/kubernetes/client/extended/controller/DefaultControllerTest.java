@@ -15,18 +15,28 @@ package io.kubernetes.client.extended.controller;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import io.kubernetes.client.extended.controller.reconciler.BatchReconciler;
 import io.kubernetes.client.extended.controller.reconciler.Reconciler;
 import io.kubernetes.client.extended.controller.reconciler.Request;
 import io.kubernetes.client.extended.controller.reconciler.Result;
+import io.kubernetes.client.extended.wait.Wait;
 import io.kubernetes.client.extended.workqueue.DefaultRateLimitingQueue;
 import io.kubernetes.client.extended.workqueue.RateLimitingQueue;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -184,4 +194,234 @@ public class DefaultControllerTest {
     assertTrue(resumed.get());
     assertTrue(finishedRequests.size() >= 1);
   }
+
+  @Test(timeout = 90000)
+  public void testBatchReconciler() throws InterruptedException {
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    Set<Request> reconciled = ConcurrentHashMap.newKeySet();
+    AtomicBoolean failOnce = new AtomicBoolean(true);
+    CountDownLatch latch = new CountDownLatch(1);
+    Request failing = new Request("test0");
+    DefaultController testController =
+        new DefaultController(
+            "",
+            (BatchReconciler)
+                requests -> {
+                  batchSizes.add(requests.size());
+                  Map<Request, Result> results = new HashMap<>();
+                  for (Request request : requests) {
+                    // leaves out the failing request once, which gets requeued
+                    if (request.equals(failing) && failOnce.getAndSet(false)) {
+                      continue;
+                    }
+                    reconciled.add(request);
+                    results.put(request, new Result(false));
+                  }
+                  if (reconciled.size() == 10) {
+                    latch.countDown();
+                  }
+                  return results;
+                },
+            workQueue);
+    testController.setWorkerCount(1);
+    testController.setWorkerThreadPool(Executors.newScheduledThreadPool(1));
+    testController.setBatchSize(4);
+    testController.setBatchLinger(Duration.ofMillis(100));
+
+    for (int i = 0; i < 10; i++) {
+      workQueue.add(new Request("test" + i));
+    }
+    controllerThead.submit(testController::run);
+    latch.await();
+    testController.shutdown();
+
+    // the ready requests fill the batches, the requeued one comes back in a later batch
+    assertEquals(Arrays.asList(4, 4), batchSizes.subList(0, 2));
+    assertTrue(batchSizes.stream().allMatch(size -> size <= 4));
+    assertEquals(11, batchSizes.stream().mapToInt(Integer::intValue).sum());
+    assertTrue(reconciled.contains(failing));
+  }
+
+  @Test(timeout = 90000)
+  public void testBatchReconcilerWithoutPoll() throws InterruptedException {
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(10);
+    RateLimitingQueue<Request> nonPollingQueue = new NonPollingQueue<>(workQueue);
+    DefaultController testController =
+        new DefaultController(
+            "",
+            (BatchReconciler)
+                requests -> {
+                  batchSizes.add(requests.size());
+                  Map<Request, Result> results = new HashMap<>();
+                  for (Request request : requests) {
+                    results.put(request, new Result(false));
+                    latch.countDown();
+                  }
+                  return results;
+                },
+            nonPollingQueue);
+    testController.setWorkerCount(1);
+    testController.setWorkerThreadPool(Executors.newScheduledThreadPool(1));
+    testController.setBatchSize(4);
+
+    for (int i = 0; i < 10; i++) {
+      nonPollingQueue.add(new Request("test" + i));
+    }
+    controllerThead.submit(testController::run);
+    latch.await();
+    testController.shutdown();
+
+    // the work-queue can't be polled to fill the batches
+    assertEquals(10, batchSizes.size());
+    assertTrue(batchSizes.stream().allMatch(size -> size == 1));
+  }
+
+  @Test(timeout = 90000)
+  public void testAdaptiveWorkerCount() throws InterruptedException {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(200);
+    DefaultController testController =
+        new DefaultController(
+            "",
+            request -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              try {
+                Thread.sleep(20);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              } finally {
+                running.decrementAndGet();
+                latch.countDown();
+              }
+              return new Result(false);
+            },
+            workQueue);
+    testController.setWorkerCount(1);
+    testController.setMaxWorkerCount(8);
+    testController.setWorkerAdjustInterval(Duration.ofMillis(100));
+    testController.setWorkerThreadPool(Executors.newScheduledThreadPool(9));
+
+    for (int i = 0; i < 200; i++) {
+      workQueue.add(new Request("test" + i));
+    }
+    controllerThead.submit(testController::run);
+    latch.await();
+
+    // scaled up for the backlog, and back down once idle
+    assertTrue(maxRunning.get() > 1);
+    assertTrue(maxRunning.get() <= 8);
+    assertTrue(
+        Wait.poll(
+            Duration.ofMillis(100),
+            Duration.ofSeconds(10),
+            () -> testController.getActiveWorkerCount() == 1));
+
+    testController.shutdown();
+    assertTrue(
+        Wait.poll(
+            Duration.ofMillis(100),
+            Duration.ofSeconds(10),
+            () -> testController.getActiveWorkerCount() == 0));
+  }
+
+  @Test(timeout = 90000)
+  public void testAdaptiveWorkerCountWithoutPoll() throws InterruptedException {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(20);
+    RateLimitingQueue<Request> nonPollingQueue = new NonPollingQueue<>(workQueue);
+    DefaultController testController =
+        new DefaultController(
+            "",
+            request -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              try {
+                Thread.sleep(20);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              } finally {
+                running.decrementAndGet();
+                latch.countDown();
+              }
+              return new Result(false);
+            },
+            nonPollingQueue);
+    testController.setWorkerCount(2);
+    testController.setMaxWorkerCount(8);
+    testController.setWorkerAdjustInterval(Duration.ofMillis(100));
+    testController.setWorkerThreadPool(Executors.newScheduledThreadPool(9));
+
+    for (int i = 0; i < 20; i++) {
+      nonPollingQueue.add(new Request("test" + i));
+    }
+    controllerThead.submit(testController::run);
+    latch.await();
+    testController.shutdown();
+
+    // falls back to the fixed worker count
+    assertTrue(maxRunning.get() <= 2);
+    assertEquals(0, testController.getActiveWorkerCount());
+  }
+
+  // NonPollingQueue delegates to a work-queue, except for poll which it doesn't override.
+  private static class NonPollingQueue<T> implements RateLimitingQueue<T> {
+
+    private final RateLimitingQueue<T> delegate;
+
+    private NonPollingQueue(RateLimitingQueue<T> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void addRateLimited(T item) {
+      delegate.addRateLimited(item);
+    }
+
+    @Override
+    public void forget(T item) {
+      delegate.forget(item);
+    }
+
+    @Override
+    public int numRequeues(T item) {
+      return delegate.numRequeues(item);
+    }
+
+    @Override
+    public void addAfter(T item, Duration duration) {
+      delegate.addAfter(item, duration);
+    }
+
+    @Override
+    public void add(T item) {
+      delegate.add(item);
+    }
+
+    @Override
+    public int length() {
+      return delegate.length();
+    }
+
+    @Override
+    public T get() throws InterruptedException {
+      return delegate.get();
+    }
+
+    @Override
+    public void done(T item) {
+      delegate.done(item);
+    }
+
+    @Override
+    public void shutDown() {
+      delegate.shutDown();
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+      return delegate.isShuttingDown();
+    }
+  }
 }
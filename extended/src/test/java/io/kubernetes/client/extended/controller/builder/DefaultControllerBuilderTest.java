@@ -124,6 +124,21 @@ public class DefaultControllerBuilderTest {
         .build();
   }
 
+  @Test
+  public void testControllerBuilderWithVirtualThreadsShouldWork() {
+    ControllerBuilder.defaultBuilder(informerFactory)
+        .withName("test-controller")
+        .withVirtualThreads(true)
+        .withReconciler(
+            new Reconciler() {
+              @Override
+              public Result reconcile(Request request) {
+                return new Result(false);
+              }
+            })
+        .build();
+  }
+
   @Test
   public void testBuildWatchEventNotificationShouldWork() throws InterruptedException {
     V1PodList podList =
@@ -0,0 +1,85 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.kubernetes.client.extended.wait.Wait;
+import io.kubernetes.client.extended.workqueue.ratelimiter.ItemExponentialFailureRateLimiter;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ConcurrentRateLimitingQueueTest {
+
+  @Test
+  public void testAddAfter() throws Exception {
+    ConcurrentRateLimitingQueue<String> queue = new ConcurrentRateLimitingQueue<>();
+    queue.addAfter("foo", Duration.ofMillis(200));
+    queue.addAfter("bar", Duration.ZERO);
+    assertEquals(1, queue.length());
+    assertEquals("bar", queue.get());
+
+    assertTrue(waitForAdded(queue, 1));
+    assertEquals("foo", queue.get());
+    queue.shutDown();
+  }
+
+  @Test
+  public void testDeduping() throws Exception {
+    ConcurrentRateLimitingQueue<String> queue = new ConcurrentRateLimitingQueue<>();
+    // the later add doesn't postpone the item
+    queue.addAfter("foo", Duration.ofMillis(100));
+    queue.addAfter("foo", Duration.ofHours(1));
+    assertTrue(waitForAdded(queue, 1));
+    queue.done(queue.get());
+
+    // the earlier add overrides
+    queue.addAfter("foo", Duration.ofHours(1));
+    queue.addAfter("foo", Duration.ofMillis(100));
+    assertTrue(waitForAdded(queue, 1));
+    queue.done(queue.get());
+
+    Thread.sleep(200);
+    assertEquals(0, queue.length());
+    queue.shutDown();
+  }
+
+  @Test
+  public void testRateLimited() throws Exception {
+    ConcurrentRateLimitingQueue<String> queue =
+        new ConcurrentRateLimitingQueue<>(
+            new ItemExponentialFailureRateLimiter<>(Duration.ofMillis(1), Duration.ofSeconds(1)));
+    queue.addRateLimited("foo");
+    queue.addRateLimited("foo");
+    assertEquals(2, queue.numRequeues("foo"));
+    assertTrue(waitForAdded(queue, 1));
+
+    queue.forget("foo");
+    assertEquals(0, queue.numRequeues("foo"));
+    queue.shutDown();
+  }
+
+  private boolean waitForAdded(WorkQueue<?> queue, int size) {
+    return Wait.poll(Duration.ofMillis(10), Duration.ofSeconds(10), () -> queue.length() == size);
+  }
+
+  @Test
+  public void testShutDownStopsWorker() throws Exception {
+    ConcurrentRateLimitingQueue<String> queue = new ConcurrentRateLimitingQueue<>();
+    queue.addRateLimited("foo");
+    queue.shutDown();
+    assertTrue(queue.getWaitingWorker().awaitTermination(5, TimeUnit.SECONDS));
+  }
+}
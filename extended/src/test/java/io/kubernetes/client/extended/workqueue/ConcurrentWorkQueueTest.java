@@ -0,0 +1,209 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ConcurrentWorkQueueTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentWorkQueueTest.class);
+
+  @Test
+  public void testLen() {
+    ConcurrentWorkQueue<String> queue = new ConcurrentWorkQueue<>();
+    queue.add("foo");
+    assertEquals(1, queue.length());
+    queue.add("bar");
+    assertEquals(2, queue.length());
+    queue.add("foo"); // should not increase the queue length.
+    assertEquals(2, queue.length());
+  }
+
+  @Test
+  public void testReinsert() throws Exception {
+    ConcurrentWorkQueue<String> queue = new ConcurrentWorkQueue<>();
+    queue.add("foo");
+
+    // Start processing
+    String item = queue.get();
+    assertEquals("foo", item);
+
+    // Add it back while processing, twice
+    queue.add(item);
+    queue.add(item);
+    assertEquals(0, queue.length());
+
+    // Finish it up
+    queue.done(item);
+
+    // It should be back on the queue, once
+    assertEquals(1, queue.length());
+    item = queue.get();
+    assertEquals("foo", item);
+
+    // Finish that one up
+    queue.done(item);
+    assertEquals(0, queue.length());
+
+    // Done again is a no-op
+    queue.done(item);
+    assertEquals(0, queue.length());
+  }
+
+  @Test
+  public void testShutDownWakesUpWorkers() throws Exception {
+    ConcurrentWorkQueue<String> queue = new ConcurrentWorkQueue<>();
+    queue.add("foo");
+    int workerCount = 4;
+    CountDownLatch workerLatch = new CountDownLatch(workerCount);
+    AtomicInteger processed = new AtomicInteger();
+    for (int i = 0; i < workerCount; i++) {
+      new Thread(
+              () -> {
+                try {
+                  String item;
+                  while ((item = queue.get()) != null) {
+                    processed.incrementAndGet();
+                    queue.done(item);
+                  }
+                } catch (InterruptedException e) {
+                  // empty body
+                } finally {
+                  workerLatch.countDown();
+                }
+              })
+          .start();
+    }
+
+    Thread.sleep(100);
+    queue.shutDown();
+    queue.add("added after shutdown!");
+    assertTrue(workerLatch.await(10, TimeUnit.SECONDS));
+    assertEquals(1, processed.get());
+    assertTrue(queue.isShuttingDown());
+    assertNull(queue.get());
+  }
+
+  // a unit-test sized stand-in for a throughput benchmark: runs the same add/get/done workload on
+  // both implementations at increasing concurrency, checks an item is never processed by two
+  // workers at once and no add is lost, and logs the throughput.
+  @Test
+  public void testConcurrentAddGetDone() throws Exception {
+    for (int threads : new int[] {1, 8, 64}) {
+      long concurrent = run(ConcurrentWorkQueue::new, threads, 20000);
+      long synchronous = run(DefaultWorkQueue::new, threads, 20000);
+      LOGGER.info(
+          "{} threads: ConcurrentWorkQueue {} ops/s, DefaultWorkQueue {} ops/s",
+          threads,
+          concurrent,
+          synchronous);
+    }
+  }
+
+  private static long run(Supplier<WorkQueue<Integer>> queueSupplier, int threads, int adds)
+      throws InterruptedException {
+    WorkQueue<Integer> queue = queueSupplier.get();
+    Set<Integer> processing = ConcurrentHashMap.newKeySet();
+    // the items added since they were last got, which must be got again eventually
+    Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    AtomicBoolean overlapped = new AtomicBoolean();
+    AtomicInteger operations = new AtomicInteger();
+    CountDownLatch producerLatch = new CountDownLatch(threads);
+    CountDownLatch workerLatch = new CountDownLatch(threads);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < threads; i++) {
+      final int offset = i;
+      new Thread(
+              () -> {
+                for (int j = 0; j < adds / threads; j++) {
+                  int item = (offset + j) % 128;
+                  pending.add(item);
+                  queue.add(item);
+                  operations.incrementAndGet();
+                }
+                producerLatch.countDown();
+              })
+          .start();
+      new Thread(
+              () -> {
+                try {
+                  Integer item;
+                  while ((item = queue.get()) != null) {
+                    if (!processing.add(item)) {
+                      overlapped.set(true);
+                    }
+                    pending.remove(item);
+                    processing.remove(item);
+                    queue.done(item);
+                    operations.addAndGet(2);
+                  }
+                } catch (InterruptedException e) {
+                  // empty body
+                } finally {
+                  workerLatch.countDown();
+                }
+              })
+          .start();
+    }
+
+    assertTrue(producerLatch.await(30, TimeUnit.SECONDS));
+    // lets the workers drain the queue
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (!pending.isEmpty() && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    queue.shutDown();
+    assertTrue(workerLatch.await(10, TimeUnit.SECONDS));
+    long elapsed = System.nanoTime() - start;
+
+    assertFalse("an item was processed concurrently", overlapped.get());
+    assertTrue("an added item was never processed: " + pending, pending.isEmpty());
+    assertEquals(0, queue.length());
+    return operations.get() * TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+
+  @Test
+  public void testPoll() throws Exception {
+    ConcurrentWorkQueue<String> queue = new ConcurrentWorkQueue<>();
+    assertNull(queue.poll(Duration.ofMillis(10)));
+
+    queue.add("foo");
+    String item = queue.poll(Duration.ofMillis(10));
+    assertEquals("foo", item);
+
+    // It's being processed
+    queue.add(item);
+    assertNull(queue.poll(Duration.ofMillis(10)));
+    queue.done(item);
+    assertEquals("foo", queue.poll(Duration.ofMillis(10)));
+
+    queue.shutDown();
+    assertNull(queue.poll(Duration.ofSeconds(10)));
+  }
+}
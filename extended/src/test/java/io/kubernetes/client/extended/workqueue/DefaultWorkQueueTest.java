@@ -14,7 +14,10 @@ package io.kubernetes.client.extended.workqueue;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -179,4 +182,65 @@ public class DefaultWorkQueueTest {
 
     assertEquals(0, queue.length());
   }
+
+  @Test
+  public void testPoll() throws Exception {
+    DefaultWorkQueue<String> queue = new DefaultWorkQueue<>();
+    assertNull(queue.poll(Duration.ofMillis(10)));
+
+    queue.add("foo");
+    String item = queue.poll(Duration.ofMillis(10));
+    assertEquals("foo", item);
+
+    // It's being processed
+    queue.add(item);
+    assertNull(queue.poll(Duration.ofMillis(10)));
+    queue.done(item);
+    assertEquals("foo", queue.poll(Duration.ofMillis(10)));
+
+    queue.shutDown();
+    assertNull(queue.poll(Duration.ofSeconds(10)));
+  }
+
+  @Test
+  public void testDefaultPollIsUnsupported() {
+    DefaultWorkQueue<String> delegate = new DefaultWorkQueue<>();
+    // doesn't override poll
+    WorkQueue<String> queue =
+        new WorkQueue<String>() {
+          @Override
+          public void add(String item) {
+            delegate.add(item);
+          }
+
+          @Override
+          public int length() {
+            return delegate.length();
+          }
+
+          @Override
+          public String get() throws InterruptedException {
+            return delegate.get();
+          }
+
+          @Override
+          public void done(String item) {
+            delegate.done(item);
+          }
+
+          @Override
+          public void shutDown() {
+            delegate.shutDown();
+          }
+
+          @Override
+          public boolean isShuttingDown() {
+            return delegate.isShuttingDown();
+          }
+        };
+
+    queue.add("foo");
+    assertThrows(UnsupportedOperationException.class, () -> queue.poll(Duration.ofMillis(10)));
+    assertEquals(1, queue.length());
+  }
 }
@@ -0,0 +1,172 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.kubernetes.client.extended.controller.reconciler.Request;
+import io.kubernetes.client.extended.wait.Wait;
+import io.kubernetes.client.extended.workqueue.ratelimiter.DefaultControllerRateLimiter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+public class PriorityRateLimitingQueueTest {
+
+  private PriorityRateLimitingQueue<Request> queue =
+      new PriorityRateLimitingQueue<>("test", 2, Request::getNamespace);
+
+  @After
+  public void tearDown() {
+    queue.shutDown();
+  }
+
+  @Test
+  public void testHigherPriorityFirst() throws Exception {
+    queue.add(new Request("ns1", "a"), 1);
+    queue.add(new Request("ns1", "b"), 1);
+    queue.add(new Request("ns1", "c"));
+    assertEquals(3, queue.length());
+    assertEquals(1, queue.length(0));
+    assertEquals(2, queue.length(1));
+
+    assertEquals(new Request("ns1", "c"), queue.get());
+    assertEquals(new Request("ns1", "a"), queue.get());
+    assertEquals(new Request("ns1", "b"), queue.get());
+    assertEquals(0, queue.length());
+  }
+
+  @Test
+  public void testPriorityIsClamped() throws Exception {
+    queue.add(new Request("ns1", "a"), 5);
+    queue.add(new Request("ns1", "b"), -1);
+    assertEquals(1, queue.length(0));
+    assertEquals(1, queue.length(1));
+  }
+
+  @Test
+  public void testMovesUpWhenAddedWithHigherPriority() throws Exception {
+    queue.add(new Request("ns1", "a"), 1);
+    queue.add(new Request("ns1", "b"), 1);
+    queue.add(new Request("ns1", "b"), 0);
+    queue.add(new Request("ns1", "b"), 1);
+    assertEquals(2, queue.length());
+    assertEquals(1, queue.length(0));
+
+    assertEquals(new Request("ns1", "b"), queue.get());
+    assertEquals(new Request("ns1", "a"), queue.get());
+    // the stale slot of b in the lower lane is skipped
+    assertEquals(0, queue.length());
+    queue.add(new Request("ns1", "c"), 1);
+    assertEquals(new Request("ns1", "c"), queue.get());
+  }
+
+  @Test
+  public void testReinsertWhileProcessing() throws Exception {
+    Request request = new Request("ns1", "a");
+    queue.add(request);
+    assertEquals(request, queue.get());
+
+    // Add it back while processing
+    queue.add(request, 1);
+    assertEquals(0, queue.length());
+
+    // Finish it up, it should be back on the queue
+    queue.done(request);
+    assertEquals(1, queue.length(1));
+    assertEquals(request, queue.get());
+    queue.done(request);
+    assertEquals(0, queue.length());
+  }
+
+  @Test
+  public void testFairQueuingAcrossNamespaces() throws Exception {
+    for (String name : Arrays.asList("a", "b", "c", "d")) {
+      queue.add(new Request("ns1", name));
+    }
+    for (String name : Arrays.asList("e", "f")) {
+      queue.add(new Request("ns2", name));
+    }
+    assertEquals(Arrays.asList("a", "e", "b", "f", "c", "d"), drain(queue, 6));
+  }
+
+  @Test
+  public void testWeightedFairQueuing() throws Exception {
+    queue.shutDown();
+    queue =
+        new PriorityRateLimitingQueue<>(
+            "test",
+            1,
+            Request::getNamespace,
+            namespace -> namespace.equals("ns1") ? 2 : 1,
+            new DefaultControllerRateLimiter<>());
+    for (String name : Arrays.asList("a", "b", "c", "d")) {
+      queue.add(new Request("ns1", name));
+    }
+    for (String name : Arrays.asList("e", "f")) {
+      queue.add(new Request("ns2", name));
+    }
+    assertEquals(Arrays.asList("a", "b", "e", "c", "d", "f"), drain(queue, 6));
+  }
+
+  @Test
+  public void testAddAfterKeepsLane() throws Exception {
+    Request request = new Request("ns1", "a");
+    queue.add(request, 1);
+    assertEquals(request, queue.get());
+    queue.addAfter(request, Duration.ofMillis(20));
+    queue.done(request);
+
+    assertTrue(
+        Wait.poll(Duration.ofMillis(10), Duration.ofSeconds(10), () -> queue.length(1) == 1));
+    assertEquals(0, queue.length(0));
+  }
+
+  @Test
+  public void testShutDown() throws Exception {
+    queue.add(new Request("ns1", "a"));
+    queue.shutDown();
+    queue.add(new Request("ns1", "b"));
+    assertTrue(queue.isShuttingDown());
+    assertEquals(new Request("ns1", "a"), queue.get());
+    assertNull(queue.get());
+  }
+
+  private static List<String> drain(WorkQueue<Request> queue, int count)
+      throws InterruptedException {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Request request = queue.get();
+      names.add(request.getName());
+      queue.done(request);
+    }
+    return names;
+  }
+
+  @Test
+  public void testPoll() throws Exception {
+    assertNull(queue.poll(Duration.ofMillis(10)));
+    queue.add(new Request("ns1", "a"), 1);
+    queue.add(new Request("ns1", "b"));
+    assertEquals(new Request("ns1", "b"), queue.poll(Duration.ofMillis(10)));
+    assertEquals(new Request("ns1", "a"), queue.poll(Duration.ofMillis(10)));
+    assertNull(queue.poll(Duration.ofMillis(10)));
+    queue.shutDown();
+    assertNull(queue.poll(Duration.ofSeconds(10)));
+  }
+}
@@ -0,0 +1,217 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.extended.workqueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.kubernetes.client.extended.wait.Wait;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TimingWheelDelayingQueueTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheelDelayingQueueTest.class);
+
+  private final AtomicLong nanoTime = new AtomicLong(System.nanoTime());
+
+  private TimingWheelDelayingQueue<String> newQueue() {
+    return new TimingWheelDelayingQueue<>(
+        Executors.newSingleThreadExecutor(), Duration.ofMillis(1), nanoTime::get, true);
+  }
+
+  private void advance(Duration duration) {
+    nanoTime.addAndGet(duration.toNanos());
+  }
+
+  @Test
+  public void testSimpleDelayingQueue() throws Exception {
+    TimingWheelDelayingQueue<String> queue = newQueue();
+    queue.addAfter("foo", Duration.ofMillis(50));
+
+    // Verify that we haven't released it
+    Thread.sleep(50);
+    assertEquals(0, queue.length());
+
+    // Advance time
+    advance(Duration.ofMillis(49));
+    Thread.sleep(50);
+    assertEquals(0, queue.length());
+    advance(Duration.ofMillis(1));
+    assertTrue(waitForAdded(queue, 1));
+    queue.done(queue.get());
+    queue.shutDown();
+  }
+
+  @Test
+  public void testDeduping() throws Exception {
+    TimingWheelDelayingQueue<String> queue = newQueue();
+
+    queue.addAfter("foo", Duration.ofMillis(50));
+    queue.addAfter("foo", Duration.ofMillis(70));
+
+    // Advance time
+    advance(Duration.ofMillis(60));
+    assertTrue(waitForAdded(queue, 1));
+    queue.done(queue.get());
+
+    // step past the second add
+    advance(Duration.ofMillis(30));
+    Thread.sleep(50);
+    assertEquals("should not have added", 0, queue.length());
+
+    // test again, but this time the earlier should override
+    queue.addAfter("foo", Duration.ofMillis(50));
+    queue.addAfter("foo", Duration.ofMillis(30));
+    advance(Duration.ofMillis(40));
+    assertTrue(waitForAdded(queue, 1));
+    queue.done(queue.get());
+
+    // step past the first add
+    advance(Duration.ofMillis(40));
+    Thread.sleep(50);
+    assertEquals("should not have added", 0, queue.length());
+    queue.shutDown();
+  }
+
+  @Test
+  public void testCopyShifting() throws Exception {
+    TimingWheelDelayingQueue<String> queue = newQueue();
+    queue.addAfter("foo", Duration.ofSeconds(1));
+    queue.addAfter("bar", Duration.ofMillis(500));
+    queue.addAfter("baz", Duration.ofMillis(250));
+    Thread.sleep(50);
+    assertEquals("should not have added", 0, queue.length());
+
+    advance(Duration.ofMillis(2000));
+    assertTrue(waitForAdded(queue, 3));
+    assertEquals("baz", queue.get());
+    assertEquals("bar", queue.get());
+    assertEquals("foo", queue.get());
+    queue.shutDown();
+  }
+
+  @Test
+  public void testLongDelaysCascade() throws Exception {
+    TimingWheelDelayingQueue<String> queue = newQueue();
+    // spans the first three wheels of 64, 4096 and 262144 ticks
+    queue.addAfter("foo", Duration.ofMillis(100));
+    queue.addAfter("bar", Duration.ofSeconds(10));
+    queue.addAfter("baz", Duration.ofMinutes(10));
+
+    advance(Duration.ofMillis(99));
+    Thread.sleep(50);
+    assertEquals(0, queue.length());
+    advance(Duration.ofMillis(1));
+    assertTrue(waitForAdded(queue, 1));
+    assertEquals("foo", queue.get());
+
+    advance(Duration.ofSeconds(10).minusMillis(101));
+    Thread.sleep(50);
+    assertEquals(0, queue.length());
+    advance(Duration.ofMillis(1));
+    assertTrue(waitForAdded(queue, 1));
+    assertEquals("bar", queue.get());
+
+    advance(Duration.ofMinutes(10).minusSeconds(10).minusMillis(1));
+    Thread.sleep(50);
+    assertEquals(0, queue.length());
+    advance(Duration.ofMillis(1));
+    assertTrue(waitForAdded(queue, 1));
+    assertEquals("baz", queue.get());
+    queue.shutDown();
+  }
+
+  @Test
+  public void testRescheduleEarlierAcrossWheels() throws Exception {
+    TimingWheelDelayingQueue<String> queue = newQueue();
+    queue.addAfter("foo", Duration.ofMinutes(10));
+    queue.addAfter("foo", Duration.ofMillis(10));
+    advance(Duration.ofMillis(10));
+    assertTrue(waitForAdded(queue, 1));
+    queue.done(queue.get());
+
+    advance(Duration.ofMinutes(10));
+    Thread.sleep(50);
+    assertEquals(0, queue.length());
+    queue.shutDown();
+  }
+
+  @Test
+  public void testShutDownStopsOwnedWorker() throws Exception {
+    TimingWheelDelayingQueue<String> queue = new TimingWheelDelayingQueue<>();
+    queue.addAfter("foo", Duration.ofHours(1));
+    queue.shutDown();
+    assertTrue(queue.getWaitingWorker().awaitTermination(5, TimeUnit.SECONDS));
+
+    ExecutorService waitingWorker = Executors.newSingleThreadExecutor();
+    queue = new TimingWheelDelayingQueue<>(waitingWorker, TimingWheelDelayingQueue.DEFAULT_TICK);
+    queue.shutDown();
+    assertFalse(waitingWorker.isShutdown());
+    waitingWorker.shutdown();
+  }
+
+  // a unit-test sized stand-in for a benchmark: schedules many items with random delays in real
+  // time, checks every item becomes ready, never early, and logs the insert throughput and the
+  // scheduling accuracy.
+  @Test
+  public void testSchedulingAccuracy() throws Exception {
+    TimingWheelDelayingQueue<Integer> queue =
+        new TimingWheelDelayingQueue<>(
+            Executors.newSingleThreadExecutor(), TimingWheelDelayingQueue.DEFAULT_TICK);
+    int count = 100000;
+    Map<Integer, Long> readyAt = new ConcurrentHashMap<>();
+    Random random = new Random(0);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < count; i++) {
+      Duration delay = Duration.ofMillis(1 + random.nextInt(500));
+      readyAt.put(i, System.nanoTime() + delay.toNanos());
+      queue.addAfter(i, delay);
+    }
+    long insertNanos = System.nanoTime() - start;
+
+    long maxLateness = 0;
+    long totalLateness = 0;
+    for (int i = 0; i < count; i++) {
+      Integer item = queue.get();
+      long lateness = System.nanoTime() - readyAt.remove(item);
+      assertTrue("item " + item + " was ready " + -lateness + "ns early", lateness >= 0);
+      maxLateness = Math.max(maxLateness, lateness);
+      totalLateness += lateness;
+      queue.done(item);
+    }
+    queue.shutDown();
+
+    assertTrue(readyAt.isEmpty());
+    LOGGER.info(
+        "{} inserts/s, lateness avg {}ms max {}ms",
+        count * TimeUnit.SECONDS.toNanos(1) / insertNanos,
+        TimeUnit.NANOSECONDS.toMillis(totalLateness / count),
+        TimeUnit.NANOSECONDS.toMillis(maxLateness));
+  }
+
+  private boolean waitForAdded(WorkQueue<?> queue, int size) {
+    return Wait.poll(Duration.ofMillis(10), Duration.ofSeconds(10), () -> queue.length() == size);
+  }
+}
@@ -0,0 +1,366 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1ManagedFieldsEntry;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflection-free type adapters for the metadata models embedded in every kubernetes object, which
+ * make up a large share of the (de)serialization work of list and watch responses. The fields are
+ * written in the same order as gson's reflective adapters write them.
+ */
+public class MetadataTypeAdapterFactory implements TypeAdapterFactory {
+
+  private static final TypeToken<Map<String, String>> STRING_MAP =
+      new TypeToken<Map<String, String>>() {};
+
+  private static final TypeToken<List<String>> STRING_LIST = new TypeToken<List<String>>() {};
+
+  private static final TypeToken<List<V1ManagedFieldsEntry>> MANAGED_FIELDS_LIST =
+      new TypeToken<List<V1ManagedFieldsEntry>>() {};
+
+  private static final TypeToken<List<V1OwnerReference>> OWNER_REFERENCE_LIST =
+      new TypeToken<List<V1OwnerReference>>() {};
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    Class<? super T> rawType = type.getRawType();
+    if (rawType == V1ObjectMeta.class) {
+      return (TypeAdapter<T>) new ObjectMetaAdapter(gson).nullSafe();
+    }
+    if (rawType == V1OwnerReference.class) {
+      return (TypeAdapter<T>) new OwnerReferenceAdapter(gson).nullSafe();
+    }
+    if (rawType == V1ManagedFieldsEntry.class) {
+      return (TypeAdapter<T>) new ManagedFieldsEntryAdapter(gson).nullSafe();
+    }
+    if (rawType == V1ListMeta.class) {
+      return (TypeAdapter<T>) new ListMetaAdapter(gson).nullSafe();
+    }
+    return null;
+  }
+
+  private static class ObjectMetaAdapter extends TypeAdapter<V1ObjectMeta> {
+
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Long> longAdapter;
+    private final TypeAdapter<OffsetDateTime> timeAdapter;
+    private final TypeAdapter<Map<String, String>> stringMapAdapter;
+    private final TypeAdapter<List<String>> stringListAdapter;
+    private final TypeAdapter<List<V1ManagedFieldsEntry>> managedFieldsAdapter;
+    private final TypeAdapter<List<V1OwnerReference>> ownerReferencesAdapter;
+
+    private ObjectMetaAdapter(Gson gson) {
+      this.stringAdapter = gson.getAdapter(String.class);
+      this.longAdapter = gson.getAdapter(Long.class);
+      this.timeAdapter = gson.getAdapter(OffsetDateTime.class);
+      this.stringMapAdapter = gson.getAdapter(STRING_MAP);
+      this.stringListAdapter = gson.getAdapter(STRING_LIST);
+      this.managedFieldsAdapter = gson.getAdapter(MANAGED_FIELDS_LIST);
+      this.ownerReferencesAdapter = gson.getAdapter(OWNER_REFERENCE_LIST);
+    }
+
+    @Override
+    public void write(JsonWriter out, V1ObjectMeta value) throws IOException {
+      out.beginObject();
+      out.name(V1ObjectMeta.SERIALIZED_NAME_ANNOTATIONS);
+      stringMapAdapter.write(out, value.getAnnotations());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_CREATION_TIMESTAMP);
+      timeAdapter.write(out, value.getCreationTimestamp());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_DELETION_GRACE_PERIOD_SECONDS);
+      longAdapter.write(out, value.getDeletionGracePeriodSeconds());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_DELETION_TIMESTAMP);
+      timeAdapter.write(out, value.getDeletionTimestamp());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_FINALIZERS);
+      stringListAdapter.write(out, value.getFinalizers());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_GENERATE_NAME);
+      stringAdapter.write(out, value.getGenerateName());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_GENERATION);
+      longAdapter.write(out, value.getGeneration());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_LABELS);
+      stringMapAdapter.write(out, value.getLabels());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_MANAGED_FIELDS);
+      managedFieldsAdapter.write(out, value.getManagedFields());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_NAME);
+      stringAdapter.write(out, value.getName());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_NAMESPACE);
+      stringAdapter.write(out, value.getNamespace());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_OWNER_REFERENCES);
+      ownerReferencesAdapter.write(out, value.getOwnerReferences());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_RESOURCE_VERSION);
+      stringAdapter.write(out, value.getResourceVersion());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_SELF_LINK);
+      stringAdapter.write(out, value.getSelfLink());
+      out.name(V1ObjectMeta.SERIALIZED_NAME_UID);
+      stringAdapter.write(out, value.getUid());
+      out.endObject();
+    }
+
+    @Override
+    public V1ObjectMeta read(JsonReader in) throws IOException {
+      V1ObjectMeta value = new V1ObjectMeta();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        switch (name) {
+          case V1ObjectMeta.SERIALIZED_NAME_ANNOTATIONS:
+            value.setAnnotations(stringMapAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_CREATION_TIMESTAMP:
+            value.setCreationTimestamp(timeAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_DELETION_GRACE_PERIOD_SECONDS:
+            value.setDeletionGracePeriodSeconds(longAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_DELETION_TIMESTAMP:
+            value.setDeletionTimestamp(timeAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_FINALIZERS:
+            value.setFinalizers(stringListAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_GENERATE_NAME:
+            value.setGenerateName(stringAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_GENERATION:
+            value.setGeneration(longAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_LABELS:
+            value.setLabels(stringMapAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_MANAGED_FIELDS:
+            value.setManagedFields(managedFieldsAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_NAME:
+            value.setName(stringAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_NAMESPACE:
+            value.setNamespace(stringAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_OWNER_REFERENCES:
+            value.setOwnerReferences(ownerReferencesAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_RESOURCE_VERSION:
+            value.setResourceVersion(stringAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_SELF_LINK:
+            value.setSelfLink(stringAdapter.read(in));
+            break;
+          case V1ObjectMeta.SERIALIZED_NAME_UID:
+            value.setUid(stringAdapter.read(in));
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return value;
+    }
+  }
+
+  private static class OwnerReferenceAdapter extends TypeAdapter<V1OwnerReference> {
+
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+
+    private OwnerReferenceAdapter(Gson gson) {
+      this.stringAdapter = gson.getAdapter(String.class);
+      this.booleanAdapter = gson.getAdapter(Boolean.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, V1OwnerReference value) throws IOException {
+      out.beginObject();
+      out.name(V1OwnerReference.SERIALIZED_NAME_API_VERSION);
+      stringAdapter.write(out, value.getApiVersion());
+      out.name(V1OwnerReference.SERIALIZED_NAME_BLOCK_OWNER_DELETION);
+      booleanAdapter.write(out, value.getBlockOwnerDeletion());
+      out.name(V1OwnerReference.SERIALIZED_NAME_CONTROLLER);
+      booleanAdapter.write(out, value.getController());
+      out.name(V1OwnerReference.SERIALIZED_NAME_KIND);
+      stringAdapter.write(out, value.getKind());
+      out.name(V1OwnerReference.SERIALIZED_NAME_NAME);
+      stringAdapter.write(out, value.getName());
+      out.name(V1OwnerReference.SERIALIZED_NAME_UID);
+      stringAdapter.write(out, value.getUid());
+      out.endObject();
+    }
+
+    @Override
+    public V1OwnerReference read(JsonReader in) throws IOException {
+      V1OwnerReference value = new V1OwnerReference();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        switch (name) {
+          case V1OwnerReference.SERIALIZED_NAME_API_VERSION:
+            value.setApiVersion(stringAdapter.read(in));
+            break;
+          case V1OwnerReference.SERIALIZED_NAME_BLOCK_OWNER_DELETION:
+            value.setBlockOwnerDeletion(booleanAdapter.read(in));
+            break;
+          case V1OwnerReference.SERIALIZED_NAME_CONTROLLER:
+            value.setController(booleanAdapter.read(in));
+            break;
+          case V1OwnerReference.SERIALIZED_NAME_KIND:
+            value.setKind(stringAdapter.read(in));
+            break;
+          case V1OwnerReference.SERIALIZED_NAME_NAME:
+            value.setName(stringAdapter.read(in));
+            break;
+          case V1OwnerReference.SERIALIZED_NAME_UID:
+            value.setUid(stringAdapter.read(in));
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return value;
+    }
+  }
+
+  private static class ManagedFieldsEntryAdapter extends TypeAdapter<V1ManagedFieldsEntry> {
+
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Object> objectAdapter;
+    private final TypeAdapter<OffsetDateTime> timeAdapter;
+
+    private ManagedFieldsEntryAdapter(Gson gson) {
+      this.stringAdapter = gson.getAdapter(String.class);
+      this.objectAdapter = gson.getAdapter(Object.class);
+      this.timeAdapter = gson.getAdapter(OffsetDateTime.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, V1ManagedFieldsEntry value) throws IOException {
+      out.beginObject();
+      out.name(V1ManagedFieldsEntry.SERIALIZED_NAME_API_VERSION);
+      stringAdapter.write(out, value.getApiVersion());
+      out.name(V1ManagedFieldsEntry.SERIALIZED_NAME_FIELDS_TYPE);
+      stringAdapter.write(out, value.getFieldsType());
+      out.name(V1ManagedFieldsEntry.SERIALIZED_NAME_FIELDS_V1);
+      objectAdapter.write(out, value.getFieldsV1());
+      out.name(V1ManagedFieldsEntry.SERIALIZED_NAME_MANAGER);
+      stringAdapter.write(out, value.getManager());
+      out.name(V1ManagedFieldsEntry.SERIALIZED_NAME_OPERATION);
+      stringAdapter.write(out, value.getOperation());
+      out.name(V1ManagedFieldsEntry.SERIALIZED_NAME_SUBRESOURCE);
+      stringAdapter.write(out, value.getSubresource());
+      out.name(V1ManagedFieldsEntry.SERIALIZED_NAME_TIME);
+      timeAdapter.write(out, value.getTime());
+      out.endObject();
+    }
+
+    @Override
+    public V1ManagedFieldsEntry read(JsonReader in) throws IOException {
+      V1ManagedFieldsEntry value = new V1ManagedFieldsEntry();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        switch (name) {
+          case V1ManagedFieldsEntry.SERIALIZED_NAME_API_VERSION:
+            value.setApiVersion(stringAdapter.read(in));
+            break;
+          case V1ManagedFieldsEntry.SERIALIZED_NAME_FIELDS_TYPE:
+            value.setFieldsType(stringAdapter.read(in));
+            break;
+          case V1ManagedFieldsEntry.SERIALIZED_NAME_FIELDS_V1:
+            value.setFieldsV1(objectAdapter.read(in));
+            break;
+          case V1ManagedFieldsEntry.SERIALIZED_NAME_MANAGER:
+            value.setManager(stringAdapter.read(in));
+            break;
+          case V1ManagedFieldsEntry.SERIALIZED_NAME_OPERATION:
+            value.setOperation(stringAdapter.read(in));
+            break;
+          case V1ManagedFieldsEntry.SERIALIZED_NAME_SUBRESOURCE:
+            value.setSubresource(stringAdapter.read(in));
+            break;
+          case V1ManagedFieldsEntry.SERIALIZED_NAME_TIME:
+            value.setTime(timeAdapter.read(in));
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return value;
+    }
+  }
+
+  private static class ListMetaAdapter extends TypeAdapter<V1ListMeta> {
+
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Long> longAdapter;
+
+    private ListMetaAdapter(Gson gson) {
+      this.stringAdapter = gson.getAdapter(String.class);
+      this.longAdapter = gson.getAdapter(Long.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, V1ListMeta value) throws IOException {
+      out.beginObject();
+      out.name(V1ListMeta.SERIALIZED_NAME_CONTINUE);
+      stringAdapter.write(out, value.getContinue());
+      out.name(V1ListMeta.SERIALIZED_NAME_REMAINING_ITEM_COUNT);
+      longAdapter.write(out, value.getRemainingItemCount());
+      out.name(V1ListMeta.SERIALIZED_NAME_RESOURCE_VERSION);
+      stringAdapter.write(out, value.getResourceVersion());
+      out.name(V1ListMeta.SERIALIZED_NAME_SELF_LINK);
+      stringAdapter.write(out, value.getSelfLink());
+      out.endObject();
+    }
+
+    @Override
+    public V1ListMeta read(JsonReader in) throws IOException {
+      V1ListMeta value = new V1ListMeta();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        switch (name) {
+          case V1ListMeta.SERIALIZED_NAME_CONTINUE:
+            value.setContinue(stringAdapter.read(in));
+            break;
+          case V1ListMeta.SERIALIZED_NAME_REMAINING_ITEM_COUNT:
+            value.setRemainingItemCount(longAdapter.read(in));
+            break;
+          case V1ListMeta.SERIALIZED_NAME_RESOURCE_VERSION:
+            value.setResourceVersion(stringAdapter.read(in));
+            break;
+          case V1ListMeta.SERIALIZED_NAME_SELF_LINK:
+            value.setSelfLink(stringAdapter.read(in));
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return value;
+    }
+  }
+}
@@ -738,6 +738,16 @@ public class ApiClient {
       return (T) downloadFileFromResponse(response);
     }
 
+    String contentType = response.headers().get("Content-Type");
+    if (contentType == null) {
+      // ensuring a default content type
+      contentType = "application/json";
+    }
+    if (isJsonMime(contentType) && !returnType.equals(String.class)) {
+      // Stream the JSON into the Java object rather than reading the whole body into a string.
+      return json.deserialize(response.body(), returnType);
+    }
+
     String respBody;
     try {
       if (response.body() != null) respBody = response.body().string();
@@ -750,11 +760,6 @@ public class ApiClient {
       return null;
     }
 
-    String contentType = response.headers().get("Content-Type");
-    if (contentType == null) {
-      // ensuring a default content type
-      contentType = "application/json";
-    }
     if (isJsonMime(contentType)) {
       return json.deserialize(respBody, returnType);
     } else if (returnType.equals(String.class)) {
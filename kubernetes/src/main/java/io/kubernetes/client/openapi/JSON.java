@@ -15,14 +15,17 @@ package io.kubernetes.client.openapi;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonParseException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import io.gsonfire.GsonFireBuilder;
+import io.kubernetes.client.gson.MetadataTypeAdapterFactory;
 import io.kubernetes.client.gson.V1StatusPreProcessor;
 import io.kubernetes.client.openapi.models.V1Status;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.text.DateFormat;
@@ -36,6 +39,7 @@ import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoField;
 import java.util.Date;
 import java.util.Map;
+import okhttp3.ResponseBody;
 import okio.ByteString;
 
 public class JSON {
@@ -109,6 +113,7 @@ public class JSON {
             .registerTypeAdapter(OffsetDateTime.class, offsetDateTimeTypeAdapter)
             .registerTypeAdapter(LocalDate.class, localDateTypeAdapter)
             .registerTypeAdapter(byte[].class, byteArrayAdapter)
+            .registerTypeAdapterFactory(new MetadataTypeAdapterFactory())
             .create();
   }
 
@@ -178,6 +183,51 @@ public class JSON {
     }
   }
 
+  /**
+   * Deserialize the JSON read from the given reader to Java object, without buffering it into a
+   * string first.
+   *
+   * @param <T> Type
+   * @param body The reader of the JSON
+   * @param returnType The type to deserialize into
+   * @return The deserialized Java object
+   */
+  public <T> T deserialize(Reader body, Type returnType) {
+    if (isLenientOnJson) {
+      JsonReader jsonReader = new JsonReader(body);
+      jsonReader.setLenient(true);
+      return gson.fromJson(jsonReader, returnType);
+    } else {
+      return gson.fromJson(body, returnType);
+    }
+  }
+
+  /**
+   * Deserialize the JSON response body to Java object, reading it from the body's character stream
+   * rather than buffering it into a string first. The body is closed.
+   *
+   * @param <T> Type
+   * @param body HTTP response body
+   * @param returnType The type of the Java object
+   * @return The deserialized Java object, null if the body is empty
+   * @throws ApiException If fail to read the response body
+   */
+  public <T> T deserialize(ResponseBody body, Type returnType) throws ApiException {
+    if (body == null) {
+      return null;
+    }
+    try (ResponseBody closing = body) {
+      if (body.source().exhausted()) {
+        return null;
+      }
+      return deserialize(body.charStream(), returnType);
+    } catch (IOException e) {
+      throw new ApiException(e);
+    } catch (JsonIOException e) {
+      throw new ApiException(e.getCause() != null ? e.getCause() : e);
+    }
+  }
+
   /** Gson TypeAdapter for Byte Array type */
   public class ByteArrayAdapter extends TypeAdapter<byte[]> {
 
@@ -0,0 +1,148 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.annotations.SerializedName;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1ManagedFieldsEntry;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import java.lang.reflect.Field;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class MetadataTypeAdapterFactoryTest {
+
+  private final Gson gson = new JSON().getGson();
+
+  // the same gson without the metadata adapters
+  private final Gson reflectiveGson =
+      new GsonBuilder()
+          .registerTypeAdapter(OffsetDateTime.class, gson.getAdapter(OffsetDateTime.class))
+          .create();
+
+  private static V1ObjectMeta fullObjectMeta() {
+    OffsetDateTime time = OffsetDateTime.parse("2022-12-05T08:14:34.919Z");
+    return new V1ObjectMeta()
+        .annotations(Collections.singletonMap("a", "b"))
+        .creationTimestamp(time)
+        .deletionGracePeriodSeconds(30L)
+        .deletionTimestamp(time)
+        .finalizers(Collections.singletonList("f"))
+        .generateName("foo-")
+        .generation(2L)
+        .labels(Collections.singletonMap("app", "foo"))
+        .managedFields(
+            Collections.singletonList(
+                new V1ManagedFieldsEntry()
+                    .apiVersion("v1")
+                    .fieldsType("FieldsV1")
+                    .fieldsV1(Collections.singletonMap("f:metadata", Collections.emptyMap()))
+                    .manager("kubectl")
+                    .operation("Update")
+                    .subresource("status")
+                    .time(time)))
+        .name("foo-1")
+        .namespace("default")
+        .ownerReferences(
+            Collections.singletonList(
+                new V1OwnerReference()
+                    .apiVersion("apps/v1")
+                    .blockOwnerDeletion(true)
+                    .controller(true)
+                    .kind("ReplicaSet")
+                    .name("foo")
+                    .uid("1234")))
+        .resourceVersion("42")
+        .selfLink("/api/v1/namespaces/default/pods/foo-1")
+        .uid("5678");
+  }
+
+  private static V1ListMeta fullListMeta() {
+    return new V1ListMeta()
+        ._continue("token")
+        .remainingItemCount(10L)
+        .resourceVersion("42")
+        .selfLink("/api/v1/pods");
+  }
+
+  @Test
+  public void testWritesSameJsonAsReflectiveAdapters() {
+    V1ObjectMeta meta = fullObjectMeta();
+    assertEquals(reflectiveGson.toJson(meta), gson.toJson(meta));
+    assertEquals(reflectiveGson.toJson(fullListMeta()), gson.toJson(fullListMeta()));
+    V1ObjectMeta empty = new V1ObjectMeta();
+    assertEquals(reflectiveGson.toJson(empty), gson.toJson(empty));
+  }
+
+  @Test
+  public void testRoundTrip() {
+    V1PodList list =
+        new V1PodList()
+            .metadata(fullListMeta())
+            .addItemsItem(new V1Pod().metadata(fullObjectMeta()))
+            .addItemsItem(new V1Pod());
+    String text = gson.toJson(list);
+
+    V1PodList read = gson.fromJson(text, V1PodList.class);
+    assertEquals(reflectiveGson.fromJson(text, V1PodList.class), read);
+    assertEquals(fullListMeta(), read.getMetadata());
+    assertNull(read.getItems().get(1).getMetadata());
+  }
+
+  @Test
+  public void testSkipsUnknownFields() {
+    V1ObjectMeta meta =
+        gson.fromJson(
+            "{\"name\":\"foo\",\"clusterName\":\"bar\",\"extra\":{\"a\":[1,2]},\"uid\":null}",
+            V1ObjectMeta.class);
+    assertEquals(new V1ObjectMeta().name("foo"), meta);
+  }
+
+  @Test
+  public void testCoversAllModelFields() {
+    // fails once regenerated models add fields which the adapters don't know about yet
+    JsonObject meta = JsonParser.parseString(gson.toJson(fullObjectMeta())).getAsJsonObject();
+    assertEquals(serializedNames(V1ObjectMeta.class), meta.keySet());
+    JsonObject managedFields = meta.getAsJsonArray("managedFields").get(0).getAsJsonObject();
+    assertEquals(serializedNames(V1ManagedFieldsEntry.class), managedFields.keySet());
+    JsonObject ownerReference = meta.getAsJsonArray("ownerReferences").get(0).getAsJsonObject();
+    assertEquals(serializedNames(V1OwnerReference.class), ownerReference.keySet());
+    JsonObject listMeta = JsonParser.parseString(gson.toJson(fullListMeta())).getAsJsonObject();
+    assertEquals(serializedNames(V1ListMeta.class), listMeta.keySet());
+  }
+
+  private static Set<String> serializedNames(Class<?> modelClass) {
+    Set<String> names = new HashSet<>();
+    for (Field field : modelClass.getDeclaredFields()) {
+      SerializedName name = field.getAnnotation(SerializedName.class);
+      if (name != null) {
+        names.add(name.value());
+      }
+    }
+    return names;
+  }
+}
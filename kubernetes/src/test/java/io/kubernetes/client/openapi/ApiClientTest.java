@@ -0,0 +1,78 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.openapi;
+
+import static org.junit.Assert.*;
+
+import io.kubernetes.client.openapi.models.V1PodList;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+
+public class ApiClientTest {
+
+  private final ApiClient client = new ApiClient();
+
+  @Test
+  public void testDeserializeStreamsJsonBody() throws ApiException {
+    StringBuilder body = new StringBuilder("{\"kind\":\"PodList\",\"items\":[");
+    for (int i = 0; i < 1000; i++) {
+      if (i > 0) {
+        body.append(',');
+      }
+      body.append("{\"metadata\":{\"name\":\"pod-").append(i).append("\"}}");
+    }
+    body.append("]}");
+
+    V1PodList list =
+        client.deserialize(response("application/json", body.toString()), V1PodList.class);
+
+    assertEquals(1000, list.getItems().size());
+    assertEquals("pod-999", list.getItems().get(999).getMetadata().getName());
+  }
+
+  @Test
+  public void testDeserializeEmptyBody() throws ApiException {
+    assertNull(client.deserialize(response("application/json", ""), V1PodList.class));
+  }
+
+  @Test
+  public void testDeserializeStringFallback() throws ApiException {
+    String text = client.deserialize(response("application/json", "not json"), String.class);
+    assertEquals("not json", text);
+  }
+
+  @Test
+  public void testDeserializeUnsupportedContentType() {
+    try {
+      client.deserialize(response("text/plain", "hello"), V1PodList.class);
+      fail("expected ApiException");
+    } catch (ApiException e) {
+      assertEquals("hello", e.getResponseBody());
+    }
+  }
+
+  private static Response response(String contentType, String body) {
+    return new Response.Builder()
+        .request(new Request.Builder().url("http://localhost/api/v1/pods").build())
+        .protocol(Protocol.HTTP_1_1)
+        .code(200)
+        .message("OK")
+        .header("Content-Type", contentType)
+        .body(ResponseBody.create(MediaType.parse(contentType), body))
+        .build();
+  }
+}
@@ -12,26 +12,44 @@ limitations under the License.
 */
 package io.kubernetes.client;
 
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ExtensionRegistryLite;
 import com.google.protobuf.Message;
 import com.google.protobuf.Message.Builder;
+import com.google.protobuf.WireFormat;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.openapi.Pair;
+import io.kubernetes.client.openapi.models.V1Status;
 import io.kubernetes.client.proto.Meta.DeleteOptions;
+import io.kubernetes.client.proto.Meta.ListMeta;
 import io.kubernetes.client.proto.Meta.Status;
+import io.kubernetes.client.proto.Meta.WatchEvent;
 import io.kubernetes.client.proto.Runtime.TypeMeta;
 import io.kubernetes.client.proto.Runtime.Unknown;
-import io.kubernetes.client.util.Streams;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
 import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.BufferedSource;
 import org.apache.commons.codec.binary.Hex;
 
 public class ProtoClient {
@@ -63,6 +81,9 @@ public class ProtoClient {
   // https://github.com/kubernetes/apimachinery/blob/release-1.13/pkg/runtime/serializer/protobuf/protobuf.go#L44
   private static final byte[] MAGIC = new byte[] {0x6b, 0x38, 0x73, 0x00};
   private static final String MEDIA_TYPE = "application/vnd.kubernetes.protobuf";
+  // field numbers of runtime.Unknown
+  private static final int UNKNOWN_TYPE_META = 1;
+  private static final int UNKNOWN_RAW = 2;
 
   /** Simple Protocol Budder API client constructor, uses default configuration */
   public ProtoClient() {
@@ -121,6 +142,74 @@ public class ProtoClient {
     return get(builder, path);
   }
 
+  /**
+   * List Kubernetes API objects using protocol buffer encoding, with query parameters such as the
+   * resourceVersion or the page size.
+   *
+   * @param builder The appropriate Builder for the object received from the request.
+   * @param path The URL path to call (e.g. /api/v1/namespaces/default/pods)
+   * @param queryParams The query parameters
+   * @return An ObjectOrStatus which contains the Object requested, or a Status about the request.
+   */
+  public <T extends Message> ObjectOrStatus<T> list(
+      T.Builder builder, String path, List<Pair> queryParams) throws ApiException, IOException {
+    Request request = buildRequest(path, "GET", queryParams);
+    return getObjectOrStatusFromServer(builder, request);
+  }
+
+  /**
+   * List Kubernetes API objects using protocol buffer encoding, decoding the items one at a time as
+   * they're iterated instead of decoding the whole list at once, e.g. for huge collections.
+   *
+   * @param itemBuilder The appropriate Builder for the items of the list.
+   * @param path The URL path to call (e.g. /api/v1/namespaces/default/pods)
+   * @param queryParams The query parameters
+   * @return The items of the list, which must be closed.
+   * @throws ApiException if the server responds with a Status
+   */
+  public <T extends Message> ListStream<T> listStream(
+      T.Builder itemBuilder, String path, List<Pair> queryParams) throws ApiException, IOException {
+    Request request = buildRequest(path, "GET", queryParams);
+    Response response = apiClient.getHttpClient().newCall(request).execute();
+    try {
+      return new ListStream<>(itemBuilder, response);
+    } catch (ApiException | IOException | RuntimeException e) {
+      response.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Watch Kubernetes API objects using protocol buffer encoding. Each event carries the object as a
+   * {@link Unknown}, holding its apiVersion, kind and encoded message, or a {@link V1Status} if the
+   * watch failed.
+   *
+   * @param path The URL path to call (e.g. /api/v1/namespaces/default/pods)
+   * @param queryParams The query parameters, "watch=true" is added to them.
+   * @return The watch, which must be closed.
+   */
+  public Watchable<Unknown> watch(String path, List<Pair> queryParams) throws ApiException {
+    List<Pair> watchParams = new ArrayList<>(queryParams);
+    watchParams.add(new Pair("watch", "true"));
+    Request request = buildRequest(path, "GET", watchParams);
+    // watches are long-running, make sure the client doesn't time out.
+    OkHttpClient httpClient =
+        apiClient.getHttpClient().newBuilder().readTimeout(0, TimeUnit.MILLISECONDS).build();
+    Call call = httpClient.newCall(request);
+    try {
+      Response response = call.execute();
+      if (!response.isSuccessful()) {
+        try (ResponseBody body = response.body()) {
+          throw new ApiException(
+              response.message(), response.code(), response.headers().toMultimap(), null);
+        }
+      }
+      return new ProtoWatch(call, response.body(), new ProtoConverter(apiClient.getJSON()));
+    } catch (IOException e) {
+      throw new ApiException(e);
+    }
+  }
+
   /**
    * Create a Kubernetes API object using protocol buffer encoding. Performs a POST
    *
@@ -206,9 +295,7 @@ public class ProtoClient {
             new HashMap<String, Object>(),
             localVarAuthNames,
             null);
-    byte[] bytes = encode(deleteOptions, "v1", "DeleteOptions");
-    request =
-        request.newBuilder().delete(RequestBody.create(MediaType.parse(MEDIA_TYPE), bytes)).build();
+    request = request.newBuilder().delete(encode(deleteOptions, "v1", "DeleteOptions")).build();
     return getObjectOrStatusFromServer(builder, request);
   }
 
@@ -229,45 +316,18 @@ public class ProtoClient {
   public <T extends Message> ObjectOrStatus<T> request(
       T.Builder builder, String path, String method, T body, String apiVersion, String kind)
       throws ApiException, IOException {
-    HashMap<String, String> headers = new HashMap<>();
-    headers.put("Content-Type", MEDIA_TYPE);
-    headers.put("Accept", MEDIA_TYPE);
-    String[] localVarAuthNames = new String[] {"BearerToken"};
-    Request request =
-        apiClient.buildRequest(
-            path,
-            method,
-            new ArrayList<Pair>(),
-            new ArrayList<Pair>(),
-            null,
-            headers,
-            new HashMap<String, String>(),
-            new HashMap<String, Object>(),
-            localVarAuthNames,
-            null);
+    Request request = buildRequest(path, method, new ArrayList<Pair>());
     if (body != null) {
-      byte[] bytes = encode(body, apiVersion, kind);
+      RequestBody requestBody = encode(body, apiVersion, kind);
       switch (method) {
         case "POST":
-          request =
-              request
-                  .newBuilder()
-                  .post(RequestBody.create(MediaType.parse(MEDIA_TYPE), bytes))
-                  .build();
+          request = request.newBuilder().post(requestBody).build();
           break;
         case "PUT":
-          request =
-              request
-                  .newBuilder()
-                  .put(RequestBody.create(MediaType.parse(MEDIA_TYPE), bytes))
-                  .build();
+          request = request.newBuilder().put(requestBody).build();
           break;
         case "PATCH":
-          request =
-              request
-                  .newBuilder()
-                  .patch(RequestBody.create(MediaType.parse(MEDIA_TYPE), bytes))
-                  .build();
+          request = request.newBuilder().patch(requestBody).build();
           break;
         default:
           throw new ApiException("Unknown proto client API method: " + method);
@@ -276,19 +336,30 @@ public class ProtoClient {
     return getObjectOrStatusFromServer(builder, request);
   }
 
+  private Request buildRequest(String path, String method, List<Pair> queryParams)
+      throws ApiException {
+    HashMap<String, String> headers = new HashMap<>();
+    headers.put("Content-Type", MEDIA_TYPE);
+    headers.put("Accept", MEDIA_TYPE);
+    String[] localVarAuthNames = new String[] {"BearerToken"};
+    return apiClient.buildRequest(
+        path,
+        method,
+        queryParams,
+        new ArrayList<Pair>(),
+        null,
+        headers,
+        new HashMap<String, String>(),
+        new HashMap<String, Object>(),
+        localVarAuthNames,
+        null);
+  }
+
   private <T extends Message> ObjectOrStatus<T> getObjectOrStatusFromServer(
       Builder builder, Request request) throws IOException, ApiException {
-    Response resp = apiClient.getHttpClient().newCall(request).execute();
-    Unknown u = parse(resp.body().byteStream());
-    resp.body().close();
-
-    if (u.getTypeMeta().getApiVersion().equals("v1")
-        && u.getTypeMeta().getKind().equals("Status")) {
-      Status status = Status.newBuilder().mergeFrom(u.getRaw()).build();
-      return new ObjectOrStatus(null, status);
+    try (Response resp = apiClient.getHttpClient().newCall(request).execute()) {
+      return decode(builder, resp.body().source());
     }
-
-    return new ObjectOrStatus((T) builder.mergeFrom(u.getRaw()).build(), null);
   }
 
   // This isn't really documented anywhere except the code, but
@@ -299,31 +370,278 @@ public class ProtoClient {
   //     encoding of the actual object.
   // TODO: Document this somewhere proper.
 
-  private byte[] encode(Message msg, String apiVersion, String kind) {
+  private RequestBody encode(Message msg, String apiVersion, String kind) {
     // It is unfortunate that we have to include apiVersion and kind,
     // since we should be able to extract it from the Message, but
     // for now at least, those fields are missing from the proto-buffer.
-    Unknown u =
-        Unknown.newBuilder()
-            .setTypeMeta(TypeMeta.newBuilder().setApiVersion(apiVersion).setKind(kind))
-            .setRaw(msg.toByteString())
-            .build();
-    return concat(MAGIC, u.toByteArray());
-  }
+    TypeMeta typeMeta = TypeMeta.newBuilder().setApiVersion(apiVersion).setKind(kind).build();
+    // the runtime.Unknown is written field by field, so that the message is encoded right into
+    // the raw field instead of into a byte string first.
+    int rawSize = msg.getSerializedSize();
+    long contentLength =
+        MAGIC.length
+            + CodedOutputStream.computeMessageSize(UNKNOWN_TYPE_META, typeMeta)
+            + CodedOutputStream.computeTagSize(UNKNOWN_RAW)
+            + CodedOutputStream.computeUInt32SizeNoTag(rawSize)
+            + rawSize;
+    return new RequestBody() {
+      @Override
+      public MediaType contentType() {
+        return MediaType.parse(MEDIA_TYPE);
+      }
 
-  private static byte[] concat(byte[] one, byte[] two) {
-    byte[] result = new byte[one.length + two.length];
-    System.arraycopy(one, 0, result, 0, one.length);
-    System.arraycopy(two, 0, result, one.length, two.length);
-    return result;
+      @Override
+      public long contentLength() {
+        return contentLength;
+      }
+
+      @Override
+      public void writeTo(BufferedSink sink) throws IOException {
+        sink.write(MAGIC);
+        CodedOutputStream out = CodedOutputStream.newInstance(sink.outputStream());
+        out.writeMessage(UNKNOWN_TYPE_META, typeMeta);
+        out.writeTag(UNKNOWN_RAW, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeUInt32NoTag(rawSize);
+        msg.writeTo(out);
+        out.flush();
+      }
+    };
   }
 
-  private Unknown parse(InputStream stream) throws ApiException, IOException {
-    byte[] magic = new byte[4];
-    Streams.readFully(stream, magic);
+  private static void readMagic(BufferedSource source) throws ApiException, IOException {
+    byte[] magic = source.readByteArray(MAGIC.length);
     if (!Arrays.equals(magic, MAGIC)) {
       throw new ApiException("Unexpected magic number: " + Hex.encodeHexString(magic));
     }
-    return Unknown.parseFrom(stream);
+  }
+
+  /**
+   * Decodes a runtime.Unknown from the source, merging its raw field into the builder, or into a
+   * Status if it holds one. The apiVersion and kind precede the raw field on the wire, so the
+   * object is decoded from the source directly rather than from a copy of the raw field.
+   */
+  private static <T extends Message> ObjectOrStatus<T> decode(
+      Builder builder, BufferedSource source) throws ApiException, IOException {
+    readMagic(source);
+    CodedInputStream in = CodedInputStream.newInstance(source.inputStream());
+    in.setSizeLimit(Integer.MAX_VALUE);
+    TypeMeta typeMeta = TypeMeta.getDefaultInstance();
+    ByteString raw = null;
+    Status status = null;
+    boolean merged = false;
+    int tag;
+    while ((tag = in.readTag()) != 0) {
+      switch (WireFormat.getTagFieldNumber(tag)) {
+        case UNKNOWN_TYPE_META:
+          typeMeta = in.readMessage(TypeMeta.parser(), ExtensionRegistryLite.getEmptyRegistry());
+          break;
+        case UNKNOWN_RAW:
+          if (!typeMeta.hasKind()) {
+            // can't tell yet what the raw field holds
+            raw = in.readBytes();
+            break;
+          }
+          int limit = in.pushLimit(in.readRawVarint32());
+          if (isStatus(typeMeta)) {
+            status = Status.parseFrom(in);
+          } else {
+            builder.mergeFrom(in);
+            merged = true;
+          }
+          in.popLimit(limit);
+          break;
+        default:
+          in.skipField(tag);
+      }
+    }
+    if (raw != null) {
+      if (isStatus(typeMeta)) {
+        status = Status.parseFrom(raw);
+      } else {
+        builder.mergeFrom(raw);
+        merged = true;
+      }
+    }
+    if (status != null && !merged) {
+      return new ObjectOrStatus<>(null, status);
+    }
+    return new ObjectOrStatus<>((T) builder.build(), null);
+  }
+
+  private static Unknown parse(ByteString bytes) throws ApiException, IOException {
+    ByteString magic = bytes.substring(0, Math.min(MAGIC.length, bytes.size()));
+    if (!magic.equals(ByteString.copyFrom(MAGIC))) {
+      throw new ApiException(
+          "Unexpected magic number: " + Hex.encodeHexString(magic.toByteArray()));
+    }
+    CodedInputStream in = bytes.substring(MAGIC.length).newCodedInput();
+    in.enableAliasing(true);
+    return Unknown.parseFrom(in);
+  }
+
+  private static boolean isStatus(Unknown u) {
+    return isStatus(u.getTypeMeta());
+  }
+
+  private static boolean isStatus(TypeMeta typeMeta) {
+    return typeMeta.getApiVersion().equals("v1") && typeMeta.getKind().equals("Status");
+  }
+
+  // A protocol buffer watch stream is a sequence of frames, each of them a 4 byte big-endian length
+  // followed by a WatchEvent. The object of the event is encoded like the body of a regular
+  // response, i.e. magic number and runtime.Unknown.
+  private static class ProtoWatch implements Watchable<Unknown> {
+
+    private final Call call;
+    private final ResponseBody body;
+    private final ProtoConverter converter;
+
+    private ProtoWatch(Call call, ResponseBody body, ProtoConverter converter) {
+      this.call = call;
+      this.body = body;
+      this.converter = converter;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        return !body.source().exhausted();
+      } catch (IOException e) {
+        throw new RuntimeException("IO Exception during hasNext method.", e);
+      }
+    }
+
+    @Override
+    public Watch.Response<Unknown> next() {
+      try {
+        BufferedSource source = body.source();
+        int length = source.readInt();
+        // the byte strings of the event share the frame instead of copying it
+        CodedInputStream in = CodedInputStream.newInstance(source.readByteArray(length));
+        in.enableAliasing(true);
+        WatchEvent event = WatchEvent.parseFrom(in);
+        Unknown u = parse(event.getObject().getRaw());
+        if (isStatus(u)) {
+          Status status = Status.parseFrom(u.getRaw());
+          return new Watch.Response<>(event.getType(), converter.convert(status, V1Status.class));
+        }
+        return new Watch.Response<>(event.getType(), u);
+      } catch (IOException | ApiException e) {
+        throw new RuntimeException("Exception during next method.", e);
+      }
+    }
+
+    @Override
+    public Iterator<Watch.Response<Unknown>> iterator() {
+      return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+      call.cancel();
+      body.close();
+    }
+  }
+
+  /**
+   * ListStream iterates the items of a list response, decoding each of them from the response as
+   * it's reached. The metadata of the list precedes the items on the wire, it's available once
+   * {@link #hasNext()} has been called.
+   */
+  public static class ListStream<T extends Message> implements Iterator<T>, Closeable {
+    // field numbers of the list types
+    private static final int LIST_METADATA = 1;
+    private static final int LIST_ITEMS = 2;
+
+    private final Builder itemBuilder;
+    private final Response response;
+    private final CodedInputStream in;
+    private ListMeta metadata;
+    private T next;
+    private boolean done;
+
+    private ListStream(Builder itemBuilder, Response response) throws ApiException, IOException {
+      this.itemBuilder = itemBuilder;
+      this.response = response;
+      BufferedSource source = response.body().source();
+      readMagic(source);
+      this.in = CodedInputStream.newInstance(source.inputStream());
+      in.setSizeLimit(Integer.MAX_VALUE);
+      // moves to the raw field of the runtime.Unknown, the list is read from there on
+      TypeMeta typeMeta = TypeMeta.getDefaultInstance();
+      int tag;
+      while ((tag = in.readTag()) != 0) {
+        int field = WireFormat.getTagFieldNumber(tag);
+        if (field == UNKNOWN_TYPE_META) {
+          typeMeta = in.readMessage(TypeMeta.parser(), ExtensionRegistryLite.getEmptyRegistry());
+        } else if (field == UNKNOWN_RAW) {
+          in.pushLimit(in.readRawVarint32());
+          if (isStatus(typeMeta)) {
+            Status status = Status.parseFrom(in);
+            throw new ApiException(
+                status.getCode(), status.getReason() + ": " + status.getMessage());
+          }
+          return;
+        } else {
+          in.skipField(tag);
+        }
+      }
+      done = true;
+    }
+
+    /**
+     * Gets the metadata of the list, e.g. its resourceVersion and continue token.
+     *
+     * @return the metadata, null if it hasn't been read yet
+     */
+    public ListMeta getMetadata() {
+      return metadata;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next != null) {
+        return true;
+      }
+      if (done) {
+        return false;
+      }
+      try {
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+          int field = WireFormat.getTagFieldNumber(tag);
+          if (field == LIST_METADATA) {
+            metadata = in.readMessage(ListMeta.parser(), ExtensionRegistryLite.getEmptyRegistry());
+          } else if (field == LIST_ITEMS) {
+            Builder builder = itemBuilder.clone().clear();
+            in.readMessage(builder, ExtensionRegistryLite.getEmptyRegistry());
+            next = (T) builder.build();
+            return true;
+          } else {
+            in.skipField(tag);
+          }
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("IO Exception during hasNext method.", e);
+      }
+      done = true;
+      close();
+      return false;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T item = next;
+      next = null;
+      return item;
+    }
+
+    @Override
+    public void close() {
+      response.close();
+    }
   }
 }
@@ -0,0 +1,234 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.proto.Runtime.TypeMeta;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ProtoConverter converts the protocol buffer messages of kubernetes objects into the openapi
+ * models, so that objects received with protocol buffer encoding can be consumed by code written
+ * against the models, e.g. informers. The messages are translated field by field into the JSON
+ * representation of the object, which the models are then read from.
+ *
+ * <p>The conversion builds a JSON tree per object and binds the model from it reflectively, so it
+ * costs about as much CPU as decoding the object from JSON; it is meant for compatibility, not
+ * speed. Where decoding time matters, map the messages to the models directly instead.
+ */
+public class ProtoConverter {
+
+  private static final String META_PACKAGE = "k8s.io.apimachinery.pkg.apis.meta.v1.";
+
+  // fields of go structs embedded with `json:",inline"`, whose fields belong to the enclosing
+  // object in JSON
+  private static final Set<String> INLINE_FIELDS =
+      new HashSet<>(
+          Arrays.asList(
+              "k8s.io.api.core.v1.Probe.handler",
+              "k8s.io.api.core.v1.Volume.volumeSource",
+              "k8s.io.api.core.v1.PersistentVolumeSpec.persistentVolumeSource",
+              "k8s.io.api.core.v1.EphemeralContainer.ephemeralContainerCommon"));
+
+  private final JSON json;
+
+  /**
+   * Constructor.
+   *
+   * @param json the JSON the models are read with
+   */
+  public ProtoConverter(JSON json) {
+    this.json = json;
+  }
+
+  /**
+   * Converts a protocol buffer message into an openapi model.
+   *
+   * @param message the message
+   * @param modelClass the class of the model
+   * @return the model
+   */
+  public <T> T convert(Message message, Class<T> modelClass) {
+    return json.getGson().fromJson(toJson(message), modelClass);
+  }
+
+  /**
+   * Converts a protocol buffer message into an openapi model, setting the apiVersion and kind which
+   * protocol buffer messages leave to the enclosing {@link
+   * io.kubernetes.client.proto.Runtime.Unknown}.
+   *
+   * @param message the message
+   * @param typeMeta the apiVersion and kind of the object
+   * @param modelClass the class of the model
+   * @return the model
+   */
+  public <T> T convert(Message message, TypeMeta typeMeta, Class<T> modelClass) {
+    JsonObject object = toJson(message);
+    if (typeMeta.hasApiVersion()) {
+      object.addProperty("apiVersion", typeMeta.getApiVersion());
+    }
+    if (typeMeta.hasKind()) {
+      object.addProperty("kind", typeMeta.getKind());
+    }
+    return json.getGson().fromJson(object, modelClass);
+  }
+
+  /**
+   * Translates a protocol buffer message into the JSON representation of the object.
+   *
+   * @param message the message
+   * @return the JSON object
+   */
+  public JsonObject toJson(Message message) {
+    JsonObject object = new JsonObject();
+    for (Map.Entry<FieldDescriptor, Object> field : message.getAllFields().entrySet()) {
+      FieldDescriptor descriptor = field.getKey();
+      if (INLINE_FIELDS.contains(descriptor.getFullName())) {
+        for (Map.Entry<String, JsonElement> inlined :
+            toJson((Message) field.getValue()).entrySet()) {
+          object.add(inlined.getKey(), inlined.getValue());
+        }
+        continue;
+      }
+      object.add(descriptor.getJsonName(), toJson(descriptor, field.getValue()));
+    }
+    return object;
+  }
+
+  private JsonElement toJson(FieldDescriptor descriptor, Object value) {
+    if (descriptor.isMapField()) {
+      FieldDescriptor keyField = descriptor.getMessageType().findFieldByName("key");
+      FieldDescriptor valueField = descriptor.getMessageType().findFieldByName("value");
+      JsonObject map = new JsonObject();
+      for (Object entry : (List<?>) value) {
+        Message message = (Message) entry;
+        map.add(
+            String.valueOf(message.getField(keyField)),
+            toSingleJson(valueField, message.getField(valueField)));
+      }
+      return map;
+    }
+    if (descriptor.isRepeated()) {
+      JsonArray array = new JsonArray();
+      for (Object element : (List<?>) value) {
+        array.add(toSingleJson(descriptor, element));
+      }
+      return array;
+    }
+    return toSingleJson(descriptor, value);
+  }
+
+  private JsonElement toSingleJson(FieldDescriptor descriptor, Object value) {
+    switch (descriptor.getJavaType()) {
+      case MESSAGE:
+        return toMessageJson((Message) value);
+      case BYTE_STRING:
+        return new JsonPrimitive(
+            Base64.getEncoder().encodeToString(((ByteString) value).toByteArray()));
+      case STRING:
+        return new JsonPrimitive((String) value);
+      case BOOLEAN:
+        return new JsonPrimitive((Boolean) value);
+      case ENUM:
+        return new JsonPrimitive(value.toString());
+      default:
+        return new JsonPrimitive((Number) value);
+    }
+  }
+
+  // the messages below don't have the same shape in protocol buffer and JSON, see the custom
+  // marshalling of the go types.
+  private JsonElement toMessageJson(Message message) {
+    switch (message.getDescriptorForType().getFullName()) {
+      case META_PACKAGE + "Time":
+      case META_PACKAGE + "MicroTime":
+        return new JsonPrimitive(toTime(message));
+      case META_PACKAGE + "Duration":
+        return new JsonPrimitive(toDuration((Long) getField(message, "duration")));
+      case META_PACKAGE + "FieldsV1":
+        return toRawJson((ByteString) getField(message, "Raw"));
+      case "k8s.io.apimachinery.pkg.runtime.RawExtension":
+        return toRawJson((ByteString) getField(message, "raw"));
+      case "k8s.io.apimachinery.pkg.api.resource.Quantity":
+        return new JsonPrimitive((String) getField(message, "string"));
+      case "k8s.io.apimachinery.pkg.util.intstr.IntOrString":
+        if ((Long) getField(message, "type") == 1) {
+          return new JsonPrimitive((String) getField(message, "strVal"));
+        }
+        return new JsonPrimitive((Integer) getField(message, "intVal"));
+      default:
+        return toJson(message);
+    }
+  }
+
+  private static Object getField(Message message, String name) {
+    return message.getField(message.getDescriptorForType().findFieldByName(name));
+  }
+
+  private static String toTime(Message message) {
+    Instant instant =
+        Instant.ofEpochSecond(
+            (Long) getField(message, "seconds"), (Integer) getField(message, "nanos"));
+    return instant.toString();
+  }
+
+  private static JsonElement toRawJson(ByteString raw) {
+    if (raw.isEmpty()) {
+      return JsonNull.INSTANCE;
+    }
+    return JsonParser.parseString(raw.toStringUtf8());
+  }
+
+  // formats like go's time.Duration#String, e.g. 1h2m0.5s
+  static String toDuration(long nanos) {
+    if (nanos == 0) {
+      return "0s";
+    }
+    StringBuilder builder = new StringBuilder();
+    if (nanos < 0) {
+      builder.append('-');
+      nanos = -nanos;
+    }
+    long hours = nanos / 3_600_000_000_000L;
+    long minutes = nanos / 60_000_000_000L % 60;
+    long seconds = nanos / 1_000_000_000L % 60;
+    long fraction = nanos % 1_000_000_000L;
+    if (hours > 0) {
+      builder.append(hours).append('h');
+    }
+    if (hours > 0 || minutes > 0) {
+      builder.append(minutes).append('m');
+    }
+    builder.append(seconds);
+    if (fraction > 0) {
+      String digits = String.format("%09d", fraction).replaceAll("0+$", "");
+      builder.append('.').append(digits);
+    }
+    return builder.append('s').toString();
+  }
+}
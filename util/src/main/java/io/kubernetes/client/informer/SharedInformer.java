@@ -13,6 +13,7 @@ limitations under the License.
 package io.kubernetes.client.informer;
 
 import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.cache.ShardedProcessorListener;
 
 /*
  * SharedInformer defines basic methods of a informer.
@@ -36,6 +37,42 @@ public interface SharedInformer<ApiType extends KubernetesObject> {
    */
   void addEventHandlerWithResyncPeriod(ResourceEventHandler<ApiType> handler, long resyncPeriod);
 
+  /**
+   * addCoalescingEventHandler adds an event handler to the shared informer whose pending events
+   * about the same object are merged, e.g. several updates the handler hasn't caught up with yet
+   * are delivered as a single update from the oldest to the newest object.
+   *
+   * <p>Informers which don't support coalescing deliver every event.
+   *
+   * @param handler the event handler
+   * @param resyncPeriod the specific resync period
+   */
+  default void addCoalescingEventHandler(ResourceEventHandler<ApiType> handler, long resyncPeriod) {
+    addEventHandlerWithResyncPeriod(handler, resyncPeriod);
+  }
+
+  /**
+   * addShardedEventHandler adds a thread-safe event handler to the shared informer which is invoked
+   * from several threads. Events are sharded by object, so that events about the same object are
+   * still delivered sequentially, while a slow object doesn't delay events about the others.
+   *
+   * <p>Informers which don't support sharding deliver all the events sequentially.
+   *
+   * @param handler the thread-safe event handler
+   * @param resyncPeriod the specific resync period
+   * @param shardCount the number of threads invoking the handler
+   * @param shardCapacity the maximum number of events waiting per shard
+   * @param overflowPolicy what happens when an event is added to a full shard
+   */
+  default void addShardedEventHandler(
+      ResourceEventHandler<ApiType> handler,
+      long resyncPeriod,
+      int shardCount,
+      int shardCapacity,
+      ShardedProcessorListener.OverflowPolicy overflowPolicy) {
+    addEventHandlerWithResyncPeriod(handler, resyncPeriod);
+  }
+
   /** run starts the shared informer, which will be stopped until stop() is called. */
   void run();
 
@@ -16,6 +16,10 @@ import com.google.gson.reflect.TypeToken;
 import io.kubernetes.client.common.KubernetesListObject;
 import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.informer.cache.ConcurrentCache;
+import io.kubernetes.client.informer.cache.DeltaFIFO;
+import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.informer.cache.Store;
 import io.kubernetes.client.informer.impl.DefaultSharedIndexInformer;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
@@ -23,6 +27,7 @@ import io.kubernetes.client.openapi.Configuration;
 import io.kubernetes.client.util.CallGenerator;
 import io.kubernetes.client.util.CallGeneratorParams;
 import io.kubernetes.client.util.Namespaces;
+import io.kubernetes.client.util.Threads;
 import io.kubernetes.client.util.Watch;
 import io.kubernetes.client.util.Watchable;
 import io.kubernetes.client.util.generic.GenericKubernetesApi;
@@ -34,6 +39,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import okhttp3.Call;
 import org.apache.commons.collections4.MapUtils;
 
@@ -48,16 +54,34 @@ public class SharedInformerFactory {
 
   private ApiClient apiClient;
 
+  private boolean concurrentCacheEnabled;
+
+  private Cache.IndexStorage cacheIndexStorage = Cache.IndexStorage.HASH;
+
+  private int deltaPopBatchSize;
+
+  private int deltaQueueCapacity;
+
+  private boolean virtualThreadsEnabled;
+
+  private int listPageSize;
+
+  private boolean watchListEnabled;
+
+  // whether the informer executor is the default one, which virtual threads replace
+  private boolean defaultInformerExecutor;
+
   /** Constructor w/ default thread pool. */
   /** DEPRECATE: In favor of explicit apiClient constructor to avoid misguiding */
   @Deprecated
   public SharedInformerFactory() {
-    this(Configuration.getDefaultApiClient().setReadTimeout(0), Executors.newCachedThreadPool());
+    this(Configuration.getDefaultApiClient().setReadTimeout(0));
   }
 
   /** Constructor w/ api client specified and default thread pool. */
   public SharedInformerFactory(ApiClient apiClient) {
     this(apiClient, Executors.newCachedThreadPool());
+    defaultInformerExecutor = true;
   }
 
   /**
@@ -86,6 +110,129 @@ public class SharedInformerFactory {
     startedInformers = new HashMap<>();
   }
 
+  /**
+   * Makes informers constructed afterwards store their objects in a {@link ConcurrentCache}, which
+   * serves lister reads without locking, instead of the default {@link Cache}.
+   *
+   * @param concurrentCacheEnabled whether or not to use the concurrent cache
+   * @return the shared informer factory
+   */
+  public synchronized SharedInformerFactory setConcurrentCacheEnabled(
+      boolean concurrentCacheEnabled) {
+    this.concurrentCacheEnabled = concurrentCacheEnabled;
+    return this;
+  }
+
+  /**
+   * Sets how the default {@link Cache} of informers constructed afterwards stores its indices. Has
+   * no effect when the concurrent cache is enabled.
+   *
+   * @param cacheIndexStorage the index storage
+   * @return the shared informer factory
+   */
+  public synchronized SharedInformerFactory setCacheIndexStorage(
+      Cache.IndexStorage cacheIndexStorage) {
+    this.cacheIndexStorage = cacheIndexStorage;
+    return this;
+  }
+
+  /**
+   * Makes informers constructed afterwards pop up to the given number of keys at once from their
+   * {@link DeltaFIFO} and update their cache outside of the queue lock, so that watch events keep
+   * being queued while handlers run. Zero, the default, processes one key at a time under the lock.
+   *
+   * @param deltaPopBatchSize the maximum number of keys popped at once, zero to process under lock
+   * @return the shared informer factory
+   */
+  public synchronized SharedInformerFactory setDeltaPopBatchSize(int deltaPopBatchSize) {
+    if (deltaPopBatchSize < 0) {
+      throw new IllegalArgumentException("deltaPopBatchSize must not be negative");
+    }
+    this.deltaPopBatchSize = deltaPopBatchSize;
+    return this;
+  }
+
+  /**
+   * Bounds the {@link DeltaFIFO} of informers constructed afterwards: once the given number of
+   * objects are waiting to be processed, their reflector stops reading from the watch until the
+   * handlers catch up, which keeps the informer's memory bounded and lets the connection's flow
+   * control push back on the api server. See {@link DeltaFIFO#getQueueDepth()} and {@link
+   * DeltaFIFO#getBlockedNanos()} for monitoring. Zero, the default, leaves the queue unbounded.
+   *
+   * @param deltaQueueCapacity the capacity of the delta queue, zero for an unbounded queue
+   * @return the shared informer factory
+   */
+  public synchronized SharedInformerFactory setDeltaQueueCapacity(int deltaQueueCapacity) {
+    if (deltaQueueCapacity < 0) {
+      throw new IllegalArgumentException("deltaQueueCapacity must not be negative");
+    }
+    this.deltaQueueCapacity = deltaQueueCapacity;
+    return this;
+  }
+
+  /**
+   * Makes informers constructed afterwards list their objects in pages of at most the given number
+   * of items, using the limit and continue parameters of the list call, so that a large list is
+   * never held in memory at once: each page is queued in the {@link DeltaFIFO} before requesting
+   * the next one. If the continue token expires before the last page, the informer falls back to a
+   * full list. Zero, the default, lists all the objects at once.
+   *
+   * <p>Informers constructed from a {@link CallGenerator} only list in pages if the generator
+   * passes {@link CallGeneratorParams#limit} and {@link CallGeneratorParams#continueToken} to the
+   * call.
+   *
+   * @param listPageSize the maximum number of items per page, zero to list all items at once
+   * @return the shared informer factory
+   */
+  public synchronized SharedInformerFactory setListPageSize(int listPageSize) {
+    if (listPageSize < 0) {
+      throw new IllegalArgumentException("listPageSize must not be negative");
+    }
+    this.listPageSize = listPageSize;
+    return this;
+  }
+
+  /**
+   * Makes informers constructed afterwards receive their initial state as the first events of a
+   * watch with sendInitialEvents, rather than with a list followed by a watch, so that the initial
+   * state is never held in a single response. The informers are synced once the api server marks
+   * the end of the initial events with a bookmark. On api servers which don't support streaming
+   * lists, the informers fall back to listing.
+   *
+   * <p>Informers constructed from a {@link CallGenerator} only stream their initial state if the
+   * generator passes {@link CallGeneratorParams#sendInitialEvents} and {@link
+   * CallGeneratorParams#resourceVersionMatch} to the call.
+   *
+   * @param watchListEnabled whether or not to stream the initial state
+   * @return the shared informer factory
+   */
+  public synchronized SharedInformerFactory setWatchListEnabled(boolean watchListEnabled) {
+    this.watchListEnabled = watchListEnabled;
+    return this;
+  }
+
+  /**
+   * Makes informers constructed afterwards run their controller, reflector and event handlers on
+   * virtual threads, which mostly wait on the watch connection or on their queue and therefore
+   * don't need a platform thread each. Informers are also started on virtual threads unless the
+   * factory was given a thread pool. Has no effect before JDK 21, see {@link
+   * Threads#isVirtualThreadSupported()}.
+   *
+   * @param virtualThreadsEnabled whether or not to use virtual threads
+   * @return the shared informer factory
+   */
+  public synchronized SharedInformerFactory setVirtualThreadsEnabled(
+      boolean virtualThreadsEnabled) {
+    this.virtualThreadsEnabled = virtualThreadsEnabled;
+    if (defaultInformerExecutor && startedInformers.isEmpty()) {
+      informerExecutor.shutdown();
+      informerExecutor =
+          Executors.newCachedThreadPool(
+              Threads.threadFactory("informer-starter-%d", virtualThreadsEnabled));
+    }
+    return this;
+  }
+
   /**
    * Shared index informer for shared index informer.
    *
@@ -154,9 +301,36 @@ public class SharedInformerFactory {
           long resyncPeriodInMillis,
           BiConsumer<Class<ApiType>, Throwable> exceptionHandler) {
 
-    SharedIndexInformer<ApiType> informer =
+    Indexer<ApiType> cache;
+    Function<ApiType, String> keyFunc;
+    if (concurrentCacheEnabled) {
+      ConcurrentCache<ApiType> concurrentCache = new ConcurrentCache<>();
+      keyFunc = concurrentCache.getKeyFunc();
+      cache = concurrentCache;
+    } else {
+      Cache<ApiType> defaultCache = new Cache<>(cacheIndexStorage);
+      keyFunc = defaultCache.getKeyFunc();
+      cache = defaultCache;
+    }
+    // down-casting should be safe here because one delta FIFO instance only serves one resource
+    // type
+    DeltaFIFO deltaFIFO =
+        new DeltaFIFO(
+            (Function<KubernetesObject, String>) (Function) keyFunc,
+            (Store<? extends KubernetesObject>) cache);
+    deltaFIFO.setPopBatchSize(deltaPopBatchSize);
+    deltaFIFO.setCapacity(deltaQueueCapacity);
+    DefaultSharedIndexInformer<ApiType, ApiListType> informer =
         new DefaultSharedIndexInformer<>(
-            apiTypeClass, listerWatcher, resyncPeriodInMillis, new Cache<>(), exceptionHandler);
+            apiTypeClass,
+            listerWatcher,
+            resyncPeriodInMillis,
+            deltaFIFO,
+            cache,
+            exceptionHandler,
+            virtualThreadsEnabled);
+    informer.setListPageSize(listPageSize);
+    informer.setWatchListEnabled(watchListEnabled);
     this.informers.putIfAbsent(TypeToken.get(apiTypeClass).getType(), informer);
     return informer;
   }
@@ -252,6 +426,8 @@ public class SharedInformerFactory {
                     {
                       setResourceVersion(params.resourceVersion);
                       setTimeoutSeconds(params.timeoutSeconds);
+                      setLimit(params.limit);
+                      setContinue(params.continueToken);
                     }
                   })
               .throwsApiException()
@@ -264,6 +440,8 @@ public class SharedInformerFactory {
                     {
                       setResourceVersion(params.resourceVersion);
                       setTimeoutSeconds(params.timeoutSeconds);
+                      setLimit(params.limit);
+                      setContinue(params.continueToken);
                     }
                   })
               .throwsApiException()
@@ -278,6 +456,9 @@ public class SharedInformerFactory {
                 {
                   setResourceVersion(params.resourceVersion);
                   setTimeoutSeconds(params.timeoutSeconds);
+                  setAllowWatchBookmarks(params.allowWatchBookmarks);
+                  setSendInitialEvents(params.sendInitialEvents);
+                  setResourceVersionMatch(params.resourceVersionMatch);
                 }
               });
         } else {
@@ -287,6 +468,9 @@ public class SharedInformerFactory {
                 {
                   setResourceVersion(params.resourceVersion);
                   setTimeoutSeconds(params.timeoutSeconds);
+                  setAllowWatchBookmarks(params.allowWatchBookmarks);
+                  setSendInitialEvents(params.sendInitialEvents);
+                  setResourceVersionMatch(params.resourceVersionMatch);
                 }
               });
         }
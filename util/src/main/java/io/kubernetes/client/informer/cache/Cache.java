@@ -17,20 +17,29 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.MapUtils;
 
 /**
  * Cache is a java port of k/client-go's ThreadSafeStore. It basically saves and indexes all the
  * entries.
+ *
+ * <p>Entries and indices are held in persistent maps, so that {@link #snapshot()} can hand out an
+ * immutable view of the cache without copying it. With {@link IndexStorage#COMPACT}, indices are
+ * instead held as compressed sets of dense object ids, which takes a fraction of the memory on
+ * large caches at the price of snapshots copying the indices.
  */
 // TODO(yue9944882): Cache is very similar to a Map, replace/inherit w/ Map interface
 public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType> {
 
+  /** how many times replace builds aside before building under the lock */
+  private static final int MAX_REPLACE_ATTEMPTS = 3;
+
   /** keyFunc defines how to map objects into indices */
   private Function<ApiType, String> keyFunc;
 
@@ -38,16 +47,47 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
   private Map<String, Function<ApiType, List<String>>> indexers = new HashMap<>();
 
   /** items stores object instances */
-  private Map<String, ApiType> items = new HashMap<>();
+  private PersistentHashMap<String, ApiType> items = PersistentHashMap.empty();
 
   /** indices stores objects' keys by their indices */
-  private Map<String, Map<String, Set<String>>> indices = new HashMap<>();
+  private PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+      indices = PersistentHashMap.empty();
+
+  /** compactIndices replaces indices when the compact index storage is used */
+  private final CompactIndices compactIndices;
+
+  /** version is bumped on every change of the items or the indices */
+  private long version;
+
+  /** lastSnapshot is handed out again as long as the compact cache hasn't changed */
+  private Snapshot<ApiType> lastSnapshot;
+
+  /** IndexStorage selects how a cache stores the postings of its indices. */
+  public enum IndexStorage {
+    /** Postings are persistent sets of object keys, taking a snapshot is free. */
+    HASH,
+    /**
+     * Objects are assigned dense int ids and postings are compressed int sets, taking a snapshot
+     * copies the indices.
+     */
+    COMPACT
+  }
 
   public Cache() {
+    this(IndexStorage.HASH);
+  }
+
+  /**
+   * Constructor w/ the default namespace index.
+   *
+   * @param indexStorage how postings of the indices are stored
+   */
+  public Cache(IndexStorage indexStorage) {
     this(
         Caches.NAMESPACE_INDEX,
         Caches::metaNamespaceIndexFunc,
-        Caches::deletionHandlingMetaNamespaceKeyFunc);
+        Caches::deletionHandlingMetaNamespaceKeyFunc,
+        indexStorage);
   }
 
   /**
@@ -61,9 +101,25 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
       String indexName,
       Function<ApiType, List<String>> indexFunc,
       Function<ApiType, String> keyFunc) {
-    this.indexers.put(indexName, indexFunc);
+    this(indexName, indexFunc, keyFunc, IndexStorage.HASH);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param indexName the index name, an unique name representing the index
+   * @param indexFunc the index func by which we map multiple object to an index for querying
+   * @param keyFunc the key func by which we map one object to an unique key for storing
+   * @param indexStorage how postings of the indices are stored
+   */
+  public Cache(
+      String indexName,
+      Function<ApiType, List<String>> indexFunc,
+      Function<ApiType, String> keyFunc,
+      IndexStorage indexStorage) {
+    this.compactIndices = indexStorage == IndexStorage.COMPACT ? new CompactIndices() : null;
     this.keyFunc = keyFunc;
-    this.indices.put(indexName, new HashMap<>());
+    addIndexFunc(indexName, indexFunc);
   }
 
   /**
@@ -76,7 +132,7 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
     String key = keyFunc.apply(obj);
     synchronized (this) {
       ApiType oldObj = this.items.get(key);
-      this.items.put(key, obj);
+      this.items = this.items.plus(key, obj);
       this.updateIndices(oldObj, obj, key);
     }
   }
@@ -91,7 +147,7 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
     String key = keyFunc.apply(obj);
     synchronized (this) {
       ApiType oldObj = this.items.get(key);
-      this.items.put(key, obj);
+      this.items = this.items.plus(key, obj);
       updateIndices(oldObj, obj, key);
     }
   }
@@ -108,30 +164,152 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
       boolean exists = this.items.containsKey(key);
       if (exists) {
         this.deleteFromIndices(this.items.get(key), key);
-        this.items.remove(key);
+        this.items = this.items.minus(key);
+        this.releaseKey(key);
       }
     }
   }
 
   /**
-   * Replace the content in the cache completely.
+   * Replace the content in the cache completely. The new items and indices are built aside from the
+   * current ones, outside the lock, touching only the objects absent from the list, new in the list
+   * or at a different resource version, then swapped in at once so that readers never see a
+   * partially replaced cache nor wait for the build. If the cache changed while building, the build
+   * is taken again, and under the lock after a few attempts.
+   *
+   * <p>With {@link IndexStorage#COMPACT}, the indices are mutable and can't be built aside, so the
+   * diff is applied under the lock instead, holding off the readers while it's applied.
    *
    * @param list the list
    * @param resourceVersion the resource version
    */
   @Override
-  public synchronized void replace(List<ApiType> list, String resourceVersion) {
-    Map<String, ApiType> newItems = new HashMap<>();
+  public void replace(List<ApiType> list, String resourceVersion) {
+    Map<String, ApiType> newItems = new LinkedHashMap<>();
     for (ApiType item : list) {
-      String key = keyFunc.apply(item);
-      newItems.put(key, item);
+      newItems.put(keyFunc.apply(item), item);
+    }
+    if (this.compactIndices != null) {
+      replaceCompact(newItems);
+      return;
+    }
+
+    for (int attempt = 1; ; attempt++) {
+      PersistentHashMap<String, ApiType> oldItems;
+      PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+          oldIndices;
+      Map<String, Function<ApiType, List<String>>> oldIndexers;
+      long oldVersion;
+      synchronized (this) {
+        oldItems = this.items;
+        oldIndices = this.indices;
+        oldIndexers = new HashMap<>(this.indexers);
+        oldVersion = this.version;
+      }
+      Replacement<ApiType> replacement =
+          replacement(oldItems, oldIndices, oldIndexers, diff(oldItems, newItems));
+
+      synchronized (this) {
+        if (this.version != oldVersion) {
+          if (attempt < MAX_REPLACE_ATTEMPTS) {
+            continue;
+          }
+          replacement =
+              replacement(this.items, this.indices, this.indexers, diff(this.items, newItems));
+        }
+        this.items = replacement.items;
+        this.indices = replacement.indices;
+        this.version++;
+        return;
+      }
+    }
+  }
+
+  /** replaceCompact applies the diff to the compact indices, which are mutable, under the lock. */
+  private void replaceCompact(Map<String, ApiType> newItems) {
+    PersistentHashMap<String, ApiType> oldItems;
+    long oldVersion;
+    synchronized (this) {
+      oldItems = this.items;
+      oldVersion = this.version;
+    }
+    Diff<ApiType> diff = diff(oldItems, newItems);
+
+    synchronized (this) {
+      if (this.version != oldVersion) {
+        diff = diff(this.items, newItems);
+      }
+      for (String key : diff.removedKeys) {
+        this.deleteFromIndices(this.items.get(key), key);
+        this.items = this.items.minus(key);
+        this.releaseKey(key);
+      }
+      for (Map.Entry<String, ApiType> changedItem : diff.changedItems.entrySet()) {
+        String key = changedItem.getKey();
+        ApiType oldObj = this.items.get(key);
+        this.items = this.items.plus(key, changedItem.getValue());
+        this.updateIndices(oldObj, changedItem.getValue(), key);
+      }
     }
-    this.items = newItems;
+  }
 
-    // rebuild any index
-    this.indices = new HashMap<>();
-    for (Map.Entry<String, ApiType> itemEntry : items.entrySet()) {
-      this.updateIndices(null, itemEntry.getValue(), itemEntry.getKey());
+  /** diff finds the keys to remove and the objects to put for the new items to replace the old. */
+  private Diff<ApiType> diff(
+      PersistentHashMap<String, ApiType> oldItems, Map<String, ApiType> newItems) {
+    Diff<ApiType> diff = new Diff<>();
+    for (String key : oldItems.keys()) {
+      if (!newItems.containsKey(key)) {
+        diff.removedKeys.add(key);
+      }
+    }
+    for (Map.Entry<String, ApiType> newItem : newItems.entrySet()) {
+      if (!Caches.isSameResourceVersion(oldItems.get(newItem.getKey()), newItem.getValue())) {
+        diff.changedItems.put(newItem.getKey(), newItem.getValue());
+      }
+    }
+    return diff;
+  }
+
+  /** replacement applies the diff to the persistent items and indices, leaving them untouched. */
+  private static <ApiType> Replacement<ApiType> replacement(
+      PersistentHashMap<String, ApiType> items,
+      PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+          indices,
+      Map<String, Function<ApiType, List<String>>> indexers,
+      Diff<ApiType> diff) {
+    for (String key : diff.removedKeys) {
+      indices = removeFromIndices(indexers, indices, items.get(key), key);
+      items = items.minus(key);
+    }
+    for (Map.Entry<String, ApiType> changedItem : diff.changedItems.entrySet()) {
+      String key = changedItem.getKey();
+      ApiType oldObj = items.get(key);
+      if (oldObj != null) {
+        indices = removeFromIndices(indexers, indices, oldObj, key);
+      }
+      items = items.plus(key, changedItem.getValue());
+      indices = addToIndices(indexers, indices, changedItem.getValue(), key);
+    }
+    return new Replacement<>(items, indices);
+  }
+
+  private static class Diff<ApiType> {
+    private final List<String> removedKeys = new ArrayList<>();
+    private final Map<String, ApiType> changedItems = new LinkedHashMap<>();
+  }
+
+  private static class Replacement<ApiType> {
+    private final PersistentHashMap<String, ApiType> items;
+    private final PersistentHashMap<
+            String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+        indices;
+
+    private Replacement(
+        PersistentHashMap<String, ApiType> items,
+        PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+            indices) {
+      this.items = items;
+      this.indices = indices;
     }
   }
 
@@ -149,8 +327,8 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
   @Override
   public synchronized List<String> listKeys() {
     List<String> keys = new ArrayList<>(this.items.size());
-    for (Map.Entry<String, ApiType> entry : this.items.entrySet()) {
-      keys.add(entry.getKey());
+    for (String key : this.items.keys()) {
+      keys.add(key);
     }
     return keys;
   }
@@ -177,8 +355,8 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
   @Override
   public synchronized List<ApiType> list() {
     List<ApiType> itemList = new ArrayList<>(this.items.size());
-    for (Map.Entry<String, ApiType> entry : this.items.entrySet()) {
-      itemList.add(entry.getValue());
+    for (ApiType item : this.items.values()) {
+      itemList.add(item);
     }
     return itemList;
   }
@@ -208,17 +386,12 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
     }
     Function<ApiType, List<String>> indexFunc = this.indexers.get(indexName);
     List<String> indexKeys = indexFunc.apply((ApiType) obj);
-    Map<String, Set<String>> index = this.indices.get(indexName);
-    if (MapUtils.isEmpty(index)) {
+    if (CollectionUtils.isEmpty(indexKeys)) {
       return new ArrayList<>();
     }
     Set<String> returnKeySet = new HashSet<>();
     for (String indexKey : indexKeys) {
-      Set<String> set = index.get(indexKey);
-      if (CollectionUtils.isEmpty(set)) {
-        continue;
-      }
-      returnKeySet.addAll(set);
+      forEachIndexedKey(indexName, indexKey, returnKeySet::add);
     }
 
     List<ApiType> items = new ArrayList<>(returnKeySet.size());
@@ -240,12 +413,8 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
     if (!this.indexers.containsKey(indexName)) {
       throw new IllegalArgumentException(String.format("index %s doesn't exist!", indexName));
     }
-    Map<String, Set<String>> index = this.indices.get(indexName);
-    Set<String> set = index.get(indexKey);
-    List<String> keys = new ArrayList<>(set.size());
-    for (String key : set) {
-      keys.add(key);
-    }
+    List<String> keys = new ArrayList<>(countIndexedKeys(indexName, indexKey));
+    forEachIndexedKey(indexName, indexKey, keys::add);
     return keys;
   }
 
@@ -261,18 +430,56 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
     if (!this.indexers.containsKey(indexName)) {
       throw new IllegalArgumentException(String.format("index %s doesn't exist!", indexName));
     }
-    Map<String, Set<String>> index = this.indices.get(indexName);
-    Set<String> set = index.get(indexKey);
-    if (set == null) {
+    int count = countIndexedKeys(indexName, indexKey);
+    if (count == 0) {
       return Arrays.asList();
     }
-    List<ApiType> items = new ArrayList<>(set.size());
-    for (String key : set) {
-      items.add(this.items.get(key));
-    }
+    List<ApiType> items = new ArrayList<>(count);
+    forEachIndexedKey(indexName, indexKey, key -> items.add(this.items.get(key)));
     return items;
   }
 
+  /**
+   * Take an immutable snapshot of the cache. The snapshot shares its structure with the cache so
+   * this doesn't copy any entry, except for the indices of a {@link IndexStorage#COMPACT} cache
+   * which are copied once per version.
+   *
+   * @return the snapshot
+   */
+  @Override
+  public synchronized Snapshot<ApiType> snapshot() {
+    if (this.compactIndices == null) {
+      return new Snapshot<>(this.items, this.indices, this.version);
+    }
+    if (this.lastSnapshot == null || this.lastSnapshot.getVersion() != this.version) {
+      this.lastSnapshot = new Snapshot<>(this.items, compactIndices.toPersistent(), this.version);
+    }
+    return this.lastSnapshot;
+  }
+
+  /**
+   * Describe the size of every index of the cache.
+   *
+   * @return the statistics by index name
+   */
+  public synchronized Map<String, IndexStats> getIndexStats() {
+    if (this.compactIndices != null) {
+      return compactIndices.stats();
+    }
+    Map<String, IndexStats> stats = new HashMap<>();
+    for (Map.Entry<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>> index :
+        this.indices) {
+      long postings = 0;
+      long bytes = index.getValue().estimatedBytes();
+      for (PersistentHashMap<String, Boolean> set : index.getValue().values()) {
+        postings += set.size();
+        bytes += set.estimatedBytes();
+      }
+      stats.put(index.getKey(), new IndexStats(index.getValue().size(), postings, bytes));
+    }
+    return stats;
+  }
+
   /**
    * Return the indexers registered with the cache.
    *
@@ -321,21 +528,20 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
     if (oldObj != null) {
       deleteFromIndices(oldObj, key);
     }
-    for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : indexers.entrySet()) {
-      String indexName = indexEntry.getKey();
-      Function<ApiType, List<String>> indexFunc = indexEntry.getValue();
-      List<String> indexValues = indexFunc.apply(newObj);
-      if (CollectionUtils.isEmpty(indexValues)) {
-        continue;
-      }
-
-      Map<String, Set<String>> index =
-          this.indices.computeIfAbsent(indexName, k -> new HashMap<>());
-      for (String indexValue : indexValues) {
-        Set<String> indexSet = index.computeIfAbsent(indexValue, k -> new HashSet<>());
-        indexSet.add(key);
+    if (this.compactIndices != null) {
+      for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : indexers.entrySet()) {
+        List<String> indexValues = indexEntry.getValue().apply(newObj);
+        if (CollectionUtils.isEmpty(indexValues)) {
+          continue;
+        }
+        for (String indexValue : indexValues) {
+          this.compactIndices.add(indexEntry.getKey(), indexValue, key);
+        }
       }
+    } else {
+      this.indices = addToIndices(this.indexers, this.indices, newObj, key);
     }
+    this.version++;
   }
 
   /**
@@ -347,24 +553,86 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
    * @param key the key
    */
   private void deleteFromIndices(ApiType oldObj, String key) {
+    if (this.compactIndices == null) {
+      this.indices = removeFromIndices(this.indexers, this.indices, oldObj, key);
+      return;
+    }
     for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : this.indexers.entrySet()) {
-      Function<ApiType, List<String>> indexFunc = indexEntry.getValue();
-      List<String> indexValues = indexFunc.apply(oldObj);
+      List<String> indexValues = indexEntry.getValue().apply(oldObj);
+      if (CollectionUtils.isEmpty(indexValues)) {
+        continue;
+      }
+      for (String indexValue : indexValues) {
+        this.compactIndices.remove(indexEntry.getKey(), indexValue, key);
+      }
+    }
+  }
+
+  /** addToIndices returns the persistent indices with the object added to each of the indexes. */
+  private static <ApiType>
+      PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+          addToIndices(
+              Map<String, Function<ApiType, List<String>>> indexers,
+              PersistentHashMap<
+                      String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+                  indices,
+              ApiType obj,
+              String key) {
+    for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : indexers.entrySet()) {
+      String indexName = indexEntry.getKey();
+      List<String> indexValues = indexEntry.getValue().apply(obj);
       if (CollectionUtils.isEmpty(indexValues)) {
         continue;
       }
+      PersistentHashMap<String, PersistentHashMap<String, Boolean>> index = indices.get(indexName);
+      if (index == null) {
+        index = PersistentHashMap.empty();
+      }
+      for (String indexValue : indexValues) {
+        PersistentHashMap<String, Boolean> indexSet = index.get(indexValue);
+        if (indexSet == null) {
+          indexSet = PersistentHashMap.empty();
+        }
+        index = index.plus(indexValue, indexSet.plus(key, Boolean.TRUE));
+      }
+      indices = indices.plus(indexName, index);
+    }
+    return indices;
+  }
 
-      Map<String, Set<String>> index = this.indices.get(indexEntry.getKey());
+  /**
+   * removeFromIndices returns the persistent indices with the object removed from each of the
+   * indexes.
+   */
+  private static <ApiType>
+      PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+          removeFromIndices(
+              Map<String, Function<ApiType, List<String>>> indexers,
+              PersistentHashMap<
+                      String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+                  indices,
+              ApiType obj,
+              String key) {
+    for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : indexers.entrySet()) {
+      List<String> indexValues = indexEntry.getValue().apply(obj);
+      if (CollectionUtils.isEmpty(indexValues)) {
+        continue;
+      }
+      PersistentHashMap<String, PersistentHashMap<String, Boolean>> index =
+          indices.get(indexEntry.getKey());
       if (index == null) {
         continue;
       }
       for (String indexValue : indexValues) {
-        Set<String> indexSet = index.get(indexValue);
+        PersistentHashMap<String, Boolean> indexSet = index.get(indexValue);
         if (indexSet != null) {
-          indexSet.remove(key);
+          indexSet = indexSet.minus(key);
+          index = indexSet.isEmpty() ? index.minus(indexValue) : index.plus(indexValue, indexSet);
         }
       }
+      indices = indices.plus(indexEntry.getKey(), index);
     }
+    return indices;
   }
 
   /**
@@ -373,9 +641,48 @@ public class Cache<ApiType extends KubernetesObject> implements Indexer<ApiType>
    * @param indexName the index name
    * @param indexFunc the index func
    */
-  public void addIndexFunc(String indexName, Function<ApiType, List<String>> indexFunc) {
-    this.indices.put(indexName, new HashMap<>());
+  public synchronized void addIndexFunc(
+      String indexName, Function<ApiType, List<String>> indexFunc) {
+    if (this.compactIndices != null) {
+      this.compactIndices.addIndex(indexName);
+    } else {
+      this.indices = this.indices.plus(indexName, PersistentHashMap.empty());
+    }
     this.indexers.put(indexName, indexFunc);
+    this.version++;
+  }
+
+  /** releaseKey forgets about a key removed from the cache. Caller must hold the lock. */
+  private void releaseKey(String key) {
+    if (this.compactIndices != null) {
+      this.compactIndices.release(key);
+    }
+    this.version++;
+  }
+
+  /** forEachIndexedKey visits the keys indexed under the value. Caller must hold the lock. */
+  private void forEachIndexedKey(String indexName, String indexValue, Consumer<String> consumer) {
+    if (this.compactIndices != null) {
+      this.compactIndices.forEachKey(indexName, indexValue, consumer);
+      return;
+    }
+    PersistentHashMap<String, PersistentHashMap<String, Boolean>> index =
+        this.indices.get(indexName);
+    PersistentHashMap<String, Boolean> set = index == null ? null : index.get(indexValue);
+    if (set != null) {
+      set.keys().forEach(consumer);
+    }
+  }
+
+  /** countIndexedKeys counts the keys indexed under the value. Caller must hold the lock. */
+  private int countIndexedKeys(String indexName, String indexValue) {
+    if (this.compactIndices != null) {
+      return this.compactIndices.count(indexName, indexValue);
+    }
+    PersistentHashMap<String, PersistentHashMap<String, Boolean>> index =
+        this.indices.get(indexName);
+    PersistentHashMap<String, Boolean> set = index == null ? null : index.get(indexValue);
+    return set == null ? 0 : set.size();
   }
 
   public Function<ApiType, String> getKeyFunc() {
@@ -71,4 +71,24 @@ public class Caches {
     }
     return Collections.singletonList(metadata.getNamespace());
   }
+
+  /**
+   * isSameResourceVersion tells whether both objects are known at the very same resource version,
+   * in which case one can be kept in place of the other.
+   *
+   * @param oldObj the cached object, possibly null
+   * @param newObj the incoming object, possibly null
+   * @return true if both objects carry the same non-empty resource version
+   */
+  static boolean isSameResourceVersion(KubernetesObject oldObj, KubernetesObject newObj) {
+    if (oldObj == null
+        || newObj == null
+        || oldObj.getMetadata() == null
+        || newObj.getMetadata() == null) {
+      return false;
+    }
+    String resourceVersion = oldObj.getMetadata().getResourceVersion();
+    return !Strings.isNullOrEmpty(resourceVersion)
+        && resourceVersion.equals(newObj.getMetadata().getResourceVersion());
+  }
 }
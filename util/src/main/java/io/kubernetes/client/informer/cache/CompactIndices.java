@@ -0,0 +1,149 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * CompactIndices backs the {@link Cache.IndexStorage#COMPACT} index storage of a {@link Cache}.
+ * Every indexed object key is assigned a dense int id, reused once the object is gone, and each
+ * index value maps to a {@link CompactPostings} of ids instead of a set of keys. Index values are
+ * held once per index, whichever object they were computed from.
+ *
+ * <p>Not thread-safe, the owning cache is expected to hold its lock.
+ */
+final class CompactIndices {
+
+  private final Map<String, Integer> ids = new HashMap<>();
+
+  private String[] keysById = new String[16];
+
+  private int[] freeIds = new int[16];
+
+  private int freeCount;
+
+  private int nextId;
+
+  private final Map<String, Map<String, CompactPostings>> indices = new HashMap<>();
+
+  void addIndex(String indexName) {
+    indices.put(indexName, new HashMap<>());
+  }
+
+  void add(String indexName, String indexValue, String key) {
+    Map<String, CompactPostings> index = indices.computeIfAbsent(indexName, k -> new HashMap<>());
+    index.computeIfAbsent(indexValue, k -> new CompactPostings()).add(idOf(key));
+  }
+
+  void remove(String indexName, String indexValue, String key) {
+    Map<String, CompactPostings> index = indices.get(indexName);
+    Integer id = ids.get(key);
+    if (index == null || id == null) {
+      return;
+    }
+    CompactPostings postings = index.get(indexValue);
+    if (postings != null && postings.remove(id) && postings.isEmpty()) {
+      index.remove(indexValue);
+    }
+  }
+
+  /**
+   * Releases the id of an object key which has been removed from every index, so that it can be
+   * handed out again.
+   *
+   * @param key the object key
+   */
+  void release(String key) {
+    Integer id = ids.remove(key);
+    if (id == null) {
+      return;
+    }
+    keysById[id] = null;
+    if (freeCount == freeIds.length) {
+      freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+    }
+    freeIds[freeCount++] = id;
+  }
+
+  boolean hasIndex(String indexName) {
+    return indices.containsKey(indexName);
+  }
+
+  int count(String indexName, String indexValue) {
+    CompactPostings postings = indices.get(indexName).get(indexValue);
+    return postings == null ? 0 : postings.size();
+  }
+
+  void forEachKey(String indexName, String indexValue, Consumer<String> consumer) {
+    CompactPostings postings = indices.get(indexName).get(indexValue);
+    if (postings != null) {
+      postings.forEach(id -> consumer.accept(keysById[id]));
+    }
+  }
+
+  Map<String, IndexStats> stats() {
+    Map<String, IndexStats> stats = new HashMap<>();
+    for (Map.Entry<String, Map<String, CompactPostings>> index : indices.entrySet()) {
+      long postingCount = 0;
+      // the value map itself, roughly one table slot and one node per value
+      long bytes = 48 + 36L * index.getValue().size();
+      for (CompactPostings postings : index.getValue().values()) {
+        postingCount += postings.size();
+        bytes += postings.estimatedBytes();
+      }
+      stats.put(index.getKey(), new IndexStats(index.getValue().size(), postingCount, bytes));
+    }
+    return stats;
+  }
+
+  /**
+   * Copies the indices into the persistent layout used by {@link Snapshot}.
+   *
+   * @return the persistent copy of the indices
+   */
+  PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+      toPersistent() {
+    PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>> copy =
+        PersistentHashMap.empty();
+    for (Map.Entry<String, Map<String, CompactPostings>> index : indices.entrySet()) {
+      PersistentHashMap<String, PersistentHashMap<String, Boolean>> indexCopy =
+          PersistentHashMap.empty();
+      for (Map.Entry<String, CompactPostings> postings : index.getValue().entrySet()) {
+        PersistentHashMap<String, Boolean> keys = PersistentHashMap.empty();
+        for (int id : postings.getValue().toArray()) {
+          keys = keys.plus(keysById[id], Boolean.TRUE);
+        }
+        indexCopy = indexCopy.plus(postings.getKey(), keys);
+      }
+      copy = copy.plus(index.getKey(), indexCopy);
+    }
+    return copy;
+  }
+
+  private int idOf(String key) {
+    Integer id = ids.get(key);
+    if (id != null) {
+      return id;
+    }
+    int newId = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+    if (newId == keysById.length) {
+      keysById = Arrays.copyOf(keysById, newId * 2);
+    }
+    keysById[newId] = key;
+    ids.put(key, newId);
+    return newId;
+  }
+}
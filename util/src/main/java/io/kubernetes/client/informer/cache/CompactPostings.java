@@ -0,0 +1,294 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * CompactPostings is a compressed set of non-negative ints, laid out like a roaring bitmap: ints
+ * are grouped by their high 16 bits into containers which hold the low 16 bits either as a sorted
+ * char array while sparse, or as a 65536-bit bitmap once dense.
+ *
+ * <p>Not thread-safe, callers are expected to hold a lock.
+ */
+final class CompactPostings {
+
+  // an array container above this cardinality would be larger than a bitmap
+  private static final int ARRAY_MAX = 4096;
+
+  // a bitmap container is shrunk back into an array below this cardinality
+  private static final int BITMAP_MIN = ARRAY_MAX / 2;
+
+  private static final int BITMAP_WORDS = 1 << 10;
+
+  private char[] highs = new char[1];
+
+  // each container is either a char[] of sorted lows or a long[] bitmap
+  private Object[] containers = new Object[1];
+
+  private int[] cardinalities = new int[1];
+
+  private int containerCount;
+
+  private int size;
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  boolean contains(int value) {
+    int c = containerIndex(high(value));
+    if (c < 0) {
+      return false;
+    }
+    Object container = containers[c];
+    char low = low(value);
+    if (container instanceof long[]) {
+      return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+    return Arrays.binarySearch((char[]) container, 0, cardinalities[c], low) >= 0;
+  }
+
+  /**
+   * Adds the value.
+   *
+   * @param value the value
+   * @return true if the value wasn't present
+   */
+  boolean add(int value) {
+    char high = high(value);
+    char low = low(value);
+    int c = containerIndex(high);
+    if (c < 0) {
+      c = -c - 1;
+      insertContainer(c, high);
+    }
+    Object container = containers[c];
+    if (container instanceof long[]) {
+      long[] bitmap = (long[]) container;
+      long bit = 1L << low;
+      if ((bitmap[low >>> 6] & bit) != 0) {
+        return false;
+      }
+      bitmap[low >>> 6] |= bit;
+    } else {
+      char[] array = (char[]) container;
+      int cardinality = cardinalities[c];
+      int i = Arrays.binarySearch(array, 0, cardinality, low);
+      if (i >= 0) {
+        return false;
+      }
+      i = -i - 1;
+      if (cardinality == ARRAY_MAX) {
+        long[] bitmap = toBitmap(array, cardinality);
+        bitmap[low >>> 6] |= 1L << low;
+        containers[c] = bitmap;
+      } else {
+        if (cardinality == array.length) {
+          array = Arrays.copyOf(array, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+          containers[c] = array;
+        }
+        System.arraycopy(array, i, array, i + 1, cardinality - i);
+        array[i] = low;
+      }
+    }
+    cardinalities[c]++;
+    size++;
+    return true;
+  }
+
+  /**
+   * Removes the value.
+   *
+   * @param value the value
+   * @return true if the value was present
+   */
+  boolean remove(int value) {
+    int c = containerIndex(high(value));
+    if (c < 0) {
+      return false;
+    }
+    Object container = containers[c];
+    char low = low(value);
+    int cardinality = cardinalities[c];
+    if (container instanceof long[]) {
+      long[] bitmap = (long[]) container;
+      long bit = 1L << low;
+      if ((bitmap[low >>> 6] & bit) == 0) {
+        return false;
+      }
+      bitmap[low >>> 6] &= ~bit;
+      if (cardinality - 1 < BITMAP_MIN) {
+        containers[c] = toArray(bitmap, cardinality - 1);
+      }
+    } else {
+      char[] array = (char[]) container;
+      int i = Arrays.binarySearch(array, 0, cardinality, low);
+      if (i < 0) {
+        return false;
+      }
+      System.arraycopy(array, i + 1, array, i, cardinality - i - 1);
+      if (cardinality - 1 < array.length / 4) {
+        containers[c] = Arrays.copyOf(array, Math.max(4, array.length / 2));
+      }
+    }
+    size--;
+    if (--cardinalities[c] == 0) {
+      removeContainer(c);
+    }
+    return true;
+  }
+
+  /**
+   * Visits the values in increasing order.
+   *
+   * @param consumer the consumer
+   */
+  void forEach(IntConsumer consumer) {
+    for (int c = 0; c < containerCount; c++) {
+      int base = highs[c] << 16;
+      Object container = containers[c];
+      if (container instanceof long[]) {
+        long[] bitmap = (long[]) container;
+        for (int w = 0; w < bitmap.length; w++) {
+          long word = bitmap[w];
+          while (word != 0) {
+            consumer.accept(base | (w << 6) | Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+          }
+        }
+      } else {
+        char[] array = (char[]) container;
+        for (int i = 0; i < cardinalities[c]; i++) {
+          consumer.accept(base | array[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies the values in increasing order.
+   *
+   * @return the values
+   */
+  int[] toArray() {
+    int[] values = new int[size];
+    int i = 0;
+    for (int c = 0; c < containerCount; c++) {
+      int base = highs[c] << 16;
+      Object container = containers[c];
+      if (container instanceof long[]) {
+        long[] bitmap = (long[]) container;
+        for (int w = 0; w < bitmap.length; w++) {
+          long word = bitmap[w];
+          while (word != 0) {
+            values[i++] = base | (w << 6) | Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+          }
+        }
+      } else {
+        char[] array = (char[]) container;
+        for (int j = 0; j < cardinalities[c]; j++) {
+          values[i++] = base | array[j];
+        }
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Estimates the retained heap size, assuming compressed oops.
+   *
+   * @return the estimated size in bytes
+   */
+  long estimatedBytes() {
+    // object header and fields, then the three top-level arrays
+    long bytes = 32 + arrayBytes(highs.length * 2L) + arrayBytes(containers.length * 4L);
+    bytes += arrayBytes(cardinalities.length * 4L);
+    for (int c = 0; c < containerCount; c++) {
+      Object container = containers[c];
+      if (container instanceof long[]) {
+        bytes += arrayBytes(BITMAP_WORDS * 8L);
+      } else {
+        bytes += arrayBytes(((char[]) container).length * 2L);
+      }
+    }
+    return bytes;
+  }
+
+  private static long arrayBytes(long payload) {
+    return (16 + payload + 7) & ~7L;
+  }
+
+  private static char high(int value) {
+    return (char) (value >>> 16);
+  }
+
+  private static char low(int value) {
+    return (char) value;
+  }
+
+  private int containerIndex(char high) {
+    return Arrays.binarySearch(highs, 0, containerCount, high);
+  }
+
+  private void insertContainer(int c, char high) {
+    if (containerCount == highs.length) {
+      int capacity = containerCount * 2;
+      highs = Arrays.copyOf(highs, capacity);
+      containers = Arrays.copyOf(containers, capacity);
+      cardinalities = Arrays.copyOf(cardinalities, capacity);
+    }
+    System.arraycopy(highs, c, highs, c + 1, containerCount - c);
+    System.arraycopy(containers, c, containers, c + 1, containerCount - c);
+    System.arraycopy(cardinalities, c, cardinalities, c + 1, containerCount - c);
+    highs[c] = high;
+    containers[c] = new char[4];
+    cardinalities[c] = 0;
+    containerCount++;
+  }
+
+  private void removeContainer(int c) {
+    System.arraycopy(highs, c + 1, highs, c, containerCount - c - 1);
+    System.arraycopy(containers, c + 1, containers, c, containerCount - c - 1);
+    System.arraycopy(cardinalities, c + 1, cardinalities, c, containerCount - c - 1);
+    containerCount--;
+    containers[containerCount] = null;
+  }
+
+  private static long[] toBitmap(char[] array, int cardinality) {
+    long[] bitmap = new long[BITMAP_WORDS];
+    for (int i = 0; i < cardinality; i++) {
+      bitmap[array[i] >>> 6] |= 1L << array[i];
+    }
+    return bitmap;
+  }
+
+  private static char[] toArray(long[] bitmap, int cardinality) {
+    char[] array = new char[Math.max(4, cardinality)];
+    int i = 0;
+    for (int w = 0; w < bitmap.length; w++) {
+      long word = bitmap[w];
+      while (word != 0) {
+        array[i++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+    return array;
+  }
+}
@@ -0,0 +1,514 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import io.kubernetes.client.common.KubernetesObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.apache.commons.collections4.CollectionUtils;
+
+/**
+ * ConcurrentCache is an {@link Indexer} that serves reads without taking any lock. Objects and
+ * index entries are kept in concurrent maps so that listers never wait behind the reflector, while
+ * writers serialize on a lock stripe chosen by the object key so that an object and its index
+ * entries are always updated together.
+ *
+ * <p>Reads are weakly consistent: a reader racing with a writer of the same key observes either the
+ * old or the new state of that object, but a list spanning many keys is not an atomic view of the
+ * whole cache. Unlike {@link Cache}, null index values (e.g. the namespace of a cluster-scoped
+ * object) are not indexed.
+ */
+public class ConcurrentCache<ApiType extends KubernetesObject> implements Indexer<ApiType> {
+
+  private static final int DEFAULT_STRIPES = 64;
+
+  /** keyFunc defines how to map objects into indices */
+  private Function<ApiType, String> keyFunc;
+
+  /** indexers stores index functions by their names */
+  private final Map<String, Function<ApiType, List<String>>> indexers = new ConcurrentHashMap<>();
+
+  /** items stores object instances */
+  private final ConcurrentMap<String, ApiType> items = new ConcurrentHashMap<>();
+
+  /** indices stores objects' keys by their indices */
+  private final ConcurrentMap<String, ConcurrentMap<String, Set<String>>> indices =
+      new ConcurrentHashMap<>();
+
+  /** version is bumped on every change of the items or the indices */
+  private final AtomicLong version = new AtomicLong();
+
+  /** lastSnapshot is handed out again as long as the cache hasn't changed */
+  private volatile Snapshot<ApiType> lastSnapshot;
+
+  /** stripes serialize writers of the same key */
+  private final Object[] stripes;
+
+  /**
+   * writeLock is shared between writers of different keys and exclusive for replace, readers never
+   * take it.
+   */
+  private final ReadWriteLock writeLock = new ReentrantReadWriteLock();
+
+  public ConcurrentCache() {
+    this(
+        Caches.NAMESPACE_INDEX,
+        Caches::metaNamespaceIndexFunc,
+        Caches::deletionHandlingMetaNamespaceKeyFunc);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param indexName the index name, an unique name representing the index
+   * @param indexFunc the index func by which we map multiple object to an index for querying
+   * @param keyFunc the key func by which we map one object to an unique key for storing
+   */
+  public ConcurrentCache(
+      String indexName,
+      Function<ApiType, List<String>> indexFunc,
+      Function<ApiType, String> keyFunc) {
+    this(indexName, indexFunc, keyFunc, DEFAULT_STRIPES);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param indexName the index name, an unique name representing the index
+   * @param indexFunc the index func by which we map multiple object to an index for querying
+   * @param keyFunc the key func by which we map one object to an unique key for storing
+   * @param stripeCount the number of lock stripes writers are spread over
+   */
+  public ConcurrentCache(
+      String indexName,
+      Function<ApiType, List<String>> indexFunc,
+      Function<ApiType, String> keyFunc,
+      int stripeCount) {
+    if (stripeCount <= 0) {
+      throw new IllegalArgumentException("stripe count must be positive");
+    }
+    this.indexers.put(indexName, indexFunc);
+    this.keyFunc = keyFunc;
+    this.indices.put(indexName, new ConcurrentHashMap<>());
+    this.stripes = new Object[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      this.stripes[i] = new Object();
+    }
+  }
+
+  /**
+   * Add objects.
+   *
+   * @param obj the obj
+   */
+  @Override
+  public void add(ApiType obj) {
+    put(obj);
+  }
+
+  /**
+   * Update the object.
+   *
+   * @param obj the obj
+   */
+  @Override
+  public void update(ApiType obj) {
+    put(obj);
+  }
+
+  /**
+   * Delete the object.
+   *
+   * @param obj the obj
+   */
+  @Override
+  public void delete(ApiType obj) {
+    String key = keyFunc.apply(obj);
+    writeLock.readLock().lock();
+    try {
+      synchronized (stripeOf(key)) {
+        ApiType oldObj = items.remove(key);
+        if (oldObj != null) {
+          deleteFromIndices(oldObj, key);
+          version.incrementAndGet();
+        }
+      }
+    } finally {
+      writeLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Replace the content in the cache completely. Only the objects absent from the list, new in the
+   * list or at a different resource version are touched, readers keep being served meanwhile.
+   *
+   * @param list the list
+   * @param resourceVersion the resource version
+   */
+  @Override
+  public void replace(List<ApiType> list, String resourceVersion) {
+    List<String> keys = new ArrayList<>(list.size());
+    for (ApiType item : list) {
+      keys.add(keyFunc.apply(item));
+    }
+    Set<String> newKeys = new HashSet<>(keys);
+
+    writeLock.writeLock().lock();
+    try {
+      for (String key : items.keySet()) {
+        if (!newKeys.contains(key)) {
+          ApiType oldObj = items.remove(key);
+          if (oldObj != null) {
+            deleteFromIndices(oldObj, key);
+            version.incrementAndGet();
+          }
+        }
+      }
+      Iterator<String> keyIterator = keys.iterator();
+      for (ApiType newObj : list) {
+        String key = keyIterator.next();
+        ApiType oldObj = items.get(key);
+        if (Caches.isSameResourceVersion(oldObj, newObj)) {
+          continue;
+        }
+        items.put(key, newObj);
+        updateIndices(oldObj, newObj, key);
+        version.incrementAndGet();
+      }
+    } finally {
+      writeLock.writeLock().unlock();
+    }
+  }
+
+  /** Resync. */
+  @Override
+  public void resync() {
+    // Do nothing by default
+  }
+
+  /**
+   * List keys.
+   *
+   * @return the list
+   */
+  @Override
+  public List<String> listKeys() {
+    return new ArrayList<>(this.items.keySet());
+  }
+
+  /**
+   * Get object t.
+   *
+   * @param obj the obj
+   * @return the t
+   */
+  @Override
+  public ApiType get(ApiType obj) {
+    return getByKey(this.keyFunc.apply(obj));
+  }
+
+  /**
+   * List all objects in the cache.
+   *
+   * @return the list
+   */
+  @Override
+  public List<ApiType> list() {
+    return new ArrayList<>(this.items.values());
+  }
+
+  /**
+   * Gets get by key.
+   *
+   * @param key the key
+   * @return the get by key
+   */
+  @Override
+  public ApiType getByKey(String key) {
+    return this.items.get(key);
+  }
+
+  /**
+   * Get objects .
+   *
+   * @param indexName the index name
+   * @param obj the obj
+   * @return the list
+   */
+  @Override
+  public List<ApiType> index(String indexName, ApiType obj) {
+    Function<ApiType, List<String>> indexFunc = indexFuncOf(indexName);
+    List<String> indexKeys = indexFunc.apply(obj);
+    Map<String, Set<String>> index = indices.get(indexName);
+    if (index == null || CollectionUtils.isEmpty(indexKeys)) {
+      return new ArrayList<>();
+    }
+    Set<String> returnKeySet = new HashSet<>();
+    for (String indexKey : indexKeys) {
+      Set<String> set = indexKey == null ? null : index.get(indexKey);
+      if (set != null) {
+        returnKeySet.addAll(set);
+      }
+    }
+    return resolve(returnKeySet);
+  }
+
+  /**
+   * Index keys list.
+   *
+   * @param indexName the index name
+   * @param indexKey the index key
+   * @return the list
+   */
+  @Override
+  public List<String> indexKeys(String indexName, String indexKey) {
+    indexFuncOf(indexName);
+    Map<String, Set<String>> index = this.indices.get(indexName);
+    Set<String> set = index == null || indexKey == null ? null : index.get(indexKey);
+    if (set == null) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(set);
+  }
+
+  /**
+   * By index list.
+   *
+   * @param indexName the index name
+   * @param indexKey the index key
+   * @return the list
+   */
+  @Override
+  public List<ApiType> byIndex(String indexName, String indexKey) {
+    indexFuncOf(indexName);
+    Map<String, Set<String>> index = indices.get(indexName);
+    Set<String> set = index == null || indexKey == null ? null : index.get(indexKey);
+    if (set == null) {
+      return Collections.emptyList();
+    }
+    return resolve(set);
+  }
+
+  /**
+   * Take an immutable snapshot of the cache. Unlike {@link Cache#snapshot()}, this copies the
+   * content of the cache and holds off writers meanwhile, readers are not affected. The snapshot is
+   * reused until the cache changes.
+   *
+   * @return the snapshot
+   */
+  @Override
+  public Snapshot<ApiType> snapshot() {
+    writeLock.writeLock().lock();
+    try {
+      Snapshot<ApiType> snapshot = this.lastSnapshot;
+      long currentVersion = version.get();
+      if (snapshot != null && snapshot.getVersion() == currentVersion) {
+        return snapshot;
+      }
+      PersistentHashMap<String, ApiType> itemsCopy = PersistentHashMap.empty();
+      for (Map.Entry<String, ApiType> entry : items.entrySet()) {
+        itemsCopy = itemsCopy.plus(entry.getKey(), entry.getValue());
+      }
+      PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+          indicesCopy = PersistentHashMap.empty();
+      for (Map.Entry<String, ConcurrentMap<String, Set<String>>> indexEntry : indices.entrySet()) {
+        PersistentHashMap<String, PersistentHashMap<String, Boolean>> indexCopy =
+            PersistentHashMap.empty();
+        for (Map.Entry<String, Set<String>> postings : indexEntry.getValue().entrySet()) {
+          PersistentHashMap<String, Boolean> postingsCopy = PersistentHashMap.empty();
+          for (String key : postings.getValue()) {
+            postingsCopy = postingsCopy.plus(key, Boolean.TRUE);
+          }
+          indexCopy = indexCopy.plus(postings.getKey(), postingsCopy);
+        }
+        indicesCopy = indicesCopy.plus(indexEntry.getKey(), indexCopy);
+      }
+      snapshot = new Snapshot<>(itemsCopy, indicesCopy, currentVersion);
+      this.lastSnapshot = snapshot;
+      return snapshot;
+    } finally {
+      writeLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Return the indexers registered with the cache.
+   *
+   * @return registered indexers
+   */
+  @Override
+  public Map<String, Function<ApiType, List<String>>> getIndexers() {
+    return indexers;
+  }
+
+  /**
+   * Add additional indexers to the cache.
+   *
+   * @param newIndexers indexers to add
+   */
+  @Override
+  public void addIndexers(Map<String, Function<ApiType, List<String>>> newIndexers) {
+    writeLock.writeLock().lock();
+    try {
+      if (!this.items.isEmpty()) {
+        throw new IllegalStateException("cannot add indexers to a non-empty cache");
+      }
+      Set<String> intersection = new HashSet<>(indexers.keySet());
+      intersection.retainAll(newIndexers.keySet());
+      if (!intersection.isEmpty()) {
+        throw new IllegalArgumentException("indexer conflict: " + intersection);
+      }
+      for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : newIndexers.entrySet()) {
+        addIndexFunc(indexEntry.getKey(), indexEntry.getValue());
+      }
+    } finally {
+      writeLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add index func.
+   *
+   * @param indexName the index name
+   * @param indexFunc the index func
+   */
+  public void addIndexFunc(String indexName, Function<ApiType, List<String>> indexFunc) {
+    writeLock.writeLock().lock();
+    try {
+      this.indices.put(indexName, new ConcurrentHashMap<>());
+      this.indexers.put(indexName, indexFunc);
+      version.incrementAndGet();
+    } finally {
+      writeLock.writeLock().unlock();
+    }
+  }
+
+  public Function<ApiType, String> getKeyFunc() {
+    return keyFunc;
+  }
+
+  public void setKeyFunc(Function<ApiType, String> keyFunc) {
+    this.keyFunc = keyFunc;
+  }
+
+  private void put(ApiType obj) {
+    String key = keyFunc.apply(obj);
+    writeLock.readLock().lock();
+    try {
+      synchronized (stripeOf(key)) {
+        ApiType oldObj = items.put(key, obj);
+        updateIndices(oldObj, obj, key);
+        version.incrementAndGet();
+      }
+    } finally {
+      writeLock.readLock().unlock();
+    }
+  }
+
+  private Object stripeOf(String key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return stripes[(h & Integer.MAX_VALUE) % stripes.length];
+  }
+
+  private Function<ApiType, List<String>> indexFuncOf(String indexName) {
+    Function<ApiType, List<String>> indexFunc = this.indexers.get(indexName);
+    if (indexFunc == null) {
+      throw new IllegalArgumentException(String.format("index %s doesn't exist!", indexName));
+    }
+    return indexFunc;
+  }
+
+  /** resolve maps keys to their objects, skipping the ones deleted in the meantime. */
+  private List<ApiType> resolve(Set<String> keys) {
+    List<ApiType> objects = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      ApiType item = this.items.get(key);
+      if (item != null) {
+        objects.add(item);
+      }
+    }
+    return objects;
+  }
+
+  /**
+   * updateIndices modifies the objects location in the managed indexes. Caller must hold the stripe
+   * of the key.
+   */
+  private void updateIndices(ApiType oldObj, ApiType newObj, String key) {
+    if (oldObj != null) {
+      deleteFromIndices(oldObj, key);
+    }
+    for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : indexers.entrySet()) {
+      List<String> indexValues = indexEntry.getValue().apply(newObj);
+      if (CollectionUtils.isEmpty(indexValues)) {
+        continue;
+      }
+      ConcurrentMap<String, Set<String>> index =
+          indices.computeIfAbsent(indexEntry.getKey(), k -> new ConcurrentHashMap<>());
+      for (String indexValue : indexValues) {
+        if (indexValue == null) {
+          continue;
+        }
+        index.compute(
+            indexValue,
+            (k, set) -> {
+              if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
+              }
+              set.add(key);
+              return set;
+            });
+      }
+    }
+  }
+
+  /**
+   * deleteFromIndices removes the object from each of the managed indexes, dropping index values
+   * left without any key. Caller must hold the stripe of the key.
+   */
+  private void deleteFromIndices(ApiType oldObj, String key) {
+    for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry : indexers.entrySet()) {
+      List<String> indexValues = indexEntry.getValue().apply(oldObj);
+      if (CollectionUtils.isEmpty(indexValues)) {
+        continue;
+      }
+      ConcurrentMap<String, Set<String>> index = indices.get(indexEntry.getKey());
+      if (index == null) {
+        continue;
+      }
+      for (String indexValue : indexValues) {
+        if (indexValue == null) {
+          continue;
+        }
+        index.computeIfPresent(
+            indexValue,
+            (k, set) -> {
+              set.remove(key);
+              return set.isEmpty() ? null : set;
+            });
+      }
+    }
+  }
+}
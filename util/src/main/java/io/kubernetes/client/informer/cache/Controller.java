@@ -49,7 +49,7 @@ public class Controller<
 
   private ListerWatcher<ApiType, ApiListType> listerWatcher;
 
-  private ReflectorRunnable<ApiType, ApiListType> reflector;
+  /* visible for testing */ ReflectorRunnable<ApiType, ApiListType> reflector;
 
   private Supplier<Boolean> resyncFunc;
 
@@ -66,6 +66,10 @@ public class Controller<
 
   private ScheduledFuture reflectorFuture;
 
+  private volatile int listPageSize;
+
+  private volatile boolean watchListEnabled;
+
   /* visible for testing */ BiConsumer<Class<ApiType>, Throwable> exceptionHandler;
 
   public Controller(
@@ -86,6 +90,32 @@ public class Controller<
       Supplier<Boolean> resyncFunc,
       long fullResyncPeriod,
       BiConsumer<Class<ApiType>, Throwable> exceptionHandler) {
+    this(
+        apiTypeClass,
+        queue,
+        listerWatcher,
+        processFunc,
+        resyncFunc,
+        fullResyncPeriod,
+        exceptionHandler,
+        false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param virtualThreads whether the reflector and resync run on virtual threads, falling back to
+   *     platform threads before JDK 21
+   */
+  public Controller(
+      Class<ApiType> apiTypeClass,
+      DeltaFIFO queue,
+      ListerWatcher<ApiType, ApiListType> listerWatcher,
+      Consumer<Deque<MutablePair<DeltaFIFO.DeltaType, KubernetesObject>>> processFunc,
+      Supplier<Boolean> resyncFunc,
+      long fullResyncPeriod,
+      BiConsumer<Class<ApiType>, Throwable> exceptionHandler,
+      boolean virtualThreads) {
 
     this.queue = queue;
     this.listerWatcher = listerWatcher;
@@ -98,12 +128,14 @@ public class Controller<
     // starts one daemon thread for reflector
     this.reflectExecutor =
         Executors.newSingleThreadScheduledExecutor(
-            Threads.threadFactory("controller-reflector-" + apiTypeClass.getName() + "-%d"));
+            Threads.threadFactory(
+                "controller-reflector-" + apiTypeClass.getName() + "-%d", virtualThreads));
 
     // starts one daemon thread for resync
     this.resyncExecutor =
         Executors.newSingleThreadScheduledExecutor(
-            Threads.threadFactory("controller-resync-" + apiTypeClass.getName() + "-%d"));
+            Threads.threadFactory(
+                "controller-resync-" + apiTypeClass.getName() + "-%d", virtualThreads));
   }
 
   public Controller(
@@ -147,7 +179,30 @@ public class Controller<
   }
 
   /* visible for testing */ ReflectorRunnable<ApiType, ApiListType> newReflector() {
-    return new ReflectorRunnable<>(apiTypeClass, listerWatcher, queue, exceptionHandler);
+    ReflectorRunnable<ApiType, ApiListType> reflector =
+        new ReflectorRunnable<>(apiTypeClass, listerWatcher, queue, exceptionHandler);
+    reflector.setListPageSize(listPageSize);
+    reflector.setWatchListEnabled(watchListEnabled);
+    return reflector;
+  }
+
+  /**
+   * Sets the maximum number of items the reflector requests per page when listing, see {@link
+   * ReflectorRunnable#setListPageSize(int)}. Applies from the next list, also when the controller
+   * is already running.
+   *
+   * @param listPageSize the page size, zero to list all the items at once
+   */
+  public void setListPageSize(int listPageSize) {
+    if (listPageSize < 0) {
+      throw new IllegalArgumentException("listPageSize must not be negative");
+    }
+    synchronized (this) {
+      this.listPageSize = listPageSize;
+      if (reflector != null) {
+        reflector.setListPageSize(listPageSize);
+      }
+    }
   }
 
   /** stops the resync thread pool firstly, then stop the reflector */
@@ -175,11 +230,45 @@ public class Controller<
     return reflector.getLastSyncResourceVersion();
   }
 
+  /**
+   * Makes the reflector stream the initial state as watch events instead of listing it, see {@link
+   * ReflectorRunnable#setWatchListEnabled(boolean)}. Applies from the next list, also when the
+   * controller is already running.
+   *
+   * @param watchListEnabled whether to stream the initial state
+   */
+  public void setWatchListEnabled(boolean watchListEnabled) {
+    synchronized (this) {
+      this.watchListEnabled = watchListEnabled;
+      if (reflector != null) {
+        reflector.setWatchListEnabled(watchListEnabled);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of watches the reflector resumed from the resource version of a bookmark
+   * instead of relisting, see {@link ReflectorRunnable#getResumedWatchCount()}.
+   *
+   * @return the number of resumed watches
+   */
+  public long getResumedWatchCount() {
+    if (reflector == null) {
+      return 0;
+    }
+    return reflector.getResumedWatchCount();
+  }
+
   /** processLoop drains the work queue. */
   private void processLoop() {
     while (true) {
       try {
-        this.queue.pop(this.processFunc);
+        int popBatchSize = this.queue.getPopBatchSize();
+        if (popBatchSize > 0) {
+          this.queue.popBatch(popBatchSize, this.processFunc);
+        } else {
+          this.queue.pop(this.processFunc);
+        }
       } catch (InterruptedException t) {
         log.error("DefaultController#processLoop get interrupted {}", t.getMessage(), t);
         return;
@@ -14,21 +14,25 @@ package io.kubernetes.client.informer.cache;
 
 import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.slf4j.Logger;
@@ -41,14 +45,10 @@ public class DeltaFIFO {
 
   private Function<KubernetesObject, String> keyFunc;
 
-  // `items` maps keys to Deltas.
-  private Map<String, Deque<MutablePair<DeltaType, KubernetesObject>>> items;
-
-  // `queue` maintains FIFO order of keys for consumption in Pop().
-  // We maintain the property that keys in the `items` and `queue` are
-  // strictly 1:1 mapping, and that all Deltas in `items` should have
-  // at least one Delta.
-  private Deque<String> queue;
+  // `items` maps keys to Deltas, and maintains FIFO order of keys for
+  // consumption in Pop(). All Deltas in `items` should have at least one
+  // Delta. The deltas are only turned into the public Deque when popped.
+  private FifoMap<Deltas> items;
 
   // knownObjects list keys that are "known" --- affecting Delete(),
   // Replace(), and Resync()
@@ -62,12 +62,38 @@ public class DeltaFIFO {
   // of Replace()
   private int initialPopulationCount;
 
+  // replacingKeys are the keys of the pages passed to replacePage() since the last replace, or
+  // null if no list is being received in pages.
+  private Set<String> replacingKeys;
+
+  // inFlight maps keys popped by popBatch() to their newest delta until their processing is done,
+  // as the known objects don't reflect them yet.
+  private Map<String, Deltas> inFlight = new HashMap<>();
+
+  // inFlightInitialCount is the number of in-flight items which were inserted by the first call of
+  // Replace()
+  private int inFlightInitialCount;
+
+  // popBatchSize is the maximum number of keys the controller pops at once with popBatch(), or
+  // zero to process the deltas under the lock with pop().
+  private volatile int popBatchSize;
+
+  // capacity is the number of queued keys from which the watch stops being read, or zero if the
+  // queue is unbounded.
+  private volatile int capacity;
+
+  // blockedNanos is the total time spent waiting for the queue to drain below its capacity
+  private long blockedNanos;
+
   /** lock provides thread safety * */
   private ReadWriteLock lock = new ReentrantReadWriteLock();
 
   /** indicates if the store is empty * */
   private Condition notEmpty;
 
+  /** indicates if the store is below its capacity * */
+  private Condition notFull;
+
   /**
    * Constructor.
    *
@@ -78,9 +104,9 @@ public class DeltaFIFO {
       Function<KubernetesObject, String> keyFunc, Store<? extends KubernetesObject> knownObjects) {
     this.keyFunc = keyFunc;
     this.knownObjects = knownObjects;
-    this.items = new HashMap<>();
-    this.queue = new LinkedList<>();
+    this.items = new FifoMap<>();
     this.notEmpty = lock.writeLock().newCondition();
+    this.notFull = lock.writeLock().newCondition();
   }
 
   /**
@@ -124,7 +150,7 @@ public class DeltaFIFO {
     try {
       this.populated = true;
       if (this.knownObjects == null) {
-        if (!this.items.containsKey(id)) {
+        if (!this.items.containsKey(id) && !this.inFlight.containsKey(id)) {
           // Presumably, this was deleted when a relist happened.
           // Don't provide a second report of the same deletion.
           return;
@@ -132,7 +158,9 @@ public class DeltaFIFO {
       } else {
         // We only want to skip the "deletion" action if the object doesn't
         // exist in knownObjects and it doesn't have corresponding item in items.
-        if (this.knownObjects.getByKey(id) == null && !this.items.containsKey(id)) {
+        if (this.knownObjects.getByKey(id) == null
+            && !this.items.containsKey(id)
+            && !this.inFlight.containsKey(id)) {
           return;
         }
       }
@@ -151,63 +179,151 @@ public class DeltaFIFO {
   public void replace(List<KubernetesObject> list, String resourceVersion) {
     lock.writeLock().lock();
     try {
+      // a complete list supersedes any replacement in pages
+      Set<String> pageKeys = this.replacingKeys;
+      this.replacingKeys = null;
       Set<String> keys = new HashSet<>();
       for (KubernetesObject obj : list) {
         String key = this.keyOf(obj);
         keys.add(key);
         this.queueActionLocked(DeltaType.Sync, obj);
       }
-
-      if (this.knownObjects == null) {
-        for (Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>> entry :
-            this.items.entrySet()) {
-          if (keys.contains(entry.getKey())) {
+      int queueDeletion = this.queueDeletionsLocked(keys);
+      if (pageKeys != null) {
+        // objects of the pages which are neither known nor in the list are still queued
+        for (String pageKey : pageKeys) {
+          Deltas deltas = this.items.get(pageKey);
+          if (keys.contains(pageKey)
+              || deltas == null
+              || deltas.newestType() == DeltaType.Deleted) {
             continue;
           }
-
-          KubernetesObject deletedObj = null;
-          MutablePair<DeltaType, KubernetesObject> delta =
-              entry.getValue().peekLast(); // get newest
-          if (delta != null) {
-            deletedObj = delta.getRight();
-          }
+          queueDeletion++;
           this.queueActionLocked(
-              DeltaType.Deleted, new DeletedFinalStateUnknown(entry.getKey(), deletedObj));
+              DeltaType.Deleted, new DeletedFinalStateUnknown(pageKey, deltas.newestObject()));
         }
+      }
+      if (!this.populated) {
+        this.populated = true;
+        this.initialPopulationCount = list.size() + queueDeletion;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
 
-        if (!this.populated) {
-          this.populated = true;
-          this.initialPopulationCount = list.size();
-        }
-        return;
+  /**
+   * Replace the items with a list received in pages, one page at a time, so that the whole list
+   * doesn't need to be held at once. The objects of the page are queued right away, the objects
+   * missing from every page are deleted by {@link #finishReplace}. Calling {@link #replace} in
+   * between drops the pages received so far.
+   *
+   * @param page the objects of one page of the list
+   */
+  public void replacePage(List<KubernetesObject> page) {
+    lock.writeLock().lock();
+    try {
+      if (this.replacingKeys == null) {
+        this.replacingKeys = new HashSet<>();
+      }
+      for (KubernetesObject obj : page) {
+        this.replacingKeys.add(this.keyOf(obj));
+        this.queueActionLocked(DeltaType.Sync, obj);
       }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
 
-      // Detect deletions not already in the queue.
-      List<String> knownKeys = this.knownObjects.listKeys();
-      int queueDeletion = 0;
-      for (String knownKey : knownKeys) {
-        if (keys.contains(knownKey)) {
+  /**
+   * Finish replacing the items with the pages passed to {@link #replacePage}, deleting the objects
+   * which weren't in any of them.
+   *
+   * @param resourceVersion the resource version of the list
+   */
+  public void finishReplace(String resourceVersion) {
+    lock.writeLock().lock();
+    try {
+      Set<String> keys = this.replacingKeys != null ? this.replacingKeys : new HashSet<>();
+      this.replacingKeys = null;
+      this.queueDeletionsLocked(keys);
+      if (!this.populated) {
+        this.populated = true;
+        // pages are popped while the next ones are listed, only the queued keys are left, the
+        // popped ones still being processed are counted as in flight
+        this.initialPopulationCount = this.items.size();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * queueDeletionsLocked queues the deletion of the objects not in the replacing keys.
+   *
+   * @return the number of queued deletions
+   */
+  private int queueDeletionsLocked(Set<String> keys) {
+    int queueDeletion = 0;
+    if (this.knownObjects == null) {
+      for (Map.Entry<String, Deltas> entry : this.items.entrySet()) {
+        if (keys.contains(entry.getKey())) {
           continue;
         }
 
-        KubernetesObject deletedObj = this.knownObjects.getByKey(knownKey);
-        if (deletedObj == null) {
-          log.warn(
-              "Key {} does not exist in known objects store, placing DeleteFinalStateUnknown marker without object",
-              knownKey);
+        KubernetesObject deletedObj = entry.getValue().newestObject(); // get newest
+        this.queueActionLocked(
+            DeltaType.Deleted, new DeletedFinalStateUnknown(entry.getKey(), deletedObj));
+      }
+      for (Map.Entry<String, Deltas> entry : this.inFlight.entrySet()) {
+        if (keys.contains(entry.getKey())
+            || this.items.containsKey(entry.getKey())
+            || entry.getValue().newestType() == DeltaType.Deleted) {
+          continue;
         }
-        queueDeletion++;
         this.queueActionLocked(
-            DeltaType.Deleted, new DeletedFinalStateUnknown(knownKey, deletedObj));
+            DeltaType.Deleted,
+            new DeletedFinalStateUnknown(entry.getKey(), entry.getValue().newestObject()));
       }
+      // deletions of queued objects replace their deltas without adding keys
+      return 0;
+    }
 
-      if (!this.populated) {
-        this.populated = true;
-        this.initialPopulationCount = list.size() + queueDeletion;
+    // Detect deletions not already in the queue.
+    List<String> knownKeys = this.knownObjects.listKeys();
+    for (String knownKey : knownKeys) {
+      if (keys.contains(knownKey)) {
+        continue;
       }
-    } finally {
-      lock.writeLock().unlock();
+      // a deletion being processed outside of the lock is still known until it's done
+      Deltas inFlightDeltas = this.inFlight.get(knownKey);
+      if (inFlightDeltas != null && inFlightDeltas.newestType() == DeltaType.Deleted) {
+        continue;
+      }
+
+      KubernetesObject deletedObj = this.knownObjects.getByKey(knownKey);
+      if (deletedObj == null) {
+        log.warn(
+            "Key {} does not exist in known objects store, placing DeleteFinalStateUnknown marker without object",
+            knownKey);
+      }
+      queueDeletion++;
+      this.queueActionLocked(DeltaType.Deleted, new DeletedFinalStateUnknown(knownKey, deletedObj));
+    }
+    // Objects being processed outside of the lock may not be known yet.
+    for (Map.Entry<String, Deltas> entry : this.inFlight.entrySet()) {
+      if (keys.contains(entry.getKey())
+          || this.items.containsKey(entry.getKey())
+          || entry.getValue().newestType() == DeltaType.Deleted
+          || this.knownObjects.getByKey(entry.getKey()) != null) {
+        continue;
+      }
+      queueDeletion++;
+      this.queueActionLocked(
+          DeltaType.Deleted,
+          new DeletedFinalStateUnknown(entry.getKey(), entry.getValue().newestObject()));
     }
+    return queueDeletion;
   }
 
   /**
@@ -239,8 +355,7 @@ public class DeltaFIFO {
     lock.readLock().lock();
     try {
       List<String> keyList = new ArrayList<>(items.size());
-      for (Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>> entry :
-          items.entrySet()) {
+      for (Map.Entry<String, Deltas> entry : items.entrySet()) {
         keyList.add(entry.getKey());
       }
       return keyList;
@@ -269,10 +384,10 @@ public class DeltaFIFO {
   public Deque<MutablePair<DeltaType, KubernetesObject>> getByKey(String key) {
     lock.readLock().lock();
     try {
-      Deque<MutablePair<DeltaType, KubernetesObject>> deltas = this.items.get(key);
+      Deltas deltas = this.items.get(key);
       if (deltas != null) {
         // returning a shallow copy
-        return new LinkedList<>(deltas);
+        return deltas.toDeque();
       }
     } finally {
       lock.readLock().unlock();
@@ -287,14 +402,11 @@ public class DeltaFIFO {
    */
   public List<Deque<MutablePair<DeltaType, KubernetesObject>>> list() {
     lock.readLock().lock();
-    List<Deque<MutablePair<DeltaType, KubernetesObject>>> objects = new ArrayList<>();
+    List<Deque<MutablePair<DeltaType, KubernetesObject>>> objects = new ArrayList<>(items.size());
     try {
       // TODO: make a generic deep copy utility
-      for (Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>> entry :
-          items.entrySet()) {
-        Deque<MutablePair<DeltaType, KubernetesObject>> copiedDeltas =
-            new LinkedList<>(entry.getValue());
-        objects.add(copiedDeltas);
+      for (Map.Entry<String, Deltas> entry : items.entrySet()) {
+        objects.add(entry.getValue().toDeque());
       }
     } finally {
       lock.readLock().unlock();
@@ -314,21 +426,17 @@ public class DeltaFIFO {
     lock.writeLock().lock();
     try {
       while (true) {
-        while (queue.isEmpty()) {
+        while (items.isEmpty()) {
           notEmpty.await();
         }
         // there should have data now
-        String id = this.queue.removeFirst();
+        String id = this.items.firstKey();
         if (this.initialPopulationCount > 0) {
           this.initialPopulationCount--;
         }
-        if (!this.items.containsKey(id)) {
-          // Item may have been deleted subsequently.
-          continue;
-        }
 
-        Deque<MutablePair<DeltaType, KubernetesObject>> deltas = this.items.get(id);
-        this.items.remove(id);
+        Deque<MutablePair<DeltaType, KubernetesObject>> deltas = this.items.remove(id).toDeque();
+        this.signalNotFullLocked();
         func.accept(deltas);
         // Don't make any copyDeltas here
         return deltas;
@@ -338,6 +446,230 @@ public class DeltaFIFO {
     }
   }
 
+  /**
+   * Pop the deltas of up to maxKeys keys at once, then process them in FIFO order outside of the
+   * lock, so that the producers of the queue aren't blocked while the deltas are being processed. A
+   * key being processed isn't popped again until its processing is done, which keeps the deltas of
+   * a key processed in order even with several consumers. Keys being processed are still taken into
+   * account by delete, replace and resync, as the known objects may not reflect them yet.
+   *
+   * <p>If processing some deltas throws, the remaining deltas are processed anyway and the first
+   * exception is rethrown.
+   *
+   * @param maxKeys the maximum number of keys to pop
+   * @param func the func processing the deltas of one key
+   * @return the popped deltas
+   * @throws InterruptedException if interrupted while waiting for the queue to be non-empty
+   */
+  public List<Deque<MutablePair<DeltaType, KubernetesObject>>> popBatch(
+      int maxKeys, Consumer<Deque<MutablePair<DeltaType, KubernetesObject>>> func)
+      throws InterruptedException {
+    if (maxKeys <= 0) {
+      throw new IllegalArgumentException("maxKeys must be positive");
+    }
+    List<String> ids = new ArrayList<>(Math.min(maxKeys, 64));
+    List<Deltas> popped = new ArrayList<>(ids.size());
+    List<Boolean> initial = new ArrayList<>(ids.size());
+    lock.writeLock().lock();
+    try {
+      while (popped.isEmpty()) {
+        while (items.isEmpty()) {
+          notEmpty.await();
+        }
+        Iterator<Map.Entry<String, Deltas>> it = this.items.entrySet().iterator();
+        while (it.hasNext() && popped.size() < maxKeys) {
+          Map.Entry<String, Deltas> entry = it.next();
+          String id = entry.getKey();
+          if (this.inFlight.containsKey(id)) {
+            // keep it queued until the consumer processing it is done
+            continue;
+          }
+          it.remove();
+          Deltas deltas = entry.getValue();
+          // keys popped while the first list is still being received in pages are initial too
+          boolean isInitial =
+              this.initialPopulationCount > 0 || (!this.populated && this.replacingKeys != null);
+          if (isInitial) {
+            if (this.initialPopulationCount > 0) {
+              this.initialPopulationCount--;
+            }
+            this.inFlightInitialCount++;
+          }
+          this.inFlight.put(id, deltas);
+          ids.add(id);
+          popped.add(deltas);
+          initial.add(isInitial);
+        }
+        if (popped.isEmpty()) {
+          // every queued key is being processed, wait for one of them to be done
+          notEmpty.await();
+        }
+      }
+      this.signalNotFullLocked();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    List<Deque<MutablePair<DeltaType, KubernetesObject>>> batch = new ArrayList<>(popped.size());
+    RuntimeException failure = null;
+    for (int i = 0; i < popped.size(); i++) {
+      try {
+        Deque<MutablePair<DeltaType, KubernetesObject>> deltas = popped.get(i).toDeque();
+        batch.add(deltas);
+        func.accept(deltas);
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      } finally {
+        this.done(ids.get(i), initial.get(i));
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return batch;
+  }
+
+  /**
+   * Sets the maximum number of keys the controller pops at once with {@link #popBatch}. With the
+   * default of zero, the controller uses {@link #pop} which processes the deltas under the lock.
+   *
+   * @param popBatchSize the maximum number of keys to pop at once, zero to process under the lock
+   */
+  public void setPopBatchSize(int popBatchSize) {
+    if (popBatchSize < 0) {
+      throw new IllegalArgumentException("popBatchSize must not be negative");
+    }
+    this.popBatchSize = popBatchSize;
+  }
+
+  /**
+   * Gets the maximum number of keys the controller pops at once.
+   *
+   * @return the pop batch size, zero if the deltas are processed under the lock
+   */
+  public int getPopBatchSize() {
+    return popBatchSize;
+  }
+
+  /**
+   * Wait until the number of queued keys is below the capacity. Producers which can hold off, like
+   * the reflector reading from a watch, call this before queueing more deltas so that the queue
+   * stays bounded while the consumers are lagging. Returns immediately if the queue is unbounded.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return true if the queue is below its capacity, false if the timeout elapsed
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public boolean awaitCapacity(long timeout, TimeUnit unit) throws InterruptedException {
+    if (this.capacity <= 0) {
+      return true;
+    }
+    lock.writeLock().lock();
+    try {
+      if (this.capacity <= 0 || this.items.size() < this.capacity) {
+        return true;
+      }
+      long start = System.nanoTime();
+      long remaining = unit.toNanos(timeout);
+      try {
+        while (this.capacity > 0 && this.items.size() >= this.capacity) {
+          if (remaining <= 0) {
+            return false;
+          }
+          remaining = notFull.awaitNanos(remaining);
+        }
+        return true;
+      } finally {
+        this.blockedNanos += System.nanoTime() - start;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the number of queued keys from which {@link #awaitCapacity} blocks. Deltas are still
+   * queued past the capacity by a relist or a resync, which can't be held off.
+   *
+   * @param capacity the capacity, zero for an unbounded queue
+   */
+  public void setCapacity(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must not be negative");
+    }
+    lock.writeLock().lock();
+    try {
+      this.capacity = capacity;
+      notFull.signalAll();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the number of queued keys from which {@link #awaitCapacity} blocks.
+   *
+   * @return the capacity, zero if the queue is unbounded
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Gets the number of keys waiting in the queue, not counting keys being processed.
+   *
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    lock.readLock().lock();
+    try {
+      return this.items.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the total time producers spent in {@link #awaitCapacity} waiting for the queue to drain.
+   *
+   * @return the blocked time in nanoseconds
+   */
+  public long getBlockedNanos() {
+    lock.readLock().lock();
+    try {
+      return this.blockedNanos;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** signalNotFullLocked wakes up producers once the queue is below capacity. */
+  private void signalNotFullLocked() {
+    if (this.capacity > 0 && this.items.size() < this.capacity) {
+      notFull.signalAll();
+    }
+  }
+
+  /** done marks the processing of a popped key as finished. */
+  private void done(String id, boolean isInitial) {
+    lock.writeLock().lock();
+    try {
+      this.inFlight.remove(id);
+      if (isInitial) {
+        this.inFlightInitialCount--;
+      }
+      if (this.items.containsKey(id)) {
+        // the key may have been skipped by a concurrent popBatch
+        notEmpty.signalAll();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
   /**
    * Has synced boolean.
    *
@@ -346,7 +678,7 @@ public class DeltaFIFO {
   public boolean hasSynced() {
     lock.readLock().lock();
     try {
-      return this.populated && this.initialPopulationCount == 0;
+      return this.populated && this.initialPopulationCount == 0 && this.inFlightInitialCount == 0;
     } finally {
       lock.readLock().unlock();
     }
@@ -356,26 +688,15 @@ public class DeltaFIFO {
   private void queueActionLocked(DeltaType actionType, KubernetesObject obj) {
     String id = this.keyOf(obj);
 
-    Deque<MutablePair<DeltaType, KubernetesObject>> deltas = items.get(id);
+    Deltas deltas = items.get(id);
     if (deltas == null) {
-      deltas = new LinkedList<>();
-      deltas.add(new MutablePair(actionType, obj));
-    } else {
-      deltas.add(new MutablePair<DeltaType, KubernetesObject>(actionType, obj));
-    }
-
-    Deque<MutablePair<DeltaType, KubernetesObject>> combinedDeltaList = combineDeltas(deltas);
-
-    boolean exist = items.containsKey(id);
-    if (combinedDeltaList != null && combinedDeltaList.size() > 0) {
-      if (!exist) {
-        this.queue.add(id);
-      }
-      this.items.put(id, combinedDeltaList);
-      notEmpty.signalAll();
+      // the first delta is held inline, so that a new key costs a single allocation
+      this.items.put(id, new Deltas(actionType, obj));
     } else {
-      this.items.remove(id);
+      deltas.add(actionType, obj);
+      combineDeltas(deltas);
     }
+    notEmpty.signalAll();
   }
 
   // KeyOf exposes f's keyFunc, but also detects the key of a Deltas object or
@@ -404,8 +725,11 @@ public class DeltaFIFO {
     }
 
     String id = this.keyOf(obj);
-    Deque<MutablePair<DeltaType, KubernetesObject>> deltas = this.items.get(id);
-    if (deltas != null && !(CollectionUtils.isEmpty(deltas))) {
+    if (this.items.containsKey(id)) {
+      return;
+    }
+    if (this.inFlight.containsKey(id)) {
+      // the known object is stale, processing the in-flight deltas notifies anyway
       return;
     }
 
@@ -414,73 +738,182 @@ public class DeltaFIFO {
 
   // re-listing and watching can deliver the same update multiple times in any
   // order. This will combine the most recent two deltas if they are the same.
-  private Deque<MutablePair<DeltaType, KubernetesObject>> combineDeltas(
-      Deque<MutablePair<DeltaType, KubernetesObject>> deltas) {
+  private void combineDeltas(Deltas deltas) {
     if (deltas.size() < 2) {
-      return deltas;
-    }
-    int size = deltas.size();
-    MutablePair<DeltaType, KubernetesObject> d1 = deltas.pollLast();
-    MutablePair<DeltaType, KubernetesObject> d2 = deltas.pollLast();
-    MutablePair<DeltaType, KubernetesObject> out = isDuplicate(d1, d2);
-    if (out != null) {
-      deltas.add(out);
-    } else {
-      deltas.add(d2);
-      deltas.add(d1);
+      return;
+    }
+    int newest = deltas.size() - 1;
+    int kept = isDuplicate(deltas, newest - 1, newest);
+    if (kept >= 0) {
+      deltas.set(newest - 1, deltas.type(kept), deltas.object(kept));
+      deltas.removeNewest();
     }
-    return deltas;
   }
 
   /**
-   * If d1 & d2 represent the same event, returns the delta that ought to be kept.
+   * If the deltas at d1 & d2 represent the same event, returns the index of the delta that ought to
+   * be kept.
    *
-   * @param d1 the elder one
-   * @param d2 the most one
-   * @return the one ought to be kept
+   * @param deltas the deltas
+   * @param d1 the index of the elder one
+   * @param d2 the index of the most one
+   * @return the index of the one ought to be kept, or -1
    */
-  private MutablePair<DeltaType, KubernetesObject> isDuplicate(
-      MutablePair<DeltaType, KubernetesObject> d1, MutablePair<DeltaType, KubernetesObject> d2) {
-    MutablePair<DeltaType, KubernetesObject> deletionDelta = isDeletionDup(d1, d2);
+  private int isDuplicate(Deltas deltas, int d1, int d2) {
+    int deletionDelta = isDeletionDup(deltas, d1, d2);
 
     // TODO: remove this after the cause of memory leakage is confirmed
     // Squashing deltas w/ the same resource version, note that is a temporary fix that eases memory
     // intensity.
-    if (deletionDelta != null) {
+    if (deletionDelta >= 0) {
       return deletionDelta;
     }
-    if (d1.getLeft() != DeltaType.Deleted
-        && d2.getLeft() != DeltaType.Deleted
+    if (deltas.type(d1) != DeltaType.Deleted
+        && deltas.type(d2) != DeltaType.Deleted
         && StringUtils.equals(
-            d1.getRight().getMetadata().getResourceVersion(),
-            d2.getRight().getMetadata().getResourceVersion())) {
-      return d1;
+            deltas.object(d1).getMetadata().getResourceVersion(),
+            deltas.object(d2).getMetadata().getResourceVersion())) {
+      return d2;
     }
-    return null;
+    return -1;
   }
 
   /**
    * keep the one with the most information if both are deletions.
    *
-   * @param d1 the most one
-   * @param d2 the elder one
-   * @return the most one
+   * @param deltas the deltas
+   * @param d1 the index of the elder one
+   * @param d2 the index of the most one
+   * @return the index of the one ought to be kept, or -1
    */
-  private MutablePair<DeltaType, KubernetesObject> isDeletionDup(
-      MutablePair<DeltaType, KubernetesObject> d1, MutablePair<DeltaType, KubernetesObject> d2) {
-    if (!d1.getLeft().equals(DeltaType.Deleted) || !d2.getLeft().equals(DeltaType.Deleted)) {
-      return null;
+  private int isDeletionDup(Deltas deltas, int d1, int d2) {
+    if (deltas.type(d1) != DeltaType.Deleted || deltas.type(d2) != DeltaType.Deleted) {
+      return -1;
     }
-    Object obj = d2.getRight();
-    if (obj instanceof DeletedFinalStateUnknown) {
-      return d1;
+    if (deltas.object(d1) instanceof DeletedFinalStateUnknown) {
+      return d2;
     }
-    return d2;
+    return d1;
   }
 
   // Note: this should only used in test
+  // a view of the queued items, which copies the deltas of a key on read and supports removal
   Map<String, Deque<MutablePair<DeltaType, KubernetesObject>>> getItems() {
-    return items;
+    return new AbstractMap<String, Deque<MutablePair<DeltaType, KubernetesObject>>>() {
+      @Override
+      public Set<Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>>> entrySet() {
+        return new AbstractSet<
+            Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>>>() {
+          @Override
+          public Iterator<Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>>>
+              iterator() {
+            Iterator<Map.Entry<String, Deltas>> it = items.entrySet().iterator();
+            return new Iterator<
+                Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>>>() {
+              @Override
+              public boolean hasNext() {
+                return it.hasNext();
+              }
+
+              @Override
+              public Map.Entry<String, Deque<MutablePair<DeltaType, KubernetesObject>>> next() {
+                Map.Entry<String, Deltas> entry = it.next();
+                return new AbstractMap.SimpleImmutableEntry<>(
+                    entry.getKey(), entry.getValue().toDeque());
+              }
+
+              @Override
+              public void remove() {
+                it.remove();
+              }
+            };
+          }
+
+          @Override
+          public int size() {
+            return items.size();
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Deltas holds the deltas queued for a key, in order. The first delta is held inline and the
+   * others in a single array, as alternating types and objects, so that queueing the first delta of
+   * a key allocates nothing else. Not thread-safe, callers are expected to hold the lock.
+   */
+  private static final class Deltas {
+
+    private DeltaType firstType;
+    private KubernetesObject firstObject;
+
+    // the deltas after the first one
+    private Object[] rest;
+
+    private int size;
+
+    private Deltas(DeltaType type, KubernetesObject object) {
+      this.firstType = type;
+      this.firstObject = object;
+      this.size = 1;
+    }
+
+    private int size() {
+      return size;
+    }
+
+    private DeltaType type(int i) {
+      return i == 0 ? firstType : (DeltaType) rest[2 * (i - 1)];
+    }
+
+    private KubernetesObject object(int i) {
+      return i == 0 ? firstObject : (KubernetesObject) rest[2 * (i - 1) + 1];
+    }
+
+    private DeltaType newestType() {
+      return type(size - 1);
+    }
+
+    private KubernetesObject newestObject() {
+      return object(size - 1);
+    }
+
+    private void add(DeltaType type, KubernetesObject object) {
+      if (rest == null) {
+        rest = new Object[4];
+      } else if (2 * size > rest.length) {
+        rest = Arrays.copyOf(rest, rest.length * 2);
+      }
+      size++;
+      set(size - 1, type, object);
+    }
+
+    private void set(int i, DeltaType type, KubernetesObject object) {
+      if (i == 0) {
+        firstType = type;
+        firstObject = object;
+      } else {
+        rest[2 * (i - 1)] = type;
+        rest[2 * (i - 1) + 1] = object;
+      }
+    }
+
+    private void removeNewest() {
+      if (size > 1) {
+        rest[2 * (size - 2)] = null;
+        rest[2 * (size - 2) + 1] = null;
+      }
+      size--;
+    }
+
+    private Deque<MutablePair<DeltaType, KubernetesObject>> toDeque() {
+      Deque<MutablePair<DeltaType, KubernetesObject>> deque = new ArrayDeque<>(size);
+      for (int i = 0; i < size; i++) {
+        deque.add(new MutablePair<>(type(i), object(i)));
+      }
+      return deque;
+    }
   }
 
   // DeletedFinalStateUnknown is placed into a DeltaFIFO in the case where
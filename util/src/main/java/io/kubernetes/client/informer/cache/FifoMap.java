@@ -0,0 +1,300 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * FifoMap is a map from string keys which iterates in insertion order and is meant to be consumed
+ * from its head, like a queue where every key is enqueued at most once.
+ *
+ * <p>Entries are kept in a ring of parallel arrays, a removed entry leaving an empty slot behind
+ * until the ring is compacted, and keys are found through an open-addressed index of their position
+ * in the ring. Unlike a {@link java.util.LinkedHashMap}, adding or removing an entry doesn't
+ * allocate once the arrays are large enough.
+ *
+ * <p>Null keys aren't permitted. Not thread-safe, callers are expected to hold a lock.
+ */
+final class FifoMap<V> extends AbstractMap<String, V> {
+
+  private static final int MIN_CAPACITY = 16;
+
+  // the ring, an entry with sequence number seq lives at slot seq & (keys.length - 1)
+  private String[] keys;
+  private Object[] values;
+
+  // sequence numbers of the oldest entry and of the next entry to add, the slot at head is never
+  // empty unless the map is
+  private int head;
+  private int tail;
+
+  private int size;
+
+  // linear probing index from keys to their sequence number, at most half full
+  private String[] indexKeys;
+  private int[] indexSeqs;
+
+  private Set<Map.Entry<String, V>> entrySet;
+
+  FifoMap() {
+    allocate(MIN_CAPACITY);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && find((String) key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int i = find((String) key);
+    if (i < 0) {
+      return null;
+    }
+    return (V) values[slot(indexSeqs[i])];
+  }
+
+  /**
+   * Associates the value with the key. A new key is appended to the tail, an existing key keeps its
+   * position.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(String key, V value) {
+    if (key == null) {
+      throw new NullPointerException("null key");
+    }
+    int i = find(key);
+    if (i >= 0) {
+      int slot = slot(indexSeqs[i]);
+      V oldValue = (V) values[slot];
+      values[slot] = value;
+      return oldValue;
+    }
+    if (size == 0 && keys.length > MIN_CAPACITY) {
+      // the map has been drained, release the memory held since the last burst
+      allocate(MIN_CAPACITY);
+    } else if (tail - head == keys.length) {
+      // the ring is full, of live entries or of the slots they left behind
+      rebuild(size * 2 > keys.length ? keys.length * 2 : keys.length);
+    }
+    int seq = tail++;
+    keys[slot(seq)] = key;
+    values[slot(seq)] = value;
+    insertIndex(key, seq);
+    size++;
+    return null;
+  }
+
+  @Override
+  public V remove(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    int i = find((String) key);
+    if (i < 0) {
+      return null;
+    }
+    return removeAt(i);
+  }
+
+  @Override
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    entrySet = null;
+  }
+
+  /**
+   * Returns the oldest key.
+   *
+   * @return the oldest key, or null if empty
+   */
+  String firstKey() {
+    return size == 0 ? null : keys[slot(head)];
+  }
+
+  @Override
+  public Set<Map.Entry<String, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet =
+          new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+              return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+              return size;
+            }
+          };
+    }
+    return entrySet;
+  }
+
+  private int slot(int seq) {
+    return seq & (keys.length - 1);
+  }
+
+  private static int hash(String key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private int find(String key) {
+    int mask = indexKeys.length - 1;
+    for (int i = hash(key) & mask; indexKeys[i] != null; i = (i + 1) & mask) {
+      if (indexKeys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void insertIndex(String key, int seq) {
+    int mask = indexKeys.length - 1;
+    int i = hash(key) & mask;
+    while (indexKeys[i] != null) {
+      i = (i + 1) & mask;
+    }
+    indexKeys[i] = key;
+    indexSeqs[i] = seq;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V removeAt(int index) {
+    int seq = indexSeqs[index];
+    int slot = slot(seq);
+    V oldValue = (V) values[slot];
+    keys[slot] = null;
+    values[slot] = null;
+    size--;
+    if (size == 0) {
+      head = tail;
+    } else if (seq == head) {
+      do {
+        head++;
+      } while (keys[slot(head)] == null);
+    }
+    deleteIndex(index);
+    return oldValue;
+  }
+
+  // backward shift deletion, so that the index never holds tombstones
+  private void deleteIndex(int hole) {
+    int mask = indexKeys.length - 1;
+    indexKeys[hole] = null;
+    for (int i = (hole + 1) & mask; indexKeys[i] != null; i = (i + 1) & mask) {
+      int ideal = hash(indexKeys[i]) & mask;
+      boolean reachable = hole <= i ? (hole < ideal && ideal <= i) : (hole < ideal || ideal <= i);
+      if (!reachable) {
+        indexKeys[hole] = indexKeys[i];
+        indexSeqs[hole] = indexSeqs[i];
+        indexKeys[i] = null;
+        hole = i;
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new String[capacity];
+    values = new Object[capacity];
+    indexKeys = new String[capacity * 2];
+    indexSeqs = new int[capacity * 2];
+    head = tail = size = 0;
+  }
+
+  // moves the live entries to a new ring, dropping the slots left behind by removed entries
+  private void rebuild(int capacity) {
+    String[] oldKeys = keys;
+    Object[] oldValues = values;
+    int oldMask = oldKeys.length - 1;
+    int oldHead = head;
+    int oldTail = tail;
+    allocate(capacity);
+    for (int seq = oldHead; seq != oldTail; seq++) {
+      String key = oldKeys[seq & oldMask];
+      if (key != null) {
+        keys[tail] = key;
+        values[tail] = oldValues[seq & oldMask];
+        insertIndex(key, tail);
+        tail++;
+        size++;
+      }
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+    private int next = head;
+
+    private String lastKey;
+
+    EntryIterator() {
+      skipRemoved();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != tail;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map.Entry<String, V> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int slot = slot(next);
+      lastKey = keys[slot];
+      Map.Entry<String, V> entry = new SimpleImmutableEntry<>(lastKey, (V) values[slot]);
+      next++;
+      skipRemoved();
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      if (lastKey == null) {
+        throw new IllegalStateException();
+      }
+      FifoMap.this.remove(lastKey);
+      lastKey = null;
+    }
+
+    private void skipRemoved() {
+      while (next != tail && keys[slot(next)] == null) {
+        next++;
+      }
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+/** IndexStats describes the size of one index of a {@link Cache}. */
+public final class IndexStats {
+
+  private final int values;
+
+  private final long postings;
+
+  private final long estimatedBytes;
+
+  IndexStats(int values, long postings, long estimatedBytes) {
+    this.values = values;
+    this.postings = postings;
+    this.estimatedBytes = estimatedBytes;
+  }
+
+  /**
+   * Returns the number of distinct index values.
+   *
+   * @return the number of index values
+   */
+  public int getValues() {
+    return values;
+  }
+
+  /**
+   * Returns the number of (index value, object) pairs.
+   *
+   * @return the number of postings
+   */
+  public long getPostings() {
+    return postings;
+  }
+
+  /**
+   * Returns the estimated heap retained by the index structure, excluding the objects and the
+   * object keys which are shared with the cache itself.
+   *
+   * @return the estimated size in bytes
+   */
+  public long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "IndexStats{"
+        + "values="
+        + values
+        + ", postings="
+        + postings
+        + ", estimatedBytes="
+        + estimatedBytes
+        + '}';
+  }
+}
@@ -58,4 +58,20 @@ public interface Indexer<ApiType> extends Store<ApiType> {
    * @param indexers indexers to add
    */
   void addIndexers(Map<String, Function<ApiType, List<String>>> indexers);
+
+  /**
+   * Snapshot returns an immutable view of the store at the current point in time, which can be read
+   * consistently without holding any lock. The default implementation copies the objects and
+   * rebuilds the indices while holding the monitor of the indexer, so the copy is only consistent
+   * for indexers whose writers synchronize on the indexer itself. Indexers guarding their state
+   * otherwise, e.g. with their own locks or concurrent maps, must override it, as must indexers
+   * sharing their structure with their snapshots.
+   *
+   * @return the snapshot
+   */
+  default Snapshot<ApiType> snapshot() {
+    synchronized (this) {
+      return Snapshot.copyOf(this);
+    }
+  }
 }
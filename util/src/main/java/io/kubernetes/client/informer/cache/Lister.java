@@ -55,6 +55,16 @@ public class Lister<ApiType extends KubernetesObject> {
     return indexer.getByKey(key);
   }
 
+  /**
+   * Takes an immutable snapshot of the whole underlying indexer regardless of the namespace of this
+   * lister, see {@link Indexer#snapshot()}.
+   *
+   * @return the snapshot
+   */
+  public Snapshot<ApiType> snapshot() {
+    return indexer.snapshot();
+  }
+
   public Lister<ApiType> namespace(String namespace) {
     return new Lister<ApiType>(this.indexer, namespace, Caches.NAMESPACE_INDEX);
   }
@@ -0,0 +1,163 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * NotificationQueue is the queue of notifications waiting for a {@link ProcessorListener}. It can
+ * be bounded, and it can keep track of the newest notification queued for each object so that
+ * notifications about the same object are merged by {@link ProcessorListener#coalesce}.
+ */
+final class NotificationQueue<ApiType> {
+
+  private final int capacity;
+
+  private final boolean coalescing;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition notEmpty = lock.newCondition();
+
+  private final Condition notFull = lock.newCondition();
+
+  private final ArrayDeque<Entry<ApiType>> queue = new ArrayDeque<>();
+
+  // newest queued entry by key, only maintained when coalescing
+  private final Map<String, Entry<ApiType>> newest;
+
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param capacity the maximum number of queued notifications
+   * @param coalescing whether notifications can be merged into the queued ones
+   */
+  NotificationQueue(int capacity, boolean coalescing) {
+    this.capacity = capacity;
+    this.coalescing = coalescing;
+    this.newest = coalescing ? new HashMap<>() : null;
+  }
+
+  /**
+   * Queues the notification unless the queue is full.
+   *
+   * @return false if the queue is full
+   */
+  boolean offer(String key, ProcessorListener.Notification<ApiType> notification) {
+    lock.lock();
+    try {
+      if (queue.size() >= capacity) {
+        return false;
+      }
+      Entry<ApiType> entry = new Entry<>(key, notification);
+      queue.add(entry);
+      if (coalescing) {
+        newest.put(key, entry);
+      }
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Merges the notification into the newest one queued for the same key.
+   *
+   * @return false if there is no such notification or if they can't be merged
+   */
+  boolean tryCoalesce(String key, ProcessorListener.Notification<ApiType> notification) {
+    if (!coalescing) {
+      return false;
+    }
+    lock.lock();
+    try {
+      Entry<ApiType> entry = newest.get(key);
+      if (entry == null) {
+        return false;
+      }
+      ProcessorListener.Notification<ApiType> merged =
+          ProcessorListener.coalesce(entry.notification, notification);
+      if (merged == null) {
+        return false;
+      }
+      entry.notification = merged;
+      coalescedCount.incrementAndGet();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Waits until the queue isn't full. */
+  void awaitNotFull() throws InterruptedException {
+    lock.lock();
+    try {
+      while (queue.size() >= capacity) {
+        notFull.await();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Waits for the oldest notification and dequeues it. */
+  ProcessorListener.Notification<ApiType> take() throws InterruptedException {
+    lock.lock();
+    try {
+      while (queue.isEmpty()) {
+        notEmpty.await();
+      }
+      Entry<ApiType> entry = queue.poll();
+      if (coalescing) {
+        newest.remove(entry.key, entry);
+      }
+      notFull.signalAll();
+      return entry.notification;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int size() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  private static final class Entry<ApiType> {
+
+    private final String key;
+
+    private ProcessorListener.Notification<ApiType> notification;
+
+    private Entry(String key, ProcessorListener.Notification<ApiType> notification) {
+      this.key = key;
+      this.notification = notification;
+    }
+  }
+}
@@ -0,0 +1,593 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * PersistentHashMap is an immutable hash array mapped trie. Every update returns a new map which
+ * shares all the untouched nodes with the previous one, so holding on to older versions of a map is
+ * cheap and comparing two versions only walks the branches which differ.
+ *
+ * <p>Keys are compared by {@link Object#equals(Object)}, values by identity when diffing.
+ */
+final class PersistentHashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+  private static final PersistentHashMap<?, ?> EMPTY =
+      new PersistentHashMap<>(null, 0, false, null);
+
+  private static final Object NOT_FOUND = new Object();
+
+  private static final int BITS = 5;
+
+  private static final int MASK = (1 << BITS) - 1;
+
+  // a trie is at most 7 bitmap levels deep plus one collision level
+  private static final int MAX_DEPTH = 8;
+
+  private final Node root;
+
+  private final int size;
+
+  private final boolean hasNull;
+
+  private final V nullValue;
+
+  private PersistentHashMap(Node root, int size, boolean hasNull, V nullValue) {
+    this.root = root;
+    this.size = size;
+    this.hasNull = hasNull;
+    this.nullValue = nullValue;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> PersistentHashMap<K, V> empty() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  boolean containsKey(K key) {
+    if (key == null) {
+      return hasNull;
+    }
+    return root != null && root.find(0, hash(key), key, NOT_FOUND) != NOT_FOUND;
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(K key) {
+    if (key == null) {
+      return nullValue;
+    }
+    if (root == null) {
+      return null;
+    }
+    Object val = root.find(0, hash(key), key, null);
+    return (V) val;
+  }
+
+  /**
+   * Returns a map associating the key with the value, or this map if it already does.
+   *
+   * @param key the key
+   * @param value the value
+   * @return the updated map
+   */
+  PersistentHashMap<K, V> plus(K key, V value) {
+    if (key == null) {
+      if (hasNull && nullValue == value) {
+        return this;
+      }
+      return new PersistentHashMap<>(root, hasNull ? size : size + 1, true, value);
+    }
+    boolean[] addedLeaf = new boolean[1];
+    Node base = root == null ? BitmapNode.EMPTY : root;
+    Node newRoot = base.assoc(0, hash(key), key, value, addedLeaf);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(newRoot, addedLeaf[0] ? size + 1 : size, hasNull, nullValue);
+  }
+
+  /**
+   * Returns a map without the key, or this map if the key is absent.
+   *
+   * @param key the key
+   * @return the updated map
+   */
+  PersistentHashMap<K, V> minus(K key) {
+    if (key == null) {
+      if (!hasNull) {
+        return this;
+      }
+      return new PersistentHashMap<>(root, size - 1, false, null);
+    }
+    if (root == null) {
+      return this;
+    }
+    Node newRoot = root.without(0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(newRoot, size - 1, hasNull, nullValue);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return new TrieIterator<Map.Entry<K, V>>(this) {
+      @Override
+      Map.Entry<K, V> emit(Object key, Object val) {
+        return new AbstractMap.SimpleImmutableEntry<>((K) key, (V) val);
+      }
+    };
+  }
+
+  /**
+   * Iterates over the keys without materializing entries.
+   *
+   * @return the key iterable
+   */
+  @SuppressWarnings("unchecked")
+  Iterable<K> keys() {
+    return () ->
+        new TrieIterator<K>(this) {
+          @Override
+          K emit(Object key, Object val) {
+            return (K) key;
+          }
+        };
+  }
+
+  /**
+   * Iterates over the values without materializing entries.
+   *
+   * @return the value iterable
+   */
+  @SuppressWarnings("unchecked")
+  Iterable<V> values() {
+    return () ->
+        new TrieIterator<V>(this) {
+          @Override
+          V emit(Object key, Object val) {
+            return (V) val;
+          }
+        };
+  }
+
+  /**
+   * Estimates the heap retained by the trie itself, excluding keys and values and assuming
+   * compressed oops.
+   *
+   * @return the estimated size in bytes
+   */
+  long estimatedBytes() {
+    return 24 + (root == null ? 0 : root.estimatedBytes());
+  }
+
+  /**
+   * Reports the differences from the previous map to this one. Branches shared by both maps are
+   * skipped without being visited.
+   *
+   * @param previous the previous map
+   * @param handler the handler receiving the differences
+   */
+  @SuppressWarnings("unchecked")
+  void diff(PersistentHashMap<K, V> previous, DiffHandler<K, V> handler) {
+    if (previous == this) {
+      return;
+    }
+    DiffHandler<Object, Object> h = (DiffHandler<Object, Object>) handler;
+    if (previous.hasNull && !hasNull) {
+      h.onRemoved(null, previous.nullValue);
+    } else if (!previous.hasNull && hasNull) {
+      h.onAdded(null, nullValue);
+    } else if (hasNull && previous.nullValue != nullValue) {
+      h.onUpdated(null, previous.nullValue, nullValue);
+    }
+    diffNodes(previous.root, root, h);
+  }
+
+  /** DiffHandler receives the changes between two versions of a map. */
+  interface DiffHandler<K, V> {
+
+    void onAdded(K key, V value);
+
+    void onUpdated(K key, V oldValue, V newValue);
+
+    void onRemoved(K key, V oldValue);
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static void diffNodes(Node oldNode, Node newNode, DiffHandler<Object, Object> handler) {
+    if (oldNode == newNode) {
+      return;
+    }
+    if (oldNode == null) {
+      newNode.forEach(handler::onAdded);
+      return;
+    }
+    if (newNode == null) {
+      oldNode.forEach(handler::onRemoved);
+      return;
+    }
+    if (oldNode instanceof BitmapNode && newNode instanceof BitmapNode) {
+      BitmapNode oldBitmap = (BitmapNode) oldNode;
+      BitmapNode newBitmap = (BitmapNode) newNode;
+      int bits = oldBitmap.bitmap | newBitmap.bitmap;
+      while (bits != 0) {
+        int bit = Integer.lowestOneBit(bits);
+        bits &= ~bit;
+        if ((newBitmap.bitmap & bit) == 0) {
+          int i = 2 * oldBitmap.index(bit);
+          forEachInSlot(oldBitmap.array[i], oldBitmap.array[i + 1], handler::onRemoved);
+        } else if ((oldBitmap.bitmap & bit) == 0) {
+          int i = 2 * newBitmap.index(bit);
+          forEachInSlot(newBitmap.array[i], newBitmap.array[i + 1], handler::onAdded);
+        } else {
+          int oi = 2 * oldBitmap.index(bit);
+          int ni = 2 * newBitmap.index(bit);
+          diffSlots(
+              oldBitmap.array[oi],
+              oldBitmap.array[oi + 1],
+              newBitmap.array[ni],
+              newBitmap.array[ni + 1],
+              handler);
+        }
+      }
+      return;
+    }
+    diffEntries(oldNode::forEach, newNode::forEach, handler);
+  }
+
+  private static void diffSlots(
+      Object oldKey,
+      Object oldVal,
+      Object newKey,
+      Object newVal,
+      DiffHandler<Object, Object> handler) {
+    if (oldKey == null && newKey == null) {
+      diffNodes((Node) oldVal, (Node) newVal, handler);
+    } else if (oldKey != null && newKey != null && oldKey.equals(newKey)) {
+      if (oldVal != newVal) {
+        handler.onUpdated(newKey, oldVal, newVal);
+      }
+    } else {
+      diffEntries(
+          c -> forEachInSlot(oldKey, oldVal, c), c -> forEachInSlot(newKey, newVal, c), handler);
+    }
+  }
+
+  private static void diffEntries(
+      EntrySource oldEntries, EntrySource newEntries, DiffHandler<Object, Object> handler) {
+    Map<Object, Object> remaining = new HashMap<>();
+    oldEntries.forEach(remaining::put);
+    newEntries.forEach(
+        (key, val) -> {
+          if (!remaining.containsKey(key)) {
+            handler.onAdded(key, val);
+            return;
+          }
+          Object oldVal = remaining.remove(key);
+          if (oldVal != val) {
+            handler.onUpdated(key, oldVal, val);
+          }
+        });
+    remaining.forEach(handler::onRemoved);
+  }
+
+  private static void forEachInSlot(
+      Object keyOrNull, Object valOrNode, BiConsumer<Object, Object> consumer) {
+    if (keyOrNull == null) {
+      ((Node) valOrNode).forEach(consumer);
+    } else {
+      consumer.accept(keyOrNull, valOrNode);
+    }
+  }
+
+  private interface EntrySource {
+    void forEach(BiConsumer<Object, Object> consumer);
+  }
+
+  /**
+   * Node is a trie node. Its array holds key/value pairs, a null key marks a pair whose value is a
+   * child node.
+   */
+  private abstract static class Node {
+
+    final Object[] array;
+
+    Node(Object[] array) {
+      this.array = array;
+    }
+
+    abstract Object find(int shift, int hash, Object key, Object notFound);
+
+    abstract Node assoc(int shift, int hash, Object key, Object val, boolean[] addedLeaf);
+
+    /** Returns this node if the key is absent, null if the node becomes empty. */
+    abstract Node without(int shift, int hash, Object key);
+
+    void forEach(BiConsumer<Object, Object> consumer) {
+      for (int i = 0; i < array.length; i += 2) {
+        forEachInSlot(array[i], array[i + 1], consumer);
+      }
+    }
+
+    long estimatedBytes() {
+      // node header and fields, then the array
+      long bytes = 24 + ((16 + 4L * array.length + 7) & ~7L);
+      for (int i = 0; i < array.length; i += 2) {
+        if (array[i] == null) {
+          bytes += ((Node) array[i + 1]).estimatedBytes();
+        }
+      }
+      return bytes;
+    }
+  }
+
+  private static final class BitmapNode extends Node {
+
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    final int bitmap;
+
+    BitmapNode(int bitmap, Object[] array) {
+      super(array);
+      this.bitmap = bitmap;
+    }
+
+    int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key, Object notFound) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      if ((bitmap & bit) == 0) {
+        return notFound;
+      }
+      int i = 2 * index(bit);
+      Object keyOrNull = array[i];
+      Object valOrNode = array[i + 1];
+      if (keyOrNull == null) {
+        return ((Node) valOrNode).find(shift + BITS, hash, key, notFound);
+      }
+      return key.equals(keyOrNull) ? valOrNode : notFound;
+    }
+
+    @Override
+    Node assoc(int shift, int hash, Object key, Object val, boolean[] addedLeaf) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      int i = 2 * index(bit);
+      if ((bitmap & bit) != 0) {
+        Object keyOrNull = array[i];
+        Object valOrNode = array[i + 1];
+        if (keyOrNull == null) {
+          Node child = ((Node) valOrNode).assoc(shift + BITS, hash, key, val, addedLeaf);
+          return child == valOrNode ? this : new BitmapNode(bitmap, set(array, i + 1, child));
+        }
+        if (key.equals(keyOrNull)) {
+          return val == valOrNode ? this : new BitmapNode(bitmap, set(array, i + 1, val));
+        }
+        addedLeaf[0] = true;
+        Object[] newArray =
+            set(array, i + 1, split(shift + BITS, keyOrNull, valOrNode, hash, key, val));
+        newArray[i] = null;
+        return new BitmapNode(bitmap, newArray);
+      }
+      addedLeaf[0] = true;
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      newArray[i] = key;
+      newArray[i + 1] = val;
+      System.arraycopy(array, i, newArray, i + 2, array.length - i);
+      return new BitmapNode(bitmap | bit, newArray);
+    }
+
+    @Override
+    Node without(int shift, int hash, Object key) {
+      int bit = 1 << ((hash >>> shift) & MASK);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object keyOrNull = array[i];
+      Object valOrNode = array[i + 1];
+      if (keyOrNull == null) {
+        Node child = ((Node) valOrNode).without(shift + BITS, hash, key);
+        if (child == valOrNode) {
+          return this;
+        }
+        if (child != null) {
+          return new BitmapNode(bitmap, set(array, i + 1, child));
+        }
+      } else if (!key.equals(keyOrNull)) {
+        return this;
+      }
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new BitmapNode(bitmap & ~bit, newArray);
+    }
+
+    private static Node split(
+        int shift, Object key1, Object val1, int hash2, Object key2, Object val2) {
+      int hash1 = hash(key1);
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] {key1, val1, key2, val2});
+      }
+      boolean[] addedLeaf = new boolean[1];
+      return EMPTY
+          .assoc(shift, hash1, key1, val1, addedLeaf)
+          .assoc(shift, hash2, key2, val2, addedLeaf);
+    }
+  }
+
+  private static final class CollisionNode extends Node {
+
+    final int hash;
+
+    CollisionNode(int hash, Object[] array) {
+      super(array);
+      this.hash = hash;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key, Object notFound) {
+      int i = indexOf(key);
+      return i < 0 ? notFound : array[i + 1];
+    }
+
+    @Override
+    Node assoc(int shift, int hash, Object key, Object val, boolean[] addedLeaf) {
+      if (hash == this.hash) {
+        int i = indexOf(key);
+        if (i >= 0) {
+          return array[i + 1] == val ? this : new CollisionNode(hash, set(array, i + 1, val));
+        }
+        addedLeaf[0] = true;
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        newArray[array.length] = key;
+        newArray[array.length + 1] = val;
+        return new CollisionNode(hash, newArray);
+      }
+      // nest this node under a bitmap node and retry
+      int bit = 1 << ((this.hash >>> shift) & MASK);
+      return new BitmapNode(bit, new Object[] {null, this}).assoc(shift, hash, key, val, addedLeaf);
+    }
+
+    @Override
+    Node without(int shift, int hash, Object key) {
+      int i = indexOf(key);
+      if (i < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new CollisionNode(hash, newArray);
+    }
+  }
+
+  private static Object[] set(Object[] array, int i, Object val) {
+    Object[] copy = array.clone();
+    copy[i] = val;
+    return copy;
+  }
+
+  /** TrieIterator walks the trie depth-first without copying it. */
+  private abstract static class TrieIterator<T> implements Iterator<T> {
+
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+
+    private final int[] positions = new int[MAX_DEPTH];
+
+    private int depth = -1;
+
+    private boolean pendingNull;
+
+    private Object nullValue;
+
+    private boolean ready;
+
+    private Object nextKey;
+
+    private Object nextVal;
+
+    TrieIterator(PersistentHashMap<?, ?> map) {
+      this.pendingNull = map.hasNull;
+      this.nullValue = map.nullValue;
+      if (map.root != null) {
+        depth = 0;
+        arrays[0] = map.root.array;
+      }
+    }
+
+    abstract T emit(Object key, Object val);
+
+    @Override
+    public boolean hasNext() {
+      if (ready) {
+        return true;
+      }
+      if (pendingNull) {
+        pendingNull = false;
+        nextKey = null;
+        nextVal = nullValue;
+        ready = true;
+        return true;
+      }
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int pos = positions[depth];
+        if (pos >= array.length) {
+          arrays[depth--] = null;
+          continue;
+        }
+        positions[depth] = pos + 2;
+        if (array[pos] == null) {
+          depth++;
+          arrays[depth] = ((Node) array[pos + 1]).array;
+          positions[depth] = 0;
+          continue;
+        }
+        nextKey = array[pos];
+        nextVal = array[pos + 1];
+        ready = true;
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      ready = false;
+      return emit(nextKey, nextVal);
+    }
+  }
+}
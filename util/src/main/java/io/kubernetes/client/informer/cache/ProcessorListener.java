@@ -40,13 +40,34 @@ public class ProcessorListener<ApiType extends KubernetesObject> implements Runn
 
   private BlockingQueue<Notification> queue;
 
+  // replaces the queue when coalescing
+  private NotificationQueue<ApiType> coalescingQueue;
+
   private ResourceEventHandler<ApiType> handler;
 
   public ProcessorListener(ResourceEventHandler<ApiType> handler, long resyncPeriod) {
+    this(handler, resyncPeriod, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param handler the event handler
+   * @param resyncPeriod the resync period in millis
+   * @param coalescing whether a notification is merged into the one still pending for the same
+   *     object if any, e.g. pending updates collapse into a single update from the oldest to the
+   *     newest object, so that a slow handler only sees the latest state
+   */
+  public ProcessorListener(
+      ResourceEventHandler<ApiType> handler, long resyncPeriod, boolean coalescing) {
     this.resyncPeriod = resyncPeriod;
     this.handler = handler;
 
-    this.queue = new LinkedBlockingQueue<>();
+    if (coalescing) {
+      this.coalescingQueue = new NotificationQueue<>(Integer.MAX_VALUE, true);
+    } else {
+      this.queue = new LinkedBlockingQueue<>();
+    }
 
     determineNextResync(OffsetDateTime.now());
   }
@@ -55,43 +76,7 @@ public class ProcessorListener<ApiType extends KubernetesObject> implements Runn
   public void run() {
     while (true) {
       try {
-        Notification obj = queue.take();
-        if (obj instanceof UpdateNotification) {
-          UpdateNotification notification = (UpdateNotification) obj;
-          try {
-            this.handler.onUpdate(
-                (ApiType) notification.getOldObj(), (ApiType) notification.getNewObj());
-          } catch (Throwable t) {
-            // Catch all exceptions here so that listeners won't quit unexpectedly
-            log.error("failed invoking UPDATE event handler: {}", t);
-            continue;
-          }
-        } else if (obj instanceof AddNotification) {
-          AddNotification notification = (AddNotification) obj;
-          try {
-            this.handler.onAdd((ApiType) notification.getNewObj());
-          } catch (Throwable t) {
-            // Catch all exceptions here so that listeners won't quit unexpectedly
-            log.error("failed invoking ADD event handler: {}", t);
-            continue;
-          }
-        } else if (obj instanceof DeleteNotification) {
-          Object deletedObj = ((DeleteNotification) obj).getOldObj();
-          try {
-            if (deletedObj instanceof DeltaFIFO.DeletedFinalStateUnknown) {
-              this.handler.onDelete(
-                  ((DeltaFIFO.DeletedFinalStateUnknown<ApiType>) deletedObj).getObj(), true);
-            } else {
-              this.handler.onDelete((ApiType) deletedObj, false);
-            }
-          } catch (Throwable t) {
-            // Catch all exceptions here so that listeners won't quit unexpectedly
-            log.error("failed invoking DELETE event handler: {}", t);
-            continue;
-          }
-        } else {
-          throw new BadNotificationException("unrecognized notification");
-        }
+        handle(coalescingQueue != null ? coalescingQueue.take() : queue.take());
       } catch (InterruptedException e) {
         log.error("processor interrupted: {}", e);
         return;
@@ -99,13 +84,69 @@ public class ProcessorListener<ApiType extends KubernetesObject> implements Runn
     }
   }
 
+  /**
+   * handle invokes the event handler on the notification, errors of the handler are logged so that
+   * listeners won't quit unexpectedly.
+   */
+  void handle(Notification obj) {
+    if (obj instanceof UpdateNotification) {
+      UpdateNotification notification = (UpdateNotification) obj;
+      try {
+        this.handler.onUpdate(
+            (ApiType) notification.getOldObj(), (ApiType) notification.getNewObj());
+      } catch (Throwable t) {
+        // Catch all exceptions here so that listeners won't quit unexpectedly
+        log.error("failed invoking UPDATE event handler: {}", t);
+      }
+    } else if (obj instanceof AddNotification) {
+      AddNotification notification = (AddNotification) obj;
+      try {
+        this.handler.onAdd((ApiType) notification.getNewObj());
+      } catch (Throwable t) {
+        // Catch all exceptions here so that listeners won't quit unexpectedly
+        log.error("failed invoking ADD event handler: {}", t);
+      }
+    } else if (obj instanceof DeleteNotification) {
+      Object deletedObj = ((DeleteNotification) obj).getOldObj();
+      try {
+        if (deletedObj instanceof DeltaFIFO.DeletedFinalStateUnknown) {
+          this.handler.onDelete(
+              ((DeltaFIFO.DeletedFinalStateUnknown<ApiType>) deletedObj).getObj(), true);
+        } else {
+          this.handler.onDelete((ApiType) deletedObj, false);
+        }
+      } catch (Throwable t) {
+        // Catch all exceptions here so that listeners won't quit unexpectedly
+        log.error("failed invoking DELETE event handler: {}", t);
+      }
+    } else {
+      throw new BadNotificationException("unrecognized notification");
+    }
+  }
+
   public void add(Notification<ApiType> obj) {
     if (obj == null) {
       return;
     }
+    if (coalescingQueue != null) {
+      String key = Caches.deletionHandlingMetaNamespaceKeyFunc((KubernetesObject) objectOf(obj));
+      if (!coalescingQueue.tryCoalesce(key, obj)) {
+        coalescingQueue.offer(key, obj);
+      }
+      return;
+    }
     this.queue.add(obj);
   }
 
+  /**
+   * Gets the number of notifications merged into a pending one, always zero unless coalescing.
+   *
+   * @return the number of coalesced notifications
+   */
+  public long getCoalescedCount() {
+    return coalescingQueue != null ? coalescingQueue.getCoalescedCount() : 0;
+  }
+
   public void determineNextResync(OffsetDateTime now) {
     this.nextResync = now.plus(Duration.ofMillis(this.resyncPeriod));
   }
@@ -114,6 +155,55 @@ public class ProcessorListener<ApiType extends KubernetesObject> implements Runn
     return this.resyncPeriod != 0 && (now.isAfter(this.nextResync) || now.equals(this.nextResync));
   }
 
+  /**
+   * objectOf returns the newest object a notification is about.
+   *
+   * @param notification the notification
+   * @return the object
+   */
+  static Object objectOf(Notification<?> notification) {
+    if (notification instanceof UpdateNotification) {
+      return ((UpdateNotification<?>) notification).getNewObj();
+    } else if (notification instanceof AddNotification) {
+      return ((AddNotification<?>) notification).getNewObj();
+    } else if (notification instanceof DeleteNotification) {
+      return ((DeleteNotification<?>) notification).getOldObj();
+    }
+    throw new BadNotificationException("unrecognized notification");
+  }
+
+  /**
+   * coalesce merges two consecutive notifications about the same object into one which leaves the
+   * handler in the same state, e.g. an addition followed by an update becomes an addition of the
+   * updated object, and an update followed by a deletion becomes the deletion. An addition followed
+   * by a deletion isn't merged, so that the handler sees the deletion of an object it was told
+   * about.
+   *
+   * @param older the older notification
+   * @param newer the newer notification
+   * @return the merged notification, or null if they can't be merged
+   */
+  static <ApiType> Notification<ApiType> coalesce(
+      Notification<ApiType> older, Notification<ApiType> newer) {
+    if (!(older instanceof AddNotification || older instanceof UpdateNotification)) {
+      // the object may have been re-created in between
+      return null;
+    }
+    if (newer instanceof DeleteNotification) {
+      // the handler hasn't seen the object yet, so both the addition and the deletion are delivered
+      return older instanceof AddNotification ? null : newer;
+    }
+    if (!(newer instanceof UpdateNotification)) {
+      return null;
+    }
+    UpdateNotification<ApiType> update = (UpdateNotification<ApiType>) newer;
+    if (older instanceof AddNotification) {
+      return new AddNotification<>(update.getNewObj());
+    }
+    return new UpdateNotification<>(
+        ((UpdateNotification<ApiType>) older).getOldObj(), update.getNewObj());
+  }
+
   public static class Notification<ApiType> {}
 
   public static final class UpdateNotification<ApiType> extends Notification<ApiType> {
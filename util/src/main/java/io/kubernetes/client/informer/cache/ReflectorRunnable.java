@@ -27,9 +27,12 @@ import java.io.IOException;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +47,13 @@ public class ReflectorRunnable<
 
   private static final Logger log = LoggerFactory.getLogger(ReflectorRunnable.class);
 
+  private static final String INITIAL_EVENTS_END_ANNOTATION = "k8s.io/initial-events-end";
+
+  private static final String RESOURCE_VERSION_MATCH_NOT_OLDER_THAN = "NotOlderThan";
+
+  // the number of initial events of a watch list passed to the store at once
+  private static final int WATCH_LIST_PAGE_SIZE = 100;
+
   private String lastSyncResourceVersion;
 
   private boolean isLastSyncResourceVersionUnavailable;
@@ -58,6 +68,18 @@ public class ReflectorRunnable<
 
   private AtomicBoolean isActive = new AtomicBoolean(true);
 
+  private volatile int listPageSize;
+
+  // disabled on its own once the api server turns out not to support it
+  private volatile boolean watchListEnabled;
+
+  private final AtomicLong bookmarkCount = new AtomicLong();
+
+  private final AtomicLong resumedWatchCount = new AtomicLong();
+
+  // the resource version the last bookmark advanced to, null once an event advanced it further
+  private volatile String bookmarkResourceVersion;
+
   /* visible for testing */ final BiConsumer<Class<ApiType>, Throwable> exceptionHandler;
 
   public ReflectorRunnable(
@@ -87,24 +109,28 @@ public class ReflectorRunnable<
     log.info("{}#Start listing and watching...", apiTypeClass);
 
     try {
-      ApiListType list =
-          listerWatcher.list(
-              new CallGeneratorParams(Boolean.FALSE, getRelistResourceVersion(), null));
-
-      V1ListMeta listMeta = list.getMetadata();
-      String resourceVersion = listMeta.getResourceVersion();
-      List<? extends KubernetesObject> items = list.getItems();
-
-      if (log.isDebugEnabled()) {
-        log.debug("{}#Extract resourceVersion {} list meta", apiTypeClass, resourceVersion);
+      // the watch streaming the initial state, which goes on as the first watch
+      Watchable<ApiType> initialWatch = watchListEnabled ? watchList() : null;
+      if (initialWatch == null) {
+        String resourceVersion;
+        if (listPageSize > 0) {
+          resourceVersion = listInPages();
+          if (!isActive.get() || Thread.currentThread().isInterrupted()) {
+            // stopped between pages
+            return;
+          }
+        } else {
+          resourceVersion = list();
+        }
+        this.lastSyncResourceVersion = resourceVersion;
       }
-      this.syncWith(items, resourceVersion);
-      this.lastSyncResourceVersion = resourceVersion;
       this.isLastSyncResourceVersionUnavailable = false;
 
       if (log.isDebugEnabled()) {
         log.debug("{}#Start watching with {}...", apiTypeClass, lastSyncResourceVersion);
       }
+      // whether a watch was started since the list, the next ones resume without relisting
+      boolean watched = false;
       while (true) {
         if (!isActive.get()) {
           closeWatch();
@@ -120,12 +146,27 @@ public class ReflectorRunnable<
           long jitteredWatchTimeoutSeconds =
               Double.valueOf(REFLECTOR_WATCH_CLIENTSIDE_TIMEOUT.getSeconds() * (1 + Math.random()))
                   .longValue();
-          Watchable<ApiType> newWatch =
-              listerWatcher.watch(
-                  new CallGeneratorParams(
-                      Boolean.TRUE,
-                      lastSyncResourceVersion,
-                      Long.valueOf(jitteredWatchTimeoutSeconds).intValue()));
+          CallGeneratorParams watchParams =
+              new CallGeneratorParams(
+                  Boolean.TRUE,
+                  lastSyncResourceVersion,
+                  Long.valueOf(jitteredWatchTimeoutSeconds).intValue());
+          // bookmarks keep the resource version fresh on quiet watches, so that it isn't too old
+          // to resume from once the watch times out
+          watchParams.allowWatchBookmarks = Boolean.TRUE;
+          Watchable<ApiType> newWatch;
+          boolean resumedFromBookmark = false;
+          if (initialWatch != null) {
+            newWatch = initialWatch;
+            initialWatch = null;
+          } else {
+            resumedFromBookmark =
+                watched
+                    && lastSyncResourceVersion != null
+                    && lastSyncResourceVersion.equals(bookmarkResourceVersion);
+            newWatch = listerWatcher.watch(watchParams);
+          }
+          watched = true;
 
           synchronized (this) {
             if (!isActive.get()) {
@@ -134,7 +175,7 @@ public class ReflectorRunnable<
             }
             watch = newWatch;
           }
-          watchHandler(newWatch);
+          watchHandler(newWatch, resumedFromBookmark);
         } catch (WatchExpiredException e) {
           // Watch calls were failed due to expired resource-version. Returning
           // to unwind the list-watch loops so that we can respawn a new round
@@ -182,6 +223,231 @@ public class ReflectorRunnable<
     }
   }
 
+  /**
+   * list lists all the items at once and replaces the store with them.
+   *
+   * @return the resource version of the list
+   */
+  private String list() throws ApiException {
+    ApiListType list =
+        listerWatcher.list(
+            new CallGeneratorParams(Boolean.FALSE, getRelistResourceVersion(), null));
+
+    V1ListMeta listMeta = list.getMetadata();
+    String resourceVersion = listMeta.getResourceVersion();
+    List<? extends KubernetesObject> items = list.getItems();
+
+    if (log.isDebugEnabled()) {
+      log.debug("{}#Extract resourceVersion {} list meta", apiTypeClass, resourceVersion);
+    }
+    this.syncWith(items, resourceVersion);
+    return resourceVersion;
+  }
+
+  /**
+   * listInPages lists the items in pages of at most listPageSize items, passing each page to the
+   * store before requesting the next one, so that the whole list is never held at once. Falls back
+   * to listing all the items at once if the continue token expires before the last page.
+   *
+   * @return the resource version of the list, or null if stopped before the last page
+   */
+  private String listInPages() throws ApiException {
+    String relistResourceVersion = getRelistResourceVersion();
+    String continueToken = null;
+    while (true) {
+      ApiListType page;
+      try {
+        // pages after the first one are read at the resource version encoded in the token
+        page =
+            listerWatcher.list(
+                new CallGeneratorParams(
+                    Boolean.FALSE,
+                    continueToken == null ? relistResourceVersion : null,
+                    null,
+                    listPageSize,
+                    continueToken));
+      } catch (ApiException e) {
+        if (continueToken == null || e.getCode() != HttpURLConnection.HTTP_GONE) {
+          throw e;
+        }
+        log.info("{}#Continue token expired, falling back to a full list", apiTypeClass);
+        return list();
+      }
+
+      V1ListMeta listMeta = page.getMetadata();
+      String resourceVersion = listMeta.getResourceVersion();
+      List<? extends KubernetesObject> items = page.getItems();
+      String nextContinueToken = listMeta.getContinue();
+
+      if (Strings.isNullOrEmpty(nextContinueToken)) {
+        if (continueToken == null) {
+          // the list fit in one page
+          this.syncWith(items, resourceVersion);
+        } else {
+          this.store.replacePage((List<KubernetesObject>) items); // down-casting is safe here
+          this.store.finishReplace(resourceVersion);
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("{}#Extract resourceVersion {} list meta", apiTypeClass, resourceVersion);
+        }
+        return resourceVersion;
+      }
+      this.store.replacePage((List<KubernetesObject>) items); // down-casting is safe here
+      continueToken = nextContinueToken;
+      if (!awaitStoreCapacity() || !isActive.get()) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * watchList streams the current state as the initial events of a watch instead of listing it,
+   * passing the objects to the store as they come, up to the bookmark marking the end of the
+   * initial events. Falls back to listing if the api server doesn't send the initial events, in
+   * which case the next runs list right away.
+   *
+   * @return the watch positioned after the initial events, or null to list instead
+   */
+  private Watchable<ApiType> watchList() {
+    CallGeneratorParams params =
+        new CallGeneratorParams(
+            Boolean.TRUE,
+            isLastSyncResourceVersionUnavailable || Strings.isNullOrEmpty(lastSyncResourceVersion)
+                ? ""
+                : lastSyncResourceVersion,
+            (int) REFLECTOR_WATCH_CLIENTSIDE_TIMEOUT.getSeconds());
+    params.allowWatchBookmarks = Boolean.TRUE;
+    params.sendInitialEvents = Boolean.TRUE;
+    params.resourceVersionMatch = RESOURCE_VERSION_MATCH_NOT_OLDER_THAN;
+
+    try {
+      Watchable<ApiType> listWatch = listerWatcher.watch(params);
+      synchronized (this) {
+        if (!isActive.get()) {
+          listWatch.close();
+          return null;
+        }
+        watch = listWatch;
+      }
+      List<KubernetesObject> page = new ArrayList<>();
+      boolean expired = false;
+      while (awaitStoreCapacity() && listWatch.hasNext()) {
+        io.kubernetes.client.util.Watch.Response<ApiType> item = listWatch.next();
+        Optional<EventType> eventType = EventType.findByType(item.type);
+        if (eventType.isPresent() && eventType.get() == EventType.ADDED) {
+          page.add(item.object);
+          if (page.size() >= WATCH_LIST_PAGE_SIZE) {
+            store.replacePage(page);
+            page = new ArrayList<>();
+          }
+          continue;
+        }
+        if (eventType.isPresent() && eventType.get() == EventType.BOOKMARK) {
+          bookmarkCount.incrementAndGet();
+          if (!isInitialEventsEnd(item.object)) {
+            continue;
+          }
+          String resourceVersion = item.object.getMetadata().getResourceVersion();
+          store.replacePage(page);
+          store.finishReplace(resourceVersion);
+          lastSyncResourceVersion = resourceVersion;
+          bookmarkResourceVersion = resourceVersion;
+          log.info("{}#Received the initial events at {}", apiTypeClass, resourceVersion);
+          return listWatch;
+        }
+        if (eventType.isPresent()
+            && eventType.get() == EventType.ERROR
+            && item.status != null
+            && item.status.getCode() == HttpURLConnection.HTTP_GONE) {
+          isLastSyncResourceVersionUnavailable = true;
+          expired = true;
+          log.info("{}#Watch list expired, falling back to listing", apiTypeClass);
+          break;
+        }
+        log.warn("{}#Unexpected event {} before the initial events ended", apiTypeClass, item.type);
+        break;
+      }
+      if (!expired && isActive.get() && !Thread.currentThread().isInterrupted()) {
+        log.info(
+            "{}#Api server didn't send the initial events, falling back to listing", apiTypeClass);
+        watchListEnabled = false;
+      }
+    } catch (ApiException e) {
+      // e.g. the api server doesn't support streaming lists
+      log.info("{}#Watch list failed with {}, falling back to listing", apiTypeClass, e.getCode());
+      watchListEnabled = false;
+    } catch (IOException | RuntimeException e) {
+      log.info("{}#Watch list failed, falling back to listing", apiTypeClass, e);
+    }
+    try {
+      closeWatch();
+    } catch (IOException e) {
+      log.debug("{}#Failed closing the watch list", apiTypeClass, e);
+    }
+    return null;
+  }
+
+  private static boolean isInitialEventsEnd(KubernetesObject bookmark) {
+    V1ObjectMeta meta = bookmark.getMetadata();
+    return meta != null
+        && meta.getAnnotations() != null
+        && "true".equals(meta.getAnnotations().get(INITIAL_EVENTS_END_ANNOTATION));
+  }
+
+  /**
+   * Makes the reflector stream the current state as the initial events of a watch rather than
+   * listing it, see {@link #watchList()}. Requires an api server serving streaming lists, other api
+   * servers make the reflector fall back to listing.
+   *
+   * @param watchListEnabled whether to stream the initial state
+   */
+  public void setWatchListEnabled(boolean watchListEnabled) {
+    this.watchListEnabled = watchListEnabled;
+  }
+
+  public boolean isWatchListEnabled() {
+    return watchListEnabled;
+  }
+
+  /**
+   * Sets the maximum number of items requested per page when listing, zero to list all the items at
+   * once.
+   *
+   * @param listPageSize the page size, zero to disable paging
+   */
+  public void setListPageSize(int listPageSize) {
+    if (listPageSize < 0) {
+      throw new IllegalArgumentException("listPageSize must not be negative");
+    }
+    this.listPageSize = listPageSize;
+  }
+
+  public int getListPageSize() {
+    return listPageSize;
+  }
+
+  /**
+   * Gets the number of bookmark events received, each one advancing the resource version watches
+   * resume from, including the ones received while streaming the initial events.
+   *
+   * @return the number of bookmarks
+   */
+  public long getBookmarkCount() {
+    return bookmarkCount.get();
+  }
+
+  /**
+   * Gets the number of watches resumed from a resource version which a bookmark advanced to, and
+   * accepted by the api server without 410 Gone, i.e. the number of relists the bookmarks avoided.
+   * Watches resuming from the resource version of an object event aren't counted, they didn't need
+   * a bookmark.
+   *
+   * @return the number of resumed watches
+   */
+  public long getResumedWatchCount() {
+    return resumedWatchCount.get();
+  }
+
   public void stop() {
     try {
       isActive.set(false);
@@ -229,11 +495,16 @@ public class ReflectorRunnable<
     return lastSyncResourceVersion;
   }
 
-  private void watchHandler(Watchable<ApiType> watch) {
-    while (watch.hasNext()) {
+  private void watchHandler(Watchable<ApiType> watch, boolean resumedFromBookmark) {
+    while (awaitStoreCapacity() && watch.hasNext()) {
       io.kubernetes.client.util.Watch.Response<ApiType> item = watch.next();
 
       Optional<EventType> eventType = EventType.findByType(item.type);
+      if (resumedFromBookmark && !(eventType.isPresent() && eventType.get() == EventType.ERROR)) {
+        // the api server accepted the resource version of the bookmark
+        resumedWatchCount.incrementAndGet();
+        resumedFromBookmark = false;
+      }
       if (!eventType.isPresent()) {
         log.error("unrecognized event {}", item);
         continue;
@@ -270,14 +541,43 @@ public class ReflectorRunnable<
           store.delete(obj);
           break;
         case BOOKMARK:
-          break;
           // A `Bookmark` means watch has synced here, just update the resourceVersion
+          bookmarkCount.incrementAndGet();
+          break;
       }
       lastSyncResourceVersion = newResourceVersion;
+      bookmarkResourceVersion = eventType.get() == EventType.BOOKMARK ? newResourceVersion : null;
       if (log.isDebugEnabled()) {
         log.debug("{}#Receiving resourceVersion {}", apiTypeClass, lastSyncResourceVersion);
       }
     }
+    if (resumedFromBookmark) {
+      // the watch ended without any event, and without 410 Gone
+      resumedWatchCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * awaitStoreCapacity stops reading from the watch while the store is full, so that the
+   * backpressure propagates to the api server through the connection's flow control.
+   *
+   * @return false if the reflector is stopping
+   */
+  private boolean awaitStoreCapacity() {
+    if (store.getCapacity() <= 0) {
+      return true;
+    }
+    try {
+      while (!store.awaitCapacity(1, TimeUnit.SECONDS)) {
+        if (!isActive.get()) {
+          return false;
+        }
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   static <ApiType extends KubernetesObject> void defaultWatchErrorHandler(
@@ -0,0 +1,224 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.util.Threads;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ShardedProcessorListener is a {@link ProcessorListener} which invokes its event handler from
+ * several threads. Notifications are sharded by the key of their object, so that the notifications
+ * about one object are still delivered sequentially and in order, while a slow object doesn't hold
+ * up the others. The event handler must be thread-safe.
+ *
+ * <p>Each shard has a bounded queue, the {@link OverflowPolicy} decides what happens when a
+ * notification is added to a full shard.
+ */
+public class ShardedProcessorListener<ApiType extends KubernetesObject>
+    extends ProcessorListener<ApiType> {
+
+  private static final Logger log = LoggerFactory.getLogger(ShardedProcessorListener.class);
+
+  /** OverflowPolicy decides what happens when a notification is added to a full shard. */
+  public enum OverflowPolicy {
+    /** Block the informer until the shard has room, which pushes back on the delta queue. */
+    BLOCK,
+    /**
+     * Drop the notification and request a resync of the listener, which notifies it of the latest
+     * state of every object at the next resync check. The informer must have a resync period. Only
+     * additions and updates are dropped, a resync doesn't replay the deleted objects so deletions
+     * block until the shard has room.
+     */
+    DROP_AND_RESYNC,
+    /**
+     * Merge the notification into the one queued for the same object if any, e.g. two updates
+     * become a single update from the oldest to the newest object. Blocks otherwise.
+     */
+    COALESCE
+  }
+
+  private final List<Shard> shards;
+
+  private final OverflowPolicy overflowPolicy;
+
+  // no initializer, the super constructor already determines the next resync
+  private volatile boolean resyncRequested;
+
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param handler the thread-safe event handler
+   * @param resyncPeriod the resync period in millis
+   * @param shardCount the number of shards, each one having its own thread
+   * @param shardCapacity the maximum number of notifications queued per shard
+   * @param overflowPolicy what happens when a notification is added to a full shard
+   */
+  public ShardedProcessorListener(
+      ResourceEventHandler<ApiType> handler,
+      long resyncPeriod,
+      int shardCount,
+      int shardCapacity,
+      OverflowPolicy overflowPolicy) {
+    super(handler, resyncPeriod);
+    if (shardCount <= 0 || shardCapacity <= 0) {
+      throw new IllegalArgumentException("shardCount and shardCapacity must be positive");
+    }
+    this.overflowPolicy = overflowPolicy;
+    this.shards = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      this.shards.add(new Shard(shardCapacity));
+    }
+  }
+
+  /**
+   * Runs the shards until interrupted. The thread running the listener only waits for the shard
+   * threads, which are interrupted along with it.
+   */
+  @Override
+  public void run() {
+    ExecutorService shardExecutor =
+        Executors.newFixedThreadPool(
+            shards.size(),
+            // shards run on virtual threads when the listener does
+            Threads.threadFactory(
+                "sharded-processor-listener-%d", Threads.isVirtual(Thread.currentThread())));
+    try {
+      for (Shard shard : shards) {
+        shardExecutor.execute(shard::run);
+      }
+      // parks until the shared processor stops
+      while (!shardExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {}
+    } catch (InterruptedException e) {
+      log.debug("sharded processor listener interrupted");
+    } finally {
+      shardExecutor.shutdownNow();
+    }
+  }
+
+  @Override
+  public void add(Notification<ApiType> obj) {
+    if (obj == null) {
+      return;
+    }
+    String key = Caches.deletionHandlingMetaNamespaceKeyFunc((KubernetesObject) objectOf(obj));
+    int h = key.hashCode();
+    h ^= h >>> 16;
+    try {
+      shards.get((h & Integer.MAX_VALUE) % shards.size()).offer(key, obj);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void determineNextResync(OffsetDateTime now) {
+    resyncRequested = false;
+    super.determineNextResync(now);
+  }
+
+  @Override
+  public boolean shouldResync(OffsetDateTime now) {
+    return resyncRequested || super.shouldResync(now);
+  }
+
+  /**
+   * Gets the number of notifications dropped because their shard was full.
+   *
+   * @return the number of dropped notifications
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Gets the number of notifications merged into a queued one because their shard was full.
+   *
+   * @return the number of coalesced notifications
+   */
+  @Override
+  public long getCoalescedCount() {
+    long coalesced = 0;
+    for (Shard shard : shards) {
+      coalesced += shard.queue.getCoalescedCount();
+    }
+    return coalesced;
+  }
+
+  /**
+   * Gets the number of notifications waiting in the shards.
+   *
+   * @return the number of queued notifications
+   */
+  public int getQueuedCount() {
+    int queued = 0;
+    for (Shard shard : shards) {
+      queued += shard.size();
+    }
+    return queued;
+  }
+
+  private final class Shard {
+
+    private final NotificationQueue<ApiType> queue;
+
+    private Shard(int capacity) {
+      this.queue = new NotificationQueue<>(capacity, overflowPolicy == OverflowPolicy.COALESCE);
+    }
+
+    private void offer(String key, Notification<ApiType> notification) throws InterruptedException {
+      while (!queue.offer(key, notification)) {
+        if (overflowPolicy == OverflowPolicy.DROP_AND_RESYNC
+            && !(notification instanceof ProcessorListener.DeleteNotification)) {
+          dropped.incrementAndGet();
+          if (!resyncRequested) {
+            resyncRequested = true;
+            log.warn("shard of a listener is full, dropping notifications until next resync");
+          }
+          return;
+        }
+        if (queue.tryCoalesce(key, notification)) {
+          return;
+        }
+        queue.awaitNotFull();
+      }
+    }
+
+    private int size() {
+      return queue.size();
+    }
+
+    private void run() {
+      while (true) {
+        try {
+          handle(queue.take());
+        } catch (InterruptedException e) {
+          return;
+        } catch (RuntimeException e) {
+          log.error("failed handling notification", e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import io.kubernetes.client.informer.ResourceEventHandler;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Snapshot is an immutable view of an {@link Indexer} at a point in time. It shares its structure
+ * with the indexer and with the other snapshots taken from it, so taking one doesn't copy the
+ * cached objects and iterating one doesn't need any lock. Consecutive reads from a snapshot are
+ * consistent with each other, e.g. listing pods and then looking them up by index.
+ *
+ * <p>The version increases every time the indexer changes, two snapshots of the same indexer at the
+ * same version hold the same content.
+ */
+public final class Snapshot<ApiType> {
+
+  /** copyVersions versions the copies of indexers which don't keep a version of their own */
+  private static final AtomicLong copyVersions = new AtomicLong();
+
+  private final PersistentHashMap<String, ApiType> items;
+
+  private final PersistentHashMap<
+          String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+      indices;
+
+  private final long version;
+
+  Snapshot(
+      PersistentHashMap<String, ApiType> items,
+      PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+          indices,
+      long version) {
+    this.items = items;
+    this.indices = indices;
+    this.version = version;
+  }
+
+  /**
+   * Copies the content of the indexer into a snapshot, rebuilding the indices from the index
+   * functions. The caller is responsible for holding off writers meanwhile. Every copy gets a
+   * version of its own.
+   */
+  static <ApiType> Snapshot<ApiType> copyOf(Indexer<ApiType> indexer) {
+    PersistentHashMap<String, ApiType> items = PersistentHashMap.empty();
+    for (String key : indexer.listKeys()) {
+      items = items.plus(key, indexer.getByKey(key));
+    }
+    PersistentHashMap<String, PersistentHashMap<String, PersistentHashMap<String, Boolean>>>
+        indices = PersistentHashMap.empty();
+    for (Map.Entry<String, Function<ApiType, List<String>>> indexEntry :
+        indexer.getIndexers().entrySet()) {
+      PersistentHashMap<String, PersistentHashMap<String, Boolean>> index =
+          PersistentHashMap.empty();
+      for (Map.Entry<String, ApiType> item : items) {
+        List<String> indexValues = indexEntry.getValue().apply(item.getValue());
+        if (indexValues == null) {
+          continue;
+        }
+        for (String indexValue : indexValues) {
+          PersistentHashMap<String, Boolean> set = index.get(indexValue);
+          if (set == null) {
+            set = PersistentHashMap.empty();
+          }
+          index = index.plus(indexValue, set.plus(item.getKey(), Boolean.TRUE));
+        }
+      }
+      indices = indices.plus(indexEntry.getKey(), index);
+    }
+    return new Snapshot<>(items, indices, copyVersions.incrementAndGet());
+  }
+
+  /**
+   * Returns the version of the indexer this snapshot was taken at.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the number of objects in the snapshot.
+   *
+   * @return the number of objects
+   */
+  public int size() {
+    return items.size();
+  }
+
+  /**
+   * Gets the object by its key.
+   *
+   * @param key the key
+   * @return the object, or null if absent
+   */
+  public ApiType getByKey(String key) {
+    return items.get(key);
+  }
+
+  /**
+   * Iterates over the keys of all the objects.
+   *
+   * @return the keys
+   */
+  public Iterable<String> listKeys() {
+    return items.keys();
+  }
+
+  /**
+   * Iterates over all the objects.
+   *
+   * @return the objects
+   */
+  public Iterable<ApiType> list() {
+    return items.values();
+  }
+
+  /**
+   * Iterates over the keys of the objects matching the index key.
+   *
+   * @param indexName the index name
+   * @param indexKey the index key
+   * @return the matched keys
+   */
+  public Iterable<String> indexKeys(String indexName, String indexKey) {
+    PersistentHashMap<String, Boolean> set = postingsOf(indexName, indexKey);
+    if (set == null) {
+      return Collections.emptyList();
+    }
+    return set.keys();
+  }
+
+  /**
+   * Iterates over the objects matching the index key.
+   *
+   * @param indexName the index name
+   * @param indexKey the index key
+   * @return the matched objects
+   */
+  public Iterable<ApiType> byIndex(String indexName, String indexKey) {
+    PersistentHashMap<String, Boolean> set = postingsOf(indexName, indexKey);
+    if (set == null) {
+      return Collections.emptyList();
+    }
+    return () ->
+        new Iterator<ApiType>() {
+          private final Iterator<String> keys = set.keys().iterator();
+
+          @Override
+          public boolean hasNext() {
+            return keys.hasNext();
+          }
+
+          @Override
+          public ApiType next() {
+            return items.get(keys.next());
+          }
+        };
+  }
+
+  /**
+   * Reports the changes between a previous snapshot of the same indexer and this one to the
+   * handler. Only the parts of the snapshots which aren't shared are visited, so diffing two close
+   * snapshots is proportional to the number of changes rather than to the number of objects.
+   *
+   * @param previous the previous snapshot
+   * @param handler the handler receiving additions, updates and deletions
+   */
+  public void diff(Snapshot<ApiType> previous, ResourceEventHandler<? super ApiType> handler) {
+    items.diff(
+        previous.items,
+        new PersistentHashMap.DiffHandler<String, ApiType>() {
+          @Override
+          public void onAdded(String key, ApiType value) {
+            handler.onAdd(value);
+          }
+
+          @Override
+          public void onUpdated(String key, ApiType oldValue, ApiType newValue) {
+            handler.onUpdate(oldValue, newValue);
+          }
+
+          @Override
+          public void onRemoved(String key, ApiType oldValue) {
+            handler.onDelete(oldValue, false);
+          }
+        });
+  }
+
+  private PersistentHashMap<String, Boolean> postingsOf(String indexName, String indexKey) {
+    PersistentHashMap<String, PersistentHashMap<String, Boolean>> index = indices.get(indexName);
+    if (index == null) {
+      throw new IllegalArgumentException(String.format("index %s doesn't exist!", indexName));
+    }
+    return index.get(indexKey);
+  }
+}
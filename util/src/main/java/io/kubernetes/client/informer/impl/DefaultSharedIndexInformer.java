@@ -19,16 +19,21 @@ import io.kubernetes.client.informer.ResourceEventHandler;
 import io.kubernetes.client.informer.SharedIndexInformer;
 import io.kubernetes.client.informer.TransformFunc;
 import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.informer.cache.ConcurrentCache;
 import io.kubernetes.client.informer.cache.Controller;
 import io.kubernetes.client.informer.cache.DeltaFIFO;
 import io.kubernetes.client.informer.cache.Indexer;
 import io.kubernetes.client.informer.cache.ProcessorListener;
+import io.kubernetes.client.informer.cache.ShardedProcessorListener;
 import io.kubernetes.client.informer.cache.SharedProcessor;
+import io.kubernetes.client.util.Threads;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.LongFunction;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.slf4j.Logger;
@@ -57,6 +62,8 @@ public class DefaultSharedIndexInformer<
 
   private Controller<ApiType, ApiListType> controller;
 
+  private DeltaFIFO deltaFIFO;
+
   private Thread controllerThread;
 
   private TransformFunc transform;
@@ -110,6 +117,31 @@ public class DefaultSharedIndexInformer<
         exceptionHandler);
   }
 
+  public DefaultSharedIndexInformer(
+      Class<ApiType> apiTypeClass,
+      ListerWatcher<ApiType, ApiListType> listerWatcher,
+      long resyncPeriod,
+      ConcurrentCache<ApiType> cache) {
+    this(apiTypeClass, listerWatcher, resyncPeriod, cache, null);
+  }
+
+  public DefaultSharedIndexInformer(
+      Class<ApiType> apiTypeClass,
+      ListerWatcher<ApiType, ApiListType> listerWatcher,
+      long resyncPeriod,
+      ConcurrentCache<ApiType> cache,
+      BiConsumer<Class<ApiType>, Throwable> exceptionHandler) {
+    this(
+        apiTypeClass,
+        listerWatcher,
+        resyncPeriod,
+        // down-casting should be safe here because one delta FIFO instance only serves one
+        // resource type
+        new DeltaFIFO((Function<KubernetesObject, String>) cache.getKeyFunc(), cache),
+        cache,
+        exceptionHandler);
+  }
+
   public DefaultSharedIndexInformer(
       Class<ApiType> apiTypeClass,
       ListerWatcher<ApiType, ApiListType> listerWatcher,
@@ -126,12 +158,36 @@ public class DefaultSharedIndexInformer<
       DeltaFIFO deltaFIFO,
       Indexer<ApiType> indexer,
       BiConsumer<Class<ApiType>, Throwable> exceptionHandler) {
+    this(apiTypeClass, listerWatcher, resyncPeriod, deltaFIFO, indexer, exceptionHandler, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param virtualThreads whether the controller, the reflector and the event handlers run on
+   *     virtual threads, falling back to platform threads before JDK 21
+   */
+  public DefaultSharedIndexInformer(
+      Class<ApiType> apiTypeClass,
+      ListerWatcher<ApiType, ApiListType> listerWatcher,
+      long resyncPeriod,
+      DeltaFIFO deltaFIFO,
+      Indexer<ApiType> indexer,
+      BiConsumer<Class<ApiType>, Throwable> exceptionHandler,
+      boolean virtualThreads) {
 
     this.resyncCheckPeriodMillis = resyncPeriod;
     this.defaultEventHandlerResyncPeriod = resyncPeriod;
 
-    this.processor = new SharedProcessor<>();
+    this.processor =
+        virtualThreads
+            ? new SharedProcessor<>(
+                Executors.newCachedThreadPool(
+                    Threads.virtualThreadFactory(
+                        "informer-processor-" + apiTypeClass.getSimpleName() + "-%d")))
+            : new SharedProcessor<>();
     this.indexer = indexer;
+    this.deltaFIFO = deltaFIFO;
     this.controller =
         new Controller<>(
             apiTypeClass,
@@ -140,10 +196,14 @@ public class DefaultSharedIndexInformer<
             this::handleDeltas,
             processor::shouldResync,
             resyncCheckPeriodMillis,
-            exceptionHandler);
+            exceptionHandler,
+            virtualThreads);
 
+    String controllerThreadName = "informer-controller-" + apiTypeClass.getSimpleName();
     controllerThread =
-        new Thread(controller::run, "informer-controller-" + apiTypeClass.getSimpleName());
+        virtualThreads
+            ? Threads.virtualThreadFactory(controllerThreadName).newThread(controller::run)
+            : new Thread(controller::run, controllerThreadName);
   }
 
   /** add event callback */
@@ -156,6 +216,34 @@ public class DefaultSharedIndexInformer<
   @Override
   public void addEventHandlerWithResyncPeriod(
       ResourceEventHandler<ApiType> handler, long resyncPeriodMillis) {
+    addListener(resyncPeriodMillis, resyncPeriod -> new ProcessorListener<>(handler, resyncPeriod));
+  }
+
+  /** add event callback whose pending events about the same object are merged */
+  @Override
+  public void addCoalescingEventHandler(
+      ResourceEventHandler<ApiType> handler, long resyncPeriodMillis) {
+    addListener(
+        resyncPeriodMillis, resyncPeriod -> new ProcessorListener<>(handler, resyncPeriod, true));
+  }
+
+  /** add a thread-safe event callback invoked by several threads sharding events by object */
+  @Override
+  public void addShardedEventHandler(
+      ResourceEventHandler<ApiType> handler,
+      long resyncPeriodMillis,
+      int shardCount,
+      int shardCapacity,
+      ShardedProcessorListener.OverflowPolicy overflowPolicy) {
+    addListener(
+        resyncPeriodMillis,
+        resyncPeriod ->
+            new ShardedProcessorListener<>(
+                handler, resyncPeriod, shardCount, shardCapacity, overflowPolicy));
+  }
+
+  private void addListener(
+      long resyncPeriodMillis, LongFunction<ProcessorListener<ApiType>> listenerFactory) {
     if (stopped) {
       log.info(
           "DefaultSharedIndexInformer#Handler was not added to shared informer because it has stopped already");
@@ -191,8 +279,8 @@ public class DefaultSharedIndexInformer<
     }
 
     ProcessorListener<ApiType> listener =
-        new ProcessorListener(
-            handler, determineResyncPeriod(resyncCheckPeriodMillis, this.resyncCheckPeriodMillis));
+        listenerFactory.apply(
+            determineResyncPeriod(resyncCheckPeriodMillis, this.resyncCheckPeriodMillis));
     if (!started) {
       this.processor.addListener(listener);
       return;
@@ -309,6 +397,47 @@ public class DefaultSharedIndexInformer<
     return this.indexer;
   }
 
+  /**
+   * Returns the queue of deltas between the reflector and the indexer, e.g. for monitoring its
+   * depth.
+   *
+   * @return the delta FIFO
+   */
+  public DeltaFIFO getDeltaFIFO() {
+    return this.deltaFIFO;
+  }
+
+  /**
+   * Makes the reflector list in pages of at most the given number of items, feeding each page to
+   * the delta FIFO before requesting the next one. Zero, the default, lists all items at once.
+   *
+   * @param listPageSize the page size, zero to list all the items at once
+   */
+  public void setListPageSize(int listPageSize) {
+    this.controller.setListPageSize(listPageSize);
+  }
+
+  /**
+   * Makes the reflector stream the initial state as the first events of a watch, terminated by a
+   * bookmark which makes the informer synced, instead of listing it. Falls back to listing on api
+   * servers which don't support streaming lists.
+   *
+   * @param watchListEnabled whether to stream the initial state
+   */
+  public void setWatchListEnabled(boolean watchListEnabled) {
+    this.controller.setWatchListEnabled(watchListEnabled);
+  }
+
+  /**
+   * Gets the number of watches resumed from the resource version of a bookmark, and accepted by the
+   * api server, i.e. the relists that watch bookmarks avoided on quiet resources.
+   *
+   * @return the number of resumed watches
+   */
+  public long getResumedWatchCount() {
+    return this.controller.getResumedWatchCount();
+  }
+
   private long determineResyncPeriod(long desired, long check) {
     if (desired == 0) {
       return desired;
@@ -17,10 +17,30 @@ public class CallGeneratorParams {
   public Boolean watch;
   public String resourceVersion;
   public Integer timeoutSeconds;
+  // limit and continueToken page a list, they're null unless the informer lists in pages
+  public Integer limit;
+  public String continueToken;
+  // allowWatchBookmarks requests bookmark events keeping the resource version of a watch fresh
+  public Boolean allowWatchBookmarks;
+  // sendInitialEvents and resourceVersionMatch stream the current state as the first events of a
+  // watch, instead of listing it
+  public Boolean sendInitialEvents;
+  public String resourceVersionMatch;
 
   public CallGeneratorParams(Boolean watch, String resourceVersion, Integer timeoutSeconds) {
     this.watch = watch;
     this.resourceVersion = resourceVersion;
     this.timeoutSeconds = timeoutSeconds;
   }
+
+  public CallGeneratorParams(
+      Boolean watch,
+      String resourceVersion,
+      Integer timeoutSeconds,
+      Integer limit,
+      String continueToken) {
+    this(watch, resourceVersion, timeoutSeconds);
+    this.limit = limit;
+    this.continueToken = continueToken;
+  }
 }
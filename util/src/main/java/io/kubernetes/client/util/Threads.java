@@ -12,12 +12,18 @@ limitations under the License.
 */
 package io.kubernetes.client.util;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class Threads {
 
+  // Thread.ofVirtual().factory(), looked up reflectively as virtual threads need JDK 21
+  private static final ThreadFactory virtualFactory = lookupVirtualThreadFactory();
+
+  private static final Method isVirtual = lookupIsVirtual();
+
   public static ThreadFactory threadFactory(String format) {
     final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
     final AtomicInteger threadNumber = new AtomicInteger(1);
@@ -28,4 +34,79 @@ public class Threads {
       return thread;
     };
   }
+
+  /**
+   * Returns whether the running JVM supports virtual threads, i.e. whether it's JDK 21 or later.
+   *
+   * @return true if virtual threads are supported
+   */
+  public static boolean isVirtualThreadSupported() {
+    return virtualFactory != null;
+  }
+
+  /**
+   * Returns whether the thread is a virtual thread.
+   *
+   * @param thread the thread
+   * @return true if the thread is virtual
+   */
+  public static boolean isVirtual(Thread thread) {
+    if (isVirtual == null) {
+      return false;
+    }
+    try {
+      return (Boolean) isVirtual.invoke(thread);
+    } catch (ReflectiveOperationException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Thread factory creating virtual threads named after the format, see {@link
+   * #threadFactory(String)}. Falls back to platform threads when virtual threads aren't supported.
+   *
+   * @param format the format of thread names, e.g. "foo-%d"
+   * @return the thread factory
+   */
+  public static ThreadFactory virtualThreadFactory(String format) {
+    if (virtualFactory == null) {
+      return threadFactory(format);
+    }
+    final AtomicInteger threadNumber = new AtomicInteger(1);
+    return r -> {
+      Thread thread = virtualFactory.newThread(r);
+      thread.setName(String.format(format, threadNumber.getAndIncrement()));
+      return thread;
+    };
+  }
+
+  /**
+   * Thread factory creating virtual threads if requested and supported, platform threads otherwise.
+   *
+   * @param format the format of thread names, e.g. "foo-%d"
+   * @param virtual whether to create virtual threads
+   * @return the thread factory
+   */
+  public static ThreadFactory threadFactory(String format, boolean virtual) {
+    return virtual ? virtualThreadFactory(format) : threadFactory(format);
+  }
+
+  private static ThreadFactory lookupVirtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory)
+          Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // not available, or a preview feature which isn't enabled
+      return null;
+    }
+  }
+
+  private static Method lookupIsVirtual() {
+    try {
+      return Thread.class.getMethod("isVirtual");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
 }
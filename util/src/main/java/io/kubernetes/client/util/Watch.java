@@ -12,20 +12,26 @@ limitations under the License.
 */
 package io.kubernetes.client.util;
 
+import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.JSON;
 import io.kubernetes.client.openapi.models.V1Status;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Iterator;
 import okhttp3.Call;
 import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +78,15 @@ public class Watch<T> implements Watchable<T>, Closeable {
   JSON json;
   Call call;
 
+  // decodes the watched objects, null if the watch type isn't a Response<T>
+  private TypeAdapter<T> objectAdapter;
+
+  private TypeAdapter<V1Status> statusAdapter;
+
+  // read the characters of the events, reused from an event to the next
+  private final Utf8Reader eventReader = new Utf8Reader();
+  private final Utf8Reader peekReader = new Utf8Reader();
+
   /**
    * Creates a watch on a TYPENAME (T) using an API Client and a Call object.
    *
@@ -117,23 +132,92 @@ public class Watch<T> implements Watchable<T>, Closeable {
     this.watchType = watchType;
     this.json = json;
     this.call = call;
+    if (watchType instanceof ParameterizedType
+        && ((ParameterizedType) watchType).getRawType() == Response.class) {
+      Type objectType = ((ParameterizedType) watchType).getActualTypeArguments()[0];
+      // the watch type is Response<T>, so its type argument is T
+      @SuppressWarnings("unchecked")
+      TypeAdapter<T> objectAdapter =
+          (TypeAdapter<T>) json.getGson().getAdapter(TypeToken.get(objectType));
+      this.objectAdapter = objectAdapter;
+      this.statusAdapter = json.getGson().getAdapter(V1Status.class);
+    }
   }
 
   public Response<T> next() {
     try {
-      String line = response.source().readUtf8Line();
-      if (line == null) {
+      if (objectAdapter == null) {
+        String line = response.source().readUtf8Line();
+        if (line == null) {
+          throw new RuntimeException("Null response from the server.");
+        }
+        return parseLine(line);
+      }
+      // moves the bytes of the next event out of the source without copying them into a string,
+      // and decodes them in a single pass.
+      BufferedSource source = response.source();
+      if (source.exhausted()) {
         throw new RuntimeException("Null response from the server.");
       }
-      return parseLine(line);
+      Buffer event = new Buffer();
+      long newline = source.indexOf((byte) '\n');
+      if (newline == -1) {
+        source.readAll(event);
+      } else {
+        source.read(event, newline);
+        source.skip(1);
+      }
+      return decode(event);
     } catch (IOException e) {
       throw new RuntimeException("IO Exception during next method.", e);
     }
   }
 
+  /**
+   * Decodes a watch event, binding its object straight from the bytes. The object is a Status when
+   * its kind says so, which a scan of the event up to the kind of the object tells beforehand, so
+   * that the object is never buffered into a tree.
+   */
+  private Response<T> decode(Buffer event) throws IOException {
+    boolean status = isStatus(newJsonReader(peekReader.reset(event.peek())));
+    JsonReader reader = newJsonReader(eventReader.reset(event));
+    String type = null;
+    T object = null;
+    V1Status statusObject = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (name.equals("type") && reader.peek() == JsonToken.STRING) {
+        type = reader.nextString();
+      } else if (name.equals("object") && status) {
+        statusObject = statusAdapter.read(reader);
+      } else if (name.equals("object")) {
+        object = objectAdapter.read(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (status) {
+      return new Response<T>(type, statusObject);
+    }
+    return new Response<T>(type, object);
+  }
+
+  private static JsonReader newJsonReader(Reader in) {
+    JsonReader reader = new JsonReader(in);
+    reader.setLenient(true);
+    return reader;
+  }
+
   protected boolean isStatus(String line) throws IOException {
+    return isStatus(new JsonReader(new StringReader(line)));
+  }
+
+  // tells whether the object of the event is a Status, from its kind and apiVersion
+  private static boolean isStatus(JsonReader reader) throws IOException {
     boolean found = false;
-    JsonReader reader = new JsonReader(new StringReader(line));
     reader.beginObject();
     // extract object data.
     while (reader.hasNext()) {
@@ -144,7 +228,7 @@ public class Watch<T> implements Watchable<T>, Closeable {
       }
       reader.skipValue();
     }
-    if (!found) {
+    if (!found || reader.peek() != JsonToken.BEGIN_OBJECT) {
       return false;
     }
 
@@ -168,6 +252,9 @@ public class Watch<T> implements Watchable<T>, Closeable {
   }
 
   protected Response<T> parseLine(String line) throws IOException {
+    if (objectAdapter != null) {
+      return decode(new Buffer().writeUtf8(line));
+    }
     if (!isStatus(line)) {
       return json.deserialize(line, watchType);
     }
@@ -196,4 +283,51 @@ public class Watch<T> implements Watchable<T>, Closeable {
     this.call.cancel();
     this.response.close();
   }
+
+  /**
+   * Utf8Reader decodes the UTF-8 characters of a source as they are read, without the buffers of an
+   * {@link java.io.InputStreamReader}, so that it's cheap to point at the next event.
+   */
+  private static final class Utf8Reader extends Reader {
+
+    private BufferedSource source;
+
+    // the low surrogate of a supplementary character which didn't fit in the last read
+    private int pendingLowSurrogate = -1;
+
+    private Utf8Reader reset(BufferedSource source) {
+      this.source = source;
+      this.pendingLowSurrogate = -1;
+      return this;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      int count = 0;
+      if (pendingLowSurrogate != -1) {
+        cbuf[off + count++] = (char) pendingLowSurrogate;
+        pendingLowSurrogate = -1;
+      }
+      while (count < len && !source.exhausted()) {
+        int codePoint = source.readUtf8CodePoint();
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+          cbuf[off + count++] = (char) codePoint;
+          continue;
+        }
+        cbuf[off + count++] = Character.highSurrogate(codePoint);
+        if (count < len) {
+          cbuf[off + count++] = Character.lowSurrogate(codePoint);
+        } else {
+          pendingLowSurrogate = Character.lowSurrogate(codePoint);
+        }
+      }
+      return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() {}
+  }
 }
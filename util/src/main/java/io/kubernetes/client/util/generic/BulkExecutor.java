@@ -0,0 +1,470 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.util.generic;
+
+import io.kubernetes.client.common.KubernetesListObject;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.util.Strings;
+import io.kubernetes.client.util.Threads;
+import io.kubernetes.client.util.generic.options.CreateOptions;
+import io.kubernetes.client.util.generic.options.DeleteOptions;
+import io.kubernetes.client.util.generic.options.PatchOptions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BulkExecutor executes a large number of create, patch and delete operations against a resource
+ * concurrently, keeping up to a fixed number of requests in flight per executor, whatever the
+ * number of connections they are sent over.
+ *
+ * <p>The requests also go through the OkHttp {@link okhttp3.Dispatcher} of the client, which queues
+ * the requests beyond its own limits, 64 in total and 5 per host by default, and thus caps the
+ * window too. The executor leaves the dispatcher, which is usually shared, as is; to keep more
+ * requests in flight, pass an api built on a client with its own dispatcher, e.g.:
+ *
+ * <pre>{@code
+ * Dispatcher dispatcher = new Dispatcher();
+ * dispatcher.setMaxRequests(32);
+ * dispatcher.setMaxRequestsPerHost(32);
+ * ApiClient bulkClient = ClientBuilder.defaultClient();
+ * bulkClient.setHttpClient(bulkClient.getHttpClient().newBuilder().dispatcher(dispatcher).build());
+ * GenericKubernetesApi<V1Pod, V1PodList> podClient =
+ *     new GenericKubernetesApi<>(V1Pod.class, V1PodList.class, "", "v1", "pods", bulkClient);
+ * }</pre>
+ *
+ * <p>Operations throttled by the server, i.e. answered with 429 Too Many Requests or a 5xx status
+ * carrying a retry-after hint, are retried with exponential backoff, waiting at least as long as
+ * the server asked for. Every operation gets a result, failed ones don't abort the others.
+ *
+ * <pre>{@code
+ * BulkExecutor<V1Pod, V1PodList> executor = new BulkExecutor<>(podClient, 32);
+ * BulkExecutor.Result<V1Pod> result =
+ *     executor.execute(
+ *         names.stream()
+ *             .map(name -> BulkExecutor.Operation.<V1Pod>patch(
+ *                 "default", name, V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH, patch)));
+ * }</pre>
+ *
+ * @param <ApiType> the type of the objects
+ * @param <ApiListType> the type of the lists
+ */
+public class BulkExecutor<
+    ApiType extends KubernetesObject, ApiListType extends KubernetesListObject> {
+
+  private static final Logger log = LoggerFactory.getLogger(BulkExecutor.class);
+
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private static final int DEFAULT_MAX_RETRIES = 5;
+  private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+  private static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(30);
+
+  private final GenericKubernetesApi<ApiType, ApiListType> api;
+  private final int maxInFlight;
+  private final int maxRetries;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  /**
+   * Constructs an executor retrying throttled operations up to 5 times, backing off from 100ms up
+   * to 30s.
+   *
+   * @param api the api of the resource
+   * @param maxInFlight the max number of requests in flight
+   */
+  public BulkExecutor(GenericKubernetesApi<ApiType, ApiListType> api, int maxInFlight) {
+    this(api, maxInFlight, DEFAULT_MAX_RETRIES, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param api the api of the resource
+   * @param maxInFlight the max number of requests in flight
+   * @param maxRetries the max number of retries of a throttled operation
+   * @param initialBackoff the backoff before the first retry, doubled for every next retry
+   * @param maxBackoff the max backoff between retries
+   */
+  public BulkExecutor(
+      GenericKubernetesApi<ApiType, ApiListType> api,
+      int maxInFlight,
+      int maxRetries,
+      Duration initialBackoff,
+      Duration maxBackoff) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("maxInFlight must be positive");
+    }
+    this.api = api;
+    this.maxInFlight = maxInFlight;
+    this.maxRetries = maxRetries;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * Executes the operations, blocking until all of them are done. The stream is consumed lazily, as
+   * the window allows.
+   *
+   * @param operations the operations
+   * @return the results
+   * @throws InterruptedException if interrupted while waiting, operations in flight are left to
+   *     complete
+   */
+  public Result<ApiType> execute(Stream<Operation<ApiType>> operations)
+      throws InterruptedException {
+    return execute(operations.iterator());
+  }
+
+  /**
+   * Executes the operations, blocking until all of them are done.
+   *
+   * @param operations the operations
+   * @return the results
+   * @throws InterruptedException if interrupted while waiting, operations in flight are left to
+   *     complete
+   */
+  public Result<ApiType> execute(Iterable<Operation<ApiType>> operations)
+      throws InterruptedException {
+    return execute(operations.iterator());
+  }
+
+  private Result<ApiType> execute(Iterator<Operation<ApiType>> operations)
+      throws InterruptedException {
+    long start = System.nanoTime();
+    Semaphore window = new Semaphore(maxInFlight);
+    AtomicInteger retries = new AtomicInteger();
+    List<CompletableFuture<Item<ApiType>>> items = new ArrayList<>();
+    ScheduledExecutorService retryScheduler =
+        Executors.newSingleThreadScheduledExecutor(Threads.threadFactory("bulk-executor-%d"));
+    try {
+      while (operations.hasNext()) {
+        Operation<ApiType> operation = operations.next();
+        window.acquire();
+        CompletableFuture<Item<ApiType>> item = new CompletableFuture<>();
+        item.whenComplete((i, t) -> window.release());
+        items.add(item);
+        send(operation, 0, item, retryScheduler, retries);
+      }
+      // waits for the operations in flight
+      window.acquire(maxInFlight);
+    } finally {
+      retryScheduler.shutdownNow();
+    }
+
+    List<Item<ApiType>> results = new ArrayList<>(items.size());
+    for (CompletableFuture<Item<ApiType>> item : items) {
+      results.add(item.join());
+    }
+    return new Result<>(results, retries.get(), Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private void send(
+      Operation<ApiType> operation,
+      int attempt,
+      CompletableFuture<Item<ApiType>> item,
+      ScheduledExecutorService retryScheduler,
+      AtomicInteger retries) {
+    CompletableFuture<KubernetesApiResponse<ApiType>> future;
+    try {
+      future = operation.request.apply(api);
+    } catch (RuntimeException e) {
+      item.complete(new Item<>(operation, null, e));
+      return;
+    }
+    future.whenComplete(
+        (response, t) -> {
+          if (t != null) {
+            item.complete(new Item<>(operation, null, t));
+            return;
+          }
+          if (attempt < maxRetries && isThrottled(response)) {
+            Duration backoff = backoff(response.getStatus(), attempt);
+            log.debug("{} throttled, retrying in {}", operation, backoff);
+            retries.incrementAndGet();
+            retryScheduler.schedule(
+                () -> send(operation, attempt + 1, item, retryScheduler, retries),
+                backoff.toMillis(),
+                TimeUnit.MILLISECONDS);
+            return;
+          }
+          item.complete(new Item<>(operation, response, null));
+        });
+  }
+
+  // the api server asks the clients to back off with 429, or 5xx along with a retry-after hint
+  private static boolean isThrottled(KubernetesApiResponse<?> response) {
+    if (response.getHttpStatusCode() == TOO_MANY_REQUESTS) {
+      return true;
+    }
+    return response.getHttpStatusCode() >= 500 && retryAfterSeconds(response.getStatus()) != null;
+  }
+
+  private Duration backoff(V1Status status, int attempt) {
+    Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempt, 30));
+    if (backoff.compareTo(maxBackoff) > 0) {
+      backoff = maxBackoff;
+    }
+    Integer retryAfterSeconds = retryAfterSeconds(status);
+    if (retryAfterSeconds != null && backoff.getSeconds() < retryAfterSeconds) {
+      backoff = Duration.ofSeconds(retryAfterSeconds);
+    }
+    return backoff;
+  }
+
+  private static Integer retryAfterSeconds(V1Status status) {
+    if (status == null || status.getDetails() == null) {
+      return null;
+    }
+    return status.getDetails().getRetryAfterSeconds();
+  }
+
+  /**
+   * An operation on an object of the resource.
+   *
+   * @param <ApiType> the type of the objects
+   */
+  public static class Operation<ApiType extends KubernetesObject> {
+
+    private final String description;
+    private final Function<
+            GenericKubernetesApi<ApiType, ?>, CompletableFuture<KubernetesApiResponse<ApiType>>>
+        request;
+
+    private Operation(
+        String description,
+        Function<
+                GenericKubernetesApi<ApiType, ?>, CompletableFuture<KubernetesApiResponse<ApiType>>>
+            request) {
+      this.description = description;
+      this.request = request;
+    }
+
+    /**
+     * Creates the object, in the namespace of the object if any.
+     *
+     * @param object the object
+     * @return the operation
+     */
+    public static <ApiType extends KubernetesObject> Operation<ApiType> create(ApiType object) {
+      return create(object, new CreateOptions());
+    }
+
+    /**
+     * Creates the object, in the namespace of the object if any.
+     *
+     * @param object the object
+     * @param createOptions the create options
+     * @return the operation
+     */
+    public static <ApiType extends KubernetesObject> Operation<ApiType> create(
+        ApiType object, CreateOptions createOptions) {
+      return new Operation<>(
+          "create " + key(object.getMetadata().getNamespace(), object.getMetadata().getName()),
+          api -> api.createAsync(object, createOptions));
+    }
+
+    /**
+     * Patches the object.
+     *
+     * @param namespace the namespace, or null if the resource is cluster-scoped
+     * @param name the name
+     * @param patchType the patch type, supported values defined in V1Patch
+     * @param patch the patch
+     * @return the operation
+     */
+    public static <ApiType extends KubernetesObject> Operation<ApiType> patch(
+        String namespace, String name, String patchType, V1Patch patch) {
+      return patch(namespace, name, patchType, patch, new PatchOptions());
+    }
+
+    /**
+     * Patches the object.
+     *
+     * @param namespace the namespace, or null if the resource is cluster-scoped
+     * @param name the name
+     * @param patchType the patch type, supported values defined in V1Patch
+     * @param patch the patch
+     * @param patchOptions the patch options
+     * @return the operation
+     */
+    public static <ApiType extends KubernetesObject> Operation<ApiType> patch(
+        String namespace, String name, String patchType, V1Patch patch, PatchOptions patchOptions) {
+      return new Operation<>(
+          "patch " + key(namespace, name),
+          api ->
+              Strings.isNullOrEmpty(namespace)
+                  ? api.patchAsync(name, patchType, patch, patchOptions)
+                  : api.patchAsync(namespace, name, patchType, patch, patchOptions));
+    }
+
+    /**
+     * Deletes the object.
+     *
+     * @param namespace the namespace, or null if the resource is cluster-scoped
+     * @param name the name
+     * @return the operation
+     */
+    public static <ApiType extends KubernetesObject> Operation<ApiType> delete(
+        String namespace, String name) {
+      return delete(namespace, name, new DeleteOptions());
+    }
+
+    /**
+     * Deletes the object.
+     *
+     * @param namespace the namespace, or null if the resource is cluster-scoped
+     * @param name the name
+     * @param deleteOptions the delete options
+     * @return the operation
+     */
+    public static <ApiType extends KubernetesObject> Operation<ApiType> delete(
+        String namespace, String name, DeleteOptions deleteOptions) {
+      return new Operation<>(
+          "delete " + key(namespace, name),
+          api ->
+              Strings.isNullOrEmpty(namespace)
+                  ? api.deleteAsync(name, deleteOptions)
+                  : api.deleteAsync(namespace, name, deleteOptions));
+    }
+
+    private static String key(String namespace, String name) {
+      return Strings.isNullOrEmpty(namespace) ? name : namespace + "/" + name;
+    }
+
+    @Override
+    public String toString() {
+      return description;
+    }
+  }
+
+  /**
+   * The result of an operation, either the response of the server or the exception the request
+   * failed with.
+   *
+   * @param <ApiType> the type of the objects
+   */
+  public static class Item<ApiType extends KubernetesObject> {
+
+    private final Operation<ApiType> operation;
+    private final KubernetesApiResponse<ApiType> response;
+    private final Throwable exception;
+
+    private Item(
+        Operation<ApiType> operation,
+        KubernetesApiResponse<ApiType> response,
+        Throwable exception) {
+      this.operation = operation;
+      this.response = response;
+      this.exception = exception;
+    }
+
+    public Operation<ApiType> getOperation() {
+      return operation;
+    }
+
+    /**
+     * Returns the response of the server, null if the request failed with an exception.
+     *
+     * @return the response
+     */
+    public KubernetesApiResponse<ApiType> getResponse() {
+      return response;
+    }
+
+    /**
+     * Returns the exception the request failed with, e.g. an I/O error.
+     *
+     * @return the exception, or null
+     */
+    public Throwable getException() {
+      return exception;
+    }
+
+    public boolean isSuccess() {
+      return response != null && response.isSuccess();
+    }
+  }
+
+  /**
+   * The results of the operations along with throughput metrics.
+   *
+   * @param <ApiType> the type of the objects
+   */
+  public static class Result<ApiType extends KubernetesObject> {
+
+    private final List<Item<ApiType>> items;
+    private final int retries;
+    private final Duration elapsed;
+
+    private Result(List<Item<ApiType>> items, int retries, Duration elapsed) {
+      this.items = Collections.unmodifiableList(items);
+      this.retries = retries;
+      this.elapsed = elapsed;
+    }
+
+    /**
+     * Returns the results of the operations, in the order of the operations.
+     *
+     * @return the results
+     */
+    public List<Item<ApiType>> getItems() {
+      return items;
+    }
+
+    public int getSucceeded() {
+      return (int) items.stream().filter(Item::isSuccess).count();
+    }
+
+    public int getFailed() {
+      return items.size() - getSucceeded();
+    }
+
+    /**
+     * Returns the number of retries of throttled operations.
+     *
+     * @return the number of retries
+     */
+    public int getRetries() {
+      return retries;
+    }
+
+    public Duration getElapsed() {
+      return elapsed;
+    }
+
+    /**
+     * Returns the number of operations executed per second.
+     *
+     * @return the throughput
+     */
+    public double getThroughput() {
+      long nanos = elapsed.toNanos();
+      return nanos == 0 ? 0 : items.size() * 1e9 / nanos;
+    }
+  }
+}
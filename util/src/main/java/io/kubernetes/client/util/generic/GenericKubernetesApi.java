@@ -20,6 +20,7 @@ import io.kubernetes.client.common.KubernetesListObject;
 import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.common.KubernetesType;
 import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiCallback;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.Configuration;
@@ -27,6 +28,7 @@ import io.kubernetes.client.openapi.apis.CustomObjectsApi;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1Status;
 import io.kubernetes.client.util.PatchUtils;
+import io.kubernetes.client.util.ProxyContentTypeRequestBody;
 import io.kubernetes.client.util.Strings;
 import io.kubernetes.client.util.Watch;
 import io.kubernetes.client.util.Watchable;
@@ -38,9 +40,13 @@ import io.kubernetes.client.util.generic.options.PatchOptions;
 import io.kubernetes.client.util.generic.options.UpdateOptions;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import okhttp3.Call;
 import okhttp3.HttpUrl;
+import okhttp3.Request;
 
 /**
  * The Generic kubernetes api provides a unified client interface for not only the non-core-group
@@ -291,15 +297,7 @@ public class GenericKubernetesApi<
    * @return the kubernetes api response
    */
   public KubernetesApiResponse<ApiType> get(String name, final GetOptions getOptions) {
-    if (Strings.isNullOrEmpty(name)) {
-      throw new IllegalArgumentException("invalid namespace");
-    }
-    return executeCall(
-        customObjectsApi.getApiClient(),
-        apiTypeClass,
-        () ->
-            customObjectsApi.getClusterCustomObjectCall(
-                this.apiGroup, this.apiVersion, this.resourcePlural, name, null));
+    return executeCall(customObjectsApi.getApiClient(), apiTypeClass, getCall(name, getOptions));
   }
 
   /**
@@ -312,19 +310,8 @@ public class GenericKubernetesApi<
    */
   public KubernetesApiResponse<ApiType> get(
       String namespace, String name, final GetOptions getOptions) {
-    if (Strings.isNullOrEmpty(name)) {
-      throw new IllegalArgumentException("invalid name");
-    }
-    if (Strings.isNullOrEmpty(namespace)) {
-      throw new IllegalArgumentException("invalid namespace");
-    }
     return executeCall(
-        customObjectsApi.getApiClient(),
-        apiTypeClass,
-        () -> {
-          return customObjectsApi.getNamespacedCustomObjectCall(
-              this.apiGroup, this.apiVersion, namespace, this.resourcePlural, name, null);
-        });
+        customObjectsApi.getApiClient(), apiTypeClass, getCall(namespace, name, getOptions));
   }
 
   /**
@@ -334,26 +321,7 @@ public class GenericKubernetesApi<
    * @return the kubernetes api response
    */
   public KubernetesApiResponse<ApiListType> list(final ListOptions listOptions) {
-    return executeCall(
-        customObjectsApi.getApiClient(),
-        apiListTypeClass,
-        () -> {
-          return customObjectsApi.listClusterCustomObjectCall(
-              this.apiGroup,
-              this.apiVersion,
-              this.resourcePlural,
-              null,
-              false,
-              listOptions.getContinue(),
-              listOptions.getFieldSelector(),
-              listOptions.getLabelSelector(),
-              listOptions.getLimit(),
-              listOptions.getResourceVersion(),
-              null,
-              listOptions.getTimeoutSeconds(),
-              false,
-              null);
-        });
+    return executeCall(customObjectsApi.getApiClient(), apiListTypeClass, listCall(listOptions));
   }
 
   /**
@@ -364,30 +332,8 @@ public class GenericKubernetesApi<
    * @return the kubernetes api response
    */
   public KubernetesApiResponse<ApiListType> list(String namespace, final ListOptions listOptions) {
-    if (Strings.isNullOrEmpty(namespace)) {
-      throw new IllegalArgumentException("invalid namespace");
-    }
     return executeCall(
-        customObjectsApi.getApiClient(),
-        apiListTypeClass,
-        () -> {
-          return customObjectsApi.listNamespacedCustomObjectCall(
-              this.apiGroup,
-              this.apiVersion,
-              namespace,
-              this.resourcePlural,
-              null,
-              null,
-              listOptions.getContinue(),
-              listOptions.getFieldSelector(),
-              listOptions.getLabelSelector(),
-              listOptions.getLimit(),
-              listOptions.getResourceVersion(),
-              null,
-              listOptions.getTimeoutSeconds(),
-              false,
-              null);
-        });
+        customObjectsApi.getApiClient(), apiListTypeClass, listCall(namespace, listOptions));
   }
 
   /**
@@ -398,28 +344,8 @@ public class GenericKubernetesApi<
    * @return the kubernetes api response
    */
   public KubernetesApiResponse<ApiType> create(ApiType object, final CreateOptions createOptions) {
-    V1ObjectMeta objectMeta = object.getMetadata();
-
-    boolean isNamespaced = !Strings.isNullOrEmpty(objectMeta.getNamespace());
-    if (isNamespaced) {
-      return create(objectMeta.getNamespace(), object, createOptions);
-    }
-
     return executeCall(
-        customObjectsApi.getApiClient(),
-        apiTypeClass,
-        () -> {
-          // TODO(yue9944882): judge namespaced object via api discovery
-          return customObjectsApi.createClusterCustomObjectCall(
-              this.apiGroup,
-              this.apiVersion,
-              this.resourcePlural,
-              object,
-              null,
-              createOptions.getDryRun(),
-              createOptions.getFieldManager(),
-              null);
-        });
+        customObjectsApi.getApiClient(), apiTypeClass, createCall(object, createOptions));
   }
 
   public KubernetesApiResponse<ApiType> create(
@@ -427,19 +353,7 @@ public class GenericKubernetesApi<
     return executeCall(
         customObjectsApi.getApiClient(),
         apiTypeClass,
-        () -> {
-          // TODO(yue9944882): judge namespaced object via api discovery
-          return customObjectsApi.createNamespacedCustomObjectCall(
-              this.apiGroup,
-              this.apiVersion,
-              namespace,
-              this.resourcePlural,
-              object,
-              null,
-              createOptions.getDryRun(),
-              createOptions.getFieldManager(),
-              null);
-        });
+        createCall(namespace, object, createOptions));
   }
 
   /**
@@ -450,36 +364,8 @@ public class GenericKubernetesApi<
    * @return the kubernetes api response
    */
   public KubernetesApiResponse<ApiType> update(ApiType object, final UpdateOptions updateOptions) {
-    V1ObjectMeta objectMeta = object.getMetadata();
     return executeCall(
-        customObjectsApi.getApiClient(),
-        apiTypeClass,
-        () -> {
-          //// TODO(yue9944882): judge namespaced object via api discovery
-          boolean isNamespaced = !Strings.isNullOrEmpty(objectMeta.getNamespace());
-          if (isNamespaced) {
-            return customObjectsApi.replaceNamespacedCustomObjectCall(
-                this.apiGroup,
-                this.apiVersion,
-                objectMeta.getNamespace(),
-                this.resourcePlural,
-                objectMeta.getName(),
-                object,
-                updateOptions.getDryRun(),
-                updateOptions.getFieldManager(),
-                null);
-          } else {
-            return customObjectsApi.replaceClusterCustomObjectCall(
-                this.apiGroup,
-                this.apiVersion,
-                this.resourcePlural,
-                objectMeta.getName(),
-                object,
-                updateOptions.getDryRun(),
-                updateOptions.getFieldManager(),
-                null);
-          }
-        });
+        customObjectsApi.getApiClient(), apiTypeClass, updateCall(object, updateOptions));
   }
 
   /**
@@ -505,38 +391,10 @@ public class GenericKubernetesApi<
    */
   public KubernetesApiResponse<ApiType> updateStatus(
       ApiType object, Function<ApiType, Object> status, final UpdateOptions updateOptions) {
-    V1ObjectMeta objectMeta = object.getMetadata();
     return executeCall(
         customObjectsApi.getApiClient(),
         apiTypeClass,
-        () -> {
-          //// TODO(yue9944882): judge namespaced object via api discovery
-          boolean isNamespaced = !Strings.isNullOrEmpty(objectMeta.getNamespace());
-          if (isNamespaced) {
-            return customObjectsApi.patchNamespacedCustomObjectStatusCall(
-                this.apiGroup,
-                this.apiVersion,
-                objectMeta.getNamespace(),
-                this.resourcePlural,
-                objectMeta.getName(),
-                Arrays.asList(new StatusPatch(status.apply(object))),
-                updateOptions.getDryRun(),
-                updateOptions.getFieldManager(),
-                null,
-                null);
-          } else {
-            return customObjectsApi.patchClusterCustomObjectStatusCall(
-                this.apiGroup,
-                this.apiVersion,
-                this.resourcePlural,
-                objectMeta.getName(),
-                Arrays.asList(new StatusPatch(status.apply(object))),
-                updateOptions.getDryRun(),
-                updateOptions.getFieldManager(),
-                null,
-                null);
-          }
-        });
+        updateStatusCall(object, status, updateOptions));
   }
 
   /**
@@ -550,38 +408,7 @@ public class GenericKubernetesApi<
    */
   public KubernetesApiResponse<ApiType> patch(
       String name, String patchType, V1Patch patch, final PatchOptions patchOptions) {
-    if (Strings.isNullOrEmpty(name)) {
-      throw new IllegalArgumentException("invalid name");
-    }
-    try {
-      ApiType object =
-          PatchUtils.patch(
-              apiTypeClass,
-              () -> {
-                Call call =
-                    customObjectsApi.patchClusterCustomObjectCall(
-                        this.apiGroup,
-                        this.apiVersion,
-                        this.resourcePlural,
-                        name,
-                        patch,
-                        patchOptions.getDryRun(),
-                        patchOptions.getFieldManager(),
-                        patchOptions.getForce(),
-                        null);
-                return tweakCallForCoreV1Group(call);
-              },
-              patchType,
-              this.customObjectsApi.getApiClient());
-      return new KubernetesApiResponse<ApiType>(object);
-    } catch (ApiException e) {
-      V1Status status =
-          customObjectsApi
-              .getApiClient()
-              .getJSON()
-              .deserialize(e.getResponseBody(), V1Status.class);
-      return new KubernetesApiResponse<>(status, e.getCode());
-    }
+    return executePatch(patchType, patchCall(name, patch, patchOptions));
   }
 
   /**
@@ -600,42 +427,7 @@ public class GenericKubernetesApi<
       String patchType,
       V1Patch patch,
       final PatchOptions patchOptions) {
-    if (Strings.isNullOrEmpty(namespace)) {
-      throw new IllegalArgumentException("invalid namespace");
-    }
-    if (Strings.isNullOrEmpty(name)) {
-      throw new IllegalArgumentException("invalid name");
-    }
-    try {
-      ApiType object =
-          PatchUtils.patch(
-              apiTypeClass,
-              () -> {
-                Call call =
-                    customObjectsApi.patchNamespacedCustomObjectCall(
-                        this.apiGroup,
-                        this.apiVersion,
-                        namespace,
-                        this.resourcePlural,
-                        name,
-                        patch,
-                        patchOptions.getDryRun(),
-                        patchOptions.getFieldManager(),
-                        patchOptions.getForce(),
-                        null);
-                return tweakCallForCoreV1Group(call);
-              },
-              patchType,
-              this.customObjectsApi.getApiClient());
-      return new KubernetesApiResponse<ApiType>(object);
-    } catch (ApiException e) {
-      V1Status status =
-          customObjectsApi
-              .getApiClient()
-              .getJSON()
-              .deserialize(e.getResponseBody(), V1Status.class);
-      return new KubernetesApiResponse<>(status, e.getCode());
-    }
+    return executePatch(patchType, patchCall(namespace, name, patch, patchOptions));
   }
 
   /**
@@ -646,25 +438,8 @@ public class GenericKubernetesApi<
    * @return the kubernetes api response
    */
   public KubernetesApiResponse<ApiType> delete(String name, final DeleteOptions deleteOptions) {
-    if (Strings.isNullOrEmpty(name)) {
-      throw new IllegalArgumentException("invalid name");
-    }
     return executeCall(
-        customObjectsApi.getApiClient(),
-        apiTypeClass,
-        () -> {
-          return customObjectsApi.deleteClusterCustomObjectCall(
-              this.apiGroup,
-              this.apiVersion,
-              this.resourcePlural,
-              name,
-              null,
-              null,
-              null,
-              null,
-              deleteOptions, // TODO: fill/convert the option
-              null);
-        });
+        customObjectsApi.getApiClient(), apiTypeClass, deleteCall(name, deleteOptions));
   }
 
   /**
@@ -677,29 +452,596 @@ public class GenericKubernetesApi<
    */
   public KubernetesApiResponse<ApiType> delete(
       String namespace, String name, final DeleteOptions deleteOptions) {
+    return executeCall(
+        customObjectsApi.getApiClient(), apiTypeClass, deleteCall(namespace, name, deleteOptions));
+  }
+
+  /**
+   * Asynchronously gets the object, see {@link #get(String)}. Cancelling the returned future
+   * cancels the request.
+   *
+   * @param name the name
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> getAsync(String name) {
+    return getAsync(name, new GetOptions());
+  }
+
+  /**
+   * Asynchronously gets the object under the namespace, see {@link #get(String, String)}.
+   *
+   * @param namespace the namespace
+   * @param name the name
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> getAsync(String namespace, String name) {
+    return getAsync(namespace, name, new GetOptions());
+  }
+
+  /**
+   * Asynchronously gets the object, see {@link #get(String, GetOptions)}.
+   *
+   * @param name the name
+   * @param getOptions the get options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> getAsync(
+      String name, final GetOptions getOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiTypeClass, getCall(name, getOptions));
+  }
+
+  /**
+   * Asynchronously gets the object under the namespace, see {@link #get(String, String,
+   * GetOptions)}.
+   *
+   * @param namespace the namespace
+   * @param name the name
+   * @param getOptions the get options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> getAsync(
+      String namespace, String name, final GetOptions getOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiTypeClass, getCall(namespace, name, getOptions));
+  }
+
+  /**
+   * Asynchronously lists the objects cluster-scoped, see {@link #list()}.
+   *
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiListType>> listAsync() {
+    return listAsync(new ListOptions());
+  }
+
+  /**
+   * Asynchronously lists the objects under the namespace, see {@link #list(String)}.
+   *
+   * @param namespace the namespace
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiListType>> listAsync(String namespace) {
+    return listAsync(namespace, new ListOptions());
+  }
+
+  /**
+   * Asynchronously lists the objects, see {@link #list(ListOptions)}.
+   *
+   * @param listOptions the list options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiListType>> listAsync(
+      final ListOptions listOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiListTypeClass, listCall(listOptions));
+  }
+
+  /**
+   * Asynchronously lists the objects under the namespace, see {@link #list(String, ListOptions)}.
+   *
+   * @param namespace the namespace
+   * @param listOptions the list options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiListType>> listAsync(
+      String namespace, final ListOptions listOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiListTypeClass, listCall(namespace, listOptions));
+  }
+
+  /**
+   * Asynchronously creates the object, see {@link #create(KubernetesObject)}.
+   *
+   * @param object the object
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> createAsync(ApiType object) {
+    return createAsync(object, new CreateOptions());
+  }
+
+  /**
+   * Asynchronously creates the object, see {@link #create(KubernetesObject, CreateOptions)}.
+   *
+   * @param object the object
+   * @param createOptions the create options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> createAsync(
+      ApiType object, final CreateOptions createOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiTypeClass, createCall(object, createOptions));
+  }
+
+  /**
+   * Asynchronously creates the object under the namespace, see {@link #create(String,
+   * KubernetesObject, CreateOptions)}.
+   *
+   * @param namespace the namespace
+   * @param object the object
+   * @param createOptions the create options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> createAsync(
+      String namespace, ApiType object, final CreateOptions createOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(),
+        apiTypeClass,
+        createCall(namespace, object, createOptions));
+  }
+
+  /**
+   * Asynchronously updates the object, see {@link #update(KubernetesObject)}.
+   *
+   * @param object the object
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> updateAsync(ApiType object) {
+    return updateAsync(object, new UpdateOptions());
+  }
+
+  /**
+   * Asynchronously updates the object, see {@link #update(KubernetesObject, UpdateOptions)}.
+   *
+   * @param object the object
+   * @param updateOptions the update options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> updateAsync(
+      ApiType object, final UpdateOptions updateOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiTypeClass, updateCall(object, updateOptions));
+  }
+
+  /**
+   * Asynchronously updates the status of the object, see {@link #updateStatus(KubernetesObject,
+   * Function)}.
+   *
+   * @param object the object
+   * @param status function to extract the status from the object
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> updateStatusAsync(
+      ApiType object, Function<ApiType, Object> status) {
+    return updateStatusAsync(object, status, new UpdateOptions());
+  }
+
+  /**
+   * Asynchronously updates the status of the object, see {@link #updateStatus(KubernetesObject,
+   * Function, UpdateOptions)}.
+   *
+   * @param object the object
+   * @param status function to extract the status from the object
+   * @param updateOptions the update options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> updateStatusAsync(
+      ApiType object, Function<ApiType, Object> status, final UpdateOptions updateOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(),
+        apiTypeClass,
+        updateStatusCall(object, status, updateOptions));
+  }
+
+  /**
+   * Asynchronously patches the object, see {@link #patch(String, String, V1Patch)}.
+   *
+   * @param name the name
+   * @param patchType the patch type, supported values defined in V1Patch
+   * @param patch the string patch content
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> patchAsync(
+      String name, String patchType, V1Patch patch) {
+    return patchAsync(name, patchType, patch, new PatchOptions());
+  }
+
+  /**
+   * Asynchronously patches the object under the namespace, see {@link #patch(String, String,
+   * String, V1Patch)}.
+   *
+   * @param namespace the namespace
+   * @param name the name
+   * @param patchType the patch type, supported values defined in V1Patch
+   * @param patch the string patch content
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> patchAsync(
+      String namespace, String name, String patchType, V1Patch patch) {
+    return patchAsync(namespace, name, patchType, patch, new PatchOptions());
+  }
+
+  /**
+   * Asynchronously patches the object, see {@link #patch(String, String, V1Patch, PatchOptions)}.
+   *
+   * @param name the name
+   * @param patchType the patch type
+   * @param patch the patch
+   * @param patchOptions the patch options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> patchAsync(
+      String name, String patchType, V1Patch patch, final PatchOptions patchOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(),
+        apiTypeClass,
+        withPatchType(patchType, patchCall(name, patch, patchOptions)));
+  }
+
+  /**
+   * Asynchronously patches the object under the namespace, see {@link #patch(String, String,
+   * String, V1Patch, PatchOptions)}.
+   *
+   * @param namespace the namespace
+   * @param name the name
+   * @param patchType the patch type
+   * @param patch the patch
+   * @param patchOptions the patch options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> patchAsync(
+      String namespace,
+      String name,
+      String patchType,
+      V1Patch patch,
+      final PatchOptions patchOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(),
+        apiTypeClass,
+        withPatchType(patchType, patchCall(namespace, name, patch, patchOptions)));
+  }
+
+  /**
+   * Asynchronously deletes the object, see {@link #delete(String)}.
+   *
+   * @param name the name
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> deleteAsync(String name) {
+    return deleteAsync(name, new DeleteOptions());
+  }
+
+  /**
+   * Asynchronously deletes the object under the namespace, see {@link #delete(String, String)}.
+   *
+   * @param namespace the namespace
+   * @param name the name
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> deleteAsync(
+      String namespace, String name) {
+    return deleteAsync(namespace, name, new DeleteOptions());
+  }
+
+  /**
+   * Asynchronously deletes the object, see {@link #delete(String, DeleteOptions)}.
+   *
+   * @param name the name
+   * @param deleteOptions the delete options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> deleteAsync(
+      String name, final DeleteOptions deleteOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiTypeClass, deleteCall(name, deleteOptions));
+  }
+
+  /**
+   * Asynchronously deletes the object under the namespace, see {@link #delete(String, String,
+   * DeleteOptions)}.
+   *
+   * @param namespace the namespace
+   * @param name the name
+   * @param deleteOptions the delete options
+   * @return the future of the kubernetes api response
+   */
+  public CompletableFuture<KubernetesApiResponse<ApiType>> deleteAsync(
+      String namespace, String name, final DeleteOptions deleteOptions) {
+    return executeCallAsync(
+        customObjectsApi.getApiClient(), apiTypeClass, deleteCall(namespace, name, deleteOptions));
+  }
+
+  private CallBuilder getCall(String name, final GetOptions getOptions) {
+    if (Strings.isNullOrEmpty(name)) {
+      throw new IllegalArgumentException("invalid namespace");
+    }
+    return () ->
+        customObjectsApi.getClusterCustomObjectCall(
+            this.apiGroup, this.apiVersion, this.resourcePlural, name, null);
+  }
+
+  private CallBuilder getCall(String namespace, String name, final GetOptions getOptions) {
+    if (Strings.isNullOrEmpty(name)) {
+      throw new IllegalArgumentException("invalid name");
+    }
+    if (Strings.isNullOrEmpty(namespace)) {
+      throw new IllegalArgumentException("invalid namespace");
+    }
+    return () -> {
+      return customObjectsApi.getNamespacedCustomObjectCall(
+          this.apiGroup, this.apiVersion, namespace, this.resourcePlural, name, null);
+    };
+  }
+
+  private CallBuilder listCall(final ListOptions listOptions) {
+    return () -> {
+      return customObjectsApi.listClusterCustomObjectCall(
+          this.apiGroup,
+          this.apiVersion,
+          this.resourcePlural,
+          null,
+          false,
+          listOptions.getContinue(),
+          listOptions.getFieldSelector(),
+          listOptions.getLabelSelector(),
+          listOptions.getLimit(),
+          listOptions.getResourceVersion(),
+          null,
+          listOptions.getTimeoutSeconds(),
+          false,
+          null);
+    };
+  }
+
+  private CallBuilder listCall(String namespace, final ListOptions listOptions) {
+    if (Strings.isNullOrEmpty(namespace)) {
+      throw new IllegalArgumentException("invalid namespace");
+    }
+    return () -> {
+      return customObjectsApi.listNamespacedCustomObjectCall(
+          this.apiGroup,
+          this.apiVersion,
+          namespace,
+          this.resourcePlural,
+          null,
+          null,
+          listOptions.getContinue(),
+          listOptions.getFieldSelector(),
+          listOptions.getLabelSelector(),
+          listOptions.getLimit(),
+          listOptions.getResourceVersion(),
+          null,
+          listOptions.getTimeoutSeconds(),
+          false,
+          null);
+    };
+  }
+
+  private CallBuilder createCall(ApiType object, final CreateOptions createOptions) {
+    V1ObjectMeta objectMeta = object.getMetadata();
+
+    boolean isNamespaced = !Strings.isNullOrEmpty(objectMeta.getNamespace());
+    if (isNamespaced) {
+      return createCall(objectMeta.getNamespace(), object, createOptions);
+    }
+
+    return () -> {
+      // TODO(yue9944882): judge namespaced object via api discovery
+      return customObjectsApi.createClusterCustomObjectCall(
+          this.apiGroup,
+          this.apiVersion,
+          this.resourcePlural,
+          object,
+          null,
+          createOptions.getDryRun(),
+          createOptions.getFieldManager(),
+          null);
+    };
+  }
+
+  private CallBuilder createCall(
+      String namespace, ApiType object, final CreateOptions createOptions) {
+    return () -> {
+      // TODO(yue9944882): judge namespaced object via api discovery
+      return customObjectsApi.createNamespacedCustomObjectCall(
+          this.apiGroup,
+          this.apiVersion,
+          namespace,
+          this.resourcePlural,
+          object,
+          null,
+          createOptions.getDryRun(),
+          createOptions.getFieldManager(),
+          null);
+    };
+  }
+
+  private CallBuilder updateCall(ApiType object, final UpdateOptions updateOptions) {
+    V1ObjectMeta objectMeta = object.getMetadata();
+    return () -> {
+      //// TODO(yue9944882): judge namespaced object via api discovery
+      boolean isNamespaced = !Strings.isNullOrEmpty(objectMeta.getNamespace());
+      if (isNamespaced) {
+        return customObjectsApi.replaceNamespacedCustomObjectCall(
+            this.apiGroup,
+            this.apiVersion,
+            objectMeta.getNamespace(),
+            this.resourcePlural,
+            objectMeta.getName(),
+            object,
+            updateOptions.getDryRun(),
+            updateOptions.getFieldManager(),
+            null);
+      } else {
+        return customObjectsApi.replaceClusterCustomObjectCall(
+            this.apiGroup,
+            this.apiVersion,
+            this.resourcePlural,
+            objectMeta.getName(),
+            object,
+            updateOptions.getDryRun(),
+            updateOptions.getFieldManager(),
+            null);
+      }
+    };
+  }
+
+  private CallBuilder updateStatusCall(
+      ApiType object, Function<ApiType, Object> status, final UpdateOptions updateOptions) {
+    V1ObjectMeta objectMeta = object.getMetadata();
+    return () -> {
+      //// TODO(yue9944882): judge namespaced object via api discovery
+      boolean isNamespaced = !Strings.isNullOrEmpty(objectMeta.getNamespace());
+      if (isNamespaced) {
+        return customObjectsApi.patchNamespacedCustomObjectStatusCall(
+            this.apiGroup,
+            this.apiVersion,
+            objectMeta.getNamespace(),
+            this.resourcePlural,
+            objectMeta.getName(),
+            Arrays.asList(new StatusPatch(status.apply(object))),
+            updateOptions.getDryRun(),
+            updateOptions.getFieldManager(),
+            null,
+            null);
+      } else {
+        return customObjectsApi.patchClusterCustomObjectStatusCall(
+            this.apiGroup,
+            this.apiVersion,
+            this.resourcePlural,
+            objectMeta.getName(),
+            Arrays.asList(new StatusPatch(status.apply(object))),
+            updateOptions.getDryRun(),
+            updateOptions.getFieldManager(),
+            null,
+            null);
+      }
+    };
+  }
+
+  private CallBuilder patchCall(String name, V1Patch patch, final PatchOptions patchOptions) {
+    if (Strings.isNullOrEmpty(name)) {
+      throw new IllegalArgumentException("invalid name");
+    }
+    return () ->
+        customObjectsApi.patchClusterCustomObjectCall(
+            this.apiGroup,
+            this.apiVersion,
+            this.resourcePlural,
+            name,
+            patch,
+            patchOptions.getDryRun(),
+            patchOptions.getFieldManager(),
+            patchOptions.getForce(),
+            null);
+  }
+
+  private CallBuilder patchCall(
+      String namespace, String name, V1Patch patch, final PatchOptions patchOptions) {
     if (Strings.isNullOrEmpty(namespace)) {
       throw new IllegalArgumentException("invalid namespace");
     }
     if (Strings.isNullOrEmpty(name)) {
       throw new IllegalArgumentException("invalid name");
     }
-    return executeCall(
-        customObjectsApi.getApiClient(),
-        apiTypeClass,
-        () -> {
-          return customObjectsApi.deleteNamespacedCustomObjectCall(
-              this.apiGroup,
-              this.apiVersion,
-              namespace,
-              this.resourcePlural,
-              name,
-              null,
-              null,
-              null,
-              null,
-              deleteOptions, // TODO: fill/convert the option
-              null);
-        });
+    return () ->
+        customObjectsApi.patchNamespacedCustomObjectCall(
+            this.apiGroup,
+            this.apiVersion,
+            namespace,
+            this.resourcePlural,
+            name,
+            patch,
+            patchOptions.getDryRun(),
+            patchOptions.getFieldManager(),
+            patchOptions.getForce(),
+            null);
+  }
+
+  private CallBuilder deleteCall(String name, final DeleteOptions deleteOptions) {
+    if (Strings.isNullOrEmpty(name)) {
+      throw new IllegalArgumentException("invalid name");
+    }
+    return () -> {
+      return customObjectsApi.deleteClusterCustomObjectCall(
+          this.apiGroup,
+          this.apiVersion,
+          this.resourcePlural,
+          name,
+          null,
+          null,
+          null,
+          null,
+          deleteOptions, // TODO: fill/convert the option
+          null);
+    };
+  }
+
+  private CallBuilder deleteCall(String namespace, String name, final DeleteOptions deleteOptions) {
+    if (Strings.isNullOrEmpty(namespace)) {
+      throw new IllegalArgumentException("invalid namespace");
+    }
+    if (Strings.isNullOrEmpty(name)) {
+      throw new IllegalArgumentException("invalid name");
+    }
+    return () -> {
+      return customObjectsApi.deleteNamespacedCustomObjectCall(
+          this.apiGroup,
+          this.apiVersion,
+          namespace,
+          this.resourcePlural,
+          name,
+          null,
+          null,
+          null,
+          null,
+          deleteOptions, // TODO: fill/convert the option
+          null);
+    };
+  }
+
+  private KubernetesApiResponse<ApiType> executePatch(String patchType, CallBuilder patchCall) {
+    try {
+      ApiType object =
+          PatchUtils.patch(
+              apiTypeClass,
+              () -> tweakCallForCoreV1Group(patchCall.build()),
+              patchType,
+              this.customObjectsApi.getApiClient());
+      return new KubernetesApiResponse<ApiType>(object);
+    } catch (ApiException e) {
+      V1Status status =
+          customObjectsApi
+              .getApiClient()
+              .getJSON()
+              .deserialize(e.getResponseBody(), V1Status.class);
+      return new KubernetesApiResponse<>(status, e.getCode());
+    }
+  }
+
+  // sends the patch with the content type of the patch type, like PatchUtils does
+  private CallBuilder withPatchType(String patchType, CallBuilder patchCall) {
+    return () -> {
+      Request request = patchCall.build().request();
+      return customObjectsApi
+          .getApiClient()
+          .getHttpClient()
+          .newCall(
+              request
+                  .newBuilder()
+                  .patch(new ProxyContentTypeRequestBody(request.body(), patchType))
+                  .build());
+    };
   }
 
   /**
@@ -716,18 +1058,19 @@ public class GenericKubernetesApi<
             this.apiVersion,
             this.resourcePlural,
             null,
-            null,
+            listOptions.getAllowWatchBookmarks(),
             listOptions.getContinue(),
             listOptions.getFieldSelector(),
             listOptions.getLabelSelector(),
             listOptions.getLimit(),
             listOptions.getResourceVersion(),
-            null,
+            listOptions.getResourceVersionMatch(),
             listOptions.getTimeoutSeconds(),
             true,
             null);
 
     call = tweakCallForCoreV1Group(call);
+    call = tweakCallForSendInitialEvents(call, listOptions.getSendInitialEvents());
     return Watch.createWatch(
         customObjectsApi.getApiClient(),
         call,
@@ -754,18 +1097,19 @@ public class GenericKubernetesApi<
             namespace,
             this.resourcePlural,
             null,
-            null,
+            listOptions.getAllowWatchBookmarks(),
             listOptions.getContinue(),
             listOptions.getFieldSelector(),
             listOptions.getLabelSelector(),
             listOptions.getLimit(),
             listOptions.getResourceVersion(),
-            null,
+            listOptions.getResourceVersionMatch(),
             listOptions.getTimeoutSeconds(),
             true,
             null);
 
     call = tweakCallForCoreV1Group(call);
+    call = tweakCallForSendInitialEvents(call, listOptions.getSendInitialEvents());
     return Watch.createWatch(
         customObjectsApi.getApiClient(),
         call,
@@ -797,25 +1141,91 @@ public class GenericKubernetesApi<
       JsonElement element = apiClient.<JsonElement>execute(call, JsonElement.class).getData();
       return getKubernetesApiResponse(dataClass, element, apiClient.getJSON().getGson());
     } catch (ApiException e) {
-      if (e.getCause() instanceof IOException) {
-        throw new IllegalStateException(e.getCause()); // make this a checked exception?
-      }
-      final V1Status status;
-      try {
-        status = apiClient.getJSON().deserialize(e.getResponseBody(), V1Status.class);
-      } catch (JsonSyntaxException jsonEx) {
-        // craft a status object
-        return new KubernetesApiResponse<>(
-            new V1Status().code(e.getCode()).message(e.getResponseBody()), e.getCode());
-      }
-      if (null == status) { // the response body can be something unexpected sometimes..
-        // this line should never reach?
-        throw new RuntimeException(e);
-      }
-      return new KubernetesApiResponse<>(status, e.getCode());
+      return getKubernetesApiResponse(apiClient, e);
     }
   }
 
+  private <DataType extends KubernetesType>
+      CompletableFuture<KubernetesApiResponse<DataType>> executeCallAsync(
+          ApiClient apiClient, Class<DataType> dataClass, CallBuilder callBuilder) {
+    CompletableFuture<KubernetesApiResponse<DataType>> future = new CompletableFuture<>();
+    Call call;
+    try {
+      call = tweakCallForCoreV1Group(callBuilder.build());
+    } catch (ApiException e) {
+      completeWithStatus(future, apiClient, e);
+      return future;
+    }
+    // cancelling the future cancels the request
+    future.whenComplete(
+        (response, t) -> {
+          if (future.isCancelled()) {
+            call.cancel();
+          }
+        });
+    apiClient.executeAsync(
+        call,
+        JsonElement.class,
+        new ApiCallback<JsonElement>() {
+          @Override
+          public void onFailure(
+              ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+            completeWithStatus(future, apiClient, e);
+          }
+
+          @Override
+          public void onSuccess(
+              JsonElement result, int statusCode, Map<String, List<String>> responseHeaders) {
+            try {
+              future.complete(
+                  getKubernetesApiResponse(dataClass, result, apiClient.getJSON().getGson()));
+            } catch (RuntimeException e) {
+              future.completeExceptionally(e);
+            }
+          }
+
+          @Override
+          public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {}
+
+          @Override
+          public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {}
+        });
+    return future;
+  }
+
+  // completes the future with the status of a failed request, the same way executeCall returns it
+  private static <DataType extends KubernetesType> void completeWithStatus(
+      CompletableFuture<KubernetesApiResponse<DataType>> future,
+      ApiClient apiClient,
+      ApiException e) {
+    try {
+      future.complete(getKubernetesApiResponse(apiClient, e));
+    } catch (RuntimeException ex) {
+      future.completeExceptionally(ex);
+    }
+  }
+
+  private static <DataType extends KubernetesType>
+      KubernetesApiResponse<DataType> getKubernetesApiResponse(
+          ApiClient apiClient, ApiException e) {
+    if (e.getCause() instanceof IOException) {
+      throw new IllegalStateException(e.getCause()); // make this a checked exception?
+    }
+    final V1Status status;
+    try {
+      status = apiClient.getJSON().deserialize(e.getResponseBody(), V1Status.class);
+    } catch (JsonSyntaxException jsonEx) {
+      // craft a status object
+      return new KubernetesApiResponse<>(
+          new V1Status().code(e.getCode()).message(e.getResponseBody()), e.getCode());
+    }
+    if (null == status) { // the response body can be something unexpected sometimes..
+      // this line should never reach?
+      throw new RuntimeException(e);
+    }
+    return new KubernetesApiResponse<>(status, e.getCode());
+  }
+
   // CallBuilder builds a call and throws ApiException otherwise.
   private interface CallBuilder {
     /**
@@ -849,6 +1259,24 @@ public class GenericKubernetesApi<
         .newCall(call.request().newBuilder().url(tweakedUrl).build());
   }
 
+  // the generated api predates the sendInitialEvents parameter of watches, it's appended to the url
+  private Call tweakCallForSendInitialEvents(Call call, Boolean sendInitialEvents) {
+    if (sendInitialEvents == null) {
+      return call;
+    }
+    HttpUrl tweakedUrl =
+        call.request()
+            .url()
+            .newBuilder()
+            .setQueryParameter("sendInitialEvents", sendInitialEvents.toString())
+            .build();
+
+    return this.customObjectsApi
+        .getApiClient()
+        .getHttpClient()
+        .newCall(call.request().newBuilder().url(tweakedUrl).build());
+  }
+
   public static class StatusPatch {
 
     private String op = "replace";
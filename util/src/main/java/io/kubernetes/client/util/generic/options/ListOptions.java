@@ -33,6 +33,15 @@ public class ListOptions {
   @SerializedName("continue")
   private String _continue;
 
+  @SerializedName("allowWatchBookmarks")
+  private Boolean allowWatchBookmarks;
+
+  @SerializedName("resourceVersionMatch")
+  private String resourceVersionMatch;
+
+  @SerializedName("sendInitialEvents")
+  private Boolean sendInitialEvents;
+
   public String getFieldSelector() {
     return fieldSelector;
   }
@@ -80,4 +89,28 @@ public class ListOptions {
   public void setTimeoutSeconds(Integer timeoutSeconds) {
     this.timeoutSeconds = timeoutSeconds;
   }
+
+  public Boolean getAllowWatchBookmarks() {
+    return allowWatchBookmarks;
+  }
+
+  public void setAllowWatchBookmarks(Boolean allowWatchBookmarks) {
+    this.allowWatchBookmarks = allowWatchBookmarks;
+  }
+
+  public String getResourceVersionMatch() {
+    return resourceVersionMatch;
+  }
+
+  public void setResourceVersionMatch(String resourceVersionMatch) {
+    this.resourceVersionMatch = resourceVersionMatch;
+  }
+
+  public Boolean getSendInitialEvents() {
+    return sendInitialEvents;
+  }
+
+  public void setSendInitialEvents(Boolean sendInitialEvents) {
+    this.sendInitialEvents = sendInitialEvents;
+  }
 }
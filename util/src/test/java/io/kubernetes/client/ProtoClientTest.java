@@ -0,0 +1,174 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.binaryEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.protobuf.Message;
+import io.kubernetes.client.ProtoClient.ListStream;
+import io.kubernetes.client.ProtoClient.ObjectOrStatus;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.Pair;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.Runtime;
+import io.kubernetes.client.proto.V1;
+import io.kubernetes.client.util.ClientBuilder;
+import java.io.IOException;
+import java.util.Collections;
+import okio.Buffer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ProtoClientTest {
+
+  private static final byte[] MAGIC = new byte[] {0x6b, 0x38, 0x73, 0x00};
+
+  private static final String PROTOBUF = "application/vnd.kubernetes.protobuf";
+
+  @Rule public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
+
+  private ProtoClient client;
+
+  @Before
+  public void setup() throws IOException {
+    client =
+        new ProtoClient(
+            new ClientBuilder().setBasePath("http://localhost:" + wireMockRule.port()).build());
+  }
+
+  private static V1.Pod pod(String name) {
+    return V1.Pod.newBuilder()
+        .setMetadata(Meta.ObjectMeta.newBuilder().setName(name).setNamespace("default"))
+        .setSpec(V1.PodSpec.newBuilder().addContainers(V1.Container.newBuilder().setName("c")))
+        .build();
+  }
+
+  private static byte[] encode(Message message, String apiVersion, String kind) {
+    Runtime.Unknown unknown =
+        Runtime.Unknown.newBuilder()
+            .setTypeMeta(Runtime.TypeMeta.newBuilder().setApiVersion(apiVersion).setKind(kind))
+            .setRaw(message.toByteString())
+            .build();
+    return new Buffer().write(MAGIC).write(unknown.toByteArray()).readByteArray();
+  }
+
+  @Test
+  public void testCreate() throws ApiException, IOException {
+    V1.Pod pod = pod("foo");
+    stubFor(
+        post(urlPathEqualTo("/api/v1/namespaces/default/pods"))
+            .willReturn(
+                aResponse()
+                    .withStatus(201)
+                    .withHeader("Content-Type", PROTOBUF)
+                    .withBody(encode(pod, "v1", "Pod"))));
+
+    ObjectOrStatus<V1.Pod> result =
+        client.create(pod, "/api/v1/namespaces/default/pods", "v1", "Pod");
+
+    assertEquals(pod, result.object);
+    assertNull(result.status);
+    // the request is encoded the same as the runtime.Unknown message would be
+    verify(
+        postRequestedFor(urlPathEqualTo("/api/v1/namespaces/default/pods"))
+            .withHeader("Content-Type", equalTo(PROTOBUF))
+            .withRequestBody(binaryEqualTo(encode(pod, "v1", "Pod"))));
+  }
+
+  @Test
+  public void testGetStatus() throws ApiException, IOException {
+    Meta.Status status = Meta.Status.newBuilder().setCode(404).setReason("NotFound").build();
+    stubFor(
+        get(urlPathEqualTo("/api/v1/namespaces/default/pods/foo"))
+            .willReturn(
+                aResponse()
+                    .withStatus(404)
+                    .withHeader("Content-Type", PROTOBUF)
+                    .withBody(encode(status, "v1", "Status"))));
+
+    ObjectOrStatus<V1.Pod> result =
+        client.get(V1.Pod.newBuilder(), "/api/v1/namespaces/default/pods/foo");
+
+    assertNull(result.object);
+    assertEquals(status, result.status);
+  }
+
+  @Test
+  public void testListStream() throws ApiException, IOException {
+    V1.PodList.Builder podList =
+        V1.PodList.newBuilder().setMetadata(Meta.ListMeta.newBuilder().setResourceVersion("42"));
+    for (int i = 0; i < 1000; i++) {
+      podList.addItems(pod("pod-" + i));
+    }
+    stubFor(
+        get(urlPathEqualTo("/api/v1/pods"))
+            .withQueryParam("limit", equalTo("1000"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", PROTOBUF)
+                    .withBody(encode(podList.build(), "v1", "PodList"))));
+
+    int count = 0;
+    try (ListStream<V1.Pod> items =
+        client.listStream(
+            V1.Pod.newBuilder(),
+            "/api/v1/pods",
+            Collections.singletonList(new Pair("limit", "1000")))) {
+      assertNull(items.getMetadata());
+      while (items.hasNext()) {
+        assertEquals(pod("pod-" + count), items.next());
+        count++;
+      }
+      assertEquals("42", items.getMetadata().getResourceVersion());
+      assertFalse(items.hasNext());
+    }
+    assertEquals(1000, count);
+  }
+
+  @Test
+  public void testListStreamStatus() throws IOException {
+    Meta.Status status =
+        Meta.Status.newBuilder().setCode(403).setReason("Forbidden").setMessage("no").build();
+    stubFor(
+        get(urlPathEqualTo("/api/v1/pods"))
+            .willReturn(
+                aResponse()
+                    .withStatus(403)
+                    .withHeader("Content-Type", PROTOBUF)
+                    .withBody(encode(status, "v1", "Status"))));
+    try {
+      client.listStream(V1.Pod.newBuilder(), "/api/v1/pods", Collections.emptyList());
+      fail("expected ApiException");
+    } catch (ApiException e) {
+      assertEquals(403, e.getCode());
+      assertTrue(e.getMessage().contains("Forbidden"));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.protobuf.ByteString;
+import io.kubernetes.client.custom.IntOrString;
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.proto.IntStr;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.Resource;
+import io.kubernetes.client.proto.Runtime.TypeMeta;
+import io.kubernetes.client.proto.V1;
+import java.time.OffsetDateTime;
+import org.junit.Test;
+
+public class ProtoConverterTest {
+
+  private final ProtoConverter converter = new ProtoConverter(new JSON());
+
+  @Test
+  public void testConvertPod() {
+    V1.Pod pod =
+        V1.Pod.newBuilder()
+            .setMetadata(
+                Meta.ObjectMeta.newBuilder()
+                    .setName("foo")
+                    .setNamespace("default")
+                    .setGeneration(3)
+                    .putLabels("app", "foo")
+                    .setCreationTimestamp(Meta.Time.newBuilder().setSeconds(1670228074))
+                    .addManagedFields(
+                        Meta.ManagedFieldsEntry.newBuilder()
+                            .setManager("kubectl")
+                            .setFieldsV1(
+                                Meta.FieldsV1.newBuilder()
+                                    .setRaw(ByteString.copyFromUtf8("{\"f:spec\":{}}")))))
+            .setSpec(
+                V1.PodSpec.newBuilder()
+                    .setNodeName("node-1")
+                    .addContainers(
+                        V1.Container.newBuilder()
+                            .setName("c")
+                            .addPorts(V1.ContainerPort.newBuilder().setContainerPort(8080))
+                            .setResources(
+                                V1.ResourceRequirements.newBuilder()
+                                    .putLimits(
+                                        "cpu",
+                                        Resource.Quantity.newBuilder().setString("500m").build()))
+                            .setLivenessProbe(
+                                V1.Probe.newBuilder()
+                                    .setPeriodSeconds(10)
+                                    .setHandler(
+                                        V1.ProbeHandler.newBuilder()
+                                            .setHttpGet(
+                                                V1.HTTPGetAction.newBuilder()
+                                                    .setPath("/healthz")
+                                                    .setPort(
+                                                        IntStr.IntOrString.newBuilder()
+                                                            .setType(1)
+                                                            .setStrVal("http")))))))
+            .build();
+
+    V1Pod model =
+        converter.convert(
+            pod, TypeMeta.newBuilder().setApiVersion("v1").setKind("Pod").build(), V1Pod.class);
+
+    assertEquals("v1", model.getApiVersion());
+    assertEquals("Pod", model.getKind());
+    assertEquals("foo", model.getMetadata().getName());
+    assertEquals(Long.valueOf(3), model.getMetadata().getGeneration());
+    assertEquals("foo", model.getMetadata().getLabels().get("app"));
+    assertEquals(
+        OffsetDateTime.parse("2022-12-05T08:14:34Z"), model.getMetadata().getCreationTimestamp());
+    assertEquals("kubectl", model.getMetadata().getManagedFields().get(0).getManager());
+    assertEquals("node-1", model.getSpec().getNodeName());
+    V1Container container = model.getSpec().getContainers().get(0);
+    assertEquals(Integer.valueOf(8080), container.getPorts().get(0).getContainerPort());
+    assertEquals(new Quantity("500m"), container.getResources().getLimits().get("cpu"));
+    assertEquals(Integer.valueOf(10), container.getLivenessProbe().getPeriodSeconds());
+    assertEquals("/healthz", container.getLivenessProbe().getHttpGet().getPath());
+    assertEquals(new IntOrString("http"), container.getLivenessProbe().getHttpGet().getPort());
+    // unset fields stay unset
+    assertNull(model.getStatus());
+    assertNull(container.getImage());
+  }
+
+  @Test
+  public void testDuration() {
+    assertEquals("0s", ProtoConverter.toDuration(0));
+    assertEquals("1.5s", ProtoConverter.toDuration(1_500_000_000L));
+    assertEquals("2m0s", ProtoConverter.toDuration(120_000_000_000L));
+    assertEquals("1h1m1s", ProtoConverter.toDuration(3_661_000_000_000L));
+    assertEquals("-30s", ProtoConverter.toDuration(-30_000_000_000L));
+  }
+}
@@ -0,0 +1,182 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import io.kubernetes.client.ProtoClient;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.Runtime;
+import io.kubernetes.client.proto.V1;
+import io.kubernetes.client.util.CallGeneratorParams;
+import io.kubernetes.client.util.ClientBuilder;
+import io.kubernetes.client.util.Watch;
+import io.kubernetes.client.util.Watchable;
+import java.io.IOException;
+import okio.Buffer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ProtoListerWatcherTest {
+
+  private static final byte[] MAGIC = new byte[] {0x6b, 0x38, 0x73, 0x00};
+
+  private static final String PROTOBUF = "application/vnd.kubernetes.protobuf";
+
+  @Rule public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
+
+  private ProtoListerWatcher<V1Pod, V1PodList> listerWatcher;
+
+  @Before
+  public void setup() throws IOException {
+    ApiClient client =
+        new ClientBuilder().setBasePath("http://localhost:" + wireMockRule.port()).build();
+    listerWatcher =
+        new ProtoListerWatcher<>(
+            new ProtoClient(client),
+            "/api/v1/namespaces/default/pods",
+            V1.PodList.getDefaultInstance(),
+            V1.Pod.getDefaultInstance(),
+            V1PodList.class,
+            V1Pod.class);
+  }
+
+  private static V1.Pod pod(String name, String resourceVersion) {
+    return V1.Pod.newBuilder()
+        .setMetadata(
+            Meta.ObjectMeta.newBuilder()
+                .setName(name)
+                .setNamespace("default")
+                .setResourceVersion(resourceVersion))
+        .build();
+  }
+
+  private static byte[] encode(Message message, String apiVersion, String kind) {
+    Runtime.Unknown unknown =
+        Runtime.Unknown.newBuilder()
+            .setTypeMeta(Runtime.TypeMeta.newBuilder().setApiVersion(apiVersion).setKind(kind))
+            .setRaw(message.toByteString())
+            .build();
+    return new Buffer().write(MAGIC).write(unknown.toByteArray()).readByteArray();
+  }
+
+  private static void writeFrame(Buffer stream, String type, byte[] object) {
+    byte[] event =
+        Meta.WatchEvent.newBuilder()
+            .setType(type)
+            .setObject(Runtime.RawExtension.newBuilder().setRaw(ByteString.copyFrom(object)))
+            .build()
+            .toByteArray();
+    stream.writeInt(event.length).write(event);
+  }
+
+  @Test
+  public void testList() throws ApiException {
+    V1.PodList podList =
+        V1.PodList.newBuilder()
+            .setMetadata(Meta.ListMeta.newBuilder().setResourceVersion("100").setContinue("next"))
+            .addItems(pod("foo", "99"))
+            .build();
+    stubFor(
+        get(urlPathEqualTo("/api/v1/namespaces/default/pods"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", PROTOBUF)
+                    .withBody(encode(podList, "v1", "PodList"))));
+
+    V1PodList list = listerWatcher.list(new CallGeneratorParams(false, "0", null, 500, null));
+
+    assertEquals("100", list.getMetadata().getResourceVersion());
+    assertEquals("next", list.getMetadata().getContinue());
+    assertEquals("foo", list.getItems().get(0).getMetadata().getName());
+    verify(
+        getRequestedFor(urlPathEqualTo("/api/v1/namespaces/default/pods"))
+            .withHeader("Accept", equalTo(PROTOBUF))
+            .withQueryParam("resourceVersion", equalTo("0"))
+            .withQueryParam("limit", equalTo("500"))
+            .withQueryParam("watch", absent()));
+  }
+
+  @Test
+  public void testWatch() throws ApiException, IOException {
+    Buffer stream = new Buffer();
+    writeFrame(stream, "ADDED", encode(pod("foo", "101"), "v1", "Pod"));
+    writeFrame(stream, "DELETED", encode(pod("bar", "102"), "v1", "Pod"));
+    Meta.Status status =
+        Meta.Status.newBuilder()
+            .setStatus("Failure")
+            .setReason("Expired")
+            .setMessage("too old resource version")
+            .setCode(410)
+            .build();
+    writeFrame(stream, "ERROR", encode(status, "v1", "Status"));
+    stubFor(
+        get(urlPathEqualTo("/api/v1/namespaces/default/pods"))
+            .withQueryParam("watch", equalTo("true"))
+            .willReturn(
+                aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", PROTOBUF + ";stream=watch")
+                    .withBody(stream.readByteArray())));
+
+    CallGeneratorParams params = new CallGeneratorParams(true, "100", 300);
+    params.allowWatchBookmarks = true;
+    try (Watchable<V1Pod> watch = listerWatcher.watch(params)) {
+      assertTrue(watch.hasNext());
+      Watch.Response<V1Pod> added = watch.next();
+      assertEquals("ADDED", added.type);
+      assertEquals("v1", added.object.getApiVersion());
+      assertEquals("Pod", added.object.getKind());
+      assertEquals("foo", added.object.getMetadata().getName());
+      assertEquals("101", added.object.getMetadata().getResourceVersion());
+
+      Watch.Response<V1Pod> deleted = watch.next();
+      assertEquals("DELETED", deleted.type);
+      assertEquals("bar", deleted.object.getMetadata().getName());
+
+      Watch.Response<V1Pod> error = watch.next();
+      assertEquals("ERROR", error.type);
+      assertNull(error.object);
+      assertEquals(Integer.valueOf(410), error.status.getCode());
+      assertEquals("Expired", error.status.getReason());
+      assertFalse(watch.hasNext());
+    }
+    verify(
+        getRequestedFor(urlPathEqualTo("/api/v1/namespaces/default/pods"))
+            .withHeader("Accept", equalTo(PROTOBUF))
+            .withQueryParam("resourceVersion", equalTo("100"))
+            .withQueryParam("timeoutSeconds", equalTo("300"))
+            .withQueryParam("allowWatchBookmarks", equalTo("true")));
+  }
+}
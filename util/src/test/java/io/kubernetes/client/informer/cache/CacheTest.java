@@ -18,11 +18,19 @@ import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1PodSpec;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -186,4 +194,168 @@ public class CacheTest {
     List<V1Pod> nodeNameIndexedPods = podCache.byIndex(nodeIndex, "node1");
     assertEquals(1, nodeNameIndexedPods.size());
   }
+
+  @Test
+  public void testReplaceOnlyTouchesChangedObjects() {
+    String nodeIndex = "node-index";
+    Cache<V1Pod> podCache = new Cache<>();
+    podCache.addIndexFunc(nodeIndex, (V1Pod pod) -> Arrays.asList(pod.getSpec().getNodeName()));
+
+    V1Pod unchangedPod = newPod("foo", "1", "node1");
+    V1Pod changedPod = newPod("bar", "1", "node1");
+    V1Pod removedPod = newPod("baz", "1", "node2");
+    podCache.replace(Arrays.asList(unchangedPod, changedPod, removedPod), "1");
+
+    V1Pod unchangedPodCopy = newPod("foo", "1", "node1");
+    V1Pod changedPodUpdate = newPod("bar", "2", "node3");
+    V1Pod addedPod = newPod("qux", "1", "node3");
+    podCache.replace(Arrays.asList(unchangedPodCopy, changedPodUpdate, addedPod), "2");
+
+    assertSame(unchangedPod, podCache.getByKey("ns/foo"));
+    assertSame(changedPodUpdate, podCache.getByKey("ns/bar"));
+    assertSame(addedPod, podCache.getByKey("ns/qux"));
+    assertNull(podCache.getByKey("ns/baz"));
+    assertEquals(3, podCache.list().size());
+    assertEquals(Arrays.asList("ns/foo"), podCache.indexKeys(nodeIndex, "node1"));
+    assertEquals(0, podCache.indexKeys(nodeIndex, "node2").size());
+    assertEquals(2, podCache.byIndex(nodeIndex, "node3").size());
+    assertEquals(3, podCache.byIndex(Caches.NAMESPACE_INDEX, "ns").size());
+  }
+
+  @Test
+  public void testReplaceIsAtomicForReaders() throws Exception {
+    Cache<V1Pod> podCache = new Cache<>();
+    List<V1Pod> oldPods = new ArrayList<>();
+    List<V1Pod> newPods = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      oldPods.add(newPod("pod" + i, "1", "node1"));
+      newPods.add(newPod("pod" + i, "2", "node1"));
+    }
+    podCache.replace(oldPods, "1");
+
+    AtomicBoolean mixed = new AtomicBoolean();
+    AtomicBoolean replaced = new AtomicBoolean();
+    Thread reader =
+        new Thread(
+            () -> {
+              while (!replaced.get()) {
+                Set<String> resourceVersions = new HashSet<>();
+                for (V1Pod pod : podCache.list()) {
+                  resourceVersions.add(pod.getMetadata().getResourceVersion());
+                }
+                if (resourceVersions.size() > 1) {
+                  mixed.set(true);
+                }
+              }
+            });
+    reader.start();
+    for (int i = 0; i < 20; i++) {
+      podCache.replace(i % 2 == 0 ? newPods : oldPods, String.valueOf(i));
+    }
+    replaced.set(true);
+    reader.join();
+
+    assertFalse("list() returned a partially replaced cache", mixed.get());
+    assertEquals(1000, podCache.list().size());
+  }
+
+  @Test
+  public void testReplaceBuildsOutsideTheLock() throws Exception {
+    String nodeIndex = "node-index";
+    CountDownLatch building = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Cache<V1Pod> podCache = new Cache<>();
+    podCache.addIndexFunc(
+        nodeIndex,
+        (V1Pod pod) -> {
+          if ("2".equals(pod.getMetadata().getResourceVersion())) {
+            building.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+          return Arrays.asList(pod.getSpec().getNodeName());
+        });
+    podCache.replace(Arrays.asList(newPod("foo", "1", "node1")), "1");
+
+    Thread replacer =
+        new Thread(() -> podCache.replace(Arrays.asList(newPod("foo", "2", "node2")), "2"));
+    replacer.start();
+    assertTrue(building.await(5, TimeUnit.SECONDS));
+
+    // readers and writers aren't held off while the replacement is built
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertEquals(
+          "1",
+          executor
+              .submit(() -> podCache.getByKey("ns/foo").getMetadata().getResourceVersion())
+              .get(5, TimeUnit.SECONDS));
+      executor.submit(() -> podCache.add(newPod("bar", "1", "node1"))).get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+    release.countDown();
+    replacer.join();
+
+    // the replacement is built again as the cache changed meanwhile
+    assertEquals(Arrays.asList("ns/foo"), podCache.listKeys());
+    assertEquals(Arrays.asList("ns/foo"), podCache.indexKeys(nodeIndex, "node2"));
+    assertEquals(0, podCache.indexKeys(nodeIndex, "node1").size());
+  }
+
+  @Test
+  public void testCompactIndexStorage() {
+    String nodeIndex = "node-index";
+    Cache<V1Pod> podCache = new Cache<>(Cache.IndexStorage.COMPACT);
+    podCache.addIndexFunc(nodeIndex, (V1Pod pod) -> Arrays.asList(pod.getSpec().getNodeName()));
+
+    podCache.replace(Arrays.asList(newPod("foo", "1", "node1"), newPod("bar", "1", "node1")), "1");
+    podCache.update(newPod("bar", "2", "node2"));
+    podCache.delete(newPod("foo", "1", "node1"));
+    V1Pod addedPod = newPod("baz", "1", "node2");
+    podCache.add(addedPod);
+
+    assertEquals(0, podCache.indexKeys(nodeIndex, "node1").size());
+    assertEquals(
+        new HashSet<>(Arrays.asList("ns/bar", "ns/baz")),
+        new HashSet<>(podCache.indexKeys(nodeIndex, "node2")));
+    assertEquals(2, podCache.byIndex(Caches.NAMESPACE_INDEX, "ns").size());
+    assertEquals(2, podCache.index(nodeIndex, newPod("qux", "1", "node2")).size());
+
+    Snapshot<V1Pod> snapshot = podCache.snapshot();
+    assertSame(snapshot, podCache.snapshot());
+    podCache.delete(addedPod);
+    assertEquals(2, snapshot.size());
+    assertSame(addedPod, snapshot.getByKey("ns/baz"));
+    int snapshotNode2Pods = 0;
+    for (V1Pod pod : snapshot.byIndex(nodeIndex, "node2")) {
+      snapshotNode2Pods++;
+    }
+    assertEquals(2, snapshotNode2Pods);
+    assertEquals(Arrays.asList("ns/bar"), podCache.indexKeys(nodeIndex, "node2"));
+  }
+
+  @Test
+  public void testIndexStats() {
+    for (Cache.IndexStorage indexStorage : Cache.IndexStorage.values()) {
+      Cache<V1Pod> podCache = new Cache<>(indexStorage);
+      for (int i = 0; i < 10; i++) {
+        podCache.add(newPod("pod" + i, "1", "node1"));
+      }
+
+      IndexStats stats = podCache.getIndexStats().get(Caches.NAMESPACE_INDEX);
+      assertEquals(1, stats.getValues());
+      assertEquals(10, stats.getPostings());
+      assertTrue(stats.getEstimatedBytes() > 0);
+    }
+  }
+
+  private static V1Pod newPod(String name, String resourceVersion, String nodeName) {
+    return new V1Pod()
+        .metadata(new V1ObjectMeta().namespace("ns").name(name).resourceVersion(resourceVersion))
+        .spec(new V1PodSpec().nodeName(nodeName));
+  }
 }
@@ -0,0 +1,96 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Test;
+
+public class CompactPostingsTest {
+
+  @Test
+  public void testAddRemove() {
+    CompactPostings postings = new CompactPostings();
+    assertTrue(postings.add(3));
+    assertFalse(postings.add(3));
+    assertTrue(postings.add(1 << 20));
+    assertTrue(postings.contains(3));
+    assertTrue(postings.contains(1 << 20));
+    assertFalse(postings.contains(4));
+    assertEquals(2, postings.size());
+
+    assertTrue(postings.remove(3));
+    assertFalse(postings.remove(3));
+    assertTrue(postings.remove(1 << 20));
+    assertTrue(postings.isEmpty());
+  }
+
+  @Test
+  public void testDenseContainerRoundTrip() {
+    CompactPostings postings = new CompactPostings();
+    for (int i = 0; i < 10000; i++) {
+      postings.add(i * 3);
+    }
+    long denseBytes = postings.estimatedBytes();
+    assertEquals(10000, postings.size());
+    assertTrue(postings.contains(29997));
+    assertFalse(postings.contains(29998));
+
+    for (int i = 100; i < 10000; i++) {
+      assertTrue(postings.remove(i * 3));
+    }
+    assertEquals(100, postings.size());
+    assertTrue(postings.estimatedBytes() < denseBytes);
+    assertEquals(range(0, 100, 3), toList(postings));
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(42);
+    CompactPostings postings = new CompactPostings();
+    TreeSet<Integer> expected = new TreeSet<>();
+    for (int i = 0; i < 200000; i++) {
+      // concentrate values into a few containers so that they flip between array and bitmap
+      int value = random.nextInt(3) << 16 | random.nextInt(12000);
+      if (random.nextInt(5) < 3) {
+        assertEquals(expected.add(value), postings.add(value));
+      } else {
+        assertEquals(expected.remove(value), postings.remove(value));
+      }
+    }
+    assertEquals(expected.size(), postings.size());
+    assertEquals(new ArrayList<>(expected), toList(postings));
+    assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), postings.toArray());
+  }
+
+  private static List<Integer> toList(CompactPostings postings) {
+    List<Integer> values = new ArrayList<>();
+    postings.forEach(values::add);
+    return values;
+  }
+
+  private static List<Integer> range(int from, int count, int step) {
+    List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      values.add(from + i * step);
+    }
+    return values;
+  }
+}
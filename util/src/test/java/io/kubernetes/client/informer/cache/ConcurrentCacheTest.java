@@ -0,0 +1,188 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodSpec;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+
+  private static final String NODE_INDEX = "node-index";
+
+  @Test
+  public void testCacheStore() {
+    ConcurrentCache<V1Pod> podCache = new ConcurrentCache<>();
+    V1Pod pod = newPod("ns", "foo", "node1");
+
+    podCache.add(pod);
+    assertEquals(pod, podCache.getByKey("ns/foo"));
+    assertEquals(pod, podCache.get(pod));
+    assertEquals(Arrays.asList("ns/foo"), podCache.listKeys());
+    assertEquals(1, podCache.byIndex(Caches.NAMESPACE_INDEX, "ns").size());
+
+    V1Pod movedPod = newPod("ns", "foo", "node2");
+    podCache.update(movedPod);
+    assertEquals(movedPod, podCache.getByKey("ns/foo"));
+    assertEquals(1, podCache.list().size());
+
+    podCache.delete(movedPod);
+    assertNull(podCache.getByKey("ns/foo"));
+    assertEquals(0, podCache.list().size());
+    assertEquals(0, podCache.byIndex(Caches.NAMESPACE_INDEX, "ns").size());
+    assertEquals(0, podCache.indexKeys(Caches.NAMESPACE_INDEX, "ns").size());
+  }
+
+  @Test
+  public void testCacheIndexUpdate() {
+    ConcurrentCache<V1Pod> podCache = newPodCacheWithNodeIndex();
+
+    podCache.add(newPod("ns", "foo", "node1"));
+    podCache.add(newPod("ns", "bar", "node1"));
+    assertEquals(2, podCache.byIndex(NODE_INDEX, "node1").size());
+
+    podCache.update(newPod("ns", "foo", "node2"));
+    assertEquals(Arrays.asList("ns/bar"), podCache.indexKeys(NODE_INDEX, "node1"));
+    assertEquals(Arrays.asList("ns/foo"), podCache.indexKeys(NODE_INDEX, "node2"));
+    assertEquals(1, podCache.index(NODE_INDEX, newPod("other", "baz", "node2")).size());
+  }
+
+  @Test
+  public void testCacheReplace() {
+    ConcurrentCache<V1Pod> podCache = newPodCacheWithNodeIndex();
+    podCache.add(newPod("ns", "foo", "node1"));
+
+    podCache.replace(
+        Arrays.asList(newPod("ns", "bar", "node2"), newPod("ns2", "baz", "node2")), "0");
+
+    assertNull(podCache.getByKey("ns/foo"));
+    assertEquals(0, podCache.byIndex(NODE_INDEX, "node1").size());
+    assertEquals(2, podCache.byIndex(NODE_INDEX, "node2").size());
+    assertEquals(1, podCache.byIndex(Caches.NAMESPACE_INDEX, "ns2").size());
+  }
+
+  @Test
+  public void testReplaceOnlyTouchesChangedObjects() {
+    ConcurrentCache<V1Pod> podCache = newPodCacheWithNodeIndex();
+    V1Pod unchangedPod = newPod("ns", "foo", "node1", "1");
+    V1Pod changedPod = newPod("ns", "bar", "node1", "1");
+    podCache.replace(Arrays.asList(unchangedPod, changedPod), "1");
+
+    V1Pod changedPodUpdate = newPod("ns", "bar", "node2", "2");
+    podCache.replace(Arrays.asList(newPod("ns", "foo", "node1", "1"), changedPodUpdate), "2");
+
+    assertSame(unchangedPod, podCache.getByKey("ns/foo"));
+    assertSame(changedPodUpdate, podCache.getByKey("ns/bar"));
+    assertEquals(Arrays.asList("ns/foo"), podCache.indexKeys(NODE_INDEX, "node1"));
+    assertEquals(Arrays.asList("ns/bar"), podCache.indexKeys(NODE_INDEX, "node2"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownIndex() {
+    new ConcurrentCache<V1Pod>().byIndex("unknown", "foo");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddIndexersToNonEmptyCache() {
+    ConcurrentCache<V1Pod> podCache = new ConcurrentCache<>();
+    podCache.add(newPod("ns", "foo", "node1"));
+    podCache.addIndexers(new HashMap<>());
+  }
+
+  @Test
+  public void testConcurrentReadsAndWrites() throws InterruptedException {
+    ConcurrentCache<V1Pod> podCache = newPodCacheWithNodeIndex();
+    int writers = 4;
+    int readers = 4;
+    int keysPerWriter = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+    CountDownLatch writersDone = new CountDownLatch(writers);
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicInteger inconsistentReads = new AtomicInteger();
+
+    for (int w = 0; w < writers; w++) {
+      String namespace = "ns" + w;
+      executor.submit(
+          () -> {
+            for (int round = 0; round < 20; round++) {
+              for (int i = 0; i < keysPerWriter; i++) {
+                podCache.update(newPod(namespace, "pod" + i, "node" + (round % 2)));
+              }
+            }
+            writersDone.countDown();
+          });
+    }
+    for (int r = 0; r < readers; r++) {
+      executor.submit(
+          () -> {
+            while (running.get()) {
+              for (V1Pod pod : podCache.byIndex(NODE_INDEX, "node0")) {
+                if (pod == null) {
+                  inconsistentReads.incrementAndGet();
+                }
+              }
+              podCache.list();
+            }
+          });
+    }
+
+    assertTrue(writersDone.await(30, TimeUnit.SECONDS));
+    running.set(false);
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(0, inconsistentReads.get());
+    assertEquals(writers * keysPerWriter, podCache.list().size());
+    // the last round places every pod onto node1
+    assertEquals(0, podCache.byIndex(NODE_INDEX, "node0").size());
+    assertEquals(writers * keysPerWriter, podCache.byIndex(NODE_INDEX, "node1").size());
+    assertEquals(keysPerWriter, podCache.byIndex(Caches.NAMESPACE_INDEX, "ns0").size());
+  }
+
+  private static ConcurrentCache<V1Pod> newPodCacheWithNodeIndex() {
+    ConcurrentCache<V1Pod> podCache = new ConcurrentCache<>();
+    Map<String, Function<V1Pod, List<String>>> indexers = new HashMap<>();
+    indexers.put(NODE_INDEX, (V1Pod pod) -> Arrays.asList(pod.getSpec().getNodeName()));
+    podCache.addIndexers(indexers);
+    return podCache;
+  }
+
+  private static V1Pod newPod(String namespace, String name, String nodeName) {
+    return newPod(namespace, name, nodeName, null);
+  }
+
+  private static V1Pod newPod(
+      String namespace, String name, String nodeName, String resourceVersion) {
+    return new V1Pod()
+        .metadata(
+            new V1ObjectMeta().namespace(namespace).name(name).resourceVersion(resourceVersion))
+        .spec(new V1PodSpec().nodeName(nodeName));
+  }
+}
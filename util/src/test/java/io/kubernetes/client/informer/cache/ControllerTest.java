@@ -100,6 +100,34 @@ public class ControllerTest {
     }
   }
 
+  @Test
+  public void testSettingsApplyToRunningReflector() {
+    V1PodList podList =
+        new V1PodList().metadata(new V1ListMeta().resourceVersion("1")).items(Arrays.asList());
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache());
+    Controller<V1Pod, V1PodList> controller =
+        new Controller<>(
+            V1Pod.class,
+            deltaFIFO,
+            new MockRunOnceListerWatcher<V1Pod, V1PodList>(podList),
+            (deltas) -> {});
+    Thread controllerThread = new Thread(controller::run);
+    controllerThread.setDaemon(true);
+    controllerThread.start();
+
+    try {
+      Awaitility.await()
+          .timeout(Duration.ofSeconds(5))
+          .until(() -> "1".equals(controller.lastSyncResourceVersion()));
+      controller.setListPageSize(50);
+      assertEquals(50, controller.reflector.getListPageSize());
+      controller.setWatchListEnabled(true);
+      assertTrue(controller.reflector.isWatchListEnabled());
+    } finally {
+      controller.stop();
+    }
+  }
+
   @Test
   public void testReflectorIsConstructedWithExeptionHandler() {
     Controller<V1Pod, V1PodList> controller =
@@ -18,10 +18,17 @@ import static org.mockito.Mockito.*;
 import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1Pod;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.junit.Test;
 
@@ -126,6 +133,37 @@ public class DeltaFIFOTest {
     assertEquals(1, deltas.size());
   }
 
+  @Test
+  public void testDeltaFIFOKeepsDeltasInOrder() throws InterruptedException {
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache());
+    List<V1Pod> versions = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      V1Pod pod =
+          new V1Pod()
+              .metadata(
+                  new V1ObjectMeta().name("foo1").namespace("default").resourceVersion("v" + i));
+      versions.add(pod);
+      if (i == 0) {
+        deltaFIFO.add(pod);
+      } else {
+        deltaFIFO.update(pod);
+      }
+    }
+    // squashed into the newest delta of the same resource version
+    deltaFIFO.update(versions.get(4));
+
+    Deque<MutablePair<DeltaFIFO.DeltaType, KubernetesObject>> deltas = deltaFIFO.pop(popped -> {});
+    assertEquals(5, deltas.size());
+    int i = 0;
+    for (MutablePair<DeltaFIFO.DeltaType, KubernetesObject> delta : deltas) {
+      assertEquals(
+          i == 0 ? DeltaFIFO.DeltaType.Added : DeltaFIFO.DeltaType.Updated, delta.getLeft());
+      assertSame(versions.get(i), delta.getRight());
+      i++;
+    }
+    assertTrue(deltaFIFO.list().isEmpty());
+  }
+
   @Test
   public void testDeltaFIFOResync() {
     V1Pod foo1 = new V1Pod().metadata(new V1ObjectMeta().name("foo1").namespace("default"));
@@ -168,4 +206,207 @@ public class DeltaFIFOTest {
           assertEquals(newPod, deltas.getFirst().getRight());
         });
   }
+
+  @Test
+  public void testPopBatchProcessesOutsideLock() throws Exception {
+    V1Pod foo1 = new V1Pod().metadata(new V1ObjectMeta().name("foo1").namespace("default"));
+    V1Pod foo2 = new V1Pod().metadata(new V1ObjectMeta().name("foo2").namespace("default"));
+    V1Pod foo3 = new V1Pod().metadata(new V1ObjectMeta().name("foo3").namespace("default"));
+    Cache cache = new Cache();
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, cache);
+    deltaFIFO.add(foo1);
+    deltaFIFO.add(foo2);
+    deltaFIFO.add(foo3);
+
+    List<KubernetesObject> processed = new ArrayList<>();
+    CountDownLatch processing = new CountDownLatch(1);
+    CountDownLatch producerDone = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<List<Deque<MutablePair<DeltaFIFO.DeltaType, KubernetesObject>>>> popped =
+        executor.submit(
+            () ->
+                deltaFIFO.popBatch(
+                    2,
+                    (deltas) -> {
+                      processing.countDown();
+                      try {
+                        // the producer must get through while the deltas are processed
+                        assertTrue(producerDone.await(5, TimeUnit.SECONDS));
+                      } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                      }
+                      processed.add(deltas.peekLast().getRight());
+                    }));
+
+    assertTrue(processing.await(5, TimeUnit.SECONDS));
+    deltaFIFO.update(foo1);
+    producerDone.countDown();
+
+    assertEquals(2, popped.get(5, TimeUnit.SECONDS).size());
+    executor.shutdown();
+    assertEquals(Arrays.asList(foo1, foo2), processed);
+    // the update of foo1 is queued behind foo3
+    assertEquals(Arrays.asList("default/foo3", "default/foo1"), popKeys(deltaFIFO, 2));
+  }
+
+  @Test
+  public void testPopBatchSkipsKeysInFlight() throws Exception {
+    V1Pod foo1 = new V1Pod().metadata(new V1ObjectMeta().name("foo1").namespace("default"));
+    V1Pod foo2 = new V1Pod().metadata(new V1ObjectMeta().name("foo2").namespace("default"));
+    Cache cache = new Cache();
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, cache);
+    deltaFIFO.add(foo1);
+
+    CountDownLatch processing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<?> first =
+        executor.submit(
+            () ->
+                deltaFIFO.popBatch(
+                    1,
+                    (deltas) -> {
+                      processing.countDown();
+                      try {
+                        release.await(5, TimeUnit.SECONDS);
+                      } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                      }
+                    }));
+    assertTrue(processing.await(5, TimeUnit.SECONDS));
+
+    // foo1 is in flight, so a second consumer gets foo2 first
+    deltaFIFO.update(foo1);
+    deltaFIFO.add(foo2);
+    assertEquals(Arrays.asList("default/foo2"), popKeys(deltaFIFO, 2));
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+    assertEquals(Arrays.asList("default/foo1"), popKeys(deltaFIFO, 2));
+  }
+
+  @Test
+  public void testReplaceDeletesObjectsInFlight() throws Exception {
+    V1Pod foo1 = new V1Pod().metadata(new V1ObjectMeta().name("foo1").namespace("default"));
+    V1Pod foo2 = new V1Pod().metadata(new V1ObjectMeta().name("foo2").namespace("default"));
+    Cache cache = new Cache();
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, cache);
+    deltaFIFO.replace(Arrays.asList(foo1), "0");
+
+    deltaFIFO.popBatch(
+        1,
+        (deltas) -> {
+          // foo1 isn't in the cache yet when the relist drops it
+          assertFalse(deltaFIFO.hasSynced());
+          deltaFIFO.replace(Arrays.asList(foo2), "1");
+          cache.add(deltas.peekLast().getRight());
+        });
+    assertTrue(deltaFIFO.hasSynced());
+
+    Deque<MutablePair<DeltaFIFO.DeltaType, KubernetesObject>> deltas =
+        deltaFIFO.getItems().get("default/foo1");
+    assertEquals(DeltaFIFO.DeltaType.Deleted, deltas.peekLast().getLeft());
+    assertEquals(Arrays.asList("default/foo2", "default/foo1"), popKeys(deltaFIFO, 2));
+  }
+
+  @Test
+  public void testReplaceSkipsDeletionsInFlight() throws Exception {
+    V1Pod foo1 = new V1Pod().metadata(new V1ObjectMeta().name("foo1").namespace("default"));
+    Cache cache = new Cache();
+    cache.add(foo1);
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, cache);
+    deltaFIFO.delete(foo1);
+
+    CountDownLatch processing = new CountDownLatch(1);
+    CountDownLatch replaced = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<?> popped =
+        executor.submit(
+            () ->
+                deltaFIFO.popBatch(
+                    1,
+                    (deltas) -> {
+                      processing.countDown();
+                      try {
+                        assertTrue(replaced.await(5, TimeUnit.SECONDS));
+                      } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                      }
+                      // foo1 is still known to the cache until its deletion is processed
+                      cache.delete(deltas.peekLast().getRight());
+                    }));
+    assertTrue(processing.await(5, TimeUnit.SECONDS));
+
+    // the relist races the deletion in flight
+    deltaFIFO.replace(Collections.emptyList(), "1");
+    replaced.countDown();
+    popped.get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    // no second deletion of foo1
+    assertNull(deltaFIFO.getItems().get("default/foo1"));
+    assertTrue(deltaFIFO.getItems().isEmpty());
+  }
+
+  @Test
+  public void testReplaceInPages() throws InterruptedException {
+    V1Pod foo1 = new V1Pod().metadata(new V1ObjectMeta().name("foo1").namespace("default"));
+    V1Pod foo2 = new V1Pod().metadata(new V1ObjectMeta().name("foo2").namespace("default"));
+    V1Pod stale = new V1Pod().metadata(new V1ObjectMeta().name("stale").namespace("default"));
+    Cache cache = new Cache();
+    cache.add(stale);
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, cache);
+
+    deltaFIFO.replacePage(Arrays.asList(foo1));
+    assertFalse(deltaFIFO.hasSynced());
+    // the first page is processed while the next one is listed
+    assertEquals(Arrays.asList("default/foo1"), popKeys(deltaFIFO, 1));
+    assertFalse(deltaFIFO.hasSynced());
+
+    deltaFIFO.replacePage(Arrays.asList(foo2));
+    deltaFIFO.finishReplace("1");
+    assertFalse(deltaFIFO.hasSynced());
+    assertEquals(
+        DeltaFIFO.DeltaType.Deleted, deltaFIFO.getByKey("default/stale").peekLast().getLeft());
+
+    assertEquals(Arrays.asList("default/foo2", "default/stale"), popKeys(deltaFIFO, 2));
+    assertTrue(deltaFIFO.hasSynced());
+  }
+
+  private static List<String> popKeys(DeltaFIFO deltaFIFO, int maxKeys)
+      throws InterruptedException {
+    List<String> keys = new ArrayList<>();
+    for (Deque<MutablePair<DeltaFIFO.DeltaType, KubernetesObject>> deltas :
+        deltaFIFO.popBatch(maxKeys, (deltas) -> {})) {
+      keys.add(Caches.deletionHandlingMetaNamespaceKeyFunc(deltas.peekLast().getRight()));
+    }
+    return keys;
+  }
+
+  @Test
+  public void testAwaitCapacity() throws Exception {
+    V1Pod foo1 = new V1Pod().metadata(new V1ObjectMeta().name("foo1").namespace("default"));
+    V1Pod foo2 = new V1Pod().metadata(new V1ObjectMeta().name("foo2").namespace("default"));
+    Cache cache = new Cache();
+    DeltaFIFO deltaFIFO = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, cache);
+    assertTrue(deltaFIFO.awaitCapacity(0, TimeUnit.SECONDS));
+
+    deltaFIFO.setCapacity(2);
+    deltaFIFO.add(foo1);
+    deltaFIFO.add(foo2);
+    assertEquals(2, deltaFIFO.getQueueDepth());
+    assertFalse(deltaFIFO.awaitCapacity(10, TimeUnit.MILLISECONDS));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<Boolean> waiting = executor.submit(() -> deltaFIFO.awaitCapacity(5, TimeUnit.SECONDS));
+    Thread.sleep(50);
+    assertFalse(waiting.isDone());
+    deltaFIFO.pop((deltas) -> {});
+    assertTrue(waiting.get(5, TimeUnit.SECONDS));
+    executor.shutdown();
+
+    assertEquals(1, deltaFIFO.getQueueDepth());
+    assertTrue(deltaFIFO.getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+  }
 }
@@ -0,0 +1,97 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class FifoMapTest {
+
+  @Test
+  public void testFifoOrder() {
+    FifoMap<Integer> map = new FifoMap<>();
+    map.put("a", 1);
+    map.put("b", 2);
+    map.put("c", 3);
+    // updating a key keeps its position
+    assertEquals(Integer.valueOf(1), map.put("a", 4));
+    assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(map.keySet()));
+
+    assertEquals("a", map.firstKey());
+    assertEquals(Integer.valueOf(4), map.remove("a"));
+    assertEquals(Integer.valueOf(3), map.remove("c"));
+    assertEquals("b", map.firstKey());
+    map.put("a", 5);
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<>(map.keySet()));
+
+    map.remove("b");
+    map.remove("a");
+    assertNull(map.firstKey());
+    assertFalse(map.containsKey("a"));
+  }
+
+  @Test
+  public void testIteratorRemove() {
+    FifoMap<Integer> map = new FifoMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, i);
+    }
+    Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().getValue() % 3 != 0) {
+        it.remove();
+      }
+    }
+    List<Integer> values = new ArrayList<>(map.values());
+    assertEquals(34, values.size());
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(Integer.valueOf(i * 3), values.get(i));
+    }
+  }
+
+  @Test
+  public void testRandomOperationsAgainstLinkedHashMap() {
+    Random random = new Random(7);
+    FifoMap<Integer> map = new FifoMap<>();
+    Map<String, Integer> expected = new LinkedHashMap<>();
+    for (int i = 0; i < 200000; i++) {
+      // the key space shifts over time so that the ring keeps wrapping around and compacting
+      String key = "key" + (i / 50 + random.nextInt(500));
+      int op = random.nextInt(10);
+      if (op < 5) {
+        assertEquals(expected.put(key, i), map.put(key, i));
+      } else if (op < 8) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else if (!expected.isEmpty()) {
+        String first = expected.keySet().iterator().next();
+        assertEquals(first, map.firstKey());
+        assertEquals(expected.remove(first), map.remove(first));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+    for (String key : expected.keySet()) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+
+  @Test
+  public void testPlusAndMinus() {
+    PersistentHashMap<String, String> empty = PersistentHashMap.empty();
+    PersistentHashMap<String, String> one = empty.plus("a", "1");
+    PersistentHashMap<String, String> two = one.plus("b", "2");
+
+    assertEquals(0, empty.size());
+    assertEquals(1, one.size());
+    assertEquals(2, two.size());
+    assertNull(one.get("b"));
+    assertEquals("2", two.get("b"));
+
+    assertSame(two, two.plus("a", "1"));
+    assertSame(two, two.minus("c"));
+    assertEquals(1, two.minus("a").size());
+    assertFalse(two.minus("a").containsKey("a"));
+    assertTrue(two.containsKey("a"));
+  }
+
+  @Test
+  public void testNullKeyAndValue() {
+    PersistentHashMap<String, String> map =
+        PersistentHashMap.<String, String>empty().plus(null, "n").plus("k", null);
+    assertEquals(2, map.size());
+    assertEquals("n", map.get(null));
+    assertTrue(map.containsKey("k"));
+    assertNull(map.get("k"));
+    assertEquals(1, map.minus(null).size());
+    assertFalse(map.minus(null).containsKey(null));
+  }
+
+  @Test
+  public void testHashCollisions() {
+    PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.empty();
+    for (int i = 0; i < 10; i++) {
+      map = map.plus(new CollidingKey(i), i);
+    }
+    assertEquals(10, map.size());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Integer.valueOf(i), map.get(new CollidingKey(i)));
+    }
+    map = map.minus(new CollidingKey(3));
+    assertEquals(9, map.size());
+    assertFalse(map.containsKey(new CollidingKey(3)));
+
+    int iterated = 0;
+    for (Map.Entry<CollidingKey, Integer> entry : map) {
+      assertEquals(entry.getKey().id, entry.getValue().intValue());
+      iterated++;
+    }
+    assertEquals(9, iterated);
+  }
+
+  @Test
+  public void testRandomOperationsMatchHashMap() {
+    Random random = new Random(42);
+    Map<String, Integer> expected = new HashMap<>();
+    PersistentHashMap<String, Integer> actual = PersistentHashMap.empty();
+    for (int i = 0; i < 50000; i++) {
+      String key = "key-" + random.nextInt(5000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        actual = actual.minus(key);
+      } else {
+        expected.put(key, i);
+        actual = actual.plus(key, i);
+      }
+    }
+    assertEquals(expected.size(), actual.size());
+    Map<String, Integer> iterated = new HashMap<>();
+    for (Map.Entry<String, Integer> entry : actual) {
+      iterated.put(entry.getKey(), entry.getValue());
+    }
+    assertEquals(expected, iterated);
+    int values = 0;
+    for (Integer value : actual.values()) {
+      values++;
+    }
+    assertEquals(expected.size(), values);
+  }
+
+  @Test
+  public void testDiff() {
+    PersistentHashMap<String, Integer> before = PersistentHashMap.empty();
+    for (int i = 0; i < 1000; i++) {
+      before = before.plus("key-" + i, i);
+    }
+    PersistentHashMap<String, Integer> after =
+        before.plus("key-1", 1001).minus("key-2").plus("key-1000", 1000).plus(null, -1);
+
+    Map<String, String> changes = new HashMap<>();
+    after.diff(
+        before,
+        new PersistentHashMap.DiffHandler<String, Integer>() {
+          @Override
+          public void onAdded(String key, Integer value) {
+            changes.put(key, "added");
+          }
+
+          @Override
+          public void onUpdated(String key, Integer oldValue, Integer newValue) {
+            changes.put(key, "updated");
+          }
+
+          @Override
+          public void onRemoved(String key, Integer oldValue) {
+            changes.put(key, "removed");
+          }
+        });
+
+    Map<String, String> expected = new HashMap<>();
+    expected.put("key-1", "updated");
+    expected.put("key-2", "removed");
+    expected.put("key-1000", "added");
+    expected.put(null, "added");
+    assertEquals(expected, changes);
+  }
+
+  private static class CollidingKey {
+    private final int id;
+
+    CollidingKey(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public int hashCode() {
+      return 7;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+    }
+  }
+}
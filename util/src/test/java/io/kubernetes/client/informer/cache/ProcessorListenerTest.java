@@ -13,11 +13,16 @@ limitations under the License.
 package io.kubernetes.client.informer.cache;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import io.kubernetes.client.informer.ResourceEventHandler;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1Pod;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import org.junit.Test;
 
@@ -112,4 +117,113 @@ public class ProcessorListenerTest {
 
     assertEquals(count[0], 2000);
   }
+
+  @Test
+  public void testCoalescingNotifications() throws InterruptedException {
+    V1Pod foo1 = newPod("foo", "1");
+    V1Pod foo2 = newPod("foo", "2");
+    V1Pod foo3 = newPod("foo", "3");
+    V1Pod bar1 = newPod("bar", "1");
+    V1Pod bar2 = newPod("bar", "2");
+    V1Pod bar3 = newPod("bar", "3");
+
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch cLatch = new CountDownLatch(2);
+    ProcessorListener<V1Pod> listener =
+        new ProcessorListener<>(
+            new ResourceEventHandler<V1Pod>() {
+              @Override
+              public void onAdd(V1Pod obj) {
+                received.add("add " + obj.getMetadata().getResourceVersion());
+                cLatch.countDown();
+              }
+
+              @Override
+              public void onUpdate(V1Pod oldObj, V1Pod newObj) {
+                assertSame(bar1, oldObj);
+                received.add("update " + newObj.getMetadata().getResourceVersion());
+                cLatch.countDown();
+              }
+
+              @Override
+              public void onDelete(V1Pod obj, boolean deletedFinalStateUnknown) {}
+            },
+            0,
+            true);
+
+    listener.add(new ProcessorListener.AddNotification<>(foo1));
+    listener.add(new ProcessorListener.UpdateNotification<>(bar1, bar2));
+    listener.add(new ProcessorListener.UpdateNotification<>(foo1, foo2));
+    listener.add(new ProcessorListener.UpdateNotification<>(bar2, bar3));
+    listener.add(new ProcessorListener.UpdateNotification<>(foo2, foo3));
+    assertEquals(3, listener.getCoalescedCount());
+
+    Thread listenerThread = new Thread(listener);
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+
+    cLatch.await();
+    listenerThread.interrupt();
+
+    assertEquals(2, received.size());
+    assertEquals("add 3", received.get(0));
+    assertEquals("update 3", received.get(1));
+  }
+
+  @Test
+  public void testCoalescingKeepsAddBeforeDelete() throws InterruptedException {
+    V1Pod foo1 = newPod("foo", "1");
+    V1Pod foo2 = newPod("foo", "2");
+    V1Pod bar1 = newPod("bar", "1");
+    V1Pod bar2 = newPod("bar", "2");
+
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch cLatch = new CountDownLatch(3);
+    ProcessorListener<V1Pod> listener =
+        new ProcessorListener<>(
+            new ResourceEventHandler<V1Pod>() {
+              @Override
+              public void onAdd(V1Pod obj) {
+                received.add("add " + obj.getMetadata().getName());
+                cLatch.countDown();
+              }
+
+              @Override
+              public void onUpdate(V1Pod oldObj, V1Pod newObj) {
+                received.add("update " + newObj.getMetadata().getName());
+                cLatch.countDown();
+              }
+
+              @Override
+              public void onDelete(V1Pod obj, boolean deletedFinalStateUnknown) {
+                received.add("delete " + obj.getMetadata().getName());
+                cLatch.countDown();
+              }
+            },
+            0,
+            true);
+
+    // an addition followed by a deletion is delivered as is
+    listener.add(new ProcessorListener.AddNotification<>(foo1));
+    listener.add(new ProcessorListener.DeleteNotification<>(foo2));
+    // an update followed by a deletion becomes the deletion
+    listener.add(new ProcessorListener.UpdateNotification<>(bar1, bar2));
+    listener.add(new ProcessorListener.DeleteNotification<>(bar2));
+    assertEquals(1, listener.getCoalescedCount());
+
+    Thread listenerThread = new Thread(listener);
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+
+    cLatch.await();
+    listenerThread.interrupt();
+
+    assertEquals(Arrays.asList("add foo", "delete foo", "delete bar"), received);
+  }
+
+  private static V1Pod newPod(String name, String resourceVersion) {
+    return new V1Pod()
+        .metadata(
+            new V1ObjectMeta().namespace("default").name(name).resourceVersion(resourceVersion));
+  }
 }
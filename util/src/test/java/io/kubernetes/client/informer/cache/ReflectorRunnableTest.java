@@ -12,8 +12,10 @@ limitations under the License.
 */
 package io.kubernetes.client.informer.cache;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
@@ -27,6 +29,7 @@ import io.kubernetes.client.informer.EventType;
 import io.kubernetes.client.informer.ListerWatcher;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.models.V1ListMeta;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1PodList;
 import io.kubernetes.client.openapi.models.V1Status;
@@ -35,6 +38,9 @@ import io.kubernetes.client.util.Watch;
 import io.kubernetes.client.util.Watchable;
 import java.net.HttpURLConnection;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
@@ -121,6 +127,324 @@ public class ReflectorRunnableTest {
     }
   }
 
+  @Test
+  public void testReflectorStopsReadingWatchWhenStoreIsFull() throws InterruptedException {
+    DeltaFIFO store = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache<>());
+    store.setCapacity(2);
+    Watchable<V1Pod> watch =
+        new MockWatch<V1Pod>(
+            new Watch.Response<V1Pod>(EventType.ADDED.name(), newPod("foo1", "1")),
+            new Watch.Response<V1Pod>(EventType.ADDED.name(), newPod("foo2", "2")),
+            new Watch.Response<V1Pod>(EventType.ADDED.name(), newPod("foo3", "3")));
+    ReflectorRunnable<V1Pod, V1PodList> reflectorRunnable =
+        new ReflectorRunnable<>(
+            V1Pod.class,
+            new ListerWatcher<V1Pod, V1PodList>() {
+              @Override
+              public V1PodList list(CallGeneratorParams params) throws ApiException {
+                return new V1PodList().metadata(new V1ListMeta().resourceVersion("0"));
+              }
+
+              @Override
+              public Watchable<V1Pod> watch(CallGeneratorParams params) throws ApiException {
+                return watch;
+              }
+            },
+            store);
+    try {
+      Thread thread = new Thread(reflectorRunnable::run);
+      thread.setDaemon(true);
+      thread.start();
+      Awaitility.await()
+          .atMost(Duration.ofSeconds(1))
+          .pollInterval(Duration.ofMillis(10))
+          .until(() -> "2".equals(reflectorRunnable.getLastSyncResourceVersion()));
+      Thread.sleep(200);
+      // the third event stays in the watch until the store is drained
+      assertEquals("2", reflectorRunnable.getLastSyncResourceVersion());
+      assertEquals(2, store.getQueueDepth());
+
+      store.pop((deltas) -> {});
+      Awaitility.await()
+          .atMost(Duration.ofSeconds(1))
+          .pollInterval(Duration.ofMillis(10))
+          .until(() -> "3".equals(reflectorRunnable.getLastSyncResourceVersion()));
+      assertEquals(2, store.getQueueDepth());
+      assertTrue(store.getBlockedNanos() > 0);
+    } finally {
+      reflectorRunnable.stop();
+    }
+  }
+
+  @Test
+  public void testReflectorListsInPages() {
+    Cache<V1Pod> cache = new Cache<>();
+    cache.add(newPod("stale", "1"));
+    DeltaFIFO store = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, cache);
+    List<CallGeneratorParams> listParams = new ArrayList<>();
+    ReflectorRunnable<V1Pod, V1PodList> reflectorRunnable =
+        new ReflectorRunnable<>(
+            V1Pod.class,
+            new ListerWatcher<V1Pod, V1PodList>() {
+              @Override
+              public V1PodList list(CallGeneratorParams params) throws ApiException {
+                listParams.add(params);
+                if (params.continueToken == null) {
+                  return new V1PodList()
+                      .metadata(new V1ListMeta().resourceVersion("10")._continue("next"))
+                      .items(Arrays.asList(newPod("foo1", "2"), newPod("foo2", "3")));
+                }
+                return new V1PodList()
+                    .metadata(new V1ListMeta().resourceVersion("10"))
+                    .items(Arrays.asList(newPod("foo3", "4")));
+              }
+
+              @Override
+              public Watchable<V1Pod> watch(CallGeneratorParams params) throws ApiException {
+                // ends the run
+                throw new ApiException(HttpURLConnection.HTTP_INTERNAL_ERROR, "stop");
+              }
+            },
+            store,
+            (apiType, t) -> {});
+    reflectorRunnable.setListPageSize(2);
+    reflectorRunnable.run();
+
+    assertEquals(2, listParams.size());
+    assertEquals(Integer.valueOf(2), listParams.get(0).limit);
+    assertEquals("0", listParams.get(0).resourceVersion);
+    assertEquals("next", listParams.get(1).continueToken);
+    assertNull(listParams.get(1).resourceVersion);
+    assertEquals("10", reflectorRunnable.getLastSyncResourceVersion());
+    assertEquals(
+        Arrays.asList("default/foo1", "default/foo2", "default/foo3", "default/stale"),
+        store.listKeys());
+    assertEquals(DeltaFIFO.DeltaType.Deleted, store.getByKey("default/stale").peekLast().getLeft());
+  }
+
+  @Test
+  public void testReflectorFallsBackToFullListWhenContinueExpires() {
+    DeltaFIFO store = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache<>());
+    List<CallGeneratorParams> listParams = new ArrayList<>();
+    ReflectorRunnable<V1Pod, V1PodList> reflectorRunnable =
+        new ReflectorRunnable<>(
+            V1Pod.class,
+            new ListerWatcher<V1Pod, V1PodList>() {
+              @Override
+              public V1PodList list(CallGeneratorParams params) throws ApiException {
+                listParams.add(params);
+                if (params.continueToken != null) {
+                  throw new ApiException(HttpURLConnection.HTTP_GONE, "continue expired");
+                }
+                if (params.limit != null) {
+                  return new V1PodList()
+                      .metadata(new V1ListMeta().resourceVersion("10")._continue("next"))
+                      .items(Arrays.asList(newPod("foo1", "2")));
+                }
+                return new V1PodList()
+                    .metadata(new V1ListMeta().resourceVersion("11"))
+                    .items(Arrays.asList(newPod("foo2", "3")));
+              }
+
+              @Override
+              public Watchable<V1Pod> watch(CallGeneratorParams params) throws ApiException {
+                throw new ApiException(HttpURLConnection.HTTP_INTERNAL_ERROR, "stop");
+              }
+            },
+            store,
+            (apiType, t) -> {});
+    reflectorRunnable.setListPageSize(1);
+    reflectorRunnable.run();
+
+    assertEquals(3, listParams.size());
+    assertNull(listParams.get(2).limit);
+    assertEquals("11", reflectorRunnable.getLastSyncResourceVersion());
+    // the page received before the full list is deleted again
+    assertEquals(DeltaFIFO.DeltaType.Deleted, store.getByKey("default/foo1").peekLast().getLeft());
+    assertEquals(DeltaFIFO.DeltaType.Sync, store.getByKey("default/foo2").peekLast().getLeft());
+  }
+
+  @Test
+  public void testReflectorResumesWatchFromBookmark() {
+    DeltaFIFO store = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache<>());
+    List<CallGeneratorParams> watchParams = new ArrayList<>();
+    ReflectorRunnable<V1Pod, V1PodList> reflectorRunnable =
+        new ReflectorRunnable<>(
+            V1Pod.class,
+            new ListerWatcher<V1Pod, V1PodList>() {
+              @Override
+              public V1PodList list(CallGeneratorParams params) throws ApiException {
+                return new V1PodList().metadata(new V1ListMeta().resourceVersion("1"));
+              }
+
+              @Override
+              public Watchable<V1Pod> watch(CallGeneratorParams params) throws ApiException {
+                watchParams.add(params);
+                if (watchParams.size() == 1) {
+                  // the watch times out after a bookmark
+                  return new MockWatch<V1Pod>(
+                      new Watch.Response<V1Pod>(
+                          EventType.BOOKMARK.name(),
+                          new V1Pod().metadata(new V1ObjectMeta().resourceVersion("5"))));
+                }
+                if (watchParams.size() == 2) {
+                  // resumed from the bookmark, times out after an event
+                  return new MockWatch<V1Pod>(
+                      new Watch.Response<V1Pod>(EventType.ADDED.name(), newPod("foo1", "6")));
+                }
+                // resuming from an event doesn't count
+                return new MockWatch<V1Pod>(
+                    new Watch.Response<V1Pod>(
+                        EventType.ERROR.name(), new V1Status().code(HttpURLConnection.HTTP_GONE)));
+              }
+            },
+            store,
+            (apiType, t) -> {});
+    reflectorRunnable.run();
+
+    assertEquals(3, watchParams.size());
+    assertEquals(Boolean.TRUE, watchParams.get(0).allowWatchBookmarks);
+    assertEquals("1", watchParams.get(0).resourceVersion);
+    assertEquals("5", watchParams.get(1).resourceVersion);
+    assertEquals("6", watchParams.get(2).resourceVersion);
+    assertEquals(1, reflectorRunnable.getBookmarkCount());
+    assertEquals(1, reflectorRunnable.getResumedWatchCount());
+  }
+
+  @Test
+  public void testReflectorDoesNotCountExpiredBookmarkResume() {
+    DeltaFIFO store = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache<>());
+    List<CallGeneratorParams> watchParams = new ArrayList<>();
+    ReflectorRunnable<V1Pod, V1PodList> reflectorRunnable =
+        new ReflectorRunnable<>(
+            V1Pod.class,
+            new ListerWatcher<V1Pod, V1PodList>() {
+              @Override
+              public V1PodList list(CallGeneratorParams params) throws ApiException {
+                return new V1PodList().metadata(new V1ListMeta().resourceVersion("1"));
+              }
+
+              @Override
+              public Watchable<V1Pod> watch(CallGeneratorParams params) throws ApiException {
+                watchParams.add(params);
+                if (watchParams.size() == 1) {
+                  return new MockWatch<V1Pod>(
+                      new Watch.Response<V1Pod>(
+                          EventType.BOOKMARK.name(),
+                          new V1Pod().metadata(new V1ObjectMeta().resourceVersion("5"))));
+                }
+                // the resource version of the bookmark is too old already
+                return new MockWatch<V1Pod>(
+                    new Watch.Response<V1Pod>(
+                        EventType.ERROR.name(), new V1Status().code(HttpURLConnection.HTTP_GONE)));
+              }
+            },
+            store,
+            (apiType, t) -> {});
+    reflectorRunnable.run();
+
+    assertEquals(2, watchParams.size());
+    assertEquals("5", watchParams.get(1).resourceVersion);
+    assertEquals(1, reflectorRunnable.getBookmarkCount());
+    assertEquals(0, reflectorRunnable.getResumedWatchCount());
+    assertTrue(reflectorRunnable.isLastSyncResourceVersionUnavailable());
+  }
+
+  @Test
+  public void testReflectorStreamsInitialEvents() throws InterruptedException {
+    DeltaFIFO store = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache<>());
+    List<CallGeneratorParams> watchParams = new ArrayList<>();
+    ReflectorRunnable<V1Pod, V1PodList> reflectorRunnable =
+        new ReflectorRunnable<>(
+            V1Pod.class,
+            new ListerWatcher<V1Pod, V1PodList>() {
+              @Override
+              public V1PodList list(CallGeneratorParams params) throws ApiException {
+                throw new AssertionError("no list expected");
+              }
+
+              @Override
+              public Watchable<V1Pod> watch(CallGeneratorParams params) throws ApiException {
+                watchParams.add(params);
+                if (watchParams.size() == 1) {
+                  return new MockWatch<V1Pod>(
+                      new Watch.Response<V1Pod>(EventType.ADDED.name(), newPod("foo1", "2")),
+                      new Watch.Response<V1Pod>(EventType.ADDED.name(), newPod("foo2", "3")),
+                      new Watch.Response<V1Pod>(
+                          EventType.BOOKMARK.name(),
+                          new V1Pod()
+                              .metadata(
+                                  new V1ObjectMeta()
+                                      .resourceVersion("7")
+                                      .putAnnotationsItem("k8s.io/initial-events-end", "true"))),
+                      new Watch.Response<V1Pod>(EventType.ADDED.name(), newPod("foo3", "8")));
+                }
+                throw new ApiException(HttpURLConnection.HTTP_INTERNAL_ERROR, "stop");
+              }
+            },
+            store,
+            (apiType, t) -> {});
+    reflectorRunnable.setWatchListEnabled(true);
+    reflectorRunnable.run();
+
+    assertEquals(2, watchParams.size());
+    assertEquals(Boolean.TRUE, watchParams.get(0).sendInitialEvents);
+    assertEquals("NotOlderThan", watchParams.get(0).resourceVersionMatch);
+    assertEquals("", watchParams.get(0).resourceVersion);
+    // the watch streaming the initial events goes on after the bookmark
+    assertNull(watchParams.get(1).sendInitialEvents);
+    assertEquals("8", watchParams.get(1).resourceVersion);
+    assertEquals(DeltaFIFO.DeltaType.Sync, store.getByKey("default/foo1").peekLast().getLeft());
+    assertEquals(DeltaFIFO.DeltaType.Added, store.getByKey("default/foo3").peekLast().getLeft());
+    // the bookmark ending the initial events is counted too
+    assertEquals(1, reflectorRunnable.getBookmarkCount());
+    assertFalse(store.hasSynced());
+    store.pop((deltas) -> {});
+    store.pop((deltas) -> {});
+    assertTrue(store.hasSynced());
+  }
+
+  @Test
+  public void testReflectorFallsBackToListWithoutWatchList() {
+    DeltaFIFO store = new DeltaFIFO(Caches::deletionHandlingMetaNamespaceKeyFunc, new Cache<>());
+    List<CallGeneratorParams> listParams = new ArrayList<>();
+    ReflectorRunnable<V1Pod, V1PodList> reflectorRunnable =
+        new ReflectorRunnable<>(
+            V1Pod.class,
+            new ListerWatcher<V1Pod, V1PodList>() {
+              @Override
+              public V1PodList list(CallGeneratorParams params) throws ApiException {
+                listParams.add(params);
+                return new V1PodList()
+                    .metadata(new V1ListMeta().resourceVersion("10"))
+                    .items(Arrays.asList(newPod("foo1", "2")));
+              }
+
+              @Override
+              public Watchable<V1Pod> watch(CallGeneratorParams params) throws ApiException {
+                if (Boolean.TRUE.equals(params.sendInitialEvents)) {
+                  throw new ApiException(422, "sendInitialEvents is forbidden");
+                }
+                throw new ApiException(HttpURLConnection.HTTP_INTERNAL_ERROR, "stop");
+              }
+            },
+            store,
+            (apiType, t) -> {});
+    reflectorRunnable.setWatchListEnabled(true);
+    reflectorRunnable.run();
+
+    assertEquals(1, listParams.size());
+    assertFalse(reflectorRunnable.isWatchListEnabled());
+    assertEquals("10", reflectorRunnable.getLastSyncResourceVersion());
+    assertEquals(Arrays.asList("default/foo1"), store.listKeys());
+  }
+
+  private static V1Pod newPod(String name, String resourceVersion) {
+    return new V1Pod()
+        .metadata(
+            new V1ObjectMeta().namespace("default").name(name).resourceVersion(resourceVersion));
+  }
+
   @Test
   public void testReflectorRunnableCaptureListRuntimeException() throws ApiException {
     RuntimeException expectedException = new RuntimeException("noxu");
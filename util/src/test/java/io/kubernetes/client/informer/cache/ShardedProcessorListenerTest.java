@@ -0,0 +1,288 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ShardedProcessorListenerTest {
+
+  @Test
+  public void testOrderPreservedPerObject() throws InterruptedException {
+    int pods = 50;
+    int updates = 20;
+    Map<String, List<String>> received = new ConcurrentHashMap<>();
+    CountDownLatch latch = new CountDownLatch(pods * updates);
+    ShardedProcessorListener<V1Pod> listener =
+        new ShardedProcessorListener<>(
+            new NoopHandler() {
+              @Override
+              public void onUpdate(V1Pod oldObj, V1Pod newObj) {
+                received
+                    .computeIfAbsent(
+                        newObj.getMetadata().getName(),
+                        name -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(newObj.getMetadata().getResourceVersion());
+                latch.countDown();
+              }
+            },
+            0,
+            4,
+            8,
+            ShardedProcessorListener.OverflowPolicy.BLOCK);
+    Thread listenerThread = startListener(listener);
+
+    for (int rv = 0; rv < updates; rv++) {
+      for (int i = 0; i < pods; i++) {
+        listener.add(new ProcessorListener.UpdateNotification<>(null, newPod("pod" + i, "" + rv)));
+      }
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    listenerThread.interrupt();
+
+    for (int i = 0; i < pods; i++) {
+      List<String> resourceVersions = received.get("pod" + i);
+      assertEquals(updates, resourceVersions.size());
+      for (int rv = 0; rv < updates; rv++) {
+        assertEquals("" + rv, resourceVersions.get(rv));
+      }
+    }
+  }
+
+  @Test
+  public void testSlowObjectDoesNotBlockOthers() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch othersDone = new CountDownLatch(10);
+    ShardedProcessorListener<V1Pod> listener =
+        new ShardedProcessorListener<>(
+            new NoopHandler() {
+              @Override
+              public void onAdd(V1Pod obj) {
+                if (obj.getMetadata().getName().equals("slow")) {
+                  try {
+                    release.await(10, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                } else {
+                  othersDone.countDown();
+                }
+              }
+            },
+            0,
+            16,
+            16,
+            ShardedProcessorListener.OverflowPolicy.BLOCK);
+    Thread listenerThread = startListener(listener);
+
+    listener.add(new ProcessorListener.AddNotification<>(newPod("slow", "1")));
+    for (int i = 0; i < 10; i++) {
+      // objects sharing the shard of the slow one wait for it, the others don't
+      V1Pod pod = newPod("pod" + i, "1");
+      if (shardOf(listener, pod) != shardOf(listener, newPod("slow", "1"))) {
+        listener.add(new ProcessorListener.AddNotification<>(pod));
+      } else {
+        othersDone.countDown();
+      }
+    }
+    assertTrue(othersDone.await(5, TimeUnit.SECONDS));
+    release.countDown();
+    listenerThread.interrupt();
+  }
+
+  @Test
+  public void testDropAndResync() throws InterruptedException {
+    CountDownLatch handling = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ShardedProcessorListener<V1Pod> listener =
+        new ShardedProcessorListener<>(
+            blockingHandler(handling, release),
+            0,
+            1,
+            1,
+            ShardedProcessorListener.OverflowPolicy.DROP_AND_RESYNC);
+    Thread listenerThread = startListener(listener);
+    OffsetDateTime now = OffsetDateTime.now();
+
+    listener.add(new ProcessorListener.AddNotification<>(newPod("foo1", "1")));
+    assertTrue(handling.await(5, TimeUnit.SECONDS));
+    listener.add(new ProcessorListener.AddNotification<>(newPod("foo2", "1")));
+    assertFalse(listener.shouldResync(now));
+    listener.add(new ProcessorListener.AddNotification<>(newPod("foo3", "1")));
+
+    assertEquals(1, listener.getDroppedCount());
+    assertEquals(1, listener.getQueuedCount());
+    assertTrue(listener.shouldResync(now));
+    listener.determineNextResync(now);
+    assertFalse(listener.shouldResync(now));
+
+    release.countDown();
+    listenerThread.interrupt();
+  }
+
+  @Test
+  public void testDropAndResyncKeepsDeletions() throws Exception {
+    CountDownLatch handling = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch deleted = new CountDownLatch(1);
+    ShardedProcessorListener<V1Pod> listener =
+        new ShardedProcessorListener<>(
+            new NoopHandler() {
+              @Override
+              public void onAdd(V1Pod obj) {
+                handling.countDown();
+                try {
+                  release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+
+              @Override
+              public void onDelete(V1Pod obj, boolean deletedFinalStateUnknown) {
+                deleted.countDown();
+              }
+            },
+            0,
+            1,
+            1,
+            ShardedProcessorListener.OverflowPolicy.DROP_AND_RESYNC);
+    Thread listenerThread = startListener(listener);
+
+    listener.add(new ProcessorListener.AddNotification<>(newPod("foo1", "1")));
+    assertTrue(handling.await(5, TimeUnit.SECONDS));
+    listener.add(new ProcessorListener.AddNotification<>(newPod("foo2", "1")));
+
+    // the shard is full, the deletion waits for room instead of being dropped
+    Thread deleter =
+        new Thread(
+            () -> listener.add(new ProcessorListener.DeleteNotification<>(newPod("foo3", "1"))));
+    deleter.start();
+    assertFalse(deleted.await(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(deleted.await(5, TimeUnit.SECONDS));
+    deleter.join(5000);
+    assertEquals(0, listener.getDroppedCount());
+    listenerThread.interrupt();
+  }
+
+  @Test
+  public void testCoalesce() throws InterruptedException {
+    CountDownLatch handling = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<V1Pod[]> updates = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch updated = new CountDownLatch(1);
+    ShardedProcessorListener<V1Pod> listener =
+        new ShardedProcessorListener<>(
+            new NoopHandler() {
+              @Override
+              public void onAdd(V1Pod obj) {
+                handling.countDown();
+                try {
+                  release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }
+
+              @Override
+              public void onUpdate(V1Pod oldObj, V1Pod newObj) {
+                updates.add(new V1Pod[] {oldObj, newObj});
+                updated.countDown();
+              }
+            },
+            0,
+            1,
+            1,
+            ShardedProcessorListener.OverflowPolicy.COALESCE);
+    Thread listenerThread = startListener(listener);
+
+    V1Pod foo1 = newPod("foo", "1");
+    V1Pod foo2 = newPod("foo", "2");
+    V1Pod foo3 = newPod("foo", "3");
+    V1Pod foo4 = newPod("foo", "4");
+    listener.add(new ProcessorListener.AddNotification<>(foo1));
+    assertTrue(handling.await(5, TimeUnit.SECONDS));
+    listener.add(new ProcessorListener.UpdateNotification<>(foo1, foo2));
+    listener.add(new ProcessorListener.UpdateNotification<>(foo2, foo3));
+    listener.add(new ProcessorListener.UpdateNotification<>(foo3, foo4));
+    assertEquals(2, listener.getCoalescedCount());
+
+    release.countDown();
+    assertTrue(updated.await(5, TimeUnit.SECONDS));
+    listenerThread.interrupt();
+    assertEquals(1, updates.size());
+    assertSame(foo1, updates.get(0)[0]);
+    assertSame(foo4, updates.get(0)[1]);
+  }
+
+  private static int shardOf(ShardedProcessorListener<V1Pod> listener, V1Pod pod) {
+    int h = Caches.deletionHandlingMetaNamespaceKeyFunc(pod).hashCode();
+    h ^= h >>> 16;
+    return (h & Integer.MAX_VALUE) % 16;
+  }
+
+  private static Thread startListener(ProcessorListener<V1Pod> listener) {
+    Thread listenerThread = new Thread(listener::run);
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+    return listenerThread;
+  }
+
+  private static ResourceEventHandler<V1Pod> blockingHandler(
+      CountDownLatch handling, CountDownLatch release) {
+    return new NoopHandler() {
+      @Override
+      public void onAdd(V1Pod obj) {
+        handling.countDown();
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+  }
+
+  private static V1Pod newPod(String name, String resourceVersion) {
+    return new V1Pod()
+        .metadata(
+            new V1ObjectMeta().namespace("default").name(name).resourceVersion(resourceVersion));
+  }
+
+  private static class NoopHandler implements ResourceEventHandler<V1Pod> {
+    @Override
+    public void onAdd(V1Pod obj) {}
+
+    @Override
+    public void onUpdate(V1Pod oldObj, V1Pod newObj) {}
+
+    @Override
+    public void onDelete(V1Pod obj, boolean deletedFinalStateUnknown) {}
+  }
+}
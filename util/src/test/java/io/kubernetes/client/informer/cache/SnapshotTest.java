@@ -0,0 +1,145 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.informer.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SnapshotTest {
+
+  @Test
+  public void testCacheSnapshotIsImmutable() {
+    Cache<V1Pod> podCache = new Cache<>();
+    V1Pod foo = newPod("ns1", "foo");
+    podCache.add(foo);
+
+    Snapshot<V1Pod> snapshot = podCache.snapshot();
+    podCache.add(newPod("ns1", "bar"));
+    podCache.delete(foo);
+
+    assertEquals(1, snapshot.size());
+    assertSame(foo, snapshot.getByKey("ns1/foo"));
+    assertNull(snapshot.getByKey("ns1/bar"));
+    assertEquals(1, count(snapshot.byIndex(Caches.NAMESPACE_INDEX, "ns1")));
+    assertEquals(0, count(snapshot.byIndex(Caches.NAMESPACE_INDEX, "ns2")));
+
+    Snapshot<V1Pod> latest = podCache.snapshot();
+    assertNotEquals(snapshot.getVersion(), latest.getVersion());
+    assertEquals(1, latest.size());
+    assertNull(latest.getByKey("ns1/foo"));
+    assertEquals(latest.getVersion(), podCache.snapshot().getVersion());
+  }
+
+  @Test
+  public void testSnapshotDiff() {
+    Cache<V1Pod> podCache = new Cache<>();
+    V1Pod foo = newPod("ns1", "foo");
+    V1Pod bar = newPod("ns1", "bar");
+    podCache.add(foo);
+    podCache.add(bar);
+    Snapshot<V1Pod> before = podCache.snapshot();
+
+    podCache.update(newPod("ns1", "foo"));
+    podCache.delete(bar);
+    podCache.add(newPod("ns2", "baz"));
+    Snapshot<V1Pod> after = podCache.snapshot();
+
+    List<String> changes = new ArrayList<>();
+    after.diff(
+        before,
+        new ResourceEventHandler<V1Pod>() {
+          @Override
+          public void onAdd(V1Pod obj) {
+            changes.add("add " + obj.getMetadata().getName());
+          }
+
+          @Override
+          public void onUpdate(V1Pod oldObj, V1Pod newObj) {
+            changes.add("update " + newObj.getMetadata().getName());
+          }
+
+          @Override
+          public void onDelete(V1Pod obj, boolean deletedFinalStateUnknown) {
+            changes.add("delete " + obj.getMetadata().getName());
+          }
+        });
+    changes.sort(String::compareTo);
+
+    List<String> expected = new ArrayList<>();
+    expected.add("add baz");
+    expected.add("delete bar");
+    expected.add("update foo");
+    assertEquals(expected, changes);
+  }
+
+  @Test
+  public void testConcurrentCacheSnapshot() {
+    ConcurrentCache<V1Pod> podCache = new ConcurrentCache<>();
+    podCache.add(newPod("ns1", "foo"));
+
+    Snapshot<V1Pod> snapshot = podCache.snapshot();
+    assertSame(snapshot, podCache.snapshot());
+
+    podCache.add(newPod("ns1", "bar"));
+    assertEquals(1, snapshot.size());
+    assertEquals(2, count(podCache.snapshot().byIndex(Caches.NAMESPACE_INDEX, "ns1")));
+  }
+
+  @Test
+  public void testCopyOfIndexer() {
+    Cache<V1Pod> podCache = new Cache<>();
+    V1Pod foo = newPod("ns1", "foo");
+    podCache.add(foo);
+    podCache.add(newPod("ns2", "bar"));
+
+    // the fallback of indexers without snapshots of their own
+    Snapshot<V1Pod> copy = Snapshot.copyOf(podCache);
+    podCache.delete(foo);
+
+    assertEquals(2, copy.size());
+    assertSame(foo, copy.getByKey("ns1/foo"));
+    assertEquals(1, count(copy.byIndex(Caches.NAMESPACE_INDEX, "ns1")));
+    assertEquals(1, count(copy.indexKeys(Caches.NAMESPACE_INDEX, "ns2")));
+    assertNotEquals(copy.getVersion(), Snapshot.copyOf(podCache).getVersion());
+  }
+
+  @Test
+  public void testListerSnapshot() {
+    Cache<V1Pod> podCache = new Cache<>();
+    podCache.add(newPod("ns1", "foo"));
+    Lister<V1Pod> lister = new Lister<>(podCache).namespace("ns1");
+
+    assertEquals(1, lister.snapshot().size());
+  }
+
+  private static int count(Iterable<?> iterable) {
+    int count = 0;
+    for (Object ignored : iterable) {
+      count++;
+    }
+    return count;
+  }
+
+  private static V1Pod newPod(String namespace, String name) {
+    return new V1Pod().metadata(new V1ObjectMeta().namespace(namespace).name(name));
+  }
+}
@@ -12,11 +12,24 @@ limitations under the License.
 */
 package io.kubernetes.client.informer.impl;
 
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.informer.ListerWatcher;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.cache.Cache;
+import io.kubernetes.client.informer.cache.ConcurrentCache;
 import io.kubernetes.client.informer.cache.DeltaFIFO;
 import io.kubernetes.client.informer.cache.Indexer;
+import io.kubernetes.client.informer.cache.MockRunOnceListerWatcher;
+import io.kubernetes.client.openapi.models.V1ListMeta;
 import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.util.Threads;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.BiConsumer;
 import org.junit.Rule;
 import org.junit.Test;
@@ -55,4 +68,75 @@ public class DefaultSharedIndexInformerTest {
 
     new DefaultSharedIndexInformer<>(anyApiType, listerWatcher, anyResyncPeriod);
   }
+
+  @Test
+  public void testConcurrentCacheConstructorExists() {
+
+    new DefaultSharedIndexInformer<>(
+        anyApiType, listerWatcher, anyResyncPeriod, new ConcurrentCache<>(), exceptionHandler);
+  }
+
+  @Test
+  public void testVirtualThreadsConstructorExists() {
+
+    new DefaultSharedIndexInformer<>(
+        anyApiType,
+        listerWatcher,
+        anyResyncPeriod,
+        deltaFIFOMock,
+        indexerMock,
+        exceptionHandler,
+        true);
+  }
+
+  @Test
+  public void testVirtualThreadsFootprint() throws InterruptedException {
+    assumeTrue(Threads.isVirtualThreadSupported());
+
+    int informerCount = 100;
+    int platformThreadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+    List<DefaultSharedIndexInformer<V1Pod, V1PodList>> informers = new ArrayList<>();
+    for (int i = 0; i < informerCount; i++) {
+      Cache<KubernetesObject> cache = new Cache<>();
+      DefaultSharedIndexInformer<V1Pod, V1PodList> informer =
+          new DefaultSharedIndexInformer<>(
+              anyApiType,
+              new MockRunOnceListerWatcher<>(
+                  new V1PodList().metadata(new V1ListMeta().resourceVersion("0"))),
+              anyResyncPeriod,
+              new DeltaFIFO(cache.getKeyFunc(), cache),
+              (Indexer) cache,
+              null,
+              true);
+      informer.addEventHandler(
+          new ResourceEventHandler<V1Pod>() {
+            @Override
+            public void onAdd(V1Pod obj) {}
+
+            @Override
+            public void onUpdate(V1Pod oldObj, V1Pod newObj) {}
+
+            @Override
+            public void onDelete(V1Pod obj, boolean deletedFinalStateUnknown) {}
+          });
+      informer.run();
+      informers.add(informer);
+    }
+    try {
+      for (DefaultSharedIndexInformer<V1Pod, V1PodList> informer : informers) {
+        while (!informer.hasSynced()) {
+          Thread.sleep(10);
+        }
+      }
+      // with platform threads, every informer would hold at least its controller, reflector,
+      // resync and handler threads
+      int platformThreads =
+          ManagementFactory.getThreadMXBean().getThreadCount() - platformThreadsBefore;
+      assertTrue(
+          "informers hold " + platformThreads + " platform threads",
+          platformThreads < informerCount);
+    } finally {
+      informers.forEach(DefaultSharedIndexInformer::stop);
+    }
+  }
 }
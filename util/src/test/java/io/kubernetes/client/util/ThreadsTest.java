@@ -0,0 +1,47 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.ThreadFactory;
+import org.junit.Test;
+
+public class ThreadsTest {
+
+  @Test
+  public void testThreadFactory() {
+    ThreadFactory threadFactory = Threads.threadFactory("foo-%d", false);
+    Thread first = threadFactory.newThread(() -> {});
+    Thread second = threadFactory.newThread(() -> {});
+
+    assertEquals("foo-1", first.getName());
+    assertEquals("foo-2", second.getName());
+    assertFalse(Threads.isVirtual(first));
+  }
+
+  @Test
+  public void testVirtualThreadFactory() throws InterruptedException {
+    ThreadFactory threadFactory = Threads.threadFactory("foo-%d", true);
+    boolean[] ran = {false};
+    Thread thread = threadFactory.newThread(() -> ran[0] = true);
+    thread.start();
+    thread.join();
+
+    assertEquals("foo-1", thread.getName());
+    // falls back to platform threads before JDK 21
+    assertEquals(Threads.isVirtualThreadSupported(), Threads.isVirtual(thread));
+    assertEquals(true, ran[0]);
+  }
+}
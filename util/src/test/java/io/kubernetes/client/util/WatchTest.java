@@ -13,12 +13,18 @@ limitations under the License.
 package io.kubernetes.client.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import io.kubernetes.client.openapi.JSON;
 import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Pod;
 import java.io.IOException;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
 import org.junit.Test;
 
 /** Tests for the Watch helper class */
@@ -49,4 +55,85 @@ public class WatchTest {
     Watch.Response<V1ConfigMap> response = watch.parseLine(data);
     assertEquals(null, response.object);
   }
+
+  @Test
+  public void testDecodeEventsFromSource() {
+    String body =
+        "{\"type\":\"ADDED\",\"object\":{\"metadata\":{\"name\":\"foo\","
+            + "\"resourceVersion\":\"1\"},\"kind\":\"Pod\",\"apiVersion\":\"v1\","
+            + "\"spec\":{\"nodeName\":\"node-1\",\"containers\":[{\"name\":\"c\"}]}}}\n"
+            + "{\"object\":{\"kind\":\"Pod\",\"apiVersion\":\"v1\",\"metadata\":{\"name\":\"b\u00e4r\"}},"
+            + "\"type\":\"MODIFIED\"}\r\n"
+            + "{\"object\":{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"code\":500},"
+            + "\"type\":\"ERROR\"}\n"
+            + "{\"type\":\"ERROR\",\"object\":{\"kind\":\"Status\",\"apiVersion\":\"v1\","
+            + "\"reason\":\"Gone\",\"code\":410}}\n"
+            // the kind of the object tells a Status, not the type of the event
+            + "{\"type\":\"ERROR\",\"object\":{\"metadata\":{\"name\":\"\ud83d\ude00\"},"
+            + "\"kind\":\"Pod\",\"apiVersion\":\"v1\"}}\n"
+            + "{\"type\":\"MODIFIED\",\"object\":{\"apiVersion\":\"v1\",\"code\":500,"
+            + "\"kind\":\"Status\"}}";
+    Watch<V1Pod> watch =
+        new Watch<V1Pod>(
+            new JSON(),
+            ResponseBody.create(MediaType.parse("application/json"), body),
+            new TypeToken<Watch.Response<V1Pod>>() {}.getType(),
+            null);
+
+    assertTrue(watch.hasNext());
+    Watch.Response<V1Pod> added = watch.next();
+    assertEquals("ADDED", added.type);
+    assertEquals("foo", added.object.getMetadata().getName());
+    assertEquals("node-1", added.object.getSpec().getNodeName());
+    assertNull(added.status);
+
+    Watch.Response<V1Pod> modified = watch.next();
+    assertEquals("MODIFIED", modified.type);
+    assertEquals("b\u00e4r", modified.object.getMetadata().getName());
+
+    // the object is buffered when the type comes after it
+    Watch.Response<V1Pod> bufferedError = watch.next();
+    assertEquals("ERROR", bufferedError.type);
+    assertNull(bufferedError.object);
+    assertEquals(Integer.valueOf(500), bufferedError.status.getCode());
+
+    Watch.Response<V1Pod> error = watch.next();
+    assertEquals("ERROR", error.type);
+    assertNull(error.object);
+    assertEquals("Gone", error.status.getReason());
+    assertEquals(Integer.valueOf(410), error.status.getCode());
+
+    Watch.Response<V1Pod> podError = watch.next();
+    assertEquals("ERROR", podError.type);
+    assertNull(podError.status);
+    assertEquals("\ud83d\ude00", podError.object.getMetadata().getName());
+
+    Watch.Response<V1Pod> modifiedStatus = watch.next();
+    assertEquals("MODIFIED", modifiedStatus.type);
+    assertNull(modifiedStatus.object);
+    assertEquals(Integer.valueOf(500), modifiedStatus.status.getCode());
+    assertFalse(watch.hasNext());
+  }
+
+  @Test
+  public void testDecodeSupplementaryCharacterAcrossReads() {
+    String prefix = "{\"type\":\"ADDED\",\"object\":{\"metadata\":{\"name\":\"";
+    StringBuilder name = new StringBuilder();
+    // the emoji straddles the first read of the json reader, 1024 chars
+    for (int i = prefix.length(); i < 1023; i++) {
+      name.append('a');
+    }
+    name.append("\ud83d\ude00b");
+    Watch<V1Pod> watch =
+        new Watch<V1Pod>(
+            new JSON(),
+            ResponseBody.create(
+                MediaType.parse("application/json"),
+                prefix + name + "\"},\"kind\":\"Pod\",\"apiVersion\":\"v1\"}}"),
+            new TypeToken<Watch.Response<V1Pod>>() {}.getType(),
+            null);
+
+    assertEquals(name.toString(), watch.next().object.getMetadata().getName());
+    assertFalse(watch.hasNext());
+  }
 }
@@ -0,0 +1,176 @@
+/*
+Copyright 2022 The Kubernetes Authors.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+http://www.apache.org/licenses/LICENSE-2.0
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package io.kubernetes.client.util.generic;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.Assert.*;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import io.kubernetes.client.custom.V1Patch;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1Job;
+import io.kubernetes.client.openapi.models.V1JobList;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Status;
+import io.kubernetes.client.openapi.models.V1StatusDetails;
+import io.kubernetes.client.util.ClientBuilder;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import okhttp3.Dispatcher;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class BulkExecutorTest {
+
+  @Rule public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
+
+  private JSON json = new JSON();
+  private ApiClient apiClient;
+  private GenericKubernetesApi<V1Job, V1JobList> jobClient;
+
+  @Before
+  public void setup() {
+    apiClient = new ClientBuilder().setBasePath("http://localhost:" + wireMockRule.port()).build();
+    jobClient =
+        new GenericKubernetesApi<>(V1Job.class, V1JobList.class, "batch", "v1", "jobs", apiClient);
+  }
+
+  @Test
+  public void leavesDispatcherLimitsAsIs() {
+    Dispatcher dispatcher = apiClient.getHttpClient().dispatcher();
+    int maxRequests = dispatcher.getMaxRequests();
+    int maxRequestsPerHost = dispatcher.getMaxRequestsPerHost();
+
+    new BulkExecutor<>(jobClient, 128);
+
+    assertEquals(maxRequests, dispatcher.getMaxRequests());
+    assertEquals(maxRequestsPerHost, dispatcher.getMaxRequestsPerHost());
+  }
+
+  @Test
+  public void patchManyJobs() throws InterruptedException {
+    stubFor(
+        patch(urlPathMatching("/apis/batch/v1/namespaces/default/jobs/.*"))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(job("foo")))));
+
+    BulkExecutor<V1Job, V1JobList> executor = new BulkExecutor<>(jobClient, 8);
+    BulkExecutor.Result<V1Job> result =
+        executor.execute(
+            IntStream.range(0, 50)
+                .mapToObj(
+                    i ->
+                        BulkExecutor.Operation.patch(
+                            "default",
+                            "job-" + i,
+                            V1Patch.PATCH_FORMAT_JSON_MERGE_PATCH,
+                            new V1Patch("{\"metadata\":{\"labels\":{\"foo\":\"bar\"}}}"))));
+
+    assertEquals(50, result.getItems().size());
+    assertEquals(50, result.getSucceeded());
+    assertEquals(0, result.getFailed());
+    assertEquals(0, result.getRetries());
+    assertTrue(result.getThroughput() > 0);
+    assertEquals(
+        IntStream.range(0, 50).mapToObj(i -> "patch default/job-" + i).collect(Collectors.toList()),
+        result.getItems().stream()
+            .map(item -> item.getOperation().toString())
+            .collect(Collectors.toList()));
+    verify(50, patchRequestedFor(urlPathMatching("/apis/batch/v1/namespaces/default/jobs/.*")));
+  }
+
+  @Test
+  public void retryThrottledOperation() throws InterruptedException {
+    V1Status throttled =
+        new V1Status()
+            .kind("Status")
+            .code(429)
+            .reason("TooManyRequests")
+            .details(new V1StatusDetails().retryAfterSeconds(0));
+    stubFor(
+        post(urlEqualTo("/apis/batch/v1/namespaces/default/jobs"))
+            .inScenario("throttled")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(429).withBody(json.serialize(throttled)))
+            .willSetStateTo("accepted"));
+    stubFor(
+        post(urlEqualTo("/apis/batch/v1/namespaces/default/jobs"))
+            .inScenario("throttled")
+            .whenScenarioStateIs("accepted")
+            .willReturn(aResponse().withStatus(201).withBody(json.serialize(job("foo")))));
+
+    BulkExecutor<V1Job, V1JobList> executor =
+        new BulkExecutor<>(jobClient, 4, 3, Duration.ofMillis(1), Duration.ofMillis(10));
+    BulkExecutor.Result<V1Job> result =
+        executor.execute(Arrays.asList(BulkExecutor.Operation.create(job("foo"))));
+
+    assertEquals(1, result.getSucceeded());
+    assertEquals(1, result.getRetries());
+    assertEquals(job("foo"), result.getItems().get(0).getResponse().getObject());
+    verify(2, postRequestedFor(urlEqualTo("/apis/batch/v1/namespaces/default/jobs")));
+  }
+
+  @Test
+  public void giveUpAfterMaxRetries() throws InterruptedException {
+    stubFor(
+        delete(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/foo"))
+            .willReturn(
+                aResponse()
+                    .withStatus(429)
+                    .withBody(json.serialize(new V1Status().kind("Status").code(429)))));
+
+    BulkExecutor<V1Job, V1JobList> executor =
+        new BulkExecutor<>(jobClient, 4, 2, Duration.ofMillis(1), Duration.ofMillis(10));
+    BulkExecutor.Result<V1Job> result =
+        executor.execute(Arrays.asList(BulkExecutor.Operation.delete("default", "foo")));
+
+    assertEquals(1, result.getFailed());
+    assertEquals(2, result.getRetries());
+    assertEquals(429, result.getItems().get(0).getResponse().getHttpStatusCode());
+    verify(3, deleteRequestedFor(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/foo")));
+  }
+
+  @Test
+  public void failedOperationDoesNotAbortOthers() throws InterruptedException {
+    V1Status notFound = new V1Status().kind("Status").code(404).reason("NotFound");
+    stubFor(
+        delete(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/foo"))
+            .willReturn(aResponse().withStatus(404).withBody(json.serialize(notFound))));
+    stubFor(
+        delete(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/bar"))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(job("bar")))));
+
+    BulkExecutor<V1Job, V1JobList> executor = new BulkExecutor<>(jobClient, 1);
+    BulkExecutor.Result<V1Job> result =
+        executor.execute(
+            Arrays.asList(
+                BulkExecutor.Operation.delete("default", "foo"),
+                BulkExecutor.Operation.delete("default", "bar")));
+
+    assertEquals(1, result.getSucceeded());
+    assertEquals(1, result.getFailed());
+    assertEquals(0, result.getRetries());
+    assertFalse(result.getItems().get(0).isSuccess());
+    assertEquals(notFound, result.getItems().get(0).getResponse().getStatus());
+    assertTrue(result.getItems().get(1).isSuccess());
+  }
+
+  private static V1Job job(String name) {
+    return new V1Job().kind("Job").metadata(new V1ObjectMeta().namespace("default").name(name));
+  }
+}
@@ -31,7 +31,9 @@ import io.kubernetes.client.util.Watchable;
 import io.kubernetes.client.util.generic.options.ListOptions;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import okhttp3.Dispatcher;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -203,6 +205,129 @@ public class GenericKubernetesApiTest {
             .withQueryParam("watch", equalTo("true")));
   }
 
+  @Test
+  public void watchNamespacedJobSendingInitialEvents() throws ApiException {
+    V1JobList jobList = new V1JobList().kind("JobList").metadata(new V1ListMeta());
+
+    stubFor(
+        get(urlPathEqualTo("/apis/batch/v1/namespaces/default/jobs"))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(jobList))));
+    ListOptions listOptions = new ListOptions();
+    listOptions.setAllowWatchBookmarks(true);
+    listOptions.setSendInitialEvents(true);
+    listOptions.setResourceVersionMatch("NotOlderThan");
+    Watchable<V1Job> jobListWatch = jobClient.watch("default", listOptions);
+    verify(
+        1,
+        getRequestedFor(urlPathEqualTo("/apis/batch/v1/namespaces/default/jobs"))
+            .withQueryParam("watch", equalTo("true"))
+            .withQueryParam("allowWatchBookmarks", equalTo("true"))
+            .withQueryParam("sendInitialEvents", equalTo("true"))
+            .withQueryParam("resourceVersionMatch", equalTo("NotOlderThan")));
+  }
+
+  @Test
+  public void getNamespacedJobAsyncReturningObject() throws Exception {
+    V1Job foo1 =
+        new V1Job().kind("Job").metadata(new V1ObjectMeta().namespace("default").name("foo1"));
+    stubFor(
+        get(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/foo1"))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(foo1))));
+
+    KubernetesApiResponse<V1Job> jobResp = jobClient.getAsync("default", "foo1").get();
+    assertTrue(jobResp.isSuccess());
+    assertEquals(foo1, jobResp.getObject());
+    assertNull(jobResp.getStatus());
+    verify(1, getRequestedFor(urlPathEqualTo("/apis/batch/v1/namespaces/default/jobs/foo1")));
+  }
+
+  @Test
+  public void getNamespacedJobAsyncReturningNotFoundStatus() throws Exception {
+    V1Status status = new V1Status().kind("Status").code(404).message("not found");
+    stubFor(
+        get(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/foo1"))
+            .willReturn(aResponse().withStatus(404).withBody(json.serialize(status))));
+
+    KubernetesApiResponse<V1Job> jobResp = jobClient.getAsync("default", "foo1").get();
+    assertFalse(jobResp.isSuccess());
+    assertEquals(status, jobResp.getStatus());
+    assertNull(jobResp.getObject());
+  }
+
+  @Test
+  public void listClusterJobAsyncReturningObject() throws Exception {
+    V1JobList jobList = new V1JobList().kind("JobList").metadata(new V1ListMeta());
+    stubFor(
+        get(urlPathEqualTo("/apis/batch/v1/jobs"))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(jobList))));
+
+    KubernetesApiResponse<V1JobList> jobListResp = jobClient.listAsync().get();
+    assertTrue(jobListResp.isSuccess());
+    assertEquals(jobList, jobListResp.getObject());
+    verify(1, getRequestedFor(urlPathEqualTo("/apis/batch/v1/jobs")));
+  }
+
+  @Test
+  public void createAndDeleteNamespacedJobAsyncReturningObject() throws Exception {
+    V1Job foo1 =
+        new V1Job().kind("Job").metadata(new V1ObjectMeta().namespace("default").name("foo1"));
+    stubFor(
+        post(urlEqualTo("/apis/batch/v1/namespaces/default/jobs"))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(foo1))));
+    stubFor(
+        delete(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/foo1"))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(foo1))));
+
+    KubernetesApiResponse<V1Job> deleteJobResp =
+        jobClient
+            .createAsync(foo1)
+            .thenCompose(created -> jobClient.deleteAsync("default", "foo1"))
+            .get();
+    assertTrue(deleteJobResp.isSuccess());
+    assertEquals(foo1, deleteJobResp.getObject());
+    verify(1, postRequestedFor(urlPathEqualTo("/apis/batch/v1/namespaces/default/jobs")));
+    verify(1, deleteRequestedFor(urlPathEqualTo("/apis/batch/v1/namespaces/default/jobs/foo1")));
+  }
+
+  @Test
+  public void patchNamespacedJobAsyncReturningObject() throws Exception {
+    V1Patch v1Patch = new V1Patch("{}");
+    V1Job foo1 =
+        new V1Job().kind("Job").metadata(new V1ObjectMeta().namespace("default").name("foo1"));
+    stubFor(
+        patch(urlEqualTo("/apis/batch/v1/namespaces/default/jobs/foo1"))
+            .withHeader("Content-Type", containing(V1Patch.PATCH_FORMAT_STRATEGIC_MERGE_PATCH))
+            .willReturn(aResponse().withStatus(200).withBody(json.serialize(foo1))));
+
+    KubernetesApiResponse<V1Job> jobPatchResp =
+        jobClient
+            .patchAsync("default", "foo1", V1Patch.PATCH_FORMAT_STRATEGIC_MERGE_PATCH, v1Patch)
+            .get();
+    assertTrue(jobPatchResp.isSuccess());
+    assertEquals(foo1, jobPatchResp.getObject());
+    verify(1, patchRequestedFor(urlPathEqualTo("/apis/batch/v1/namespaces/default/jobs/foo1")));
+  }
+
+  @Test
+  public void cancelAsyncRequestShouldCancelCall() throws Exception {
+    ApiClient apiClient = new ClientBuilder().setBasePath("http://localhost:" + 8181).build();
+    stubFor(
+        get(urlEqualTo("/apis/batch/v1/namespaces/foo/jobs/test"))
+            .willReturn(aResponse().withFixedDelay(99999).withStatus(200).withBody("")));
+    jobClient =
+        new GenericKubernetesApi<>(V1Job.class, V1JobList.class, "batch", "v1", "jobs", apiClient);
+
+    CompletableFuture<KubernetesApiResponse<V1Job>> future = jobClient.getAsync("foo", "test");
+    Dispatcher dispatcher = apiClient.getHttpClient().dispatcher();
+    assertEquals(1, dispatcher.runningCallsCount());
+    assertTrue(future.cancel(true));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (dispatcher.runningCallsCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, dispatcher.runningCallsCount());
+  }
+
   @Test
   public void testReadTimeoutShouldThrowException() {
     ApiClient apiClient = new ClientBuilder().setBasePath("http://localhost:" + 8181).build();